@@ -0,0 +1,307 @@
+package numbers;
+
+import java.math.BigInteger;
+
+/**
+ * An immutable rational number of unlimited size, used where exact results can outgrow
+ * {@link Rational}'s int fields, for example sums over very large data sets.
+ * Values are always kept in lowest terms with a positive denominator.
+ */
+public final class BigRational extends Number implements Comparable<BigRational> {
+
+  public static final long serialVersionUID = 1L;
+
+  /**
+   * The value 0.
+   */
+  public static final BigRational ZERO = new BigRational(BigInteger.ZERO, BigInteger.ONE);
+
+  /**
+   * The value 1.
+   */
+  public static final BigRational ONE = new BigRational(BigInteger.ONE, BigInteger.ONE);
+
+  private final BigInteger numerator;
+  private final BigInteger denominator;
+
+  private BigRational(BigInteger numerator, BigInteger denominator) {
+    this.numerator = numerator;
+    this.denominator = denominator;
+  }
+
+  /**
+   * Returns a/b in lowest terms.
+   *
+   * @param a The numerator.
+   * @param b The denominator. Must not be zero.
+   * @return The value a/b.
+   * @throws IllegalArgumentException If b is 0.
+   */
+  public static BigRational of(BigInteger a, BigInteger b) {
+    if (b.signum() == 0) {
+      throw new IllegalArgumentException("Denominator cannot be zero.");
+    }
+    if (b.signum() < 0) {
+      a = a.negate();
+      b = b.negate();
+    }
+    BigInteger gcd = a.gcd(b);
+    if (!gcd.equals(BigInteger.ONE)) {
+      a = a.divide(gcd);
+      b = b.divide(gcd);
+    }
+    return new BigRational(a, b);
+  }
+
+  /**
+   * Returns a/b in lowest terms.
+   *
+   * @param a The numerator.
+   * @param b The denominator. Must not be zero.
+   * @return The value a/b.
+   * @throws IllegalArgumentException If b is 0.
+   */
+  public static BigRational valueOf(long a, long b) {
+    if (b == 0) {
+      throw new IllegalArgumentException("Denominator cannot be zero.");
+    }
+    if (a == Long.MIN_VALUE || b == Long.MIN_VALUE) {
+      return of(BigInteger.valueOf(a), BigInteger.valueOf(b));
+    }
+    long gcd = Fractions.gcd(a, b);
+    a /= gcd;
+    b /= gcd;
+    if (b < 0) {
+      a = -a;
+      b = -b;
+    }
+    return new BigRational(BigInteger.valueOf(a), BigInteger.valueOf(b));
+  }
+
+  /**
+   * Returns the value of r.
+   *
+   * @param r The value to convert.
+   * @return The same value as a BigRational.
+   */
+  public static BigRational valueOf(Rational r) {
+    return valueOf(r.numerator, r.denominator);
+  }
+
+  /**
+   * Returns the numerator, which carries the sign.
+   *
+   * @return The numerator.
+   */
+  public BigInteger getNumerator() {
+    return numerator;
+  }
+
+  /**
+   * Returns the denominator, which is always positive.
+   *
+   * @return The denominator.
+   */
+  public BigInteger getDenominator() {
+    return denominator;
+  }
+
+  /**
+   * Returns the sum of this value and r.
+   *
+   * @param r The value to add.
+   * @return The exact sum.
+   */
+  public BigRational plus(BigRational r) {
+    if (denominator.equals(r.denominator)) {
+      return of(numerator.add(r.numerator), denominator);
+    }
+    return of(
+      numerator.multiply(r.denominator).add(r.numerator.multiply(denominator)),
+      denominator.multiply(r.denominator)
+    );
+  }
+
+  /**
+   * Returns the difference between this value and r.
+   *
+   * @param r The value to subtract.
+   * @return The exact difference.
+   */
+  public BigRational minus(BigRational r) {
+    return plus(r.opposite());
+  }
+
+  /**
+   * Returns the product of this value and r.
+   *
+   * @param r The value to multiply by.
+   * @return The exact product.
+   */
+  public BigRational times(BigRational r) {
+    return of(
+      numerator.multiply(r.numerator),
+      denominator.multiply(r.denominator)
+    );
+  }
+
+  /**
+   * Returns the quotient of this value and r.
+   *
+   * @param r The value to divide by.
+   * @return The exact quotient.
+   * @throws IllegalArgumentException If r is 0.
+   */
+  public BigRational dividedBy(BigRational r) {
+    if (r.signum() == 0) {
+      throw new IllegalArgumentException("Cannot divide by Rational number 0.");
+    }
+    return of(
+      numerator.multiply(r.denominator),
+      denominator.multiply(r.numerator)
+    );
+  }
+
+  /**
+   * Returns the additive inverse of this value.
+   *
+   * @return The additive inverse.
+   */
+  public BigRational opposite() {
+    return new BigRational(numerator.negate(), denominator);
+  }
+
+  /**
+   * Returns the sign of this value.
+   *
+   * @return -1, 0 or 1 as this value is negative, zero or positive.
+   */
+  public int signum() {
+    return numerator.signum();
+  }
+
+  /**
+   * Converts this value to a {@link Rational}.
+   *
+   * @return An equal Rational.
+   * @throws IllegalArgumentException If the numerator or denominator does not fit in an int.
+   */
+  public Rational toRational() {
+    if (numerator.bitLength() > 31 || denominator.bitLength() > 31) {
+      throw new IllegalArgumentException("Integer overflow.");
+    }
+    return new Rational(numerator.intValue(), denominator.intValue());
+  }
+
+  /**
+   * Returns the value truncated towards zero, as an int. Like a narrowing conversion, only the low 32
+   * bits of the truncated value are kept.
+   *
+   * @return The truncated value.
+   */
+  @Override
+  public int intValue() {
+    return numerator.divide(denominator).intValue();
+  }
+
+  /**
+   * Returns the value truncated towards zero, as a long. Like a narrowing conversion, only the low 64
+   * bits of the truncated value are kept.
+   *
+   * @return The truncated value.
+   */
+  @Override
+  public long longValue() {
+    return numerator.divide(denominator).longValue();
+  }
+
+  /**
+   * Returns the value as a float, rounded from {@link #doubleValue()}.
+   *
+   * @return The value as a float.
+   */
+  @Override
+  public float floatValue() {
+    return (float) doubleValue();
+  }
+
+  /**
+   * Returns the double nearest to this value, or an infinity if it is out of range.
+   *
+   * @return The value as a double.
+   */
+  @Override
+  public double doubleValue() {
+    if (numerator.signum() == 0) {
+      return 0.0;
+    }
+    BigInteger magnitude = numerator.abs();
+    // Scale so that the integer quotient has 62 or 63 bits, then fold the remainder into a sticky bit,
+    // so that the single rounding in the long-to-double conversion is the correct one.
+    int shift = 62 + denominator.bitLength() - magnitude.bitLength();
+    BigInteger[] quotient = shift >= 0
+      ? magnitude.shiftLeft(shift).divideAndRemainder(denominator)
+      : magnitude.divideAndRemainder(denominator.shiftLeft(-shift));
+    long bits = quotient[0].longValue();
+    if (quotient[1].signum() != 0) {
+      bits |= 1;
+    }
+    double result = Math.scalb((double) bits, -shift);
+    return numerator.signum() < 0 ? -result : result;
+  }
+
+  /**
+   * Compares this value with r exactly.
+   *
+   * @param r The value to compare with.
+   * @return A negative integer, zero, or a positive integer as this value is less than, equal to, or
+   *         greater than r.
+   */
+  @Override
+  public int compareTo(BigRational r) {
+    if (signum() != r.signum()) {
+      return Integer.compare(signum(), r.signum());
+    }
+    return numerator
+      .multiply(r.denominator)
+      .compareTo(r.numerator.multiply(denominator));
+  }
+
+  /**
+   * Indicates whether o is a BigRational with the same value.
+   *
+   * @param o The reference object with which to compare.
+   * @return true if o is a BigRational equal to this value; false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof BigRational)) return false;
+    BigRational r = (BigRational) o;
+    return numerator.equals(r.numerator) && denominator.equals(r.denominator);
+  }
+
+  /**
+   * Returns a hash code consistent with {@link #equals(Object)}.
+   *
+   * @return The hash code.
+   */
+  @Override
+  public int hashCode() {
+    return 31 * numerator.hashCode() + denominator.hashCode();
+  }
+
+  /**
+   * Returns a string representation of this value, like {@link Rational#toString()}.
+   * Whole numbers are represented without a denominator.
+   *
+   * @return A string representation of this value.
+   */
+  @Override
+  public String toString() {
+    if (denominator.equals(BigInteger.ONE)) {
+      return numerator.toString();
+    }
+    return numerator + "/" + denominator;
+  }
+}
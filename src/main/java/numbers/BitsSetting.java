@@ -0,0 +1,66 @@
+package numbers;
+
+import java.util.Set;
+import jdk.jfr.SettingControl;
+
+/**
+ * The "minimumBits" setting of {@link LargeTermEvent}. When several recordings set it, the smallest
+ * value wins, so that every recording sees at least the terms it asked for.
+ */
+final class BitsSetting extends SettingControl {
+
+  static final int DEFAULT_BITS = 32;
+
+  private volatile int minimumBits = DEFAULT_BITS;
+
+  private volatile String combined = String.valueOf(DEFAULT_BITS);
+
+  /**
+   * Returns the smallest of the values set by the running recordings.
+   *
+   * @param values The values set by the recordings.
+   * @return The value to use.
+   */
+  @Override
+  public String combine(Set<String> values) {
+    int result = Integer.MAX_VALUE;
+    for (String value : values) {
+      result = Math.min(result, parse(value));
+    }
+    combined = String.valueOf(result == Integer.MAX_VALUE ? DEFAULT_BITS : result);
+    return combined;
+  }
+
+  /**
+   * Applies the combined value. Some runtimes drop the result of {@link #combine(Set)} for settings
+   * defined outside the JDK and pass null instead, so null applies the value last combined.
+   *
+   * @param value The minimum number of bits, or null.
+   */
+  @Override
+  public void setValue(String value) {
+    minimumBits = parse(value == null ? combined : value);
+  }
+
+  /**
+   * Returns the minimum number of bits in effect.
+   *
+   * @return The minimum number of bits.
+   */
+  @Override
+  public String getValue() {
+    return String.valueOf(minimumBits);
+  }
+
+  boolean accepts(int bits) {
+    return bits >= minimumBits;
+  }
+
+  private static int parse(String value) {
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      return DEFAULT_BITS;
+    }
+  }
+}
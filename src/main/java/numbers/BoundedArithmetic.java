@@ -0,0 +1,188 @@
+package numbers;
+
+/**
+ * An arithmetic context that keeps every result's denominator at or below a fixed limit.
+ * Each operation is computed exactly in long arithmetic and, if the exact result does not fit,
+ * it is snapped to the closest fraction whose denominator is at most the limit (the same rule as Python's
+ * Fraction.limit_denominator). This keeps long-running iterations in int arithmetic, at the cost of a
+ * rounding error that is reported after every step.
+ * A context is not thread-safe; use one per thread.
+ */
+public class BoundedArithmetic {
+
+  private final int maxDenominator;
+  private double lastErrorBound;
+  private double totalErrorBound;
+  private long snapCount;
+
+  /**
+   * Constructs a context that limits denominators to maxDenominator.
+   *
+   * @param maxDenominator The largest denominator a result may have. Must be positive.
+   * @throws IllegalArgumentException If maxDenominator is not positive.
+   */
+  public BoundedArithmetic(int maxDenominator) {
+    if (maxDenominator < 1) {
+      throw new IllegalArgumentException("Maximum denominator must be positive.");
+    }
+    this.maxDenominator = maxDenominator;
+  }
+
+  /**
+   * Returns the largest denominator a result may have.
+   *
+   * @return The denominator limit.
+   */
+  public int getMaxDenominator() {
+    return maxDenominator;
+  }
+
+  /**
+   * Returns an upper bound on the rounding error of the most recent operation.
+   * The bound is 0 if that result was exact.
+   *
+   * @return The absolute error bound of the last step.
+   */
+  public double getLastErrorBound() {
+    return lastErrorBound;
+  }
+
+  /**
+   * Returns the sum of the error bounds of all operations since construction or the last {@link #reset()}.
+   * This is the rounding error introduced by the context; it does not account for how later operations
+   * amplify earlier errors.
+   *
+   * @return The accumulated error bound.
+   */
+  public double getTotalErrorBound() {
+    return totalErrorBound;
+  }
+
+  /**
+   * Returns how many results had to be rounded since construction or the last {@link #reset()}.
+   *
+   * @return The number of inexact results.
+   */
+  public long getSnapCount() {
+    return snapCount;
+  }
+
+  /**
+   * Clears the error bounds and the snap count.
+   */
+  public void reset() {
+    lastErrorBound = 0;
+    totalErrorBound = 0;
+    snapCount = 0;
+  }
+
+  /**
+   * Returns the value of r with its denominator limited by this context.
+   *
+   * @param r The value to bound.
+   * @return A new Rational equal to r if its reduced denominator is within the limit, otherwise the
+   *         closest allowed fraction.
+   */
+  public Rational snap(Rational r) {
+    return bound(r.numerator, r.denominator);
+  }
+
+  /**
+   * Returns the sum a + b with its denominator limited by this context.
+   *
+   * @param a The first operand.
+   * @param b The second operand.
+   * @return The exact sum if it fits, otherwise the closest allowed fraction.
+   * @throws IllegalArgumentException If the sum is outside the int range.
+   */
+  public Rational plus(Rational a, Rational b) {
+    return add(a, b.numerator, b.denominator);
+  }
+
+  /**
+   * Returns the difference a - b with its denominator limited by this context.
+   *
+   * @param a The first operand.
+   * @param b The second operand.
+   * @return The exact difference if it fits, otherwise the closest allowed fraction.
+   * @throws IllegalArgumentException If the difference is outside the int range.
+   */
+  public Rational minus(Rational a, Rational b) {
+    return add(a, -(long) b.numerator, b.denominator);
+  }
+
+  /**
+   * Returns the product a * b with its denominator limited by this context.
+   *
+   * @param a The first operand.
+   * @param b The second operand.
+   * @return The exact product if it fits, otherwise the closest allowed fraction.
+   * @throws IllegalArgumentException If the product is outside the int range.
+   */
+  public Rational times(Rational a, Rational b) {
+    return bound(
+      (long) a.numerator * b.numerator,
+      (long) a.denominator * b.denominator
+    );
+  }
+
+  /**
+   * Returns the quotient a / b with its denominator limited by this context.
+   *
+   * @param a The dividend.
+   * @param b The divisor.
+   * @return The exact quotient if it fits, otherwise the closest allowed fraction.
+   * @throws IllegalArgumentException If b is 0 or the quotient is outside the int range.
+   */
+  public Rational dividedBy(Rational a, Rational b) {
+    if (b.numerator == 0) {
+      throw new IllegalArgumentException("Cannot divide by Rational number 0.");
+    }
+    return bound(
+      (long) a.numerator * b.denominator,
+      (long) a.denominator * b.numerator
+    );
+  }
+
+  private Rational add(Rational a, long c, long d) {
+    long b = a.denominator;
+    long g = Fractions.gcd(b, d);
+    // Both products are at most 2^62 in magnitude, and only -2^31 * -2^31 reaches 2^62. The two cannot
+    // both do so, as b and d would then share the factor 2^31, so the sum fits in a long.
+    long n = a.numerator * (d / g) + c * (b / g);
+    return bound(n, b * (d / g));
+  }
+
+  /**
+   * Reduces n/d and snaps it to the closest fraction allowed by this context, recording the error.
+   * Callers pass terms that are larger than Long.MIN_VALUE in magnitude, so they can be negated.
+   */
+  private Rational bound(long n, long d) {
+    if (d < 0) {
+      n = -n;
+      d = -d;
+    }
+    long g = Fractions.gcd(n, d);
+    n /= g;
+    d /= g;
+    if (
+      d <= maxDenominator && n >= Integer.MIN_VALUE && n <= Integer.MAX_VALUE
+    ) {
+      lastErrorBound = 0;
+      return new Rational((int) n, (int) d);
+    }
+    long maxP = n < 0 ? 1L << 31 : Integer.MAX_VALUE;
+    long packed = Fractions.bestApproximation(
+      Math.abs(n),
+      d,
+      maxP,
+      maxDenominator
+    );
+    long p = n < 0 ? -(packed >>> 32) : packed >>> 32;
+    long q = packed & 0xFFFFFFFFL;
+    lastErrorBound = Fractions.errorBound(n, d, p, q);
+    totalErrorBound += lastErrorBound;
+    snapCount++;
+    return new Rational((int) p, (int) q);
+  }
+}
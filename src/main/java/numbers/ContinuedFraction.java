@@ -0,0 +1,450 @@
+package numbers;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A real number held as a lazily expanded simple continued fraction [a0; a1, a2, ...], with a0 any
+ * integer and every later term positive. Rationals have finite expansions; {@link #sqrt(Rational)} and
+ * the arithmetic of irrational operands give infinite ones, of which only the terms asked for are ever
+ * computed.
+ *
+ * <p>Sums, differences, products and quotients use Gosper's bihomographic algorithm: the result is kept
+ * as (axy + bx + cy + d) / (exy + fx + gy + h) in the unread tails x and y of the operands, and a term is
+ * emitted as soon as all four corners of that expression agree on its integer part, so operands are read
+ * only as far as the precision consumed requires. When the exact result is an integer boundary, as in
+ * sqrt(2) * sqrt(2), no finite number of operand terms decides the next term; such terms fail after
+ * {@link #MAX_INGESTIONS} operand terms.
+ *
+ * <p>Instances are immutable in value and safe to share between threads; computed terms are cached.
+ */
+public final class ContinuedFraction {
+
+  /**
+   * The most operand terms read while deciding a single term of a sum, difference, product or
+   * quotient.
+   */
+  static final int MAX_INGESTIONS = 2000;
+
+  private final Terms source;
+  private final List<BigInteger> terms = new ArrayList<>();
+  private final List<BigInteger> numerators = new ArrayList<>();
+  private final List<BigInteger> denominators = new ArrayList<>();
+  private boolean ended;
+
+  private ContinuedFraction(Terms source) {
+    this.source = source;
+  }
+
+  /**
+   * Returns the finite expansion of r.
+   *
+   * @param r The value.
+   * @return The continued fraction of r.
+   */
+  public static ContinuedFraction of(Rational r) {
+    return of(BigRational.valueOf(r));
+  }
+
+  /**
+   * Returns the finite expansion of r.
+   *
+   * @param r The value.
+   * @return The continued fraction of r.
+   */
+  public static ContinuedFraction of(BigRational r) {
+    return new ContinuedFraction(new Euclid(r.getNumerator(), r.getDenominator()));
+  }
+
+  /**
+   * Returns the square root of r, whose expansion is periodic unless r is the square of a rational.
+   * With r = p/q in lowest terms, sqrt(r) = sqrt(pq)/q, a quadratic irrational whose terms follow from
+   * the usual recurrence on integers.
+   *
+   * @param r The value. Must not be negative.
+   * @return The continued fraction of the square root of r.
+   * @throws IllegalArgumentException If r is negative.
+   */
+  public static ContinuedFraction sqrt(Rational r) {
+    BigRational value = BigRational.valueOf(r);
+    if (value.signum() < 0) {
+      throw new IllegalArgumentException("Cannot take the square root of a negative number.");
+    }
+    BigInteger q = value.getDenominator();
+    BigInteger d = value.getNumerator().multiply(q);
+    BigInteger root = isqrt(d);
+    if (root.multiply(root).equals(d)) {
+      return of(BigRational.of(root, q));
+    }
+    return new ContinuedFraction(new QuadraticIrrational(d, root, q));
+  }
+
+  /**
+   * Returns the sum of this value and x.
+   *
+   * @param x The value to add.
+   * @return A lazy expansion of the sum.
+   */
+  public ContinuedFraction plus(ContinuedFraction x) {
+    return combine(x, 0, 1, 1, 0, 0, 0, 0, 1);
+  }
+
+  /**
+   * Returns the difference between this value and x.
+   *
+   * @param x The value to subtract.
+   * @return A lazy expansion of the difference.
+   */
+  public ContinuedFraction minus(ContinuedFraction x) {
+    return combine(x, 0, 1, -1, 0, 0, 0, 0, 1);
+  }
+
+  /**
+   * Returns the product of this value and x.
+   *
+   * @param x The value to multiply by.
+   * @return A lazy expansion of the product.
+   */
+  public ContinuedFraction times(ContinuedFraction x) {
+    return combine(x, 1, 0, 0, 0, 0, 0, 0, 1);
+  }
+
+  /**
+   * Returns the quotient of this value and x. Division by zero is only detected when the first term of
+   * the quotient is computed.
+   *
+   * @param x The value to divide by.
+   * @return A lazy expansion of the quotient.
+   */
+  public ContinuedFraction dividedBy(ContinuedFraction x) {
+    return combine(x, 0, 1, 0, 0, 0, 0, 1, 0);
+  }
+
+  private ContinuedFraction combine(ContinuedFraction y, long... coefficients) {
+    BigInteger[] state = new BigInteger[8];
+    for (int i = 0; i < 8; i++) {
+      state[i] = BigInteger.valueOf(coefficients[i]);
+    }
+    return new ContinuedFraction(new Bihomographic(this, y, state));
+  }
+
+  /**
+   * Returns term i of the expansion, computing it and every earlier term if needed.
+   *
+   * @param i The index, from 0.
+   * @return The term, or null if the expansion has fewer than i + 1 terms.
+   * @throws IllegalArgumentException If this value is a quotient by zero.
+   * @throws IllegalStateException If an operand term limit is reached while deciding the term.
+   */
+  public synchronized BigInteger getTerm(int i) {
+    while (terms.size() <= i && !ended) {
+      BigInteger term = source.next();
+      if (term == null) {
+        ended = true;
+        if (terms.isEmpty()) {
+          throw new IllegalArgumentException("Cannot divide by zero.");
+        }
+        break;
+      }
+      int n = terms.size();
+      BigInteger p1 = n > 0 ? numerators.get(n - 1) : BigInteger.ONE;
+      BigInteger q1 = n > 0 ? denominators.get(n - 1) : BigInteger.ZERO;
+      BigInteger p2 = n > 1 ? numerators.get(n - 2) : n > 0 ? BigInteger.ONE : BigInteger.ZERO;
+      BigInteger q2 = n > 1 ? denominators.get(n - 2) : n > 0 ? BigInteger.ZERO : BigInteger.ONE;
+      terms.add(term);
+      numerators.add(term.multiply(p1).add(p2));
+      denominators.add(term.multiply(q1).add(q2));
+    }
+    return i < terms.size() ? terms.get(i) : null;
+  }
+
+  /**
+   * Returns convergent i, the value of the expansion cut after term i, or the exact value if the
+   * expansion has fewer terms.
+   *
+   * @param i The index, from 0.
+   * @return The convergent in lowest terms.
+   * @throws IllegalArgumentException If this value is a quotient by zero.
+   * @throws IllegalStateException If an operand term limit is reached while deciding a term.
+   */
+  public synchronized BigRational convergent(int i) {
+    getTerm(i);
+    int k = Math.min(i, terms.size() - 1);
+    return BigRational.of(numerators.get(k), denominators.get(k));
+  }
+
+  /**
+   * Returns the first convergent within tolerance of this value, computing only as many terms as that
+   * requires. Convergent i is within 1 / (q_i q_(i+1)) of the value, where q_i is its denominator.
+   *
+   * @param tolerance The largest acceptable error. Must be positive.
+   * @return A convergent within tolerance, or the exact value.
+   * @throws IllegalArgumentException If tolerance is not positive, or this value is a quotient by zero.
+   * @throws IllegalStateException If an operand term limit is reached while deciding a term.
+   */
+  public synchronized BigRational approximate(BigRational tolerance) {
+    if (tolerance.signum() <= 0) {
+      throw new IllegalArgumentException("Tolerance must be positive.");
+    }
+    for (int i = 0; ; i++) {
+      if (getTerm(i + 1) == null) {
+        return convergent(i);
+      }
+      BigInteger bound = denominators.get(i).multiply(denominators.get(i + 1));
+      if (tolerance.getNumerator().multiply(bound).compareTo(tolerance.getDenominator()) >= 0) {
+        return convergent(i);
+      }
+    }
+  }
+
+  /**
+   * Returns the first terms of the expansion, like "[1; 2, 2, 2, 2, 2, 2, 2, 2, 2, ...]" for the square
+   * root of 2 or "[3; 7, 16]" for 355/113.
+   *
+   * @return A string representation of this value.
+   */
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("[").append(getTerm(0));
+    for (int i = 1; i < 10 && getTerm(i) != null; i++) {
+      result.append(i == 1 ? "; " : ", ").append(getTerm(i));
+    }
+    if (getTerm(10) != null) {
+      result.append(", ...");
+    }
+    return result.append(']').toString();
+  }
+
+  /**
+   * Returns floor(a / b) for b not zero.
+   */
+  private static BigInteger floorDiv(BigInteger a, BigInteger b) {
+    BigInteger[] qr = a.divideAndRemainder(b);
+    return qr[1].signum() != 0 && qr[1].signum() != b.signum() ? qr[0].subtract(BigInteger.ONE) : qr[0];
+  }
+
+  /**
+   * Returns floor(sqrt(n)) for n not negative, by Newton's iteration from above.
+   */
+  private static BigInteger isqrt(BigInteger n) {
+    if (n.signum() == 0) {
+      return n;
+    }
+    BigInteger x = BigInteger.ONE.shiftLeft((n.bitLength() + 1) / 2);
+    while (true) {
+      BigInteger y = x.add(n.divide(x)).shiftRight(1);
+      if (y.compareTo(x) >= 0) {
+        return x;
+      }
+      x = y;
+    }
+  }
+
+  /**
+   * Produces the terms of an expansion one at a time.
+   */
+  private interface Terms {
+
+    /**
+     * Returns the next term, or null once the expansion has ended.
+     */
+    BigInteger next();
+  }
+
+  /**
+   * The terms of p/q, by Euclid's algorithm.
+   */
+  private static final class Euclid implements Terms {
+
+    private BigInteger p;
+    private BigInteger q;
+
+    Euclid(BigInteger p, BigInteger q) {
+      this.p = p;
+      this.q = q;
+    }
+
+    @Override
+    public BigInteger next() {
+      if (q.signum() == 0) {
+        return null;
+      }
+      BigInteger term = floorDiv(p, q);
+      BigInteger r = p.subtract(term.multiply(q));
+      p = q;
+      q = r;
+      return term;
+    }
+  }
+
+  /**
+   * The terms of (p + sqrt(d)) / q, where q divides d - p^2 and d is not a square: the term is
+   * floor((p + floor(sqrt(d))) / q), after which p becomes term q - p and q becomes (d - p^2) / q.
+   */
+  private static final class QuadraticIrrational implements Terms {
+
+    private final BigInteger d;
+    private final BigInteger root;
+    private BigInteger p = BigInteger.ZERO;
+    private BigInteger q;
+
+    QuadraticIrrational(BigInteger d, BigInteger root, BigInteger q) {
+      this.d = d;
+      this.root = root;
+      this.q = q;
+    }
+
+    @Override
+    public BigInteger next() {
+      BigInteger term = floorDiv(p.add(root), q);
+      p = term.multiply(q).subtract(p);
+      q = d.subtract(p.multiply(p)).divide(q);
+      return term;
+    }
+  }
+
+  /**
+   * Gosper's algorithm for z = (axy + bx + cy + d) / (exy + fx + gy + h), where x and y are the unread
+   * tails of two expansions. Once the first term of each operand has been read the tails exceed 1, so z
+   * lies between the values at the corners x, y in {0, infinity}: a/e, b/f, c/g and d/h. A term is
+   * emitted when these share an integer part; otherwise a term is read from the operand that spreads
+   * them more.
+   */
+  private static final class Bihomographic implements Terms {
+
+    private final ContinuedFraction x;
+    private final ContinuedFraction y;
+    private final BigInteger[] s;
+    private int xIndex;
+    private int yIndex;
+    private boolean xEnded;
+    private boolean yEnded;
+    private boolean preferX;
+
+    Bihomographic(ContinuedFraction x, ContinuedFraction y, BigInteger[] state) {
+      this.x = x;
+      this.y = y;
+      this.s = state;
+    }
+
+    @Override
+    public BigInteger next() {
+      for (int ingestions = 0; ; ingestions++) {
+        if (xIndex > 0 && yIndex > 0) {
+          if (s[4].signum() == 0 && s[5].signum() == 0 && s[6].signum() == 0 && s[7].signum() == 0) {
+            return null;
+          }
+          BigInteger term = commonFloor();
+          if (term != null) {
+            // z = term + 1 / z': the new numerator is the old denominator.
+            for (int i = 0; i < 4; i++) {
+              BigInteger numerator = s[i];
+              s[i] = s[i + 4];
+              s[i + 4] = numerator.subtract(term.multiply(s[i + 4]));
+            }
+            return term;
+          }
+        }
+        if (ingestions == MAX_INGESTIONS) {
+          throw new IllegalStateException("Term cannot be decided within the ingestion limit.");
+        }
+        if (xIndex == 0 || (yIndex > 0 && !xEnded && (yEnded || readX()))) {
+          ingestX();
+        } else {
+          ingestY();
+        }
+      }
+    }
+
+    /**
+     * Returns the integer part shared by the corners that still depend on unread input, or null if they
+     * disagree, a denominator is zero, or the denominators differ in sign.
+     */
+    private BigInteger commonFloor() {
+      BigInteger term = null;
+      int sign = 0;
+      for (int corner = 0; corner < 4; corner++) {
+        if ((xEnded && (corner == 0 || corner == 1)) || (yEnded && (corner == 0 || corner == 2))) {
+          continue;
+        }
+        BigInteger denominator = s[corner + 4];
+        if (denominator.signum() == 0 || (sign != 0 && denominator.signum() != sign)) {
+          return null;
+        }
+        sign = denominator.signum();
+        BigInteger floor = floorDiv(s[corner], denominator);
+        if (term != null && !term.equals(floor)) {
+          return null;
+        }
+        term = floor;
+      }
+      return term;
+    }
+
+    /**
+     * Decides whether x spreads the corners more than y, comparing x-differences a/e - c/g and
+     * b/f - d/h with y-differences a/e - b/f and c/g - d/h in doubles; when those are not finite,
+     * alternates between the operands.
+     */
+    private boolean readX() {
+      double[] corner = new double[4];
+      for (int i = 0; i < 4; i++) {
+        corner[i] = s[i].doubleValue() / s[i + 4].doubleValue();
+      }
+      double xSpread = Math.abs(corner[0] - corner[2]) + Math.abs(corner[1] - corner[3]);
+      double ySpread = Math.abs(corner[0] - corner[1]) + Math.abs(corner[2] - corner[3]);
+      if (Double.isNaN(xSpread) || Double.isNaN(ySpread) || xSpread == ySpread) {
+        preferX = !preferX;
+        return preferX;
+      }
+      return xSpread > ySpread;
+    }
+
+    /**
+     * Substitutes x = p + 1/x' for the next term p, or x = infinity once x has ended.
+     */
+    private void ingestX() {
+      BigInteger p = x.getTerm(xIndex++);
+      for (int i = 0; i < 8; i += 4) {
+        BigInteger a = s[i];
+        BigInteger b = s[i + 1];
+        if (p == null) {
+          s[i] = BigInteger.ZERO;
+          s[i + 1] = BigInteger.ZERO;
+          s[i + 2] = a;
+          s[i + 3] = b;
+        } else {
+          s[i] = a.multiply(p).add(s[i + 2]);
+          s[i + 1] = b.multiply(p).add(s[i + 3]);
+          s[i + 2] = a;
+          s[i + 3] = b;
+        }
+      }
+      xEnded = p == null;
+    }
+
+    /**
+     * Substitutes y = q + 1/y' for the next term q, or y = infinity once y has ended.
+     */
+    private void ingestY() {
+      BigInteger q = y.getTerm(yIndex++);
+      for (int i = 0; i < 8; i += 4) {
+        BigInteger a = s[i];
+        BigInteger c = s[i + 2];
+        if (q == null) {
+          s[i] = BigInteger.ZERO;
+          s[i + 1] = a;
+          s[i + 2] = BigInteger.ZERO;
+          s[i + 3] = c;
+        } else {
+          s[i] = a.multiply(q).add(s[i + 1]);
+          s[i + 1] = a;
+          s[i + 2] = c.multiply(q).add(s[i + 3]);
+          s[i + 3] = c;
+        }
+      }
+      yEnded = q == null;
+    }
+  }
+}
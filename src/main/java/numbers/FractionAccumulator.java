@@ -0,0 +1,122 @@
+package numbers;
+
+/**
+ * An exact running sum of fractions. The sum is kept as a long numerator over the least common multiple
+ * of the denominators seen so far, which stays small when the data uses a few recurring denominators, and
+ * is only promoted to a {@link BigRational} when that no longer fits in a long. Adding a fraction with
+ * the current denominator, or one dividing it, costs one division and no allocation.
+ *
+ * <p>Accumulators are not thread-safe; give each thread its own and combine them with
+ * {@link #add(FractionAccumulator)}.
+ */
+final class FractionAccumulator {
+
+  private long numerator;
+  private long denominator = 1;
+  private BigRational promoted;
+
+  /**
+   * Adds a/b.
+   *
+   * @param a The numerator.
+   * @param b The denominator. Must be positive.
+   */
+  void add(long a, long b) {
+    if (promoted != null) {
+      promoted = promoted.plus(BigRational.valueOf(a, b));
+      return;
+    }
+    if (b == denominator) {
+      long sum = numerator + a;
+      if (((numerator ^ sum) & (a ^ sum)) >= 0) {
+        numerator = sum;
+        return;
+      }
+    } else if (addToCommonMultiple(a, b)) {
+      return;
+    }
+    // Cancel any common factor the numerator has picked up before giving up on longs.
+    long g = Fractions.gcd(numerator, denominator);
+    if (g > 1) {
+      numerator /= g;
+      denominator /= g;
+      if (addToCommonMultiple(a, b)) {
+        return;
+      }
+    }
+    promote();
+    promoted = promoted.plus(BigRational.valueOf(a, b));
+  }
+
+  /**
+   * Adds another exact value.
+   *
+   * @param value The value to add.
+   */
+  void add(BigRational value) {
+    if (promoted == null) {
+      promote();
+    }
+    promoted = promoted.plus(value);
+  }
+
+  /**
+   * Adds the sum held by other, which is left unchanged.
+   *
+   * @param other The accumulator to merge into this one.
+   */
+  void add(FractionAccumulator other) {
+    if (other.promoted != null) {
+      add(other.promoted);
+    } else {
+      add(other.numerator, other.denominator);
+    }
+  }
+
+  /**
+   * Returns whether the sum has outgrown long arithmetic.
+   *
+   * @return true if the sum is held as a BigRational.
+   */
+  boolean isPromoted() {
+    return promoted != null;
+  }
+
+  /**
+   * Returns the sum in lowest terms.
+   *
+   * @return The exact sum.
+   */
+  BigRational toBigRational() {
+    return promoted != null
+      ? promoted
+      : BigRational.valueOf(numerator, denominator);
+  }
+
+  /**
+   * Adds a/b over the least common multiple of b and the current denominator, if that fits in a long.
+   */
+  private boolean addToCommonMultiple(long a, long b) {
+    long g = Fractions.gcd(denominator, b);
+    long scale = b / g;
+    try {
+      long common = Math.multiplyExact(denominator, scale);
+      long sum = Math.addExact(
+        Math.multiplyExact(numerator, scale),
+        Math.multiplyExact(a, denominator / g)
+      );
+      numerator = sum;
+      denominator = common;
+      return true;
+    } catch (ArithmeticException e) {
+      return false;
+    }
+  }
+
+  private void promote() {
+    promoted = BigRational.valueOf(numerator, denominator);
+    if (RationalEvents.recording) {
+      RationalEvents.overflow("SUM", "PROMOTED", numerator, denominator, 0, 1);
+    }
+  }
+}
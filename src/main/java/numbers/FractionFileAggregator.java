@@ -0,0 +1,558 @@
+package numbers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A command-line tool that aggregates a text file of fractions in one pass: exact count, sum, mean,
+ * minimum and maximum, plus a histogram. Each line holds one value written as "a/b" or "a", with an
+ * optional sign and surrounding blanks; blank lines are skipped and both LF and CRLF line ends are accepted.
+ *
+ * <p>The file is split into chunks on line boundaries, and the chunks are memory-mapped and parsed in
+ * parallel straight from the mapped bytes, without creating a String or Rational per line. Each chunk keeps
+ * its own {@link FractionAccumulator}, and the partial results are merged at the end.
+ *
+ * <p>Usage: {@code java numbers.FractionFileAggregator <file> [<low> <high> <bins>]}. The histogram covers
+ * [low, high) in equal-width bins, [0, 1) in 10 bins by default, and counts values outside it separately.
+ */
+public final class FractionFileAggregator {
+
+  /**
+   * The largest chunk size aimed for. A chunk is extended to the end of its last line, which keeps it well
+   * inside the int-indexed range of a mapped buffer unless a single line is gigabytes long.
+   */
+  static final long MAX_CHUNK_SIZE = 1L << 28;
+
+  private static final long MIN_CHUNK_SIZE = 1L << 20;
+  private static final int BOUNDARY_SCAN_SIZE = 1 << 12;
+
+  private FractionFileAggregator() {}
+
+  /**
+   * Runs the tool and prints the summary and throughput to standard output.
+   *
+   * @param args The file name, optionally followed by the histogram's low and high bounds and bin count.
+   * @throws IOException If the file cannot be read.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1 && args.length != 4) {
+      System.err.println(
+        "Usage: java numbers.FractionFileAggregator <file> [<low> <high> <bins>]"
+      );
+      System.exit(2);
+    }
+    double low = args.length == 4 ? Double.parseDouble(args[1]) : 0;
+    double high = args.length == 4 ? Double.parseDouble(args[2]) : 1;
+    int bins = args.length == 4 ? Integer.parseInt(args[3]) : 10;
+    long start = System.nanoTime();
+    Summary summary = aggregate(Paths.get(args[0]), low, high, bins);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.print(summary);
+    System.out.printf(
+      "read %.1f MB in %.3f s (%.1f MB/s)%n",
+      summary.getBytes() / 1e6,
+      seconds,
+      summary.getBytes() / 1e6 / seconds
+    );
+  }
+
+  /**
+   * Aggregates a file of fractions.
+   *
+   * @param file The file to read.
+   * @param low The lower bound of the histogram, inclusive.
+   * @param high The upper bound of the histogram, exclusive.
+   * @param bins The number of histogram bins.
+   * @return The summary of the file.
+   * @throws IOException If the file cannot be read.
+   * @throws IllegalArgumentException If the histogram bounds are not finite and increasing, bins is not
+   *                                  positive, or a line is malformed, has a zero denominator or
+   *                                  a number that does not fit in a long.
+   */
+  public static Summary aggregate(Path file, double low, double high, int bins)
+    throws IOException {
+    return aggregate(file, low, high, bins, MAX_CHUNK_SIZE);
+  }
+
+  static Summary aggregate(
+    Path file,
+    double low,
+    double high,
+    int bins,
+    long maxChunkSize
+  ) throws IOException {
+    if (!(low < high) || Double.isInfinite(low) || Double.isInfinite(high)) {
+      throw new IllegalArgumentException(
+        "Histogram bounds must be finite and increasing."
+      );
+    }
+    if (bins < 1) {
+      throw new IllegalArgumentException("Histogram must have at least one bin.");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long[] bounds = split(channel, size, maxChunkSize);
+      int chunks = bounds.length - 1;
+      IntStream indices = IntStream.range(0, chunks);
+      if (chunks > 1) {
+        indices = indices.parallel();
+      }
+      Chunk total;
+      try {
+        total =
+          indices
+            .mapToObj(i -> {
+              Chunk chunk = new Chunk(low, high, bins);
+              KernelEvent event = RationalEvents.startKernel();
+              chunk.parse(map(channel, bounds[i], bounds[i + 1]), bounds[i]);
+              RationalEvents.finishKernel(
+                event,
+                "FractionFileAggregator.chunk",
+                bounds[i + 1] - bounds[i]
+              );
+              return chunk;
+            })
+            .reduce(Chunk::merge)
+            .orElseGet(() -> new Chunk(low, high, bins));
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      return new Summary(total, size);
+    }
+  }
+
+  /**
+   * Splits the file into chunks that end just after a line feed, or at the end of the file.
+   * Element i and i + 1 of the result are the start and end of chunk i.
+   */
+  private static long[] split(FileChannel channel, long size, long maxChunkSize)
+    throws IOException {
+    int parallelism = ForkJoinPool.getCommonPoolParallelism();
+    long target = Math.max(size / (parallelism * 4L), MIN_CHUNK_SIZE);
+    target = Math.max(1, Math.min(target, maxChunkSize));
+    List<Long> bounds = new ArrayList<>();
+    bounds.add(0L);
+    ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+    long start = 0;
+    while (start < size) {
+      long end = Math.min(size, start + target);
+      end = nextLineStart(channel, end, size, scan);
+      if (end - start > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException(
+          "Line starting before byte " + start + " is too long."
+        );
+      }
+      bounds.add(end);
+      start = end;
+    }
+    long[] result = new long[bounds.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = bounds.get(i);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the position just after the first line feed at or after position - 1, or size if there is none.
+   */
+  private static long nextLineStart(
+    FileChannel channel,
+    long position,
+    long size,
+    ByteBuffer scan
+  ) throws IOException {
+    if (position >= size) {
+      return size;
+    }
+    long offset = position - 1;
+    while (offset < size) {
+      scan.clear();
+      int read = channel.read(scan, offset);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (scan.get(i) == '\n') {
+          return offset + i + 1;
+        }
+      }
+      offset += read;
+    }
+    return size;
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, long start, long end) {
+    try {
+      return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The partial results for one chunk of the file.
+   */
+  private static final class Chunk {
+
+    private final double low;
+    private final double high;
+    private final long[] histogram;
+    private final FractionAccumulator sum = new FractionAccumulator();
+    private long count;
+    private long below;
+    private long above;
+    private long minNumerator;
+    private long minDenominator;
+    private long maxNumerator;
+    private long maxDenominator;
+
+    Chunk(double low, double high, int bins) {
+      this.low = low;
+      this.high = high;
+      this.histogram = new long[bins];
+    }
+
+    /**
+     * Parses every line of a mapped chunk that starts at byte offset base of the file.
+     */
+    void parse(ByteBuffer bytes, long base) {
+      int limit = bytes.limit();
+      int i = 0;
+      while (i < limit) {
+        i = skipBlanks(bytes, i, limit);
+        if (i < limit && bytes.get(i) == '\r') {
+          i++;
+        }
+        if (i == limit || bytes.get(i) == '\n') {
+          i++;
+          continue;
+        }
+        int start = i;
+        boolean negative = false;
+        byte c = bytes.get(i);
+        if (c == '-' || c == '+') {
+          negative = c == '-';
+          i++;
+        }
+        long numerator = 0;
+        int digits = i;
+        while (i < limit && (c = bytes.get(i)) >= '0' && c <= '9') {
+          numerator = appendDigit(numerator, c, base + start);
+          i++;
+        }
+        if (i == digits) {
+          throw malformed(base + start);
+        }
+        long denominator = 1;
+        i = skipBlanks(bytes, i, limit);
+        if (i < limit && bytes.get(i) == '/') {
+          i = skipBlanks(bytes, i + 1, limit);
+          if (i < limit && ((c = bytes.get(i)) == '-' || c == '+')) {
+            negative ^= c == '-';
+            i++;
+          }
+          denominator = 0;
+          digits = i;
+          while (i < limit && (c = bytes.get(i)) >= '0' && c <= '9') {
+            denominator = appendDigit(denominator, c, base + start);
+            i++;
+          }
+          if (i == digits) {
+            throw malformed(base + start);
+          }
+          if (denominator == 0) {
+            throw new IllegalArgumentException(
+              "Denominator cannot be zero at byte " + (base + start) + "."
+            );
+          }
+          i = skipBlanks(bytes, i, limit);
+        }
+        if (i < limit && bytes.get(i) == '\r') {
+          i++;
+        }
+        if (i < limit && bytes.get(i) != '\n') {
+          throw malformed(base + start);
+        }
+        i++;
+        add(negative ? -numerator : numerator, denominator);
+      }
+    }
+
+    private void add(long numerator, long denominator) {
+      if (count == 0) {
+        minNumerator = maxNumerator = numerator;
+        minDenominator = maxDenominator = denominator;
+      } else if (
+        Fractions.compareProducts(
+          numerator,
+          minDenominator,
+          minNumerator,
+          denominator
+        ) <
+        0
+      ) {
+        minNumerator = numerator;
+        minDenominator = denominator;
+      } else if (
+        Fractions.compareProducts(
+          numerator,
+          maxDenominator,
+          maxNumerator,
+          denominator
+        ) >
+        0
+      ) {
+        maxNumerator = numerator;
+        maxDenominator = denominator;
+      }
+      count++;
+      sum.add(numerator, denominator);
+      double x = (double) numerator / denominator;
+      if (x < low) {
+        below++;
+      } else if (x >= high) {
+        above++;
+      } else {
+        int bin = (int) ((x - low) / (high - low) * histogram.length);
+        histogram[Math.min(bin, histogram.length - 1)]++;
+      }
+    }
+
+    Chunk merge(Chunk other) {
+      if (other.count == 0) {
+        return this;
+      }
+      if (count == 0) {
+        return other;
+      }
+      if (
+        Fractions.compareProducts(
+          other.minNumerator,
+          minDenominator,
+          minNumerator,
+          other.minDenominator
+        ) <
+        0
+      ) {
+        minNumerator = other.minNumerator;
+        minDenominator = other.minDenominator;
+      }
+      if (
+        Fractions.compareProducts(
+          other.maxNumerator,
+          maxDenominator,
+          maxNumerator,
+          other.maxDenominator
+        ) >
+        0
+      ) {
+        maxNumerator = other.maxNumerator;
+        maxDenominator = other.maxDenominator;
+      }
+      count += other.count;
+      sum.add(other.sum);
+      below += other.below;
+      above += other.above;
+      for (int i = 0; i < histogram.length; i++) {
+        histogram[i] += other.histogram[i];
+      }
+      return this;
+    }
+
+    private static int skipBlanks(ByteBuffer bytes, int i, int limit) {
+      while (i < limit && (bytes.get(i) == ' ' || bytes.get(i) == '\t')) {
+        i++;
+      }
+      return i;
+    }
+
+    private static long appendDigit(long value, byte digit, long position) {
+      if (value > (Long.MAX_VALUE - (digit - '0')) / 10) {
+        throw new IllegalArgumentException(
+          "Integer overflow at byte " + position + "."
+        );
+      }
+      return value * 10 + (digit - '0');
+    }
+
+    private static IllegalArgumentException malformed(long position) {
+      return new IllegalArgumentException(
+        "Malformed fraction at byte " + position + "."
+      );
+    }
+  }
+
+  /**
+   * The result of aggregating a file.
+   */
+  public static final class Summary {
+
+    private final long count;
+    private final BigRational sum;
+    private final BigRational min;
+    private final BigRational max;
+    private final double low;
+    private final double high;
+    private final long[] histogram;
+    private final long below;
+    private final long above;
+    private final long bytes;
+
+    private Summary(Chunk chunk, long bytes) {
+      this.count = chunk.count;
+      this.sum = chunk.sum.toBigRational();
+      this.min = count == 0
+        ? null
+        : BigRational.valueOf(chunk.minNumerator, chunk.minDenominator);
+      this.max = count == 0
+        ? null
+        : BigRational.valueOf(chunk.maxNumerator, chunk.maxDenominator);
+      this.low = chunk.low;
+      this.high = chunk.high;
+      this.histogram = chunk.histogram;
+      this.below = chunk.below;
+      this.above = chunk.above;
+      this.bytes = bytes;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return The number of values.
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * Returns the exact sum of the values.
+     *
+     * @return The sum, which is 0 for an empty file.
+     */
+    public BigRational getSum() {
+      return sum;
+    }
+
+    /**
+     * Returns the exact mean of the values.
+     *
+     * @return The mean, or null for an empty file.
+     */
+    public BigRational getMean() {
+      return count == 0 ? null : sum.dividedBy(BigRational.valueOf(count, 1));
+    }
+
+    /**
+     * Returns the smallest value.
+     *
+     * @return The minimum, or null for an empty file.
+     */
+    public BigRational getMin() {
+      return min;
+    }
+
+    /**
+     * Returns the largest value.
+     *
+     * @return The maximum, or null for an empty file.
+     */
+    public BigRational getMax() {
+      return max;
+    }
+
+    /**
+     * Returns the number of values in each histogram bin. Bin k counts the values in
+     * [low + k * width, low + (k + 1) * width), where width is (high - low) / bins, as computed in doubles.
+     *
+     * @return A copy of the bin counts.
+     */
+    public long[] getHistogram() {
+      return histogram.clone();
+    }
+
+    /**
+     * Returns the number of values below the histogram's lower bound.
+     *
+     * @return The number of values below low.
+     */
+    public long getBelow() {
+      return below;
+    }
+
+    /**
+     * Returns the number of values at or above the histogram's upper bound.
+     *
+     * @return The number of values at or above high.
+     */
+    public long getAbove() {
+      return above;
+    }
+
+    /**
+     * Returns the size of the file in bytes.
+     *
+     * @return The number of bytes read.
+     */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /**
+     * Returns a multi-line report of the summary, one statistic per line.
+     *
+     * @return The report.
+     */
+    @Override
+    public String toString() {
+      StringBuilder report = new StringBuilder();
+      report.append("count: ").append(count).append('\n');
+      appendValue(report, "sum", sum);
+      appendValue(report, "mean", getMean());
+      appendValue(report, "min", min);
+      appendValue(report, "max", max);
+      report.append("below ").append(low).append(": ").append(below).append('\n');
+      double width = (high - low) / histogram.length;
+      for (int k = 0; k < histogram.length; k++) {
+        report
+          .append('[')
+          .append(low + k * width)
+          .append(", ")
+          .append(k == histogram.length - 1 ? high : low + (k + 1) * width)
+          .append("): ")
+          .append(histogram[k])
+          .append('\n');
+      }
+      report
+        .append("at or above ")
+        .append(high)
+        .append(": ")
+        .append(above)
+        .append('\n');
+      return report.toString();
+    }
+
+    private static void appendValue(
+      StringBuilder report,
+      String name,
+      BigRational value
+    ) {
+      report.append(name).append(": ");
+      if (value == null) {
+        report.append("n/a");
+      } else {
+        report.append(value).append(" (").append(value.doubleValue()).append(')');
+      }
+      report.append('\n');
+    }
+  }
+}
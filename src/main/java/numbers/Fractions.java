@@ -0,0 +1,819 @@
+package numbers;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Exact helpers for numerator/denominator pairs held outside of {@link Rational} objects,
+ * for example in primitive columns.
+ * Denominators may be negative (as produced by {@link Rational#Rational(int, int)}) but never 0.
+ */
+final class Fractions {
+
+  /**
+   * Number of elements from which bulk column operations are split across threads.
+   */
+  static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  /**
+   * Upper bound on the number of partial quotients in the continued fraction of a ratio of longs:
+   * Euclid's algorithm on longs never needs more than 92 steps.
+   */
+  static final int MAX_PARTIAL_QUOTIENTS = 96;
+
+  private Fractions() {
+  }
+
+  /**
+   * Compares a/b with c/d exactly by cross-multiplication.
+   *
+   * @param a Numerator of the first value.
+   * @param b Denominator of the first value. Must not be zero.
+   * @param c Numerator of the second value.
+   * @param d Denominator of the second value. Must not be zero.
+   * @return A negative integer, zero, or a positive integer as a/b is less than, equal to, or greater than c/d.
+   */
+  static int compare(int a, int b, int c, int d) {
+    int cmp = Long.compare((long) a * d, (long) c * b);
+    return (b < 0) == (d < 0) ? cmp : -cmp;
+  }
+
+  /**
+   * Compares a/b with the double x exactly, ordering NaN above every value as {@link Double#compare}
+   * does. The correctly rounded quotient decides unless it equals x; only then is x split into its
+   * mantissa and exponent and compared with a/b by shifts and a 128-bit product.
+   *
+   * @param a The numerator.
+   * @param b The denominator. Must not be zero.
+   * @param x The double to compare with.
+   * @return A negative integer, zero, or a positive integer as a/b is less than, equal to, or greater than x.
+   */
+  static int compareToDouble(int a, int b, double x) {
+    if (x != x) {
+      return -1;
+    }
+    long n = b < 0 ? -(long) a : a;
+    long d = Math.abs((long) b);
+    // Rounding is monotonic, so a quotient that differs from x is on the same side of it as a/b.
+    double q = (double) n / d;
+    if (q != x) {
+      return q < x ? -1 : 1;
+    }
+    if (n == 0) {
+      return 0;
+    }
+    // |x| = mantissa * 2^shift. Since |a/b| lies in [2^-31, 2^31], so does |x|: it is a normal double
+    // and shift is below -20.
+    long bits = Double.doubleToRawLongBits(x);
+    long mantissa = bits & 0xFFFFFFFFFFFFFL | 1L << 52;
+    int shift = (int) (bits >>> 52 & 0x7FF) - 1075;
+    long magnitude = Math.abs(n);
+    int zeros = Math.min(Long.numberOfTrailingZeros(mantissa), -shift);
+    mantissa >>= zeros;
+    int s = -shift - zeros;
+    // Compare magnitude * 2^s, below 2^115, with mantissa * d, below 2^84, as unsigned 128-bit values.
+    long leftHigh = s == 0 ? 0 : s < 64 ? magnitude >>> (64 - s) : magnitude << (s - 64);
+    long leftLow = s < 64 ? magnitude << s : 0;
+    long rightHigh = multiplyHigh(mantissa, d);
+    long rightLow = mantissa * d;
+    int cmp = leftHigh != rightHigh
+      ? Long.compare(leftHigh, rightHigh)
+      : Long.compareUnsigned(leftLow, rightLow);
+    return n < 0 ? -cmp : cmp;
+  }
+
+  /**
+   * Checks that numerator and denominator columns can be used together.
+   *
+   * @param numerators The numerator column.
+   * @param denominators The denominator column.
+   * @throws IllegalArgumentException If the columns differ in length or a denominator is 0.
+   */
+  static void checkColumns(int[] numerators, int[] denominators) {
+    if (numerators.length != denominators.length) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+    for (int d : denominators) {
+      if (d == 0) {
+        throw new IllegalArgumentException("Denominator cannot be zero.");
+      }
+    }
+  }
+
+  /**
+   * Runs action for every index in [0, n), in parallel when n reaches {@link #PARALLEL_THRESHOLD}.
+   *
+   * @param n The number of indices.
+   * @param action The action to run for each index.
+   */
+  static void forEachIndex(int n, IntConsumer action) {
+    if (n < PARALLEL_THRESHOLD) {
+      for (int i = 0; i < n; i++) {
+        action.accept(i);
+      }
+    } else {
+      IntStream.range(0, n).parallel().forEach(action);
+    }
+  }
+
+  /**
+   * Runs action for every row in [0, rows), in chunks of {@link #PARALLEL_THRESHOLD} rows that run in
+   * parallel, and records the run as a kernel event.
+   *
+   * @param rows The number of rows.
+   * @param kernel The kernel name reported in the event.
+   * @param action The action to run for each row.
+   */
+  static void forEachChunk(int rows, String kernel, IntConsumer action) {
+    forEachChunk(rows, kernel, (from, to) -> {
+      for (int row = from; row < to; row++) {
+        action.accept(row);
+      }
+    });
+  }
+
+  /**
+   * Runs action on chunks of {@link #PARALLEL_THRESHOLD} rows covering [0, rows), in parallel when there
+   * is more than one chunk, and records the run as a kernel event. Use this form when each chunk needs
+   * its own scratch state.
+   *
+   * @param rows The number of rows.
+   * @param kernel The kernel name reported in the event.
+   * @param action The action to run for each chunk.
+   */
+  static void forEachChunk(int rows, String kernel, RowRange action) {
+    KernelEvent event = RationalEvents.startKernel();
+    forEachRange(rows, PARALLEL_THRESHOLD, action);
+    RationalEvents.finishKernel(event, kernel, rows);
+  }
+
+  /**
+   * Runs action on consecutive ranges of chunk rows covering [0, rows), in parallel when there is more
+   * than one range.
+   *
+   * @param rows The number of rows.
+   * @param chunk The number of rows per range, at least 1.
+   * @param action The action to run for each range.
+   */
+  static void forEachRange(int rows, int chunk, RowRange action) {
+    int chunks = (rows + chunk - 1) / chunk;
+    IntStream ranges = IntStream.range(0, chunks);
+    if (chunks > 1) {
+      ranges = ranges.parallel();
+    }
+    ranges.forEach(c -> action.run(c * chunk, Math.min(rows, (c + 1) * chunk)));
+  }
+
+  /**
+   * Work on the rows [from, to).
+   */
+  interface RowRange {
+    void run(int from, int to);
+  }
+
+  /**
+   * Packs a numerator and a positive denominator into one long, so that a result can be
+   * returned without allocating.
+   *
+   * @param p The numerator, either an int or 2^31.
+   * @param q The denominator, between 1 and 2^31 - 1.
+   * @return The packed pair.
+   */
+  static long pack(long p, long q) {
+    return (p << 32) | q;
+  }
+
+  /**
+   * Returns the numerator of a pair packed by {@link #pack(long, long)}.
+   */
+  static int numerator(long packed) {
+    return (int) (packed >> 32);
+  }
+
+  /**
+   * Returns the denominator of a pair packed by {@link #pack(long, long)}.
+   */
+  static int denominator(long packed) {
+    return (int) packed;
+  }
+
+  /**
+   * Returns the high 64 bits of the signed 128-bit product x * y.
+   * This is Math.multiplyHigh, which is not available on Java 8.
+   */
+  static long multiplyHigh(long x, long y) {
+    long x1 = x >> 32;
+    long x2 = x & 0xFFFFFFFFL;
+    long y1 = y >> 32;
+    long y2 = y & 0xFFFFFFFFL;
+    long z2 = x2 * y2;
+    long t = x1 * y2 + (z2 >>> 32);
+    long z1 = t & 0xFFFFFFFFL;
+    long z0 = t >> 32;
+    z1 += x2 * y1;
+    return x1 * y1 + z0 + (z1 >> 32);
+  }
+
+  /**
+   * Compares the exact products a * b and c * d without overflow.
+   *
+   * @return A negative integer, zero, or a positive integer as a * b is less than, equal to, or greater than c * d.
+   */
+  static int compareProducts(long a, long b, long c, long d) {
+    long high1 = multiplyHigh(a, b);
+    long high2 = multiplyHigh(c, d);
+    if (high1 != high2) {
+      return Long.compare(high1, high2);
+    }
+    return Long.compareUnsigned(a * b, c * d);
+  }
+
+  /**
+   * Checks whether a * b &lt;= 2^k for non-negative a and b, without overflow.
+   */
+  static boolean productAtMostPowerOfTwo(long a, long b, int k) {
+    if (k >= 127) {
+      return true;
+    }
+    long high = multiplyHigh(a, b);
+    long low = a * b;
+    if (k >= 64) {
+      long bound = 1L << (k - 64);
+      return high < bound || (high == bound && low == 0);
+    }
+    return high == 0 && Long.compareUnsigned(low, 1L << k) <= 0;
+  }
+
+  /**
+   * Computes the greatest common divisor of two longs.
+   *
+   * @return The non-negative greatest common divisor of a and b.
+   */
+  static long gcd(long a, long b) {
+    a = Math.abs(a);
+    b = Math.abs(b);
+    while (b != 0) {
+      long t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+
+  /**
+   * Returns an upper bound on |n/d - p/q| for positive d and q, accurate to a few units in the last place.
+   */
+  static double errorBound(long n, long d, long p, long q) {
+    long high1 = multiplyHigh(n, q);
+    long low1 = n * q;
+    long high2 = multiplyHigh(p, d);
+    long low2 = p * d;
+    long low = low1 - low2;
+    long high = high1 - high2 - (Long.compareUnsigned(low1, low2) < 0 ? 1 : 0);
+    double unsignedLow = (double) (low >>> 1) * 2.0 + (low & 1);
+    double difference = Math.abs((double) high * 0x1p64 + unsignedLow);
+    double error = difference / ((double) d * (double) q);
+    return Math.nextUp(Math.nextUp(Math.nextUp(error)));
+  }
+
+  /**
+   * Returns the best rational approximation of x whose denominator is at most maxQ,
+   * packed by {@link #pack(long, long)}. The result equals x exactly whenever x is such a fraction
+   * with an int numerator. Ties between two candidates go to the one with the smaller denominator.
+   *
+   * @param x The value to approximate.
+   * @param maxQ The largest allowed denominator, between 1 and 2^31 - 1.
+   * @return The packed approximation, in lowest terms with a positive denominator.
+   * @throws IllegalArgumentException If x is not finite or its magnitude does not fit an int numerator.
+   */
+  static long approximate(double x, long maxQ) {
+    if (Double.isNaN(x) || Double.isInfinite(x)) {
+      throw new IllegalArgumentException("Cannot convert " + x + " to a Rational.");
+    }
+    boolean negative = x < 0;
+    long maxP = negative ? 1L << 31 : Integer.MAX_VALUE;
+    long bits = Double.doubleToRawLongBits(x);
+    int exponent = (int) (bits >>> 52) & 0x7ff;
+    long mantissa = bits & 0xfffffffffffffL;
+    if (exponent == 0) {
+      if (mantissa == 0) {
+        return pack(0, 1);
+      }
+      exponent = 1;
+    } else {
+      mantissa |= 1L << 52;
+    }
+    // |x| = mantissa * 2^shift, with an odd mantissa.
+    int shift = exponent - 1075;
+    int zeros = Long.numberOfTrailingZeros(mantissa);
+    mantissa >>>= zeros;
+    shift += zeros;
+    long packed;
+    if (shift >= 0) {
+      if (shift > 31 || mantissa > (maxP >> shift)) {
+        throw new IllegalArgumentException(x + " is out of the int range.");
+      }
+      packed = pack(mantissa << shift, 1);
+    } else if (shift >= -62) {
+      if ((mantissa >> -shift) > maxP) {
+        throw new IllegalArgumentException(x + " is out of the int range.");
+      }
+      packed = bestApproximation(mantissa, 1L << -shift, maxP, maxQ);
+    } else {
+      packed = approximateSmall(mantissa, -shift, maxP, maxQ);
+    }
+    if (negative) {
+      return pack(-(packed >>> 32), packed & 0xFFFFFFFFL);
+    }
+    return packed;
+  }
+
+  /**
+   * Returns the best approximation p/q of n/d with 0 &lt;= p &lt;= maxP and 1 &lt;= q &lt;= maxQ, packed by
+   * {@link #pack(long, long)}, following the continued fraction of n/d and finishing with the closer of the
+   * last convergent and the largest admissible semiconvergent.
+   *
+   * @param n The numerator, non-negative.
+   * @param d The denominator, positive.
+   * @param maxP The largest allowed numerator, at most 2^31.
+   * @param maxQ The largest allowed denominator, at most 2^31 - 1.
+   * @return The packed approximation, in lowest terms.
+   * @throws IllegalArgumentException If even the integer part of n/d exceeds maxP.
+   */
+  static long bestApproximation(long n, long d, long maxP, long maxQ) {
+    Expansion e = new Expansion(n, d);
+    if (e.expand(maxP, maxQ)) {
+      return pack(e.p1, e.q1);
+    }
+    if (e.q1 == 0) {
+      throw new IllegalArgumentException("Integer overflow.");
+    }
+    long k = e.semiconvergentMultiplier(maxP, maxQ);
+    long q = e.q0 + k * e.q1;
+    if (q == 0 || compareProducts(e.d, 2 * q, d, 1) <= 0) {
+      return pack(e.p1, e.q1);
+    }
+    return pack(e.p0 + k * e.p1, q);
+  }
+
+  /**
+   * Handles {@link #approximate(double, long)} for m / 2^k with k &gt; 62, where the denominator does not fit
+   * a long. Such values are below 2^-9, so the first partial quotient is 0 and the second, floor(2^k / m),
+   * is found by long division one bit at a time; after that the expansion continues in longs.
+   */
+  private static long approximateSmall(long m, int k, long maxP, long maxQ) {
+    long a = (1L << 62) / m;
+    long r = (1L << 62) % m;
+    for (int i = 62; i < k && a <= maxQ; i++) {
+      a <<= 1;
+      r <<= 1;
+      if (r >= m) {
+        r -= m;
+        a++;
+      }
+    }
+    if (a > maxQ) {
+      // The candidates are 0/1 and 1/maxQ; 0/1 wins unless x lies beyond their midpoint.
+      return productAtMostPowerOfTwo(m, 2 * maxQ, k) ? pack(0, 1) : pack(1, maxQ);
+    }
+    Expansion e = new Expansion(m, r);
+    e.p0 = 0;
+    e.q0 = 1;
+    e.p1 = 1;
+    e.q1 = a;
+    // x is m / 2^k in lowest terms and 2^k exceeds maxQ, so the expansion always stops at a bound.
+    e.expand(maxP, maxQ);
+    long s = e.semiconvergentMultiplier(maxP, maxQ);
+    long q = e.q0 + s * e.q1;
+    if (productAtMostPowerOfTwo(e.d, 2 * q, k)) {
+      return pack(e.p1, e.q1);
+    }
+    return pack(e.p0 + s * e.p1, q);
+  }
+
+  /**
+   * The state of a continued fraction expansion of n/d: the remainders still to expand and the
+   * last two convergents p0/q0 and p1/q1.
+   */
+  private static final class Expansion {
+
+    long n;
+    long d;
+    long p0 = 0;
+    long q0 = 1;
+    long p1 = 1;
+    long q1 = 0;
+
+    Expansion(long n, long d) {
+      this.n = n;
+      this.d = d;
+    }
+
+    /**
+     * Consumes partial quotients while the next convergent stays within the bounds.
+     *
+     * @return true if the expansion ended, so that p1/q1 equals the input exactly.
+     */
+    boolean expand(long maxP, long maxQ) {
+      while (d != 0) {
+        long a = n / d;
+        if (
+          (p1 != 0 && a > (maxP - p0) / p1) || (q1 != 0 && a > (maxQ - q0) / q1)
+        ) {
+          return false;
+        }
+        long p2 = p0 + a * p1;
+        long q2 = q0 + a * q1;
+        p0 = p1;
+        q0 = q1;
+        p1 = p2;
+        q1 = q2;
+        long remainder = n - a * d;
+        n = d;
+        d = remainder;
+      }
+      return true;
+    }
+
+    /**
+     * Returns the largest k for which (p0 + k * p1) / (q0 + k * q1) stays within the bounds.
+     */
+    long semiconvergentMultiplier(long maxP, long maxQ) {
+      long k = (maxQ - q0) / q1;
+      if (p1 != 0) {
+        k = Math.min(k, (maxP - p0) / p1);
+      }
+      return k;
+    }
+  }
+
+  /**
+   * Thrown by the slot operations when a result does not fit in longs even in lowest terms. Callers that
+   * can fall back to wider arithmetic catch exactly this; everyone else sees an IllegalArgumentException.
+   */
+  static final class Overflow extends IllegalArgumentException {
+
+    Overflow(ArithmeticException cause) {
+      super("Integer overflow.", cause);
+    }
+  }
+
+  /**
+   * Replaces slot i of an unnormalized fraction buffer with slot i + b/c.
+   * Slots hold numerators in n and positive denominators in d and are only reduced when a product would
+   * overflow; callers reduce once with {@link #reduce(long[], long[], int)} when they are done.
+   *
+   * @param b The numerator of the operand.
+   * @param c The denominator of the operand. Must be positive.
+   * @throws IllegalArgumentException If the sum overflows even after reducing.
+   */
+  static void add(long[] n, long[] d, int i, long b, long c) {
+    try {
+      long numerator = Math.addExact(
+        Math.multiplyExact(n[i], c),
+        Math.multiplyExact(b, d[i])
+      );
+      d[i] = Math.multiplyExact(d[i], c);
+      n[i] = numerator;
+    } catch (ArithmeticException e) {
+      long a = n[i];
+      long denominator = d[i];
+      reduce(n, d, i);
+      long h = gcd(b, c);
+      b /= h;
+      c /= h;
+      long g = gcd(d[i], c);
+      try {
+        n[i] =
+          Math.addExact(
+            Math.multiplyExact(n[i], c / g),
+            Math.multiplyExact(b, d[i] / g)
+          );
+        d[i] = Math.multiplyExact(d[i], c / g);
+      } catch (ArithmeticException overflow) {
+        reportOverflow("ADD", "FAILED", a, denominator, b, c);
+        throw new Overflow(overflow);
+      }
+      reduce(n, d, i);
+      reportOverflow("ADD", "REDUCED", a, denominator, b, c);
+    }
+  }
+
+  /**
+   * Replaces slot i with slot i - b/c, like {@link #add(long[], long[], int, long, long)}.
+   *
+   * @param b The numerator of the operand.
+   * @param c The denominator of the operand. Must be positive.
+   * @throws IllegalArgumentException If the difference overflows even after reducing.
+   */
+  static void subtract(long[] n, long[] d, int i, long b, long c) {
+    if (b == Long.MIN_VALUE) {
+      throw new Overflow(null);
+    }
+    add(n, d, i, -b, c);
+  }
+
+  /**
+   * Replaces slot i with slot i * b/c, like {@link #add(long[], long[], int, long, long)}.
+   *
+   * @param b The numerator of the operand.
+   * @param c The denominator of the operand. Must be positive.
+   * @throws IllegalArgumentException If the product overflows even after reducing.
+   */
+  static void multiply(long[] n, long[] d, int i, long b, long c) {
+    try {
+      long numerator = Math.multiplyExact(n[i], b);
+      d[i] = Math.multiplyExact(d[i], c);
+      n[i] = numerator;
+    } catch (ArithmeticException e) {
+      // Reduce both operands and cancel across them, which leaves the product in lowest terms.
+      long a = n[i];
+      long denominator = d[i];
+      reduce(n, d, i);
+      long h = gcd(b, c);
+      b /= h;
+      c /= h;
+      long g1 = gcd(n[i], c);
+      long g2 = gcd(b, d[i]);
+      try {
+        long numerator = Math.multiplyExact(n[i] / g1, b / g2);
+        d[i] = Math.multiplyExact(d[i] / g2, c / g1);
+        n[i] = numerator;
+      } catch (ArithmeticException overflow) {
+        reportOverflow("MULTIPLY", "FAILED", a, denominator, b, c);
+        throw new Overflow(overflow);
+      }
+      reportOverflow("MULTIPLY", "REDUCED", a, denominator, b, c);
+    }
+  }
+
+  /**
+   * Records an {@link OverflowEvent} for a slot operation that left the fast path, if a recording is running.
+   */
+  private static void reportOverflow(
+    String operation,
+    String outcome,
+    long a,
+    long b,
+    long c,
+    long d
+  ) {
+    if (RationalEvents.recording) {
+      RationalEvents.overflow(operation, outcome, a, b, c, d);
+    }
+  }
+
+  /**
+   * Replaces slot i with slot i / (b/c), like {@link #add(long[], long[], int, long, long)}.
+   *
+   * @param b The numerator of the divisor.
+   * @param c The denominator of the divisor. Must be positive.
+   * @throws IllegalArgumentException If b is 0 or the quotient overflows even after reducing.
+   */
+  static void divide(long[] n, long[] d, int i, long b, long c) {
+    if (b == 0) {
+      throw new IllegalArgumentException("Cannot divide by Rational number 0.");
+    }
+    if (b < 0) {
+      if (b == Long.MIN_VALUE) {
+        throw new Overflow(null);
+      }
+      b = -b;
+      c = -c;
+    }
+    multiply(n, d, i, c, b);
+  }
+
+  /**
+   * Replaces slot i with its additive inverse.
+   *
+   * @throws IllegalArgumentException If the numerator is Long.MIN_VALUE.
+   */
+  static void negate(long[] n, int i) {
+    if (n[i] == Long.MIN_VALUE) {
+      throw new Overflow(null);
+    }
+    n[i] = -n[i];
+  }
+
+  /**
+   * Reduces slot i to lowest terms.
+   */
+  static void reduce(long[] n, long[] d, int i) {
+    long g = gcd(n[i], d[i]);
+    if (g > 1) {
+      n[i] /= g;
+      d[i] /= g;
+    }
+  }
+
+  /**
+   * Loads a/b into slot i with a positive denominator.
+   *
+   * @throws IllegalArgumentException If b is 0.
+   */
+  static void load(long[] n, long[] d, int i, long a, long b) {
+    if (b == 0) {
+      throw new IllegalArgumentException("Denominator cannot be zero.");
+    }
+    if (b < 0) {
+      a = -a;
+      b = -b;
+    }
+    n[i] = a;
+    d[i] = b;
+  }
+
+  /**
+   * Returns the shape of the decimal expansion of fractions with denominator d: the number of digits
+   * before the repetend, which is the larger of the exponents of 2 and 5 in d, in the high half, and the
+   * length of the repetend, the multiplicative order of 10 modulo what remains of d, in the low half.
+   *
+   * @param d The denominator. Must not be zero.
+   * @return The packed lengths.
+   */
+  static long decimalExpansion(long d) {
+    d = Math.abs(d);
+    int twos = Long.numberOfTrailingZeros(d);
+    d >>= twos;
+    int fives = 0;
+    while (d % 5 == 0) {
+      d /= 5;
+      fives++;
+    }
+    return (long) Math.max(twos, fives) << 32 | (d == 1 ? 0 : decimalOrder(d));
+  }
+
+  /**
+   * Returns the multiplicative order of 10 modulo m, for m greater than 1 and coprime to 10. The order
+   * divides the Carmichael function of m, which follows from the factors of m; the prime factors of that
+   * are then divided out for as long as 10 to the smaller power is still 1.
+   */
+  private static long decimalOrder(long m) {
+    long lambda = 1;
+    long rest = m;
+    for (int p : SmallPrimes.PRIMES) {
+      if ((long) p * p > rest) {
+        break;
+      }
+      if (rest % p == 0) {
+        long power = 1;
+        while (rest % p == 0) {
+          rest /= p;
+          power *= p;
+        }
+        lambda = lcm(lambda, power / p * (p - 1));
+      }
+    }
+    if (rest > 1) {
+      lambda = lcm(lambda, rest - 1);
+    }
+    long order = lambda;
+    rest = lambda;
+    for (int p : SmallPrimes.PRIMES) {
+      if ((long) p * p > rest) {
+        break;
+      }
+      if (rest % p == 0) {
+        while (rest % p == 0) {
+          rest /= p;
+        }
+        order = divideOrder(order, p, m);
+      }
+    }
+    return rest > 1 ? divideOrder(order, rest, m) : order;
+  }
+
+  private static long divideOrder(long order, long q, long m) {
+    while (order % q == 0 && powerOfTen(order / q, m) == 1) {
+      order /= q;
+    }
+    return order;
+  }
+
+  /**
+   * Returns 10^e modulo m, for m below 2^31.
+   */
+  private static long powerOfTen(long e, long m) {
+    long result = 1 % m;
+    long base = 10 % m;
+    while (e > 0) {
+      if ((e & 1) != 0) {
+        result = result * base % m;
+      }
+      base = base * base % m;
+      e >>= 1;
+    }
+    return result;
+  }
+
+  private static long lcm(long a, long b) {
+    return a / gcd(a, b) * b;
+  }
+
+  /**
+   * Formats a/b as a decimal. A terminating expansion is written in full, like "-0.25"; a repeating one
+   * has its repetend in parentheses, like "0.1(6)", if the digits after the point number at most
+   * maxDigits, and is otherwise cut after maxDigits digits and followed by "...".
+   *
+   * @param a The numerator.
+   * @param b The denominator. Must not be zero.
+   * @param maxDigits The most digits to write after the point. Must not be negative.
+   * @param expansion The shape of the expansion, as returned by {@link #decimalExpansion(long)} for b
+   *        divided by gcd(a, b).
+   * @return The decimal string.
+   */
+  static String toDecimalString(int a, int b, int maxDigits, long expansion) {
+    long n = b < 0 ? -(long) a : a;
+    long d = Math.abs((long) b);
+    long whole = Math.abs(n) / d;
+    long r = Math.abs(n) % d;
+    if (r == 0) {
+      return n < 0 ? "-" + whole : String.valueOf(whole);
+    }
+    int before = (int) (expansion >>> 32);
+    long period = (int) expansion;
+    boolean exact = before + period <= maxDigits;
+    int digits = exact ? (int) (before + period) : maxDigits;
+    StringBuilder result = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, digits + 24L));
+    if (n < 0) {
+      result.append('-');
+    }
+    result.append(whole);
+    if (digits > 0) {
+      result.append('.');
+    }
+    if (!exact) {
+      appendDigits(result, r, d, digits);
+      return result.append("...").toString();
+    }
+    r = appendDigits(result, r, d, before);
+    if (period > 0) {
+      result.append('(');
+      appendDigits(result, r, d, (int) period);
+      result.append(')');
+    }
+    return result.toString();
+  }
+
+  /**
+   * Appends count digits of the long division of r by d, nine at a time, and returns the remainder.
+   */
+  private static long appendDigits(StringBuilder result, long r, long d, int count) {
+    for (; count >= 9; count -= 9) {
+      long x = r * 1_000_000_000L;
+      String block = Long.toString(x / d);
+      r = x % d;
+      for (int i = block.length(); i < 9; i++) {
+        result.append('0');
+      }
+      result.append(block);
+    }
+    for (; count > 0; count--) {
+      long x = r * 10;
+      result.append((char) ('0' + x / d));
+      r = x % d;
+    }
+    return r;
+  }
+
+  /**
+   * Checks that a reduced numerator or denominator fits in an int.
+   *
+   * @throws IllegalArgumentException If it does not.
+   */
+  static int toIntExact(long value) {
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Integer overflow.");
+    }
+    return (int) value;
+  }
+
+  /**
+   * The primes below 46341, enough to factor any int by trial division; sieved on first use.
+   */
+  private static final class SmallPrimes {
+
+    static final int[] PRIMES = sieve(46341);
+
+    private static int[] sieve(int limit) {
+      boolean[] composite = new boolean[limit];
+      int count = 0;
+      for (int i = 2; i < limit; i++) {
+        if (!composite[i]) {
+          count++;
+          for (long j = (long) i * i; j < limit; j += i) {
+            composite[(int) j] = true;
+          }
+        }
+      }
+      int[] primes = new int[count];
+      for (int i = 2, k = 0; i < limit; i++) {
+        if (!composite[i]) {
+          primes[k++] = i;
+        }
+      }
+      return primes;
+    }
+  }
+}
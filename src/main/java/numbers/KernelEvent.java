@@ -0,0 +1,48 @@
+package numbers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for a bulk kernel over primitive columns, such as a sort or a batch evaluation.
+ * Only runs that take longer than the threshold are recorded; the default of 10 ms can be changed per
+ * recording with the standard "threshold" setting.
+ */
+@Name("numbers.Kernel")
+@Label("Rational Kernel")
+@Category({ "Rational" })
+@Description("A bulk operation over rational columns that ran longer than the threshold")
+@Threshold("10 ms")
+final class KernelEvent extends jdk.jfr.Event {
+
+  @Label("Kernel")
+  String kernel;
+
+  @Label("Size")
+  @Description("The number of values or rows processed")
+  long size;
+
+  /**
+   * Creates an event and starts timing it.
+   */
+  static KernelEvent start() {
+    KernelEvent event = new KernelEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Stops timing and records the event if it is enabled and ran longer than the threshold.
+   */
+  void finish(String kernel, long size) {
+    end();
+    if (shouldCommit()) {
+      this.kernel = kernel;
+      this.size = size;
+      commit();
+    }
+  }
+}
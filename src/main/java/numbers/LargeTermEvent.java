@@ -0,0 +1,49 @@
+package numbers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+
+/**
+ * A Flight Recorder event for an unreduced intermediate numerator or denominator that needs many bits,
+ * as produced by {@link Rational#times(Rational)} and {@link Rational#raisedToThePowerOf(int)} before
+ * normalization. Terms shorter than the "minimumBits" setting are not recorded; it defaults to
+ * {@value BitsSetting#DEFAULT_BITS} and can be changed per recording.
+ */
+@Name("numbers.LargeTerm")
+@Label("Large Rational Term")
+@Category({ "Rational" })
+@Description("An intermediate term of a product or power needed at least the configured number of bits")
+final class LargeTermEvent extends jdk.jfr.Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Bits")
+  @Description("The bit length of the larger of the unreduced numerator and denominator")
+  int bits;
+
+  @Label("Left Numerator")
+  long leftNumerator;
+
+  @Label("Left Denominator")
+  long leftDenominator;
+
+  @Label("Right Operand")
+  @Description("The numerator of the other factor, or the exponent")
+  long rightNumerator;
+
+  @Label("Right Denominator")
+  @Description("The denominator of the other factor, or 1 for a power")
+  long rightDenominator;
+
+  @Label("Minimum Bits")
+  @Description("Records only terms of at least this many bits")
+  @Name("minimumBits")
+  @SettingDefinition
+  protected boolean minimumBits(BitsSetting setting) {
+    return setting.accepts(bits);
+  }
+}
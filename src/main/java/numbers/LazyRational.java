@@ -0,0 +1,499 @@
+package numbers;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A lazily evaluated rational computation, built with the same fluent methods as {@link Rational}.
+ * A chain such as {@code x.times(y).plus(z).dividedBy(w)} only records its operations into a small graph;
+ * nothing is computed or normalized until a terminal method ({@link #toRational()}, {@link #doubleValue()},
+ * {@link #compareTo(Number)} and the other conversions) is called.
+ *
+ * <p>On evaluation, structurally identical subexpressions are shared and computed once, runs of adjacent
+ * additions and subtractions are fused into a single sum, and runs of multiplications and divisions into a
+ * single product. Intermediate values are kept as unreduced long fractions that are only reduced when a
+ * product would overflow, and the result is reduced once at the end. The result is equal to what the eager
+ * {@link Rational} methods return whenever those do not overflow; where they would silently wrap, the lazy
+ * computation either returns the exact result or throws.
+ *
+ * <p>Instances are immutable, and the result of the first evaluation is cached.
+ */
+public final class LazyRational extends Number implements Comparable<Number> {
+
+  public static final long serialVersionUID = 1L;
+
+  private static final int VALUE = 0;
+  private static final int ADD = 1;
+  private static final int SUBTRACT = 2;
+  private static final int MULTIPLY = 3;
+  private static final int DIVIDE = 4;
+  private static final int NEGATE = 5;
+
+  private final int op;
+  private final LazyRational left;
+  private final LazyRational right;
+  private volatile Rational value;
+
+  private LazyRational(
+    int op,
+    LazyRational left,
+    LazyRational right,
+    Rational value
+  ) {
+    this.op = op;
+    this.left = left;
+    this.right = right;
+    this.value = value;
+  }
+
+  /**
+   * Starts a lazy computation from r. The value of r is copied, so later changes to its fields have no effect.
+   *
+   * @param r The starting value.
+   * @return A lazy computation with the value of r.
+   * @throws NullPointerException If r is null.
+   */
+  public static LazyRational of(Rational r) {
+    return new LazyRational(VALUE, null, null, new Rational(r));
+  }
+
+  /**
+   * Starts a lazy computation from a/b.
+   *
+   * @param a The numerator.
+   * @param b The denominator. Must not be zero.
+   * @return A lazy computation with the value a/b.
+   * @throws IllegalArgumentException If b is 0.
+   */
+  public static LazyRational of(int a, int b) {
+    return new LazyRational(VALUE, null, null, new Rational(a, b));
+  }
+
+  /**
+   * Records the sum of this value and r.
+   *
+   * @param r The value to add.
+   * @return A lazy computation of the sum.
+   */
+  public LazyRational plus(LazyRational r) {
+    return new LazyRational(ADD, this, r, null);
+  }
+
+  /**
+   * Records the sum of this value and r.
+   *
+   * @param r The value to add.
+   * @return A lazy computation of the sum.
+   */
+  public LazyRational plus(Rational r) {
+    return plus(of(r));
+  }
+
+  /**
+   * Records the difference between this value and r.
+   *
+   * @param r The value to subtract.
+   * @return A lazy computation of the difference.
+   */
+  public LazyRational minus(LazyRational r) {
+    return new LazyRational(SUBTRACT, this, r, null);
+  }
+
+  /**
+   * Records the difference between this value and r.
+   *
+   * @param r The value to subtract.
+   * @return A lazy computation of the difference.
+   */
+  public LazyRational minus(Rational r) {
+    return minus(of(r));
+  }
+
+  /**
+   * Records the product of this value and r.
+   *
+   * @param r The value to multiply by.
+   * @return A lazy computation of the product.
+   */
+  public LazyRational times(LazyRational r) {
+    return new LazyRational(MULTIPLY, this, r, null);
+  }
+
+  /**
+   * Records the product of this value and r.
+   *
+   * @param r The value to multiply by.
+   * @return A lazy computation of the product.
+   */
+  public LazyRational times(Rational r) {
+    return times(of(r));
+  }
+
+  /**
+   * Records the quotient of this value and r. Division by 0 is reported when the computation is evaluated.
+   *
+   * @param r The value to divide by.
+   * @return A lazy computation of the quotient.
+   */
+  public LazyRational dividedBy(LazyRational r) {
+    return new LazyRational(DIVIDE, this, r, null);
+  }
+
+  /**
+   * Records the quotient of this value and r. Division by 0 is reported when the computation is evaluated.
+   *
+   * @param r The value to divide by.
+   * @return A lazy computation of the quotient.
+   */
+  public LazyRational dividedBy(Rational r) {
+    return dividedBy(of(r));
+  }
+
+  /**
+   * Records the additive inverse of this value.
+   *
+   * @return A lazy computation of the additive inverse.
+   */
+  public LazyRational opposite() {
+    return new LazyRational(NEGATE, this, null, null);
+  }
+
+  /**
+   * Records the multiplicative inverse of this value. A value of 0 is reported when the computation is
+   * evaluated.
+   *
+   * @return A lazy computation of the multiplicative inverse.
+   */
+  public LazyRational reciprocal() {
+    return of(1, 1).dividedBy(this);
+  }
+
+  /**
+   * Evaluates the computation, reducing the result once.
+   *
+   * @return The value of the computation.
+   * @throws IllegalArgumentException If the computation divides by 0, or the result or an intermediate value
+   *                                  overflows a long even after reducing, or the result does not fit in a
+   *                                  Rational.
+   */
+  public Rational toRational() {
+    Rational result = value;
+    if (result == null) {
+      result = new Graph(this).evaluate();
+      value = result;
+    } else if (RationalMetrics.enabled && op != VALUE) {
+      RationalMetrics.recordCacheHit();
+    }
+    return new Rational(result);
+  }
+
+  /**
+   * Evaluates the computation and returns its value as an int, like {@link Rational#intValue()}.
+   *
+   * @return The value of the computation, truncated to an int.
+   */
+  @Override
+  public int intValue() {
+    return toRational().intValue();
+  }
+
+  /**
+   * Evaluates the computation and returns its value as a long, like {@link Rational#longValue()}.
+   *
+   * @return The value of the computation, truncated to a long.
+   */
+  @Override
+  public long longValue() {
+    return toRational().longValue();
+  }
+
+  /**
+   * Evaluates the computation and returns its value as a float, like {@link Rational#floatValue()}.
+   *
+   * @return The value of the computation, rounded to a float.
+   */
+  @Override
+  public float floatValue() {
+    return toRational().floatValue();
+  }
+
+  /**
+   * Evaluates the computation and returns its value as a double, like {@link Rational#doubleValue()}.
+   *
+   * @return The value of the computation, rounded to a double.
+   */
+  @Override
+  public double doubleValue() {
+    return toRational().doubleValue();
+  }
+
+  /**
+   * Evaluates the computation and compares it with o, like {@link Rational#compareTo(Number)}.
+   * If o is itself a lazy computation, it is evaluated too.
+   *
+   * @param o The number to compare with.
+   * @return A negative integer, zero, or a positive integer as this value is less than, equal to, or greater
+   *         than o.
+   */
+  @Override
+  public int compareTo(Number o) {
+    if (o instanceof LazyRational) {
+      o = ((LazyRational) o).toRational();
+    }
+    return toRational().compareTo(o);
+  }
+
+  /**
+   * Evaluates the computation and returns a string representation of its value, like
+   * {@link Rational#toString()}.
+   *
+   * @return A string representation of the value.
+   */
+  @Override
+  public String toString() {
+    return toRational().toString();
+  }
+
+  /**
+   * A computation graph with structurally identical nodes merged, evaluated into long fraction slots.
+   */
+  private static final class Graph {
+
+    private final Map<Key, Integer> interned = new HashMap<>();
+    private int size;
+    private int[] ops = new int[16];
+    private int[] lefts = new int[16];
+    private int[] rights = new int[16];
+    private int[] references = new int[16];
+    private long[] numerators = new long[16];
+    private long[] denominators = new long[16];
+    private final int root;
+
+    /**
+     * Numbers the nodes reachable from root bottom-up, without recursion so that long chains do not
+     * overflow the call stack. A node that has already been evaluated is treated as a value.
+     */
+    Graph(LazyRational root) {
+      Map<LazyRational, Integer> ids = new IdentityHashMap<>();
+      ArrayDeque<LazyRational> stack = new ArrayDeque<>();
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        LazyRational node = stack.peek();
+        if (ids.containsKey(node)) {
+          stack.pop();
+          continue;
+        }
+        Rational known = node.value;
+        if (known != null) {
+          stack.pop();
+          ids.put(
+            node,
+            intern(VALUE, known.numerator, known.denominator)
+          );
+          continue;
+        }
+        Integer left = ids.get(node.left);
+        Integer right = node.right == null ? Integer.valueOf(-1) : ids.get(node.right);
+        if (left == null || right == null) {
+          if (left == null) {
+            stack.push(node.left);
+          }
+          if (right == null) {
+            stack.push(node.right);
+          }
+          continue;
+        }
+        stack.pop();
+        int a = left;
+        int b = right;
+        if ((node.op == ADD || node.op == MULTIPLY) && a > b) {
+          // Both operations commute, so a * b and b * a share one node.
+          a = right;
+          b = left;
+        }
+        ids.put(node, intern(node.op, a, b));
+      }
+      this.root = ids.get(root);
+    }
+
+    private int intern(int op, long a, long b) {
+      Key key = new Key(op, a, b);
+      Integer existing = interned.get(key);
+      if (existing != null) {
+        return existing;
+      }
+      if (size == ops.length) {
+        int capacity = size * 2;
+        ops = Arrays.copyOf(ops, capacity);
+        lefts = Arrays.copyOf(lefts, capacity);
+        rights = Arrays.copyOf(rights, capacity);
+        references = Arrays.copyOf(references, capacity);
+        numerators = Arrays.copyOf(numerators, capacity);
+        denominators = Arrays.copyOf(denominators, capacity);
+      }
+      int id = size++;
+      ops[id] = op;
+      if (op == VALUE) {
+        Fractions.load(numerators, denominators, id, a, b);
+      } else {
+        lefts[id] = (int) a;
+        rights[id] = (int) b;
+        references[(int) a]++;
+        if (b >= 0) {
+          references[(int) b]++;
+        }
+      }
+      interned.put(key, id);
+      return id;
+    }
+
+    /**
+     * Evaluates every node the root depends on exactly once, then reduces the root.
+     */
+    Rational evaluate() {
+      boolean[] done = new boolean[size];
+      int[][] operands = new int[size][];
+      ArrayDeque<Integer> stack = new ArrayDeque<>();
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        int id = stack.peek();
+        if (done[id]) {
+          stack.pop();
+          continue;
+        }
+        if (ops[id] == VALUE) {
+          stack.pop();
+          done[id] = true;
+          continue;
+        }
+        if (operands[id] == null) {
+          operands[id] = fuse(id);
+        }
+        boolean ready = true;
+        for (int operand : operands[id]) {
+          int other = operand < 0 ? ~operand : operand;
+          if (!done[other]) {
+            stack.push(other);
+            ready = false;
+          }
+        }
+        if (ready) {
+          stack.pop();
+          compute(id, operands[id]);
+          done[id] = true;
+        }
+      }
+      Fractions.reduce(numerators, denominators, root);
+      return new Rational(
+        Fractions.toIntExact(numerators[root]),
+        Fractions.toIntExact(denominators[root])
+      );
+    }
+
+    private static boolean isSum(int op) {
+      return op == ADD || op == SUBTRACT || op == NEGATE;
+    }
+
+    /**
+     * Flattens the run of operations of the same kind (sums or products) below id into one operand list.
+     * Operands that are subtracted or divided by are stored complemented. Nodes that are referenced from
+     * more than one place are kept as operands, so that they are still only computed once. A divisor is
+     * always kept as an operand: inverting through it would turn a / (b / 0) into a * 0 / b, so it is
+     * computed on its own and checked for 0 when it is divided by.
+     */
+    private int[] fuse(int id) {
+      boolean sum = isSum(ops[id]);
+      int[] result = new int[4];
+      int count = 0;
+      int[] pending = new int[8];
+      int top = 0;
+      pending[top++] = id;
+      while (top > 0) {
+        int entry = pending[--top];
+        boolean inverted = entry < 0;
+        int node = inverted ? ~entry : entry;
+        if (
+          node != id &&
+          (ops[node] == VALUE || isSum(ops[node]) != sum || references[node] > 1 || inverted && !sum)
+        ) {
+          if (count == result.length) {
+            result = Arrays.copyOf(result, count * 2);
+          }
+          result[count++] = entry;
+          continue;
+        }
+        if (top + 2 > pending.length) {
+          pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        int op = ops[node];
+        boolean flipRight = op == SUBTRACT || op == DIVIDE;
+        if (op == NEGATE) {
+          pending[top++] = inverted ? lefts[node] : ~lefts[node];
+          continue;
+        }
+        // Push the right operand first so that operands are combined from left to right.
+        pending[top++] = inverted != flipRight ? ~rights[node] : rights[node];
+        pending[top++] = inverted ? ~lefts[node] : lefts[node];
+      }
+      return Arrays.copyOf(result, count);
+    }
+
+    private void compute(int id, int[] operands) {
+      boolean sum = isSum(ops[id]);
+      numerators[id] = sum ? 0 : 1;
+      denominators[id] = 1;
+      for (int operand : operands) {
+        boolean inverted = operand < 0;
+        int other = inverted ? ~operand : operand;
+        long b = numerators[other];
+        long c = denominators[other];
+        if (sum) {
+          if (inverted) {
+            Fractions.subtract(numerators, denominators, id, b, c);
+          } else {
+            Fractions.add(numerators, denominators, id, b, c);
+          }
+        } else if (inverted) {
+          Fractions.divide(numerators, denominators, id, b, c);
+        } else {
+          Fractions.multiply(numerators, denominators, id, b, c);
+        }
+      }
+    }
+  }
+
+  /**
+   * The structural identity of a graph node: its operation and either its operand ids or its value.
+   */
+  static final class Key {
+
+    final int op;
+    final long a;
+    final long b;
+
+    Key(int op, long a, long b) {
+      this.op = op;
+      this.a = a;
+      this.b = b;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return op == other.op && a == other.a && b == other.b;
+    }
+
+    @Override
+    public int hashCode() {
+      // Ids and small values are dense, so mix them to keep hash buckets short.
+      long h = a * 0x9E3779B97F4A7C15L ^ b * 0xC2B2AE3D27D4EB4FL ^ op;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+}
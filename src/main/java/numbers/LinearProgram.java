@@ -0,0 +1,511 @@
+package numbers;
+
+import java.util.Arrays;
+
+/**
+ * A linear program in standard form, maximize c x subject to A x &lt;= b and x &gt;= 0, solved exactly
+ * by the simplex method. Negative bounds are handled by a first phase that maximizes -x0 over an
+ * auxiliary variable x0, starting from the row with the most negative bound. Bland's rule, which takes
+ * the lowest-numbered improving column and breaks ties in the ratio test by the lowest-numbered basic
+ * variable, guarantees termination on degenerate problems, where a floating-point simplex can cycle or
+ * stop at the wrong vertex.
+ *
+ * <p>Tableau rows are held as long numerator and denominator arrays and updated with the unnormalized
+ * slot operations of {@link Fractions}, which reduce an entry only when it would overflow. If an entry
+ * outgrows long arithmetic even then, the problem is solved again on a {@link BigRational} tableau, so
+ * results are always exact. Independent programs can be solved in parallel with
+ * {@link #solveAll(LinearProgram...)}.
+ */
+public final class LinearProgram {
+
+  /**
+   * The outcome of solving a linear program.
+   */
+  public enum Status {
+    /**
+     * An optimal point was found.
+     */
+    OPTIMAL,
+    /**
+     * No point satisfies the constraints.
+     */
+    INFEASIBLE,
+    /**
+     * The objective grows without bound over the feasible points.
+     */
+    UNBOUNDED
+  }
+
+  private final Rational[] objective;
+  private final Rational[][] constraints;
+  private final Rational[] bounds;
+
+  /**
+   * Creates the program maximize objective x subject to constraints x &lt;= bounds and x &gt;= 0. The
+   * values are copied.
+   *
+   * @param objective The objective coefficients, one per variable.
+   * @param constraints The constraint coefficients, one row per constraint and one column per variable.
+   * @param bounds The right-hand sides, one per constraint.
+   * @throws IllegalArgumentException If the dimensions do not match.
+   */
+  public LinearProgram(Rational[] objective, Rational[][] constraints, Rational[] bounds) {
+    if (constraints.length != bounds.length) {
+      throw new IllegalArgumentException("Dimensions must match.");
+    }
+    this.objective = copy(objective);
+    this.constraints = new Rational[constraints.length][];
+    for (int i = 0; i < constraints.length; i++) {
+      if (constraints[i].length != objective.length) {
+        throw new IllegalArgumentException("Dimensions must match.");
+      }
+      this.constraints[i] = copy(constraints[i]);
+    }
+    this.bounds = copy(bounds);
+  }
+
+  private static Rational[] copy(Rational[] values) {
+    Rational[] copy = new Rational[values.length];
+    for (int i = 0; i < values.length; i++) {
+      copy[i] = new Rational(values[i]);
+    }
+    return copy;
+  }
+
+  /**
+   * Solves this program.
+   *
+   * @return The solution.
+   */
+  public Solution solve() {
+    try {
+      return solveWithLongs();
+    } catch (Fractions.Overflow overflow) {
+      return solve(new BigTableau(this));
+    }
+  }
+
+  /**
+   * Solves this program on a tableau of longs.
+   *
+   * @throws Fractions.Overflow If an entry does not fit in longs even in lowest terms.
+   */
+  Solution solveWithLongs() {
+    return solve(new LongTableau(this));
+  }
+
+  /**
+   * Solves independent programs, in parallel when there are several.
+   *
+   * @param programs The programs to solve.
+   * @return The solutions, in the same order.
+   */
+  public static Solution[] solveAll(LinearProgram... programs) {
+    KernelEvent event = RationalEvents.startKernel();
+    Solution[] solutions = new Solution[programs.length];
+    Fractions.forEachRange(programs.length, 1, (i, to) -> solutions[i] = programs[i].solve());
+    RationalEvents.finishKernel(event, "LinearProgram.solveAll", programs.length);
+    return solutions;
+  }
+
+  private Solution solve(Tableau t) {
+    int m = constraints.length;
+    int n = objective.length;
+    int artificial = n + m;
+    int rhs = artificial + 1;
+    int[] basis = new int[m];
+    for (int i = 0; i < m; i++) {
+      basis[i] = n + i;
+    }
+    int lowest = -1;
+    for (int i = 0; i < m; i++) {
+      if (t.signum(i, rhs) < 0 && (lowest < 0 || t.compare(i, rhs, lowest, rhs) < 0)) {
+        lowest = i;
+      }
+    }
+    if (lowest >= 0) {
+      // Phase one: maximize -x0, which is feasible at once after x0 replaces the most violated slack.
+      t.set(m, artificial, 1);
+      pivot(t, basis, lowest, artificial);
+      // -x0 cannot exceed 0, so phase one always reaches an optimum.
+      optimize(t, basis, rhs, rhs);
+      if (t.signum(m, rhs) < 0) {
+        return new Solution(Status.INFEASIBLE, null, null);
+      }
+      for (int i = 0; i < m; i++) {
+        if (basis[i] == artificial) {
+          // The slack columns of row i hold a row of the inverse basis, so one of them is not zero.
+          int j = 0;
+          while (t.signum(i, j) == 0) {
+            j++;
+          }
+          pivot(t, basis, i, j);
+        }
+      }
+      t.clear(m);
+    }
+    // Phase two: express the objective in the nonbasic variables, and keep x0, which has left the basis,
+    // out of it.
+    for (int j = 0; j < n; j++) {
+      t.set(m, j, objective[j].numerator, objective[j].denominator);
+      t.negate(m, j);
+    }
+    for (int i = 0; i < m; i++) {
+      if (t.signum(m, basis[i]) != 0) {
+        t.eliminate(m, i, basis[i]);
+      }
+    }
+    if (!optimize(t, basis, artificial, rhs)) {
+      return new Solution(Status.UNBOUNDED, null, null);
+    }
+    BigRational[] point = new BigRational[n];
+    Arrays.fill(point, BigRational.ZERO);
+    for (int i = 0; i < m; i++) {
+      if (basis[i] < n) {
+        point[basis[i]] = t.get(i, rhs);
+      }
+    }
+    return new Solution(Status.OPTIMAL, t.get(m, rhs), point);
+  }
+
+  /**
+   * Pivots with Bland's rule over the columns below limit until no column improves the objective.
+   *
+   * @return true at an optimum, or false if the objective is unbounded.
+   */
+  private static boolean optimize(Tableau t, int[] basis, int limit, int rhs) {
+    int m = basis.length;
+    while (true) {
+      int entering = -1;
+      for (int j = 0; j < limit && entering < 0; j++) {
+        if (t.signum(m, j) < 0) {
+          entering = j;
+        }
+      }
+      if (entering < 0) {
+        return true;
+      }
+      int leaving = -1;
+      for (int i = 0; i < m; i++) {
+        if (t.signum(i, entering) > 0) {
+          int order = leaving < 0 ? -1 : t.compareRatios(i, leaving, entering, rhs);
+          if (order < 0 || (order == 0 && basis[i] < basis[leaving])) {
+            leaving = i;
+          }
+        }
+      }
+      if (leaving < 0) {
+        return false;
+      }
+      pivot(t, basis, leaving, entering);
+    }
+  }
+
+  private static void pivot(Tableau t, int[] basis, int row, int column) {
+    t.scale(row, column);
+    for (int i = 0; i <= basis.length; i++) {
+      if (i != row && t.signum(i, column) != 0) {
+        t.eliminate(i, row, column);
+      }
+    }
+    basis[row] = column;
+  }
+
+  /**
+   * The solution of a linear program.
+   */
+  public static final class Solution {
+
+    private final Status status;
+    private final BigRational value;
+    private final BigRational[] point;
+
+    Solution(Status status, BigRational value, BigRational[] point) {
+      this.status = status;
+      this.value = value;
+      this.point = point;
+    }
+
+    /**
+     * Returns whether an optimum was found.
+     *
+     * @return The status.
+     */
+    public Status getStatus() {
+      return status;
+    }
+
+    /**
+     * Returns the optimal value of the objective.
+     *
+     * @return The optimal value, or null unless the status is {@link Status#OPTIMAL}.
+     */
+    public BigRational getValue() {
+      return value;
+    }
+
+    /**
+     * Returns an optimal point.
+     *
+     * @return A copy of the optimal values of the variables, or null unless the status is
+     *         {@link Status#OPTIMAL}.
+     */
+    public BigRational[] getPoint() {
+      return point == null ? null : point.clone();
+    }
+
+    /**
+     * Returns a string representation of this solution, like "OPTIMAL 7/2 at [1, 5/4]".
+     *
+     * @return A string representation of this solution.
+     */
+    @Override
+    public String toString() {
+      return status == Status.OPTIMAL
+        ? status + " " + value + " at " + Arrays.toString(point)
+        : status.toString();
+    }
+  }
+
+  /**
+   * A simplex tableau: one row per constraint and a last row for the objective, with a column per
+   * variable, one per slack, one for x0 and one for the right-hand sides.
+   */
+  private abstract static class Tableau {
+
+    /**
+     * Returns the sign of an entry.
+     */
+    abstract int signum(int row, int column);
+
+    /**
+     * Compares entry (row, column) with entry (otherRow, otherColumn).
+     */
+    abstract int compare(int row, int column, int otherRow, int otherColumn);
+
+    /**
+     * Compares rhs / entry in column of two rows whose entries there are positive.
+     */
+    abstract int compareRatios(int row, int otherRow, int column, int rhs);
+
+    /**
+     * Sets an entry to a/b.
+     */
+    abstract void set(int row, int column, long a, long b);
+
+    /**
+     * Sets an entry to k.
+     */
+    void set(int row, int column, long k) {
+      set(row, column, k, 1);
+    }
+
+    /**
+     * Negates an entry.
+     */
+    abstract void negate(int row, int column);
+
+    /**
+     * Sets every entry of a row to 0.
+     */
+    abstract void clear(int row);
+
+    /**
+     * Divides a row by its entry in column, which must not be 0.
+     */
+    abstract void scale(int row, int column);
+
+    /**
+     * Subtracts the multiple of row source that clears column in row target; source has 1 there.
+     */
+    abstract void eliminate(int target, int source, int column);
+
+    /**
+     * Returns an entry in lowest terms.
+     */
+    abstract BigRational get(int row, int column);
+  }
+
+  /**
+   * A tableau of unnormalized long fractions with positive denominators.
+   */
+  private static final class LongTableau extends Tableau {
+
+    private final long[][] n;
+    private final long[][] d;
+    private final long[] scratchN = new long[2];
+    private final long[] scratchD = new long[2];
+
+    LongTableau(LinearProgram program) {
+      int m = program.constraints.length;
+      int columns = program.objective.length + m + 2;
+      n = new long[m + 1][columns];
+      d = new long[m + 1][columns];
+      for (long[] row : d) {
+        Arrays.fill(row, 1);
+      }
+      for (int i = 0; i < m; i++) {
+        Rational[] row = program.constraints[i];
+        for (int j = 0; j < row.length; j++) {
+          Fractions.load(n[i], d[i], j, row[j].numerator, row[j].denominator);
+        }
+        n[i][row.length + i] = 1;
+        n[i][columns - 2] = -1;
+        Fractions.load(n[i], d[i], columns - 1, program.bounds[i].numerator, program.bounds[i].denominator);
+      }
+    }
+
+    @Override
+    int signum(int row, int column) {
+      return Long.signum(n[row][column]);
+    }
+
+    @Override
+    int compare(int row, int column, int otherRow, int otherColumn) {
+      return Fractions.compareProducts(
+        n[row][column], d[otherRow][otherColumn], n[otherRow][otherColumn], d[row][column]
+      );
+    }
+
+    @Override
+    int compareRatios(int row, int otherRow, int column, int rhs) {
+      scratchN[0] = n[row][rhs];
+      scratchD[0] = d[row][rhs];
+      Fractions.divide(scratchN, scratchD, 0, n[row][column], d[row][column]);
+      scratchN[1] = n[otherRow][rhs];
+      scratchD[1] = d[otherRow][rhs];
+      Fractions.divide(scratchN, scratchD, 1, n[otherRow][column], d[otherRow][column]);
+      return Fractions.compareProducts(scratchN[0], scratchD[1], scratchN[1], scratchD[0]);
+    }
+
+    @Override
+    void set(int row, int column, long a, long b) {
+      Fractions.load(n[row], d[row], column, a, b);
+    }
+
+    @Override
+    void negate(int row, int column) {
+      Fractions.negate(n[row], column);
+    }
+
+    @Override
+    void clear(int row) {
+      Arrays.fill(n[row], 0);
+      Arrays.fill(d[row], 1);
+    }
+
+    @Override
+    void scale(int row, int column) {
+      long a = n[row][column];
+      long b = d[row][column];
+      for (int j = 0; j < n[row].length; j++) {
+        if (n[row][j] != 0) {
+          Fractions.divide(n[row], d[row], j, a, b);
+        }
+      }
+      n[row][column] = 1;
+      d[row][column] = 1;
+    }
+
+    @Override
+    void eliminate(int target, int source, int column) {
+      long a = n[target][column];
+      long b = d[target][column];
+      for (int j = 0; j < n[target].length; j++) {
+        if (n[source][j] != 0) {
+          scratchN[0] = n[source][j];
+          scratchD[0] = d[source][j];
+          Fractions.multiply(scratchN, scratchD, 0, a, b);
+          Fractions.subtract(n[target], d[target], j, scratchN[0], scratchD[0]);
+        }
+      }
+      n[target][column] = 0;
+      d[target][column] = 1;
+    }
+
+    @Override
+    BigRational get(int row, int column) {
+      return BigRational.valueOf(n[row][column], d[row][column]);
+    }
+  }
+
+  /**
+   * A tableau of BigRationals, for programs whose entries outgrow longs.
+   */
+  private static final class BigTableau extends Tableau {
+
+    private final BigRational[][] entries;
+
+    BigTableau(LinearProgram program) {
+      int m = program.constraints.length;
+      int columns = program.objective.length + m + 2;
+      entries = new BigRational[m + 1][columns];
+      for (BigRational[] row : entries) {
+        Arrays.fill(row, BigRational.ZERO);
+      }
+      for (int i = 0; i < m; i++) {
+        Rational[] row = program.constraints[i];
+        for (int j = 0; j < row.length; j++) {
+          entries[i][j] = BigRational.valueOf(row[j]);
+        }
+        entries[i][row.length + i] = BigRational.ONE;
+        entries[i][columns - 2] = BigRational.ONE.opposite();
+        entries[i][columns - 1] = BigRational.valueOf(program.bounds[i]);
+      }
+    }
+
+    @Override
+    int signum(int row, int column) {
+      return entries[row][column].signum();
+    }
+
+    @Override
+    int compare(int row, int column, int otherRow, int otherColumn) {
+      return entries[row][column].compareTo(entries[otherRow][otherColumn]);
+    }
+
+    @Override
+    int compareRatios(int row, int otherRow, int column, int rhs) {
+      return entries[row][rhs].dividedBy(entries[row][column])
+        .compareTo(entries[otherRow][rhs].dividedBy(entries[otherRow][column]));
+    }
+
+    @Override
+    void set(int row, int column, long a, long b) {
+      entries[row][column] = BigRational.valueOf(a, b);
+    }
+
+    @Override
+    void negate(int row, int column) {
+      entries[row][column] = entries[row][column].opposite();
+    }
+
+    @Override
+    void clear(int row) {
+      Arrays.fill(entries[row], BigRational.ZERO);
+    }
+
+    @Override
+    void scale(int row, int column) {
+      BigRational pivot = entries[row][column];
+      for (int j = 0; j < entries[row].length; j++) {
+        entries[row][j] = entries[row][j].dividedBy(pivot);
+      }
+    }
+
+    @Override
+    void eliminate(int target, int source, int column) {
+      BigRational factor = entries[target][column];
+      for (int j = 0; j < entries[target].length; j++) {
+        if (entries[source][j].signum() != 0) {
+          entries[target][j] = entries[target][j].minus(factor.times(entries[source][j]));
+        }
+      }
+    }
+
+    @Override
+    BigRational get(int row, int column) {
+      return entries[row][column];
+    }
+  }
+}
@@ -0,0 +1,323 @@
+package numbers;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Exact linear algebra over rational matrices by multi-modular arithmetic. Instead of computing with
+ * fractions whose terms grow at every step, the inputs are mapped into the fields of integers modulo
+ * several 31-bit primes, where every step is plain long arithmetic on residues below 2^31. Several
+ * primes are processed in parallel, their results are combined by the Chinese remainder theorem, and
+ * the exact result is recovered by rational reconstruction.
+ *
+ * <p>Primes are added until the reconstructed result stabilizes: it is accepted once it has been
+ * predicted correctly by {@link #STABLE_PRIMES} further primes that took no part in reconstructing it,
+ * so the number of primes used follows the size of the result rather than a worst-case bound. A wrong
+ * result would have to agree with the true one modulo each of those independent primes, which happens
+ * with probability below 2^-60.
+ */
+public final class MultiModular {
+
+  /**
+   * Number of consecutive primes that must confirm a reconstructed result before it is accepted.
+   */
+  static final int STABLE_PRIMES = 2;
+
+  /**
+   * Upper bound on the number of primes used for one result, which only guards against bugs: even a
+   * result with millions of bits needs far fewer.
+   */
+  static final int MAX_PRIMES = 1 << 16;
+
+  private static long[] primes = new long[0];
+
+  private MultiModular() {
+  }
+
+  /**
+   * Returns the exact determinant of a square matrix.
+   *
+   * @param matrix The matrix, by rows.
+   * @return The determinant.
+   * @throws IllegalArgumentException If the matrix is not square or a denominator is 0.
+   */
+  public static BigRational determinant(Rational[][] matrix) {
+    int n = matrix.length;
+    for (Rational[] row : matrix) {
+      if (row.length != n) {
+        throw new IllegalArgumentException("Matrix must be square.");
+      }
+      checkDenominators(row);
+    }
+    KernelEvent event = RationalEvents.startKernel();
+    BigRational result = reconstruct(
+      1,
+      p -> {
+        long[][] residues = residues(matrix, p);
+        return residues == null ? null : new long[] { determinant(residues, p) };
+      }
+    )[0];
+    RationalEvents.finishKernel(event, "MultiModular.determinant", (long) n * n);
+    return result;
+  }
+
+  /**
+   * Returns the exact product of two matrices.
+   *
+   * @param a The left matrix, by rows.
+   * @param b The right matrix, by rows.
+   * @return The product, by rows.
+   * @throws IllegalArgumentException If the rows of a matrix differ in length, the number of columns
+   *         of a differs from the number of rows of b, or a denominator is 0.
+   */
+  public static BigRational[][] multiply(Rational[][] a, Rational[][] b) {
+    int rows = a.length;
+    int inner = b.length;
+    int columns = inner == 0 ? 0 : b[0].length;
+    for (Rational[] row : a) {
+      if (row.length != inner) {
+        throw new IllegalArgumentException("Inner dimensions must match.");
+      }
+      checkDenominators(row);
+    }
+    for (Rational[] row : b) {
+      if (row.length != columns) {
+        throw new IllegalArgumentException("Matrix rows must have equal lengths.");
+      }
+      checkDenominators(row);
+    }
+    KernelEvent event = RationalEvents.startKernel();
+    BigRational[] entries = reconstruct(
+      rows * columns,
+      p -> {
+        long[][] left = residues(a, p);
+        long[][] right = residues(b, p);
+        return left == null || right == null
+          ? null
+          : multiply(left, right, columns, p);
+      }
+    );
+    BigRational[][] product = new BigRational[rows][];
+    for (int i = 0; i < rows; i++) {
+      product[i] = Arrays.copyOfRange(entries, i * columns, (i + 1) * columns);
+    }
+    RationalEvents.finishKernel(event, "MultiModular.multiply", (long) rows * inner * columns);
+    return product;
+  }
+
+  /**
+   * Recovers size exact values from their residues modulo successive primes. residues returns the values
+   * modulo p, or null if p divides a denominator of the input and cannot be used.
+   */
+  private static BigRational[] reconstruct(int size, LongFunction<long[]> residues) {
+    BigInteger modulus = BigInteger.ONE;
+    BigInteger[] values = new BigInteger[size];
+    Arrays.fill(values, BigInteger.ZERO);
+    BigRational[] candidates = new BigRational[size];
+    int width = Math.max(2, Runtime.getRuntime().availableProcessors());
+    int stable = 0;
+    for (int next = 0; next < MAX_PRIMES; next += width) {
+      long[] round = primes(next, width);
+      long[][] results = IntStream
+        .range(0, width)
+        .parallel()
+        .mapToObj(k -> residues.apply(round[k]))
+        .toArray(long[][]::new);
+      for (int k = 0; k < width; k++) {
+        long p = round[k];
+        long[] r = results[k];
+        if (r == null) {
+          continue;
+        }
+        // Check the current candidates against a prime they were not reconstructed from, then fold it in.
+        boolean confirmed = true;
+        for (int i = 0; i < size && confirmed; i++) {
+          confirmed = candidates[i] != null && predicts(candidates[i], r[i], p);
+        }
+        stable = confirmed ? stable + 1 : 0;
+        if (stable >= STABLE_PRIMES) {
+          return candidates;
+        }
+        long inverse = inverse(modulus.mod(BigInteger.valueOf(p)).longValue(), p);
+        for (int i = 0; i < size; i++) {
+          long difference = Math.floorMod(r[i] - values[i].mod(BigInteger.valueOf(p)).longValue(), p);
+          values[i] = values[i].add(modulus.multiply(BigInteger.valueOf(difference * inverse % p)));
+        }
+        modulus = modulus.multiply(BigInteger.valueOf(p));
+        if (!confirmed) {
+          for (int i = 0; i < size; i++) {
+            candidates[i] = reconstruct(values[i], modulus);
+          }
+        }
+      }
+    }
+    throw new IllegalStateException("Result did not stabilize.");
+  }
+
+  /**
+   * Returns whether candidate reduces to residue modulo p.
+   */
+  private static boolean predicts(BigRational candidate, long residue, long p) {
+    BigInteger prime = BigInteger.valueOf(p);
+    long d = candidate.getDenominator().mod(prime).longValue();
+    long n = candidate.getNumerator().mod(prime).longValue();
+    return d != 0 && n == residue * d % p;
+  }
+
+  /**
+   * Returns the fraction n/d congruent to u modulo m with |n| and d at most sqrt(m / 2), or null if
+   * there is none. Such a fraction is unique when it exists.
+   */
+  static BigRational reconstruct(BigInteger u, BigInteger m) {
+    BigInteger r0 = m;
+    BigInteger r1 = u;
+    BigInteger t0 = BigInteger.ZERO;
+    BigInteger t1 = BigInteger.ONE;
+    while (r1.multiply(r1).shiftLeft(1).compareTo(m) > 0) {
+      BigInteger[] quotient = r0.divideAndRemainder(r1);
+      r0 = r1;
+      r1 = quotient[1];
+      BigInteger t = t0.subtract(quotient[0].multiply(t1));
+      t0 = t1;
+      t1 = t;
+    }
+    if (
+      t1.multiply(t1).shiftLeft(1).compareTo(m) > 0 ||
+      !r1.gcd(t1).equals(BigInteger.ONE)
+    ) {
+      return null;
+    }
+    return BigRational.of(r1, t1);
+  }
+
+  /**
+   * Returns the determinant modulo p by Gaussian elimination, destroying the matrix.
+   */
+  private static long determinant(long[][] m, long p) {
+    int n = m.length;
+    long determinant = 1;
+    for (int column = 0; column < n; column++) {
+      int pivot = column;
+      while (pivot < n && m[pivot][column] == 0) {
+        pivot++;
+      }
+      if (pivot == n) {
+        return 0;
+      }
+      if (pivot != column) {
+        long[] row = m[pivot];
+        m[pivot] = m[column];
+        m[column] = row;
+        determinant = p - determinant;
+      }
+      long[] top = m[column];
+      determinant = determinant * top[column] % p;
+      long inverse = inverse(top[column], p);
+      for (int i = column + 1; i < n; i++) {
+        long[] row = m[i];
+        long factor = row[column] * inverse % p;
+        if (factor != 0) {
+          for (int j = column + 1; j < n; j++) {
+            row[j] = Math.floorMod(row[j] - factor * top[j] % p, p);
+          }
+        }
+      }
+    }
+    return determinant % p;
+  }
+
+  /**
+   * Returns the product of a and b modulo p, flattened by rows.
+   */
+  private static long[] multiply(long[][] a, long[][] b, int columns, long p) {
+    long[] product = new long[a.length * columns];
+    for (int i = 0; i < a.length; i++) {
+      for (int k = 0; k < b.length; k++) {
+        long x = a[i][k];
+        if (x != 0) {
+          long[] row = b[k];
+          for (int j = 0; j < columns; j++) {
+            product[i * columns + j] = (product[i * columns + j] + x * row[j]) % p;
+          }
+        }
+      }
+    }
+    return product;
+  }
+
+  /**
+   * Returns the matrix modulo p, or null if p divides one of its denominators.
+   */
+  private static long[][] residues(Rational[][] matrix, long p) {
+    long[][] residues = new long[matrix.length][];
+    for (int i = 0; i < matrix.length; i++) {
+      Rational[] row = matrix[i];
+      residues[i] = new long[row.length];
+      for (int j = 0; j < row.length; j++) {
+        long d = Math.floorMod((long) row[j].denominator, p);
+        if (d == 0) {
+          return null;
+        }
+        residues[i][j] = Math.floorMod((long) row[j].numerator, p) * inverse(d, p) % p;
+      }
+    }
+    return residues;
+  }
+
+  /**
+   * Returns the inverse of a modulo the prime p, for a in [1, p).
+   */
+  private static long inverse(long a, long p) {
+    long r0 = p;
+    long r1 = a;
+    long t0 = 0;
+    long t1 = 1;
+    while (r1 != 0) {
+      long q = r0 / r1;
+      long r = r0 - q * r1;
+      r0 = r1;
+      r1 = r;
+      long t = t0 - q * t1;
+      t0 = t1;
+      t1 = t;
+    }
+    return Math.floorMod(t0, p);
+  }
+
+  /**
+   * Returns count primes starting with the k-th largest below 2^31.
+   */
+  private static synchronized long[] primes(int k, int count) {
+    if (primes.length < k + count) {
+      int length = primes.length;
+      long[] grown = Arrays.copyOf(primes, Math.max(k + count, 2 * length));
+      long candidate = length == 0 ? Integer.MAX_VALUE : primes[length - 1] - 2;
+      for (; length < grown.length; candidate -= 2) {
+        if (isPrime(candidate)) {
+          grown[length++] = candidate;
+        }
+      }
+      primes = grown;
+    }
+    return Arrays.copyOfRange(primes, k, k + count);
+  }
+
+  private static boolean isPrime(long n) {
+    for (long f = 3; f * f <= n; f += 2) {
+      if (n % f == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void checkDenominators(Rational[] row) {
+    for (Rational r : row) {
+      if (r.denominator == 0) {
+        throw new IllegalArgumentException("Denominator cannot be zero.");
+      }
+    }
+  }
+}
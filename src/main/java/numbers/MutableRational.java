@@ -0,0 +1,522 @@
+package numbers;
+
+import java.util.Arrays;
+
+/**
+ * A mutable rational number for accumulating results in place, without allocating a new object for
+ * every step as {@link Rational}'s operations do.
+ *
+ * <p>The value is kept in long fields and, like the slots of {@link Fractions}, is only reduced when a
+ * product would overflow, so consecutive operations cost a few multiplications each; call
+ * {@link #reduce()} or {@link #toRational()} to normalize. Operations are exact: they throw instead of
+ * wrapping when even the reduced result does not fit in a long.
+ *
+ * <p>Temporaries can be reused through a per-thread pool. Values taken from a {@link Scope} belong to it
+ * and are handed out again once it is closed:
+ *
+ * <pre>{@code
+ * try (MutableRational.Scope scope = MutableRational.scope()) {
+ *   MutableRational sum = scope.get();
+ *   for (Rational r : values) {
+ *     sum.add(r);
+ *   }
+ *   return sum.toRational();
+ * }
+ * }</pre>
+ *
+ * <p>Instances are not thread-safe.
+ */
+public final class MutableRational {
+
+  private static final ThreadLocal<Pool> POOL = ThreadLocal.withInitial(Pool::new);
+
+  private long numerator;
+  private long denominator = 1;
+
+  /**
+   * Creates a MutableRational holding 0.
+   */
+  public MutableRational() {
+  }
+
+  /**
+   * Creates a MutableRational holding a/b.
+   *
+   * @param a The numerator.
+   * @param b The denominator. Must not be zero.
+   * @throws IllegalArgumentException If b is 0, or a/b cannot be written with a positive denominator.
+   */
+  public MutableRational(long a, long b) {
+    set(a, b);
+  }
+
+  /**
+   * Creates a MutableRational holding the value of r.
+   *
+   * @param r The initial value.
+   */
+  public MutableRational(Rational r) {
+    set(r);
+  }
+
+  /**
+   * Opens a scope on the current thread's pool of temporaries. Scopes must be closed on the thread that
+   * opened them, innermost first, which try-with-resources does.
+   *
+   * @return The new scope.
+   */
+  public static Scope scope() {
+    return new Scope(POOL.get());
+  }
+
+  /**
+   * Sets this value to a/b.
+   *
+   * @param a The numerator.
+   * @param b The denominator. Must not be zero.
+   * @return This object.
+   * @throws IllegalArgumentException If b is 0, or a/b cannot be written with a positive denominator.
+   */
+  public MutableRational set(long a, long b) {
+    checkDenominator(a, b);
+    numerator = b < 0 ? -a : a;
+    denominator = Math.abs(b);
+    return this;
+  }
+
+  /**
+   * Sets this value to r.
+   *
+   * @param r The new value.
+   * @return This object.
+   */
+  public MutableRational set(Rational r) {
+    return set(r.numerator, r.denominator);
+  }
+
+  /**
+   * Sets this value to the value of r.
+   *
+   * @param r The new value.
+   * @return This object.
+   */
+  public MutableRational set(MutableRational r) {
+    numerator = r.numerator;
+    denominator = r.denominator;
+    return this;
+  }
+
+  /**
+   * Adds a/b to this value.
+   *
+   * @param a The numerator of the operand.
+   * @param b The denominator of the operand. Must not be zero.
+   * @return This object.
+   * @throws IllegalArgumentException If b is 0 or the sum overflows even after reducing.
+   */
+  public MutableRational add(long a, long b) {
+    checkDenominator(a, b);
+    return addTerm(b < 0 ? -a : a, Math.abs(b));
+  }
+
+  /**
+   * Adds the integer a to this value.
+   *
+   * @param a The operand.
+   * @return This object.
+   * @throws IllegalArgumentException If the sum overflows even after reducing.
+   */
+  public MutableRational add(long a) {
+    return addTerm(a, 1);
+  }
+
+  /**
+   * Adds r to this value.
+   *
+   * @param r The operand.
+   * @return This object.
+   * @throws IllegalArgumentException If the sum overflows even after reducing.
+   */
+  public MutableRational add(Rational r) {
+    return add(r.numerator, r.denominator);
+  }
+
+  /**
+   * Adds r to this value.
+   *
+   * @param r The operand.
+   * @return This object.
+   * @throws IllegalArgumentException If the sum overflows even after reducing.
+   */
+  public MutableRational add(MutableRational r) {
+    return addTerm(r.numerator, r.denominator);
+  }
+
+  /**
+   * Subtracts a/b from this value.
+   *
+   * @param a The numerator of the operand.
+   * @param b The denominator of the operand. Must not be zero.
+   * @return This object.
+   * @throws IllegalArgumentException If b is 0 or the difference overflows even after reducing.
+   */
+  public MutableRational sub(long a, long b) {
+    checkDenominator(a, b);
+    return subtractTerm(b < 0 ? -a : a, Math.abs(b));
+  }
+
+  /**
+   * Subtracts the integer a from this value.
+   *
+   * @param a The operand.
+   * @return This object.
+   * @throws IllegalArgumentException If the difference overflows even after reducing.
+   */
+  public MutableRational sub(long a) {
+    return subtractTerm(a, 1);
+  }
+
+  /**
+   * Subtracts r from this value.
+   *
+   * @param r The operand.
+   * @return This object.
+   * @throws IllegalArgumentException If the difference overflows even after reducing.
+   */
+  public MutableRational sub(Rational r) {
+    return sub(r.numerator, r.denominator);
+  }
+
+  /**
+   * Subtracts r from this value.
+   *
+   * @param r The operand.
+   * @return This object.
+   * @throws IllegalArgumentException If the difference overflows even after reducing.
+   */
+  public MutableRational sub(MutableRational r) {
+    return subtractTerm(r.numerator, r.denominator);
+  }
+
+  /**
+   * Multiplies this value by a/b.
+   *
+   * @param a The numerator of the operand.
+   * @param b The denominator of the operand. Must not be zero.
+   * @return This object.
+   * @throws IllegalArgumentException If b is 0 or the product overflows even after reducing.
+   */
+  public MutableRational mul(long a, long b) {
+    checkDenominator(a, b);
+    return multiplyTerm(b < 0 ? -a : a, Math.abs(b));
+  }
+
+  /**
+   * Multiplies this value by the integer a.
+   *
+   * @param a The operand.
+   * @return This object.
+   * @throws IllegalArgumentException If the product overflows even after reducing.
+   */
+  public MutableRational mul(long a) {
+    return multiplyTerm(a, 1);
+  }
+
+  /**
+   * Multiplies this value by r.
+   *
+   * @param r The operand.
+   * @return This object.
+   * @throws IllegalArgumentException If the product overflows even after reducing.
+   */
+  public MutableRational mul(Rational r) {
+    return mul(r.numerator, r.denominator);
+  }
+
+  /**
+   * Multiplies this value by r.
+   *
+   * @param r The operand.
+   * @return This object.
+   * @throws IllegalArgumentException If the product overflows even after reducing.
+   */
+  public MutableRational mul(MutableRational r) {
+    return multiplyTerm(r.numerator, r.denominator);
+  }
+
+  /**
+   * Divides this value by a/b.
+   *
+   * @param a The numerator of the divisor.
+   * @param b The denominator of the divisor. Must not be zero.
+   * @return This object.
+   * @throws IllegalArgumentException If a or b is 0 or the quotient overflows even after reducing.
+   */
+  public MutableRational div(long a, long b) {
+    checkDenominator(a, b);
+    return divideTerm(b < 0 ? -a : a, Math.abs(b));
+  }
+
+  /**
+   * Divides this value by the integer a.
+   *
+   * @param a The divisor.
+   * @return This object.
+   * @throws IllegalArgumentException If a is 0 or the quotient overflows even after reducing.
+   */
+  public MutableRational div(long a) {
+    return divideTerm(a, 1);
+  }
+
+  /**
+   * Divides this value by r.
+   *
+   * @param r The divisor.
+   * @return This object.
+   * @throws IllegalArgumentException If r is 0 or the quotient overflows even after reducing.
+   */
+  public MutableRational div(Rational r) {
+    return div(r.numerator, r.denominator);
+  }
+
+  /**
+   * Divides this value by r.
+   *
+   * @param r The divisor.
+   * @return This object.
+   * @throws IllegalArgumentException If r is 0 or the quotient overflows even after reducing.
+   */
+  public MutableRational div(MutableRational r) {
+    return divideTerm(r.numerator, r.denominator);
+  }
+
+  /**
+   * Replaces this value with its additive inverse.
+   *
+   * @return This object.
+   * @throws IllegalArgumentException If the numerator is Long.MIN_VALUE.
+   */
+  public MutableRational negate() {
+    if (numerator == Long.MIN_VALUE) {
+      throw new IllegalArgumentException("Integer overflow.");
+    }
+    numerator = -numerator;
+    return this;
+  }
+
+  /**
+   * Reduces this value to lowest terms.
+   *
+   * @return This object.
+   */
+  public MutableRational reduce() {
+    long g = Fractions.gcd(numerator, denominator);
+    if (g > 1) {
+      numerator /= g;
+      denominator /= g;
+    }
+    return this;
+  }
+
+  /**
+   * Returns the current numerator, which carries the sign. It is only in lowest terms after
+   * {@link #reduce()}.
+   *
+   * @return The numerator.
+   */
+  public long getNumerator() {
+    return numerator;
+  }
+
+  /**
+   * Returns the current denominator, which is always positive. It is only in lowest terms after
+   * {@link #reduce()}.
+   *
+   * @return The denominator.
+   */
+  public long getDenominator() {
+    return denominator;
+  }
+
+  /**
+   * Returns the sign of this value.
+   *
+   * @return -1, 0 or 1 as this value is negative, zero or positive.
+   */
+  public int signum() {
+    return Long.signum(numerator);
+  }
+
+  /**
+   * Reduces this value and returns it as a new Rational. The Rational is filled in directly, without
+   * repeating the gcd its constructor would compute.
+   *
+   * @return A new Rational holding this value.
+   * @throws IllegalArgumentException If the reduced value does not fit in an int numerator and
+   *         denominator.
+   */
+  public Rational toRational() {
+    reduce();
+    return Rational.ofReduced(Fractions.toIntExact(numerator), Fractions.toIntExact(denominator));
+  }
+
+  /**
+   * Returns a string representation of the current numerator and denominator, like
+   * {@link Rational#toString()}.
+   *
+   * @return A string representation of this value.
+   */
+  @Override
+  public String toString() {
+    return denominator == 1 ? String.valueOf(numerator) : numerator + "/" + denominator;
+  }
+
+  /**
+   * Adds b/c, where c is positive. The common case needs no reduction; when a product overflows, the
+   * value is handed to {@link Fractions#add(long[], long[], int, long, long)}, which reduces it.
+   */
+  private MutableRational addTerm(long b, long c) {
+    try {
+      long sum = Math.addExact(Math.multiplyExact(numerator, c), Math.multiplyExact(b, denominator));
+      denominator = Math.multiplyExact(denominator, c);
+      numerator = sum;
+    } catch (ArithmeticException e) {
+      long[] n = { numerator };
+      long[] d = { denominator };
+      Fractions.add(n, d, 0, b, c);
+      return store(n, d);
+    }
+    return this;
+  }
+
+  private MutableRational subtractTerm(long b, long c) {
+    if (b == Long.MIN_VALUE) {
+      throw new IllegalArgumentException("Integer overflow.");
+    }
+    return addTerm(-b, c);
+  }
+
+  /**
+   * Multiplies by b/c, where c is positive, like {@link #addTerm(long, long)}.
+   */
+  private MutableRational multiplyTerm(long b, long c) {
+    try {
+      long product = Math.multiplyExact(numerator, b);
+      denominator = Math.multiplyExact(denominator, c);
+      numerator = product;
+    } catch (ArithmeticException e) {
+      long[] n = { numerator };
+      long[] d = { denominator };
+      Fractions.multiply(n, d, 0, b, c);
+      return store(n, d);
+    }
+    return this;
+  }
+
+  /**
+   * Divides by b/c, where c is positive. Divisors that are not positive are checked by
+   * {@link Fractions#divide(long[], long[], int, long, long)}.
+   */
+  private MutableRational divideTerm(long b, long c) {
+    if (b > 0) {
+      return multiplyTerm(c, b);
+    }
+    long[] n = { numerator };
+    long[] d = { denominator };
+    Fractions.divide(n, d, 0, b, c);
+    return store(n, d);
+  }
+
+  private MutableRational store(long[] n, long[] d) {
+    numerator = n[0];
+    denominator = d[0];
+    return this;
+  }
+
+  private static void checkDenominator(long a, long b) {
+    if (b == 0) {
+      throw new IllegalArgumentException("Denominator cannot be zero.");
+    }
+    if (b < 0) {
+      checkNegatable(a, b);
+    }
+  }
+
+  private static void checkNegatable(long a, long b) {
+    if (a == Long.MIN_VALUE || b == Long.MIN_VALUE) {
+      throw new IllegalArgumentException("Integer overflow.");
+    }
+  }
+
+  /**
+   * A block of pooled temporaries, released together when the scope is closed.
+   */
+  public static final class Scope implements AutoCloseable {
+
+    private final Pool pool;
+    private final Scope parent;
+    private final int mark;
+
+    private Scope(Pool pool) {
+      this.pool = pool;
+      this.parent = pool.current;
+      this.mark = pool.top;
+      pool.current = this;
+    }
+
+    /**
+     * Returns a pooled MutableRational holding 0, which belongs to this scope until it is closed.
+     *
+     * @return A temporary.
+     * @throws IllegalStateException If called on another thread, after the scope was closed, or while a
+     *         scope opened inside this one is still open.
+     */
+    public MutableRational get() {
+      pool.checkCurrent(this);
+      if (pool.top == pool.items.length) {
+        pool.items = Arrays.copyOf(pool.items, 2 * pool.items.length);
+      }
+      MutableRational r = pool.items[pool.top];
+      if (r == null) {
+        r = new MutableRational();
+        pool.items[pool.top] = r;
+      }
+      pool.top++;
+      return r.set(0, 1);
+    }
+
+    /**
+     * Returns every temporary taken from this scope to the pool.
+     *
+     * @throws IllegalStateException If called on another thread, twice, or while a scope opened inside
+     *         this one is still open.
+     */
+    @Override
+    public void close() {
+      pool.checkCurrent(this);
+      pool.top = mark;
+      pool.current = parent;
+    }
+  }
+
+  /**
+   * The temporaries of one thread. The first top of them belong to open scopes, the innermost of which
+   * is current.
+   */
+  private static final class Pool {
+
+    final Thread owner = Thread.currentThread();
+    MutableRational[] items = new MutableRational[16];
+    int top;
+    Scope current;
+
+    void checkCurrent(Scope scope) {
+      if (owner != Thread.currentThread()) {
+        throw new IllegalStateException("Scopes must be used on the thread that opened them.");
+      }
+      if (current != scope) {
+        throw new IllegalStateException("Only the innermost open scope can be used.");
+      }
+    }
+  }
+}
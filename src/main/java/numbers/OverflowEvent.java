@@ -0,0 +1,40 @@
+package numbers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for an operation whose exact result did not fit the type it was computed in.
+ * The outcome says what happened next: the eager {@link Rational} operations silently wrap around, the
+ * long fraction slots used by the bulk kernels first retry after reducing, and the accumulators promote to
+ * arbitrary precision.
+ */
+@Name("numbers.Overflow")
+@Label("Rational Overflow")
+@Category({ "Rational" })
+@Description("An arithmetic result overflowed and was wrapped, reduced, promoted or rejected")
+@StackTrace(true)
+final class OverflowEvent extends jdk.jfr.Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Outcome")
+  @Description("WRAPPED, REDUCED, PROMOTED or FAILED")
+  String outcome;
+
+  @Label("Left Numerator")
+  long leftNumerator;
+
+  @Label("Left Denominator")
+  long leftDenominator;
+
+  @Label("Right Numerator")
+  long rightNumerator;
+
+  @Label("Right Denominator")
+  long rightDenominator;
+}
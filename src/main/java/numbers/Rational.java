@@ -1,8 +1,21 @@
 package numbers;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
 public class Rational extends Number implements Comparable<Number> {
 
   public static final long serialVersionUID = 1L;
+
+  /**
+   * The tolerance within which {@link #equals(Object)} considers a Float or Double equal to a Rational.
+   */
+  public static final double EPSILON = 0x1p-40;
+  /**
+   * The most digits after the point that {@link #toDecimalString()} writes before cutting the expansion.
+   */
+  public static final int DECIMAL_DIGITS = 1000;
   /**
    * Numerator for rational number
    */
@@ -18,6 +31,9 @@ public class Rational extends Number implements Comparable<Number> {
   public Rational() {
     this.numerator = 0;
     this.denominator = 1;
+    if (RationalMetrics.enabled) {
+      RationalMetrics.recordConstruction(false);
+    }
   }
 
   /**
@@ -28,6 +44,9 @@ public class Rational extends Number implements Comparable<Number> {
   public Rational(int a) {
     this.numerator = a;
     this.denominator = 1;
+    if (RationalMetrics.enabled) {
+      RationalMetrics.recordConstruction(false);
+    }
   }
 
   /**
@@ -42,13 +61,29 @@ public class Rational extends Number implements Comparable<Number> {
     if (b == 0) {
       throw new IllegalArgumentException("Denominator cannot be zero.");
     }
-    if (b < 0) {
+    boolean negative = b < 0;
+    if (negative) {
+      if (
+        (RationalMetrics.enabled || RationalEvents.recording) &&
+        (a == Integer.MIN_VALUE || b == Integer.MIN_VALUE)
+      ) {
+        RationalMetrics.overflowed(
+          RationalMetrics.Operation.CONSTRUCTOR,
+          a,
+          b,
+          0,
+          1
+        );
+      }
       a = -a;
       b = -b;
     }
     int gcd = gcd(a, b);
     this.numerator = a / gcd;
     this.denominator = b / gcd;
+    if (RationalMetrics.enabled) {
+      RationalMetrics.recordConstruction(negative || gcd != 1);
+    }
   }
 
   /**
@@ -63,6 +98,98 @@ public class Rational extends Number implements Comparable<Number> {
     }
     this.numerator = r.numerator;
     this.denominator = r.denominator;
+    if (RationalMetrics.enabled) {
+      RationalMetrics.recordConstruction(false);
+    }
+  }
+
+  /**
+   * Returns a/b without reducing it, for callers that already know a/b is in lowest terms.
+   * Skips the gcd that {@link #Rational(int, int)} would compute; no checks are made.
+   *
+   * @param a The numerator.
+   * @param b The denominator, coprime to a and not zero.
+   * @return A new Rational holding a/b.
+   */
+  static Rational ofReduced(int a, int b) {
+    Rational r = new Rational();
+    r.numerator = a;
+    r.denominator = b;
+    return r;
+  }
+
+  /**
+   * Returns the Rational closest to x among those with an int numerator and a positive int denominator.
+   * The result is exactly equal to x whenever x can be written that way, for example 0.5 or -3.25.
+   *
+   * @param x The value to convert.
+   * @return A new Rational equal or closest to x.
+   * @throws IllegalArgumentException If x is NaN, infinite or outside the int range.
+   */
+  public static Rational fromDouble(double x) {
+    return approximate(x, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns the best rational approximation of x with a denominator of at most maxDenominator.
+   * The approximation is found from the continued fraction of x (a walk down the Stern-Brocot tree), which
+   * takes at most a few dozen steps for any double; of two equally close candidates the one with the smaller
+   * denominator is returned.
+   *
+   * @param x The value to approximate.
+   * @param maxDenominator The largest allowed denominator. Must be positive.
+   * @return A new Rational closest to x among those with a denominator of at most maxDenominator.
+   * @throws IllegalArgumentException If maxDenominator is not positive, or if x is NaN, infinite or outside the int range.
+   */
+  public static Rational approximate(double x, int maxDenominator) {
+    checkMaxDenominator(maxDenominator);
+    long packed = Fractions.approximate(x, maxDenominator);
+    return new Rational(
+      Fractions.numerator(packed),
+      Fractions.denominator(packed)
+    );
+  }
+
+  /**
+   * Converts a column of doubles into numerator and denominator columns, as if by
+   * {@link #approximate(double, int)} on each element. Large columns are converted in parallel.
+   * The results are in lowest terms with positive denominators.
+   *
+   * @param values The values to convert.
+   * @param maxDenominator The largest allowed denominator. Must be positive.
+   * @param numerators Receives the numerators.
+   * @param denominators Receives the denominators.
+   * @throws IllegalArgumentException If the arrays differ in length, if maxDenominator is not positive,
+   *                                  or if any value is NaN, infinite or outside the int range.
+   */
+  public static void fromDoubles(
+    double[] values,
+    int maxDenominator,
+    int[] numerators,
+    int[] denominators
+  ) {
+    checkMaxDenominator(maxDenominator);
+    if (
+      numerators.length != values.length || denominators.length != values.length
+    ) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+    KernelEvent event = RationalEvents.startKernel();
+    Fractions.forEachIndex(
+      values.length,
+      i -> {
+        long packed = Fractions.approximate(values[i], maxDenominator);
+        numerators[i] = Fractions.numerator(packed);
+        denominators[i] = Fractions.denominator(packed);
+      }
+    );
+    RationalEvents.finishKernel(event, "Rational.fromDoubles", values.length);
+  }
+
+  private static void checkMaxDenominator(int maxDenominator) {
+    if (maxDenominator < 1) {
+      throw new IllegalArgumentException("Maximum denominator must be positive.");
+    }
   }
 
   /**
@@ -73,10 +200,17 @@ public class Rational extends Number implements Comparable<Number> {
    * @return The greatest common divisor of a and b.
    */
   public static int gcd(int a, int b) {
-    if (b == 0) {
-      return a;
+    int iterations = 0;
+    while (b != 0) {
+      int remainder = a % b;
+      a = b;
+      b = remainder;
+      iterations++;
+    }
+    if (RationalMetrics.enabled) {
+      RationalMetrics.recordGcd(iterations);
     }
-    return gcd(b, a % b);
+    return a;
   }
 
   /**
@@ -141,10 +275,122 @@ public class Rational extends Number implements Comparable<Number> {
     return (double) numerator / denominator;
   }
 
+  /**
+   * Returns this value as a BigDecimal rounded to the precision and rounding mode of mc.
+   *
+   * @param mc The precision and rounding mode; a precision of 0 requires an exact, terminating result.
+   * @return The rounded value.
+   * @throws IllegalArgumentException If the result must be rounded but the rounding mode of mc is
+   *                                  {@link RoundingMode#UNNECESSARY}, or the precision is 0 and the
+   *                                  expansion does not terminate.
+   */
+  public BigDecimal toBigDecimal(MathContext mc) {
+    try {
+      return BigDecimal.valueOf(numerator).divide(BigDecimal.valueOf(denominator), mc);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Rounding necessary.", e);
+    }
+  }
+
+  /**
+   * Returns this value as a BigDecimal with the specified number of digits after the point.
+   *
+   * @param scale The scale of the result.
+   * @param mode How to round when the value has more digits.
+   * @return The rounded value.
+   * @throws IllegalArgumentException If mode is {@link RoundingMode#UNNECESSARY} and rounding is needed.
+   */
+  public BigDecimal toBigDecimal(int scale, RoundingMode mode) {
+    try {
+      return BigDecimal.valueOf(numerator).divide(BigDecimal.valueOf(denominator), scale, mode);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Rounding necessary.", e);
+    }
+  }
+
+  /**
+   * Returns the decimal expansion of this value, with the repetend in parentheses, like "0.1(6)"
+   * for 1/6, "-0.25" for -1/4 and "3" for 3. The lengths of the part before the repetend and of the
+   * repetend follow from the factors of the denominator, so the digits are computed without looking for a
+   * repeated remainder. Expansions longer than {@link #DECIMAL_DIGITS} digits are cut as by
+   * {@link #toDecimalString(int)}.
+   *
+   * @return The decimal expansion.
+   */
+  public String toDecimalString() {
+    return toDecimalString(DECIMAL_DIGITS);
+  }
+
+  /**
+   * Returns the decimal expansion of this value like {@link #toDecimalString()} if it has at most
+   * maxDigits digits after the point, counting the repetend once; longer expansions are cut after
+   * maxDigits digits and followed by "...". A repetend can be as long as the denominator less one, so
+   * passing Integer.MAX_VALUE asks for the exact expansion however long it is.
+   *
+   * @param maxDigits The most digits to write after the point.
+   * @return The decimal expansion.
+   * @throws IllegalArgumentException If maxDigits is negative.
+   */
+  public String toDecimalString(int maxDigits) {
+    checkMaxDigits(maxDigits);
+    return Fractions.toDecimalString(
+      numerator,
+      denominator,
+      maxDigits,
+      Fractions.decimalExpansion(denominator / Fractions.gcd(numerator, denominator))
+    );
+  }
+
+  /**
+   * Formats a column of fractions like {@link #toDecimalString(int)}. The shape of the expansion is
+   * reused across runs of equal reduced denominators, and large columns are split into chunks that are
+   * formatted in parallel.
+   *
+   * @param numerators The numerators.
+   * @param denominators The denominators.
+   * @param maxDigits The most digits to write after the point.
+   * @param out Receives the decimal strings.
+   * @throws IllegalArgumentException If the arrays differ in length, a denominator is 0, or maxDigits is
+   *                                  negative.
+   */
+  public static void toDecimalStrings(
+    int[] numerators,
+    int[] denominators,
+    int maxDigits,
+    String[] out
+  ) {
+    Fractions.checkColumns(numerators, denominators);
+    checkMaxDigits(maxDigits);
+    int rows = numerators.length;
+    if (out.length != rows) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+    Fractions.forEachChunk(rows, "Rational.toDecimalStrings", (from, to) -> {
+      long denominator = 0;
+      long expansion = 0;
+      for (int row = from; row < to; row++) {
+        long reduced = Math.abs(denominators[row] / Fractions.gcd(numerators[row], denominators[row]));
+        if (reduced != denominator) {
+          denominator = reduced;
+          expansion = Fractions.decimalExpansion(denominator);
+        }
+        out[row] = Fractions.toDecimalString(numerators[row], denominators[row], maxDigits, expansion);
+      }
+    });
+  }
+
+  private static void checkMaxDigits(int maxDigits) {
+    if (maxDigits < 0) {
+      throw new IllegalArgumentException("Digit limit cannot be negative.");
+    }
+  }
+
   /**
    * Compares this Rational with the specified Object for order.
    * Returns a negative integer, zero, or a positive integer as this Rational
    * is less than, equal to, or greater than the specified Object.
+   * Rationals, integers, BigRationals, Floats and Doubles are compared exactly; other numbers are
+   * compared through their double value.
    *
    * @param o the Object to be compared.
    * @return A negative integer, zero, or a positive integer as this object
@@ -152,9 +398,48 @@ public class Rational extends Number implements Comparable<Number> {
    */
   @Override
   public int compareTo(Number o) {
-    double thisVal = this.doubleValue();
-    double otherVal = o.doubleValue();
-    return Double.compare(thisVal, otherVal);
+    if (o instanceof Rational) {
+      Rational r = (Rational) o;
+      return Fractions.compare(numerator, denominator, r.numerator, r.denominator);
+    }
+    if (o instanceof Integer || o instanceof Long || o instanceof Short || o instanceof Byte) {
+      return compareTo(o.longValue());
+    }
+    if (o instanceof LazyRational) {
+      return compareTo(((LazyRational) o).toRational());
+    }
+    if (o instanceof BigRational) {
+      return BigRational.valueOf(this).compareTo((BigRational) o);
+    }
+    return compareTo(o.doubleValue());
+  }
+
+  /**
+   * Compares this Rational with the double x exactly, without rounding this value to a double.
+   * NaN is greater than every Rational, as in {@link Double#compare(double, double)}.
+   *
+   * @param x The double to compare with.
+   * @return A negative integer, zero, or a positive integer as this value is less than, equal to, or
+   *         greater than x.
+   */
+  public int compareTo(double x) {
+    return Fractions.compareToDouble(numerator, denominator, x);
+  }
+
+  /**
+   * Compares this Rational with the integer k exactly, without converting either to a double.
+   *
+   * @param k The integer to compare with.
+   * @return A negative integer, zero, or a positive integer as this value is less than, equal to, or
+   *         greater than k.
+   */
+  public int compareTo(long k) {
+    // a/b = floor(a/b) + r/b with 0 <= r/b < 1, whatever the sign of b.
+    long floor = Math.floorDiv((long) numerator, denominator);
+    if (floor != k) {
+      return Long.compare(floor, k);
+    }
+    return Math.floorMod((long) numerator, denominator) == 0 ? 0 : 1;
   }
 
   /**
@@ -165,6 +450,18 @@ public class Rational extends Number implements Comparable<Number> {
    * @throws IllegalArgumentException If the operation would cause an integer overflow.
    */
   public Rational opposite() {
+    if (
+      (RationalMetrics.enabled || RationalEvents.recording) &&
+      numerator == Integer.MIN_VALUE
+    ) {
+      RationalMetrics.overflowed(
+        RationalMetrics.Operation.OPPOSITE,
+        numerator,
+        denominator,
+        0,
+        1
+      );
+    }
     return new Rational(-numerator, denominator);
   }
 
@@ -189,6 +486,16 @@ public class Rational extends Number implements Comparable<Number> {
    * @return A new Rational representing the sum of this value and r.
    */
   public Rational plus(Rational r) {
+    if (RationalMetrics.enabled || RationalEvents.recording) {
+      RationalMetrics.checkSum(
+        RationalMetrics.Operation.PLUS,
+        numerator,
+        denominator,
+        r.numerator,
+        r.denominator,
+        false
+      );
+    }
     int commonDenominator = this.denominator * r.denominator;
     int numeratorSum =
       this.numerator * r.denominator + r.numerator * this.denominator;
@@ -202,6 +509,16 @@ public class Rational extends Number implements Comparable<Number> {
    * @return A new Rational representing the difference between this value and r.
    */
   public Rational minus(Rational r) {
+    if (RationalMetrics.enabled || RationalEvents.recording) {
+      RationalMetrics.checkSum(
+        RationalMetrics.Operation.MINUS,
+        numerator,
+        denominator,
+        r.numerator,
+        r.denominator,
+        true
+      );
+    }
     int commonDenominator = this.denominator * r.denominator;
     int numeratorDifference =
       this.numerator * r.denominator - r.numerator * this.denominator;
@@ -215,6 +532,15 @@ public class Rational extends Number implements Comparable<Number> {
    * @return A new Rational representing the product of this value and r.
    */
   public Rational times(Rational r) {
+    if (RationalMetrics.enabled || RationalEvents.recording) {
+      RationalMetrics.checkProduct(
+        RationalMetrics.Operation.TIMES,
+        numerator,
+        denominator,
+        r.numerator,
+        r.denominator
+      );
+    }
     return new Rational(
       this.numerator * r.numerator,
       this.denominator * r.denominator
@@ -232,12 +558,148 @@ public class Rational extends Number implements Comparable<Number> {
     if (r.numerator == 0) {
       throw new IllegalArgumentException("Cannot divide by Rational number 0.");
     }
+    if (RationalMetrics.enabled || RationalEvents.recording) {
+      RationalMetrics.checkProduct(
+        RationalMetrics.Operation.DIVIDED_BY,
+        numerator,
+        denominator,
+        r.denominator,
+        r.numerator
+      );
+    }
     return new Rational(
       this.numerator * r.denominator,
       this.denominator * r.numerator
     );
   }
 
+  /**
+   * Returns a new Rational number which is the sum of this value and the integer k.
+   * (a + k*b)/b is already in lowest terms, so no gcd is computed.
+   *
+   * @param k The integer to add to this value.
+   * @return A new Rational representing the sum of this value and k.
+   * @throws IllegalArgumentException If the sum does not fit in an int numerator.
+   */
+  public Rational plus(int k) {
+    return plus((long) k);
+  }
+
+  /**
+   * Returns a new Rational number which is the sum of this value and the integer k.
+   * (a + k*b)/b is already in lowest terms, so no gcd is computed.
+   *
+   * @param k The integer to add to this value.
+   * @return A new Rational representing the sum of this value and k.
+   * @throws IllegalArgumentException If the sum does not fit in an int numerator.
+   */
+  public Rational plus(long k) {
+    return integerSum(RationalMetrics.Operation.PLUS, k);
+  }
+
+  /**
+   * Returns a new Rational number which is the difference between this value and the integer k.
+   * (a - k*b)/b is already in lowest terms, so no gcd is computed.
+   *
+   * @param k The integer to subtract from this value.
+   * @return A new Rational representing the difference between this value and k.
+   * @throws IllegalArgumentException If the difference does not fit in an int numerator.
+   */
+  public Rational minus(int k) {
+    return integerSum(RationalMetrics.Operation.MINUS, k);
+  }
+
+  /**
+   * Returns a new Rational number which is the difference between this value and the integer k.
+   * (a - k*b)/b is already in lowest terms, so no gcd is computed.
+   *
+   * @param k The integer to subtract from this value.
+   * @return A new Rational representing the difference between this value and k.
+   * @throws IllegalArgumentException If the difference does not fit in an int numerator.
+   */
+  public Rational minus(long k) {
+    return integerSum(RationalMetrics.Operation.MINUS, k);
+  }
+
+  /**
+   * Returns a new Rational number which is the product of this value and the integer k.
+   * Only the common factor of k and the denominator is cancelled.
+   *
+   * @param k The integer to multiply this value by.
+   * @return A new Rational representing the product of this value and k.
+   * @throws IllegalArgumentException If the product does not fit in an int numerator.
+   */
+  public Rational times(int k) {
+    if (k == 0 || numerator == 0) {
+      return ofReduced(0, 1);
+    }
+    long g = Fractions.gcd(k, denominator);
+    long product = numerator * (k / g);
+    if (product != (int) product) {
+      throw integerOverflow(RationalMetrics.Operation.TIMES, k);
+    }
+    return ofReduced((int) product, (int) (denominator / g));
+  }
+
+  /**
+   * Returns a new Rational number which is the quotient of dividing this value by the integer k.
+   * Only the common factor of k and the numerator is cancelled, and the sign of the quotient is carried
+   * by its numerator.
+   *
+   * @param k The integer by which to divide this value.
+   * @return A new Rational representing the quotient of this value and k.
+   * @throws IllegalArgumentException If k is 0 or the quotient does not fit in an int denominator.
+   */
+  public Rational dividedBy(int k) {
+    if (k == 0) {
+      throw new IllegalArgumentException("Cannot divide by Rational number 0.");
+    }
+    if (numerator == 0) {
+      return ofReduced(0, 1);
+    }
+    long g = Fractions.gcd(k, numerator);
+    long quotient = numerator / g;
+    long product = denominator * (k / g);
+    if (product < 0) {
+      // Keep the sign on the numerator; in longs, negating -2^31 cannot overflow before the check below.
+      quotient = -quotient;
+      product = -product;
+    }
+    if (quotient != (int) quotient || product != (int) product) {
+      throw integerOverflow(RationalMetrics.Operation.DIVIDED_BY, k);
+    }
+    return ofReduced((int) quotient, (int) product);
+  }
+
+  /**
+   * Returns (a + k*b)/b, or (a - k*b)/b for MINUS, which shares its denominator with a/b and is in lowest
+   * terms whenever a/b is.
+   */
+  private Rational integerSum(RationalMetrics.Operation operation, long k) {
+    try {
+      long kb = Math.multiplyExact(k, denominator);
+      long sum = operation == RationalMetrics.Operation.MINUS
+        ? Math.subtractExact(numerator, kb)
+        : Math.addExact(numerator, kb);
+      if (sum == (int) sum) {
+        return ofReduced((int) sum, denominator);
+      }
+    } catch (ArithmeticException e) {
+      // Reported below like any other result that does not fit.
+    }
+    throw integerOverflow(operation, k);
+  }
+
+  /**
+   * Reports a failed integer-operand operation and returns the exception to throw.
+   */
+  private IllegalArgumentException integerOverflow(RationalMetrics.Operation operation, long k) {
+    if (RationalMetrics.enabled || RationalEvents.recording) {
+      RationalMetrics.overflowed(operation, "FAILED", numerator, denominator, k, 1);
+    }
+    return new IllegalArgumentException("Integer overflow.");
+  }
+
   /**
    * Returns a new Rational number which is this value raised to the power of n.
    *
@@ -251,8 +713,19 @@ public class Rational extends Number implements Comparable<Number> {
         "0 cannot be raised to a negative power."
       );
     }
-    int newNumerator = (int) Math.pow(numerator, n);
-    int newDenominator = (int) Math.pow(denominator, n);
+    double powerNumerator = Math.pow(numerator, n);
+    double powerDenominator = Math.pow(denominator, n);
+    if (RationalMetrics.enabled || RationalEvents.recording) {
+      RationalMetrics.checkPower(
+        numerator,
+        denominator,
+        n,
+        powerNumerator,
+        powerDenominator
+      );
+    }
+    int newNumerator = (int) powerNumerator;
+    int newDenominator = (int) powerDenominator;
     return new Rational(newNumerator, newDenominator);
   }
 
@@ -272,14 +745,42 @@ public class Rational extends Number implements Comparable<Number> {
       return this.numerator * r.denominator == this.denominator * r.numerator;
     }
 
-    double difference = Math.abs(
-      this.doubleValue() - ((Number) o).doubleValue()
-    );
     if (o instanceof Float || o instanceof Double) {
-      return difference < Math.pow(2, -40);
-    } else {
-      return difference == 0;
+      return approximatelyEquals(((Number) o).doubleValue(), EPSILON);
     }
+    return this.doubleValue() == ((Number) o).doubleValue();
+  }
+
+  /**
+   * Indicates whether this value is exactly the double x, unlike {@link #equals(Object)}, which allows
+   * Floats and Doubles a tolerance of {@link #EPSILON}.
+   *
+   * @param x The double to compare with.
+   * @return true if x is not NaN and equals this value exactly; false otherwise.
+   */
+  public boolean equalsExactly(double x) {
+    return x == x && compareTo(x) == 0;
+  }
+
+  /**
+   * Indicates whether this value, rounded to a double, lies strictly within tolerance of x.
+   *
+   * @param x The double to compare with.
+   * @param tolerance The largest difference that is not accepted.
+   * @return true if the difference is less than tolerance; false otherwise, including when x is NaN.
+   */
+  public boolean approximatelyEquals(double x, double tolerance) {
+    return Math.abs(this.doubleValue() - x) < tolerance;
+  }
+
+  /**
+   * Indicates whether this value is exactly the integer k.
+   *
+   * @param k The integer to compare with.
+   * @return true if this value equals k; false otherwise.
+   */
+  public boolean equalsExactly(long k) {
+    return compareTo(k) == 0;
   }
 
   /**
@@ -289,7 +790,7 @@ public class Rational extends Number implements Comparable<Number> {
    * @return true if this value is greater than n; false otherwise.
    */
   public boolean greaterThan(Number n) {
-    return Double.compare(this.doubleValue(), n.doubleValue()) > 0;
+    return compareTo(n) > 0;
   }
 
   /**
@@ -309,7 +810,7 @@ public class Rational extends Number implements Comparable<Number> {
    * @return true if this value is less than n; false otherwise.
    */
   public boolean lessThan(Number n) {
-    return Double.compare(this.doubleValue(), n.doubleValue()) < 0;
+    return compareTo(n) < 0;
   }
 
   /**
@@ -0,0 +1,127 @@
+package numbers;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Emits the Flight Recorder events of this package: {@link OverflowEvent}, {@link KernelEvent} and
+ * {@link LargeTermEvent}. Events are configured like any other through a recording's settings, for
+ * example {@code numbers.LargeTerm#minimumBits=40} or {@code numbers.Kernel#threshold=1 ms}.
+ *
+ * <p>The per-operation checks are guarded by {@link #recording}, which a recorder listener keeps up to
+ * date, so that they cost one volatile read while no recording is running.
+ */
+final class RationalEvents {
+
+  /**
+   * Whether any Flight Recorder recording is running.
+   */
+  static volatile boolean recording;
+
+  static {
+    try {
+      FlightRecorder.addListener(
+        new FlightRecorderListener() {
+          @Override
+          public void recorderInitialized(FlightRecorder recorder) {
+            update(recorder);
+          }
+
+          @Override
+          public void recordingStateChanged(Recording changed) {
+            update(FlightRecorder.getFlightRecorder());
+          }
+        }
+      );
+    } catch (LinkageError e) {
+      // The runtime has no Flight Recorder, so nothing can ever be recorded.
+    }
+  }
+
+  private RationalEvents() {}
+
+  private static void update(FlightRecorder recorder) {
+    boolean running = false;
+    for (Recording r : recorder.getRecordings()) {
+      running |= r.getState() == RecordingState.RUNNING;
+    }
+    recording = running;
+  }
+
+  /**
+   * Starts timing a bulk kernel. While no recording is running, which includes runtimes without a
+   * Flight Recorder, no event is created and null is returned.
+   *
+   * @return The started event, or null.
+   */
+  static KernelEvent startKernel() {
+    return recording ? KernelEvent.start() : null;
+  }
+
+  /**
+   * Finishes an event returned by {@link #startKernel()}, if one was started.
+   */
+  static void finishKernel(KernelEvent event, String kernel, long size) {
+    if (event != null) {
+      event.finish(kernel, size);
+    }
+  }
+
+  /**
+   * Records an overflow of an operation on a/b and c/d. Callers check {@link #recording} first.
+   */
+  static void overflow(
+    String operation,
+    String outcome,
+    long a,
+    long b,
+    long c,
+    long d
+  ) {
+    OverflowEvent event = new OverflowEvent();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.outcome = outcome;
+      event.leftNumerator = a;
+      event.leftDenominator = b;
+      event.rightNumerator = c;
+      event.rightDenominator = d;
+      event.commit();
+    }
+  }
+
+  /**
+   * Records the unreduced terms of an operation on a/b and c if either needs at least the configured
+   * number of bits. Callers check {@link #recording} first.
+   */
+  static void largeTerm(
+    String operation,
+    int bits,
+    long a,
+    long b,
+    long c,
+    long d
+  ) {
+    LargeTermEvent event = new LargeTermEvent();
+    if (event.isEnabled()) {
+      event.operation = operation;
+      event.bits = bits;
+      event.leftNumerator = a;
+      event.leftDenominator = b;
+      event.rightNumerator = c;
+      event.rightDenominator = d;
+      if (event.shouldCommit()) {
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of bits needed to represent x in two's complement, without the sign bit.
+   */
+  static int bitLength(long x) {
+    return 64 - Long.numberOfLeadingZeros(x < 0 ? ~x : x);
+  }
+}
@@ -0,0 +1,484 @@
+package numbers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled arithmetic formula over rational variables, such as "(a + b) / (c - 1/3)".
+ * The formula is parsed once, constant subexpressions are folded, and the rest is turned into a
+ * postfix program. Evaluation runs the program on a stack of long numerator/denominator pairs that is
+ * only reduced when a product would overflow and once at the end, instead of normalizing after every
+ * operation as {@link Rational#plus(Rational)} and friends do.
+ * A compiled expression is immutable and can be evaluated from several threads at once.
+ *
+ * <p>The grammar supports integer literals, variable names, unary minus, the binary operators
+ * +, -, * and / with the usual precedence, and parentheses.
+ */
+public final class RationalExpression {
+
+  private static final int PUSH_CONSTANT = 0;
+  private static final int PUSH_VARIABLE = 1;
+  private static final int ADD = 2;
+  private static final int SUBTRACT = 3;
+  private static final int MULTIPLY = 4;
+  private static final int DIVIDE = 5;
+  private static final int NEGATE = 6;
+
+  private final String formula;
+  private final List<String> variables;
+  private final int[] program;
+  private final long[] constantNumerators;
+  private final long[] constantDenominators;
+  private final int maxDepth;
+
+  private RationalExpression(
+    String formula,
+    List<String> variables,
+    int[] program,
+    long[] constantNumerators,
+    long[] constantDenominators,
+    int maxDepth
+  ) {
+    this.formula = formula;
+    this.variables = variables;
+    this.program = program;
+    this.constantNumerators = constantNumerators;
+    this.constantDenominators = constantDenominators;
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Parses and compiles a formula.
+   *
+   * @param formula The formula to compile.
+   * @return The compiled expression.
+   * @throws IllegalArgumentException If the formula is malformed, or a constant subexpression divides by 0
+   *                                  or overflows.
+   */
+  public static RationalExpression compile(String formula) {
+    Parser parser = new Parser(formula);
+    Node root = parser.parse();
+    Compiler compiler = new Compiler();
+    compiler.emit(root, 0);
+    return new RationalExpression(
+      formula,
+      Collections.unmodifiableList(new ArrayList<>(parser.variables)),
+      compiler.program(),
+      compiler.numerators(),
+      compiler.denominators(),
+      Math.max(1, compiler.maxDepth)
+    );
+  }
+
+  /**
+   * Returns the variable names, in the order their values are expected by the evaluate methods.
+   * This is the order in which they first appear in the formula.
+   *
+   * @return An unmodifiable list of variable names.
+   */
+  public List<String> getVariables() {
+    return variables;
+  }
+
+  /**
+   * Evaluates the expression for one set of values.
+   *
+   * @param values The value of each variable, in the order of {@link #getVariables()}.
+   * @return A new Rational holding the result.
+   * @throws IllegalArgumentException If the number of values is wrong, the expression divides by 0,
+   *                                  or the result does not fit in an int numerator and denominator.
+   */
+  public Rational evaluate(Rational... values) {
+    if (values.length != variables.size()) {
+      throw new IllegalArgumentException(
+        "Expected " + variables.size() + " values but got " + values.length + "."
+      );
+    }
+    int[][] numerators = new int[values.length][1];
+    int[][] denominators = new int[values.length][1];
+    for (int v = 0; v < values.length; v++) {
+      numerators[v][0] = values[v].numerator;
+      denominators[v][0] = values[v].denominator;
+    }
+    long[] n = new long[maxDepth];
+    long[] d = new long[maxDepth];
+    run(numerators, denominators, 0, n, d);
+    return new Rational(
+      Fractions.toIntExact(n[0]),
+      Fractions.toIntExact(d[0])
+    );
+  }
+
+  /**
+   * Evaluates the expression with values looked up by variable name.
+   *
+   * @param values The value of each variable.
+   * @return A new Rational holding the result.
+   * @throws IllegalArgumentException If a variable has no value, the expression divides by 0,
+   *                                  or the result does not fit in an int numerator and denominator.
+   */
+  public Rational evaluate(Map<String, Rational> values) {
+    Rational[] ordered = new Rational[variables.size()];
+    for (int v = 0; v < ordered.length; v++) {
+      ordered[v] = values.get(variables.get(v));
+      if (ordered[v] == null) {
+        throw new IllegalArgumentException(
+          "No value for variable " + variables.get(v) + "."
+        );
+      }
+    }
+    return evaluate(ordered);
+  }
+
+  /**
+   * Evaluates the expression for every row of a set of primitive columns.
+   * numerators[v][row]/denominators[v][row] is the value of variable v in that row, with variables in the
+   * order of {@link #getVariables()}. Results are written in lowest terms with positive denominators.
+   * Large inputs are split into row ranges that are evaluated in parallel.
+   *
+   * @param numerators The numerator column of each variable.
+   * @param denominators The denominator column of each variable.
+   * @param outNumerators Receives the result numerators.
+   * @param outDenominators Receives the result denominators.
+   * @throws IllegalArgumentException If the number or length of the columns is wrong, a denominator is 0,
+   *                                  a row divides by 0, or a result does not fit in an int numerator and denominator.
+   */
+  public void evaluate(
+    int[][] numerators,
+    int[][] denominators,
+    int[] outNumerators,
+    int[] outDenominators
+  ) {
+    int rows = outNumerators.length;
+    if (
+      numerators.length != variables.size() ||
+      denominators.length != variables.size() ||
+      outDenominators.length != rows
+    ) {
+      throw new IllegalArgumentException(
+        "Column counts must match the variables."
+      );
+    }
+    for (int v = 0; v < numerators.length; v++) {
+      if (numerators[v].length != rows || denominators[v].length != rows) {
+        throw new IllegalArgumentException("Column lengths must match.");
+      }
+    }
+    Fractions.forEachChunk(rows, "RationalExpression.evaluate", (from, to) -> {
+      long[] n = new long[maxDepth];
+      long[] d = new long[maxDepth];
+      for (int row = from; row < to; row++) {
+        run(numerators, denominators, row, n, d);
+        outNumerators[row] = Fractions.toIntExact(n[0]);
+        outDenominators[row] = Fractions.toIntExact(d[0]);
+      }
+    });
+  }
+
+  /**
+   * Returns the formula this expression was compiled from.
+   *
+   * @return The source formula.
+   */
+  @Override
+  public String toString() {
+    return formula;
+  }
+
+  /**
+   * Runs the program for one row, leaving the reduced result in slot 0.
+   */
+  private void run(
+    int[][] numerators,
+    int[][] denominators,
+    int row,
+    long[] n,
+    long[] d
+  ) {
+    int top = -1;
+    for (int pc = 0; pc < program.length; pc++) {
+      switch (program[pc]) {
+        case PUSH_CONSTANT:
+          top++;
+          pc++;
+          n[top] = constantNumerators[program[pc]];
+          d[top] = constantDenominators[program[pc]];
+          break;
+        case PUSH_VARIABLE:
+          top++;
+          pc++;
+          Fractions.load(
+            n,
+            d,
+            top,
+            numerators[program[pc]][row],
+            denominators[program[pc]][row]
+          );
+          break;
+        case ADD:
+          top--;
+          Fractions.add(n, d, top, n[top + 1], d[top + 1]);
+          break;
+        case SUBTRACT:
+          top--;
+          Fractions.subtract(n, d, top, n[top + 1], d[top + 1]);
+          break;
+        case MULTIPLY:
+          top--;
+          Fractions.multiply(n, d, top, n[top + 1], d[top + 1]);
+          break;
+        case DIVIDE:
+          top--;
+          Fractions.divide(n, d, top, n[top + 1], d[top + 1]);
+          break;
+        default:
+          Fractions.negate(n, top);
+      }
+    }
+    Fractions.reduce(n, d, 0);
+  }
+
+  /**
+   * A node of the parsed and constant-folded syntax tree.
+   */
+  private static final class Node {
+
+    final int op;
+    final Node left;
+    final Node right;
+    final long numerator;
+    final long denominator;
+    final int variable;
+
+    private Node(
+      int op,
+      Node left,
+      Node right,
+      long numerator,
+      long denominator,
+      int variable
+    ) {
+      this.op = op;
+      this.left = left;
+      this.right = right;
+      this.numerator = numerator;
+      this.denominator = denominator;
+      this.variable = variable;
+    }
+
+    static Node constant(long numerator, long denominator) {
+      return new Node(PUSH_CONSTANT, null, null, numerator, denominator, -1);
+    }
+
+    static Node variable(int index) {
+      return new Node(PUSH_VARIABLE, null, null, 0, 1, index);
+    }
+
+    /**
+     * Builds an operator node, folding it into a constant if all of its operands are constants.
+     */
+    static Node operator(int op, Node left, Node right) {
+      boolean constant =
+        left.op == PUSH_CONSTANT && (right == null || right.op == PUSH_CONSTANT);
+      if (!constant) {
+        return new Node(op, left, right, 0, 1, -1);
+      }
+      long[] n = { left.numerator };
+      long[] d = { left.denominator };
+      switch (op) {
+        case ADD:
+          Fractions.add(n, d, 0, right.numerator, right.denominator);
+          break;
+        case SUBTRACT:
+          Fractions.subtract(n, d, 0, right.numerator, right.denominator);
+          break;
+        case MULTIPLY:
+          Fractions.multiply(n, d, 0, right.numerator, right.denominator);
+          break;
+        case DIVIDE:
+          Fractions.divide(n, d, 0, right.numerator, right.denominator);
+          break;
+        default:
+          Fractions.negate(n, 0);
+      }
+      Fractions.reduce(n, d, 0);
+      return constant(n[0], d[0]);
+    }
+  }
+
+  /**
+   * A recursive-descent parser for the formula grammar.
+   */
+  private static final class Parser {
+
+    private final String text;
+    private int pos;
+    final List<String> variables = new ArrayList<>();
+
+    Parser(String text) {
+      this.text = text;
+    }
+
+    Node parse() {
+      Node node = expression();
+      skipWhitespace();
+      if (pos < text.length()) {
+        throw error("Unexpected '" + text.charAt(pos) + "'");
+      }
+      return node;
+    }
+
+    private Node expression() {
+      Node node = term();
+      while (true) {
+        if (accept('+')) {
+          node = Node.operator(ADD, node, term());
+        } else if (accept('-')) {
+          node = Node.operator(SUBTRACT, node, term());
+        } else {
+          return node;
+        }
+      }
+    }
+
+    private Node term() {
+      Node node = unary();
+      while (true) {
+        if (accept('*')) {
+          node = Node.operator(MULTIPLY, node, unary());
+        } else if (accept('/')) {
+          node = Node.operator(DIVIDE, node, unary());
+        } else {
+          return node;
+        }
+      }
+    }
+
+    private Node unary() {
+      if (accept('-')) {
+        return Node.operator(NEGATE, unary(), null);
+      }
+      if (accept('+')) {
+        return unary();
+      }
+      return primary();
+    }
+
+    private Node primary() {
+      skipWhitespace();
+      if (accept('(')) {
+        Node node = expression();
+        if (!accept(')')) {
+          throw error("Expected ')'");
+        }
+        return node;
+      }
+      if (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+        int start = pos;
+        while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+          pos++;
+        }
+        try {
+          return Node.constant(Integer.parseInt(text.substring(start, pos)), 1);
+        } catch (NumberFormatException e) {
+          pos = start;
+          throw error("Integer literal out of range");
+        }
+      }
+      if (
+        pos < text.length() && Character.isJavaIdentifierStart(text.charAt(pos))
+      ) {
+        int start = pos;
+        while (
+          pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos))
+        ) {
+          pos++;
+        }
+        String name = text.substring(start, pos);
+        int index = variables.indexOf(name);
+        if (index < 0) {
+          index = variables.size();
+          variables.add(name);
+        }
+        return Node.variable(index);
+      }
+      if (pos == text.length()) {
+        throw error("Unexpected end of formula");
+      }
+      throw error("Unexpected '" + text.charAt(pos) + "'");
+    }
+
+    private boolean accept(char c) {
+      skipWhitespace();
+      if (pos < text.length() && text.charAt(pos) == c) {
+        pos++;
+        return true;
+      }
+      return false;
+    }
+
+    private void skipWhitespace() {
+      while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+        pos++;
+      }
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(
+        message + " at position " + pos + " in \"" + text + "\"."
+      );
+    }
+  }
+
+  /**
+   * Emits the postfix program for a folded syntax tree.
+   */
+  private static final class Compiler {
+
+    private final List<Integer> code = new ArrayList<>();
+    private final List<Long> numerators = new ArrayList<>();
+    private final List<Long> denominators = new ArrayList<>();
+    int maxDepth;
+
+    /**
+     * Emits code for node, whose result ends up at stack position depth.
+     */
+    void emit(Node node, int depth) {
+      maxDepth = Math.max(maxDepth, depth + 1);
+      switch (node.op) {
+        case PUSH_CONSTANT:
+          code.add(PUSH_CONSTANT);
+          code.add(numerators.size());
+          numerators.add(node.numerator);
+          denominators.add(node.denominator);
+          break;
+        case PUSH_VARIABLE:
+          code.add(PUSH_VARIABLE);
+          code.add(node.variable);
+          break;
+        case NEGATE:
+          emit(node.left, depth);
+          code.add(NEGATE);
+          break;
+        default:
+          emit(node.left, depth);
+          emit(node.right, depth + 1);
+          code.add(node.op);
+      }
+    }
+
+    int[] program() {
+      return code.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    long[] numerators() {
+      return numerators.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    long[] denominators() {
+      return denominators.stream().mapToLong(Long::longValue).toArray();
+    }
+  }
+}
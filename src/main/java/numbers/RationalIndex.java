@@ -0,0 +1,249 @@
+package numbers;
+
+/**
+ * An immutable, sorted index of rational numbers held in primitive numerator/denominator arrays.
+ * All lookups compare values exactly by cross-multiplication; no value is ever converted to a double.
+ * The index is built with {@link RationalSort}, which sorts large inputs in parallel.
+ */
+public final class RationalIndex {
+
+  private final int[] numerators;
+  private final int[] denominators;
+
+  private RationalIndex(int[] numerators, int[] denominators) {
+    this.numerators = numerators;
+    this.denominators = denominators;
+  }
+
+  /**
+   * Builds an index over the values numerators[i]/denominators[i].
+   * The arrays are copied, so later changes to them do not affect the index.
+   *
+   * @param numerators The numerators of the values.
+   * @param denominators The denominators of the values.
+   * @return A new index holding the values in ascending order.
+   * @throws IllegalArgumentException If the arrays differ in length or a denominator is 0.
+   */
+  public static RationalIndex of(int[] numerators, int[] denominators) {
+    int[] permutation = RationalSort.sortIndices(numerators, denominators);
+    int[] sortedNumerators = RationalSort.permute(numerators, permutation);
+    int[] sortedDenominators = RationalSort.permute(denominators, permutation);
+    return new RationalIndex(sortedNumerators, sortedDenominators);
+  }
+
+  /**
+   * Builds an index over the specified Rational values.
+   *
+   * @param values The values to index.
+   * @return A new index holding the values in ascending order.
+   * @throws NullPointerException If any value is null.
+   * @throws IllegalArgumentException If any value has a denominator of 0.
+   */
+  public static RationalIndex of(Rational... values) {
+    int[] numerators = new int[values.length];
+    int[] denominators = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      numerators[i] = values[i].numerator;
+      denominators[i] = values[i].denominator;
+    }
+    return of(numerators, denominators);
+  }
+
+  /**
+   * Returns the number of values in this index.
+   *
+   * @return The number of values.
+   */
+  public int size() {
+    return numerators.length;
+  }
+
+  /**
+   * Returns the numerator of the value at the specified position.
+   *
+   * @param i The position in ascending order.
+   * @return The numerator.
+   */
+  public int numeratorAt(int i) {
+    return numerators[i];
+  }
+
+  /**
+   * Returns the denominator of the value at the specified position.
+   *
+   * @param i The position in ascending order.
+   * @return The denominator.
+   */
+  public int denominatorAt(int i) {
+    return denominators[i];
+  }
+
+  /**
+   * Returns the value at the specified position.
+   *
+   * @param i The position in ascending order.
+   * @return A new Rational holding the value.
+   */
+  public Rational get(int i) {
+    return new Rational(numerators[i], denominators[i]);
+  }
+
+  /**
+   * Returns the number of values strictly less than a/b.
+   *
+   * @param a The numerator of the probe.
+   * @param b The denominator of the probe. Must not be zero.
+   * @return The rank of a/b in this index.
+   */
+  public int rank(int a, int b) {
+    return lowerBound(a, b);
+  }
+
+  /**
+   * Returns the number of values strictly less than r.
+   *
+   * @param r The probe.
+   * @return The rank of r in this index.
+   */
+  public int rank(Rational r) {
+    return rank(r.numerator, r.denominator);
+  }
+
+  /**
+   * Returns the position of the greatest value less than or equal to a/b.
+   *
+   * @param a The numerator of the probe.
+   * @param b The denominator of the probe. Must not be zero.
+   * @return The position, or -1 if every value is greater than a/b.
+   */
+  public int floorIndex(int a, int b) {
+    return upperBound(a, b) - 1;
+  }
+
+  /**
+   * Returns the position of the least value greater than or equal to a/b.
+   *
+   * @param a The numerator of the probe.
+   * @param b The denominator of the probe. Must not be zero.
+   * @return The position, or -1 if every value is less than a/b.
+   */
+  public int ceilingIndex(int a, int b) {
+    int i = lowerBound(a, b);
+    return i == numerators.length ? -1 : i;
+  }
+
+  /**
+   * Returns the greatest value less than or equal to r.
+   *
+   * @param r The probe.
+   * @return The floor of r in this index, or null if there is none.
+   */
+  public Rational floor(Rational r) {
+    int i = floorIndex(r.numerator, r.denominator);
+    return i < 0 ? null : get(i);
+  }
+
+  /**
+   * Returns the least value greater than or equal to r.
+   *
+   * @param r The probe.
+   * @return The ceiling of r in this index, or null if there is none.
+   */
+  public Rational ceiling(Rational r) {
+    int i = ceilingIndex(r.numerator, r.denominator);
+    return i < 0 ? null : get(i);
+  }
+
+  /**
+   * Returns the number of values v with lo &lt;= v &lt;= hi.
+   *
+   * @param lo The lower bound, inclusive.
+   * @param hi The upper bound, inclusive.
+   * @return The number of values in the range, or 0 if lo is greater than hi.
+   */
+  public int countInRange(Rational lo, Rational hi) {
+    int from = lowerBound(lo.numerator, lo.denominator);
+    int to = upperBound(hi.numerator, hi.denominator);
+    return Math.max(0, to - from);
+  }
+
+  /**
+   * Computes {@link #floorIndex(int, int)} for every probe numerators[i]/denominators[i].
+   * Large probe arrays are processed in parallel.
+   *
+   * @param numerators The numerators of the probes.
+   * @param denominators The denominators of the probes.
+   * @param out Receives the floor position of each probe, or -1.
+   * @throws IllegalArgumentException If the arrays differ in length or a denominator is 0.
+   */
+  public void floorIndices(int[] numerators, int[] denominators, int[] out) {
+    checkProbes(numerators, denominators, out);
+    KernelEvent event = RationalEvents.startKernel();
+    Fractions.forEachIndex(
+      out.length,
+      i -> out[i] = floorIndex(numerators[i], denominators[i])
+    );
+    RationalEvents.finishKernel(event, "RationalIndex.floorIndices", out.length);
+  }
+
+  /**
+   * Computes {@link #rank(int, int)} for every probe numerators[i]/denominators[i].
+   * Large probe arrays are processed in parallel.
+   *
+   * @param numerators The numerators of the probes.
+   * @param denominators The denominators of the probes.
+   * @param out Receives the rank of each probe.
+   * @throws IllegalArgumentException If the arrays differ in length or a denominator is 0.
+   */
+  public void ranks(int[] numerators, int[] denominators, int[] out) {
+    checkProbes(numerators, denominators, out);
+    KernelEvent event = RationalEvents.startKernel();
+    Fractions.forEachIndex(out.length, i -> out[i] = rank(numerators[i], denominators[i]));
+    RationalEvents.finishKernel(event, "RationalIndex.ranks", out.length);
+  }
+
+  /**
+   * Returns the first position whose value is greater than or equal to a/b.
+   */
+  private int lowerBound(int a, int b) {
+    int lo = 0;
+    int hi = numerators.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (Fractions.compare(numerators[mid], denominators[mid], a, b) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Returns the first position whose value is strictly greater than a/b.
+   */
+  private int upperBound(int a, int b) {
+    int lo = 0;
+    int hi = numerators.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (Fractions.compare(numerators[mid], denominators[mid], a, b) <= 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private static void checkProbes(
+    int[] numerators,
+    int[] denominators,
+    int[] out
+  ) {
+    Fractions.checkColumns(numerators, denominators);
+    if (out.length != numerators.length) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+  }
+}
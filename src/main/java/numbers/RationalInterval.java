@@ -0,0 +1,524 @@
+package numbers;
+
+import java.util.Arrays;
+
+/**
+ * An immutable closed interval [lower, upper] of rationals, for propagating uncertainty through formulas
+ * exactly. Endpoints are kept in lowest terms with positive denominators.
+ *
+ * <p>Products look at the signs of the endpoints first: unless both intervals straddle zero, each
+ * endpoint of the result is a single known product, so two endpoint products are computed instead of
+ * four. The static methods apply the same operations row by row to intervals held in {@link Columns}.
+ */
+public final class RationalInterval {
+
+  private static final int PLUS = 0;
+  private static final int MINUS = 1;
+  private static final int TIMES = 2;
+  private static final int DIVIDED_BY = 3;
+
+  private final int lowerNumerator;
+  private final int lowerDenominator;
+  private final int upperNumerator;
+  private final int upperDenominator;
+
+  private RationalInterval(long lower, long upper) {
+    this.lowerNumerator = Fractions.numerator(lower);
+    this.lowerDenominator = Fractions.denominator(lower);
+    this.upperNumerator = Fractions.numerator(upper);
+    this.upperDenominator = Fractions.denominator(upper);
+  }
+
+  /**
+   * Returns the interval [lower, upper].
+   *
+   * @param lower The lower endpoint.
+   * @param upper The upper endpoint.
+   * @return The interval.
+   * @throws IllegalArgumentException If lower is greater than upper.
+   */
+  public static RationalInterval of(Rational lower, Rational upper) {
+    if (Fractions.compare(lower.numerator, lower.denominator, upper.numerator, upper.denominator) > 0) {
+      throw new IllegalArgumentException("Lower bound cannot exceed upper bound.");
+    }
+    return new RationalInterval(
+      normalize(lower.numerator, lower.denominator),
+      normalize(upper.numerator, upper.denominator)
+    );
+  }
+
+  /**
+   * Returns the interval [x, x] holding a single value.
+   *
+   * @param x The value.
+   * @return The interval.
+   */
+  public static RationalInterval of(Rational x) {
+    long endpoint = normalize(x.numerator, x.denominator);
+    return new RationalInterval(endpoint, endpoint);
+  }
+
+  /**
+   * Returns the lower endpoint.
+   *
+   * @return A new Rational equal to the lower endpoint.
+   */
+  public Rational getLower() {
+    return Rational.ofReduced(lowerNumerator, lowerDenominator);
+  }
+
+  /**
+   * Returns the upper endpoint.
+   *
+   * @return A new Rational equal to the upper endpoint.
+   */
+  public Rational getUpper() {
+    return Rational.ofReduced(upperNumerator, upperDenominator);
+  }
+
+  /**
+   * Returns the width, upper - lower.
+   *
+   * @return A new Rational holding the width.
+   * @throws IllegalArgumentException If the width does not fit in an int numerator and denominator.
+   */
+  public Rational getWidth() {
+    long width = sum(upperNumerator, upperDenominator, -(long) lowerNumerator, lowerDenominator);
+    return Rational.ofReduced(Fractions.numerator(width), Fractions.denominator(width));
+  }
+
+  /**
+   * Returns the set of sums of a value in this interval and a value in x.
+   *
+   * @param x The interval to add.
+   * @return The exact sum.
+   * @throws IllegalArgumentException If an endpoint does not fit in an int numerator and denominator.
+   */
+  public RationalInterval plus(RationalInterval x) {
+    return new RationalInterval(
+      sum(lowerNumerator, lowerDenominator, x.lowerNumerator, x.lowerDenominator),
+      sum(upperNumerator, upperDenominator, x.upperNumerator, x.upperDenominator)
+    );
+  }
+
+  /**
+   * Returns the set of differences of a value in this interval and a value in x.
+   *
+   * @param x The interval to subtract.
+   * @return The exact difference.
+   * @throws IllegalArgumentException If an endpoint does not fit in an int numerator and denominator.
+   */
+  public RationalInterval minus(RationalInterval x) {
+    return new RationalInterval(
+      sum(lowerNumerator, lowerDenominator, -(long) x.upperNumerator, x.upperDenominator),
+      sum(upperNumerator, upperDenominator, -(long) x.lowerNumerator, x.lowerDenominator)
+    );
+  }
+
+  /**
+   * Returns the set of products of a value in this interval and a value in x.
+   *
+   * @param x The interval to multiply by.
+   * @return The exact product.
+   * @throws IllegalArgumentException If an endpoint does not fit in an int numerator and denominator.
+   */
+  public RationalInterval times(RationalInterval x) {
+    return new RationalInterval(
+      lowerProduct(
+        lowerNumerator, lowerDenominator, upperNumerator, upperDenominator,
+        x.lowerNumerator, x.lowerDenominator, x.upperNumerator, x.upperDenominator
+      ),
+      upperProduct(
+        lowerNumerator, lowerDenominator, upperNumerator, upperDenominator,
+        x.lowerNumerator, x.lowerDenominator, x.upperNumerator, x.upperDenominator
+      )
+    );
+  }
+
+  /**
+   * Returns the set of quotients of a value in this interval and a value in x.
+   *
+   * @param x The interval to divide by. Must not contain 0.
+   * @return The exact quotient.
+   * @throws IllegalArgumentException If x contains 0, or an endpoint does not fit in an int numerator and
+   *         denominator.
+   */
+  public RationalInterval dividedBy(RationalInterval x) {
+    checkDivisor(x.lowerNumerator, x.upperNumerator);
+    // Multiply by [1/upper, 1/lower], whose numerators carry the signs of the original denominators.
+    long a = x.upperNumerator < 0 ? -(long) x.upperDenominator : x.upperDenominator;
+    long b = Math.abs((long) x.upperNumerator);
+    long c = x.lowerNumerator < 0 ? -(long) x.lowerDenominator : x.lowerDenominator;
+    long d = Math.abs((long) x.lowerNumerator);
+    return new RationalInterval(
+      lowerProduct(lowerNumerator, lowerDenominator, upperNumerator, upperDenominator, a, b, c, d),
+      upperProduct(lowerNumerator, lowerDenominator, upperNumerator, upperDenominator, a, b, c, d)
+    );
+  }
+
+  /**
+   * Returns whether r lies in this interval.
+   *
+   * @param r The value to test.
+   * @return true if lower &lt;= r &lt;= upper.
+   */
+  public boolean contains(Rational r) {
+    return Fractions.compare(lowerNumerator, lowerDenominator, r.numerator, r.denominator) <= 0
+      && Fractions.compare(r.numerator, r.denominator, upperNumerator, upperDenominator) <= 0;
+  }
+
+  /**
+   * Returns whether every value of x lies in this interval.
+   *
+   * @param x The interval to test.
+   * @return true if x is a subset of this interval.
+   */
+  public boolean contains(RationalInterval x) {
+    return Fractions.compare(lowerNumerator, lowerDenominator, x.lowerNumerator, x.lowerDenominator) <= 0
+      && Fractions.compare(x.upperNumerator, x.upperDenominator, upperNumerator, upperDenominator) <= 0;
+  }
+
+  /**
+   * Returns the values common to this interval and x.
+   *
+   * @param x The interval to intersect with.
+   * @return The intersection, or null if the intervals are disjoint.
+   */
+  public RationalInterval intersection(RationalInterval x) {
+    boolean lowerFromX = Fractions.compare(
+      lowerNumerator, lowerDenominator, x.lowerNumerator, x.lowerDenominator
+    ) < 0;
+    boolean upperFromX = Fractions.compare(
+      x.upperNumerator, x.upperDenominator, upperNumerator, upperDenominator
+    ) < 0;
+    RationalInterval low = lowerFromX ? x : this;
+    RationalInterval high = upperFromX ? x : this;
+    if (Fractions.compare(
+      low.lowerNumerator, low.lowerDenominator, high.upperNumerator, high.upperDenominator
+    ) > 0) {
+      return null;
+    }
+    return low == high
+      ? low
+      : new RationalInterval(
+        Fractions.pack(low.lowerNumerator, low.lowerDenominator),
+        Fractions.pack(high.upperNumerator, high.upperDenominator)
+      );
+  }
+
+  /**
+   * Indicates whether o is a RationalInterval with the same endpoints.
+   *
+   * @param o The reference object with which to compare.
+   * @return true if o is an equal interval; false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof RationalInterval)) return false;
+    RationalInterval x = (RationalInterval) o;
+    return lowerNumerator == x.lowerNumerator
+      && lowerDenominator == x.lowerDenominator
+      && upperNumerator == x.upperNumerator
+      && upperDenominator == x.upperDenominator;
+  }
+
+  /**
+   * Returns a hash code consistent with {@link #equals(Object)}.
+   *
+   * @return The hash code.
+   */
+  @Override
+  public int hashCode() {
+    int hash = 31 * lowerNumerator + lowerDenominator;
+    hash = 31 * hash + upperNumerator;
+    return 31 * hash + upperDenominator;
+  }
+
+  /**
+   * Returns a string representation of this interval, like "[-1/2, 3]".
+   *
+   * @return A string representation of this interval.
+   */
+  @Override
+  public String toString() {
+    return "[" + getLower() + ", " + getUpper() + "]";
+  }
+
+  /**
+   * Writes x[i] + y[i] into out[i] for every row. Large columns are split into chunks that are
+   * evaluated in parallel.
+   *
+   * @param x The first operands.
+   * @param y The second operands.
+   * @param out Receives the sums; may be x or y.
+   * @throws IllegalArgumentException If the sizes differ, or an endpoint does not fit in an int numerator
+   *         and denominator.
+   */
+  public static void plus(Columns x, Columns y, Columns out) {
+    apply(x, y, out, PLUS, "RationalInterval.plus");
+  }
+
+  /**
+   * Writes x[i] - y[i] into out[i] for every row. Large columns are split into chunks that are
+   * evaluated in parallel.
+   *
+   * @param x The first operands.
+   * @param y The second operands.
+   * @param out Receives the differences; may be x or y.
+   * @throws IllegalArgumentException If the sizes differ, or an endpoint does not fit in an int numerator
+   *         and denominator.
+   */
+  public static void minus(Columns x, Columns y, Columns out) {
+    apply(x, y, out, MINUS, "RationalInterval.minus");
+  }
+
+  /**
+   * Writes x[i] * y[i] into out[i] for every row. Large columns are split into chunks that are
+   * evaluated in parallel.
+   *
+   * @param x The first operands.
+   * @param y The second operands.
+   * @param out Receives the products; may be x or y.
+   * @throws IllegalArgumentException If the sizes differ, or an endpoint does not fit in an int numerator
+   *         and denominator.
+   */
+  public static void times(Columns x, Columns y, Columns out) {
+    apply(x, y, out, TIMES, "RationalInterval.times");
+  }
+
+  /**
+   * Writes x[i] / y[i] into out[i] for every row. Large columns are split into chunks that are
+   * evaluated in parallel.
+   *
+   * @param x The dividends.
+   * @param y The divisors. None may contain 0.
+   * @param out Receives the quotients; may be x or y.
+   * @throws IllegalArgumentException If the sizes differ, a divisor contains 0, or an endpoint does not
+   *         fit in an int numerator and denominator.
+   */
+  public static void dividedBy(Columns x, Columns y, Columns out) {
+    apply(x, y, out, DIVIDED_BY, "RationalInterval.dividedBy");
+  }
+
+  private static void apply(Columns x, Columns y, Columns out, int op, String kernel) {
+    int rows = x.size();
+    if (y.size() != rows || out.size() != rows) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+    Fractions.forEachChunk(rows, kernel, row -> apply(x, y, out, op, row));
+  }
+
+  /**
+   * Evaluates one row. Endpoints are read with their signs moved to the numerators, since the columns may
+   * hold negative denominators.
+   */
+  private static void apply(Columns x, Columns y, Columns out, int op, int row) {
+    long xl = x.lowerDenominators[row] < 0 ? -(long) x.lowerNumerators[row] : x.lowerNumerators[row];
+    long xld = Math.abs((long) x.lowerDenominators[row]);
+    long xu = x.upperDenominators[row] < 0 ? -(long) x.upperNumerators[row] : x.upperNumerators[row];
+    long xud = Math.abs((long) x.upperDenominators[row]);
+    long yl = y.lowerDenominators[row] < 0 ? -(long) y.lowerNumerators[row] : y.lowerNumerators[row];
+    long yld = Math.abs((long) y.lowerDenominators[row]);
+    long yu = y.upperDenominators[row] < 0 ? -(long) y.upperNumerators[row] : y.upperNumerators[row];
+    long yud = Math.abs((long) y.upperDenominators[row]);
+    long lower;
+    long upper;
+    switch (op) {
+      case PLUS:
+        lower = sum(xl, xld, yl, yld);
+        upper = sum(xu, xud, yu, yud);
+        break;
+      case MINUS:
+        lower = sum(xl, xld, -yu, yud);
+        upper = sum(xu, xud, -yl, yld);
+        break;
+      case TIMES:
+        lower = lowerProduct(xl, xld, xu, xud, yl, yld, yu, yud);
+        upper = upperProduct(xl, xld, xu, xud, yl, yld, yu, yud);
+        break;
+      default:
+        checkDivisor(yl, yu);
+        long a = yu < 0 ? -yud : yud;
+        long c = yl < 0 ? -yld : yld;
+        lower = lowerProduct(xl, xld, xu, xud, a, Math.abs(yu), c, Math.abs(yl));
+        upper = upperProduct(xl, xld, xu, xud, a, Math.abs(yu), c, Math.abs(yl));
+    }
+    out.lowerNumerators[row] = Fractions.numerator(lower);
+    out.lowerDenominators[row] = Fractions.denominator(lower);
+    out.upperNumerators[row] = Fractions.numerator(upper);
+    out.upperDenominators[row] = Fractions.denominator(upper);
+  }
+
+  private static void checkDivisor(long lowerNumerator, long upperNumerator) {
+    if (lowerNumerator <= 0 && upperNumerator >= 0) {
+      throw new IllegalArgumentException("Cannot divide by an interval containing 0.");
+    }
+  }
+
+  /**
+   * Returns the lower endpoint of [a/b, c/d] * [e/f, g/h], for positive denominators, from the one
+   * product the signs select, or the smaller of two when both intervals straddle zero.
+   */
+  private static long lowerProduct(long a, long b, long c, long d, long e, long f, long g, long h) {
+    if (a >= 0) {
+      return e >= 0 ? product(a, b, e, f) : product(c, d, e, f);
+    }
+    if (c <= 0) {
+      return g <= 0 ? product(c, d, g, h) : product(a, b, g, h);
+    }
+    if (e >= 0) {
+      return product(a, b, g, h);
+    }
+    if (g <= 0) {
+      return product(c, d, e, f);
+    }
+    return min(product(a, b, g, h), product(c, d, e, f));
+  }
+
+  /**
+   * Returns the upper endpoint of [a/b, c/d] * [e/f, g/h], for positive denominators, from the one
+   * product the signs select, or the larger of two when both intervals straddle zero.
+   */
+  private static long upperProduct(long a, long b, long c, long d, long e, long f, long g, long h) {
+    if (a >= 0) {
+      return g <= 0 ? product(a, b, g, h) : product(c, d, g, h);
+    }
+    if (c <= 0) {
+      return e >= 0 ? product(c, d, e, f) : product(a, b, e, f);
+    }
+    if (e >= 0) {
+      return product(c, d, g, h);
+    }
+    if (g <= 0) {
+      return product(a, b, e, f);
+    }
+    long x = product(a, b, e, f);
+    long y = product(c, d, g, h);
+    return min(x, y) == x ? y : x;
+  }
+
+  private static long min(long x, long y) {
+    return Fractions.compare(
+      Fractions.numerator(x), Fractions.denominator(x), Fractions.numerator(y), Fractions.denominator(y)
+    ) <= 0 ? x : y;
+  }
+
+  /**
+   * Returns (a/b)(c/d) in lowest terms, packed, for positive denominators and operands of at most 2^31.
+   */
+  private static long product(long a, long b, long c, long d) {
+    return reduce(a * c, b * d);
+  }
+
+  /**
+   * Returns a/b + c/d in lowest terms, packed, for positive denominators and operands of at most 2^31.
+   */
+  private static long sum(long a, long b, long c, long d) {
+    if (b == d) {
+      return reduce(a + c, b);
+    }
+    // Both products reach 2^62 in magnitude only if all four operands are 2^31, which needs b == d, so
+    // the sum fits in a long.
+    return reduce(a * d + c * b, b * d);
+  }
+
+  private static long reduce(long n, long d) {
+    long g = Fractions.gcd(n, d);
+    return Fractions.pack(Fractions.toIntExact(n / g), Fractions.toIntExact(d / g));
+  }
+
+  private static long normalize(int a, int b) {
+    return b < 0 ? reduce(-(long) a, -(long) b) : reduce(a, b);
+  }
+
+  /**
+   * A column of intervals held as four parallel int columns: the numerators and denominators of the
+   * lower and of the upper endpoints. Denominators may be negative; the kernels write endpoints in lowest
+   * terms with positive denominators.
+   */
+  public static final class Columns {
+
+    final int[] lowerNumerators;
+    final int[] lowerDenominators;
+    final int[] upperNumerators;
+    final int[] upperDenominators;
+
+    /**
+     * Creates size rows of the interval [0, 0].
+     *
+     * @param size The number of rows.
+     */
+    public Columns(int size) {
+      this(new int[size], filled(size), new int[size], filled(size));
+    }
+
+    /**
+     * Wraps existing columns without copying them. Every lower endpoint must not exceed its upper
+     * endpoint.
+     *
+     * @param lowerNumerators The numerators of the lower endpoints.
+     * @param lowerDenominators The denominators of the lower endpoints.
+     * @param upperNumerators The numerators of the upper endpoints.
+     * @param upperDenominators The denominators of the upper endpoints.
+     * @throws IllegalArgumentException If the columns differ in length or a denominator is 0.
+     */
+    public Columns(
+      int[] lowerNumerators,
+      int[] lowerDenominators,
+      int[] upperNumerators,
+      int[] upperDenominators
+    ) {
+      Fractions.checkColumns(lowerNumerators, lowerDenominators);
+      Fractions.checkColumns(upperNumerators, upperDenominators);
+      if (lowerNumerators.length != upperNumerators.length) {
+        throw new IllegalArgumentException("Column lengths must match.");
+      }
+      this.lowerNumerators = lowerNumerators;
+      this.lowerDenominators = lowerDenominators;
+      this.upperNumerators = upperNumerators;
+      this.upperDenominators = upperDenominators;
+    }
+
+    private static int[] filled(int size) {
+      int[] ones = new int[size];
+      Arrays.fill(ones, 1);
+      return ones;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The size.
+     */
+    public int size() {
+      return lowerNumerators.length;
+    }
+
+    /**
+     * Returns the interval in row i.
+     *
+     * @param i The row.
+     * @return The interval.
+     */
+    public RationalInterval get(int i) {
+      return new RationalInterval(
+        normalize(lowerNumerators[i], lowerDenominators[i]),
+        normalize(upperNumerators[i], upperDenominators[i])
+      );
+    }
+
+    /**
+     * Stores x in row i.
+     *
+     * @param i The row.
+     * @param x The interval.
+     */
+    public void set(int i, RationalInterval x) {
+      lowerNumerators[i] = x.lowerNumerator;
+      lowerDenominators[i] = x.lowerDenominator;
+      upperNumerators[i] = x.upperNumerator;
+      upperDenominators[i] = x.upperDenominator;
+    }
+  }
+}
@@ -0,0 +1,463 @@
+package numbers;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in counters for the cost of {@link Rational} arithmetic: how many objects are constructed, how
+ * often and how long {@link Rational#gcd(int, int)} runs, how many normalizations actually changed the
+ * fraction, how often each operation overflows the int range, and how often evaluated
+ * {@link LazyRational} results are reused.
+ *
+ * <p>Metrics are off by default; while they are off the instrumented code only reads one volatile flag.
+ * While they are on, counts are kept in {@link LongAdder}s so that threads do not contend. Overflows are
+ * only detected here: the eager operations still wrap around exactly as before. The same checks also feed
+ * the Flight Recorder events described in {@link RationalEvents} while a recording is running.
+ */
+public final class RationalMetrics {
+
+  /**
+   * The name under which {@link #registerMBean()} registers the JMX view.
+   */
+  public static final String OBJECT_NAME = "numbers:type=RationalMetrics";
+
+  /**
+   * The operations whose overflows are counted.
+   */
+  public enum Operation {
+    CONSTRUCTOR,
+    PLUS,
+    MINUS,
+    TIMES,
+    DIVIDED_BY,
+    OPPOSITE,
+    RAISED_TO_THE_POWER_OF
+  }
+
+  static volatile boolean enabled;
+
+  private static final LongAdder CONSTRUCTIONS = new LongAdder();
+  private static final LongAdder GCD_CALLS = new LongAdder();
+  private static final LongAdder GCD_ITERATIONS = new LongAdder();
+  private static final LongAdder REDUCTIONS = new LongAdder();
+  private static final LongAdder CACHE_HITS = new LongAdder();
+  private static final LongAdder[] OVERFLOWS =
+    new LongAdder[Operation.values().length];
+
+  static {
+    for (int i = 0; i < OVERFLOWS.length; i++) {
+      OVERFLOWS[i] = new LongAdder();
+    }
+  }
+
+  private RationalMetrics() {}
+
+  /**
+   * Returns whether the counters are being updated.
+   *
+   * @return true if metrics are enabled.
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Turns counting on or off. Counters keep their values while metrics are off.
+   *
+   * @param enabled true to start counting, false to stop.
+   */
+  public static void setEnabled(boolean enabled) {
+    RationalMetrics.enabled = enabled;
+  }
+
+  /**
+   * Sets every counter back to 0. Updates made concurrently with the reset may or may not be kept.
+   */
+  public static void reset() {
+    CONSTRUCTIONS.reset();
+    GCD_CALLS.reset();
+    GCD_ITERATIONS.reset();
+    REDUCTIONS.reset();
+    CACHE_HITS.reset();
+    for (LongAdder overflows : OVERFLOWS) {
+      overflows.reset();
+    }
+  }
+
+  /**
+   * Returns the current counts. Counts updated while the snapshot is taken may or may not be included.
+   *
+   * @return An immutable snapshot of the counters.
+   */
+  public static Snapshot snapshot() {
+    long[] overflows = new long[OVERFLOWS.length];
+    for (int i = 0; i < overflows.length; i++) {
+      overflows[i] = OVERFLOWS[i].sum();
+    }
+    return new Snapshot(
+      CONSTRUCTIONS.sum(),
+      GCD_CALLS.sum(),
+      GCD_ITERATIONS.sum(),
+      REDUCTIONS.sum(),
+      CACHE_HITS.sum(),
+      overflows
+    );
+  }
+
+  /**
+   * Registers the JMX view of the metrics with the platform MBean server under {@value #OBJECT_NAME},
+   * unless it is already registered. Registering does not enable the metrics.
+   *
+   * @throws IllegalStateException If the MBean cannot be registered.
+   */
+  public static synchronized void registerMBean() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (!server.isRegistered(name)) {
+        server.registerMBean(new Bean(), name);
+      }
+    } catch (JMException e) {
+      throw new IllegalStateException("Cannot register " + OBJECT_NAME + ".", e);
+    }
+  }
+
+  /**
+   * Counts one construction, and one effective reduction if the fraction was changed.
+   * Callers check {@link #enabled} first.
+   */
+  static void recordConstruction(boolean reduced) {
+    CONSTRUCTIONS.increment();
+    if (reduced) {
+      REDUCTIONS.increment();
+    }
+  }
+
+  /**
+   * Counts one gcd call taking the given number of remainder steps. Callers check {@link #enabled} first.
+   */
+  static void recordGcd(int iterations) {
+    GCD_CALLS.increment();
+    GCD_ITERATIONS.add(iterations);
+  }
+
+  /**
+   * Counts one reuse of a cached result. Callers check {@link #enabled} first.
+   */
+  static void recordCacheHit() {
+    CACHE_HITS.increment();
+  }
+
+  /**
+   * Reports an overflow of operation on a/b and c/d: it is counted if metrics are enabled, and recorded as
+   * an {@link OverflowEvent} if a Flight Recorder recording is running. Unary operations pass 0/1 as c/d.
+   */
+  static void overflowed(Operation operation, long a, long b, long c, long d) {
+    overflowed(operation, "WRAPPED", a, b, c, d);
+  }
+
+  /**
+   * Reports an overflow like {@link #overflowed(Operation, long, long, long, long)}, for an operation
+   * whose outcome was not wrapping, such as "FAILED" for one that threw instead.
+   */
+  static void overflowed(
+    Operation operation,
+    String outcome,
+    long a,
+    long b,
+    long c,
+    long d
+  ) {
+    if (enabled) {
+      OVERFLOWS[operation.ordinal()].increment();
+    }
+    if (RationalEvents.recording) {
+      RationalEvents.overflow(operation.name(), outcome, a, b, c, d);
+    }
+  }
+
+  /**
+   * Reports an overflow of operation if the sum or difference of a/b and c/d, computed over the common
+   * denominator b * d, does not fit in an int. Callers check {@link #enabled} or
+   * {@link RationalEvents#recording} first.
+   */
+  static void checkSum(
+    Operation operation,
+    int a,
+    int b,
+    int c,
+    int d,
+    boolean subtract
+  ) {
+    long ad = (long) a * d;
+    long cb = (long) c * b;
+    long bd = (long) b * d;
+    long numerator = subtract ? ad - cb : ad + cb;
+    if (numerator != (int) numerator || bd != (int) bd) {
+      overflowed(operation, a, b, c, d);
+    }
+  }
+
+  /**
+   * Reports an overflow of operation if a * c or b * d does not fit in an int, and records the product
+   * as a {@link LargeTermEvent} if a recording is running. Callers check {@link #enabled} or
+   * {@link RationalEvents#recording} first.
+   */
+  static void checkProduct(Operation operation, int a, int b, int c, int d) {
+    long numerator = (long) a * c;
+    long denominator = (long) b * d;
+    if (numerator != (int) numerator || denominator != (int) denominator) {
+      overflowed(operation, a, b, c, d);
+    }
+    if (RationalEvents.recording) {
+      RationalEvents.largeTerm(
+        operation.name(),
+        Math.max(
+          RationalEvents.bitLength(numerator),
+          RationalEvents.bitLength(denominator)
+        ),
+        a,
+        b,
+        c,
+        d
+      );
+    }
+  }
+
+  /**
+   * Reports an overflow of (a/b)^n if either power, as computed by Math.pow, is outside the int range, and
+   * records it as a {@link LargeTermEvent} if a recording is running. Callers check {@link #enabled} or
+   * {@link RationalEvents#recording} first.
+   */
+  static void checkPower(
+    int a,
+    int b,
+    int n,
+    double powerNumerator,
+    double powerDenominator
+  ) {
+    double larger = Math.max(
+      Math.abs(powerNumerator),
+      Math.abs(powerDenominator)
+    );
+    if (
+      powerNumerator < Integer.MIN_VALUE ||
+      powerNumerator > Integer.MAX_VALUE ||
+      powerDenominator < Integer.MIN_VALUE ||
+      powerDenominator > Integer.MAX_VALUE
+    ) {
+      overflowed(Operation.RAISED_TO_THE_POWER_OF, a, b, n, 1);
+    }
+    if (RationalEvents.recording && larger >= 1) {
+      RationalEvents.largeTerm(
+        Operation.RAISED_TO_THE_POWER_OF.name(),
+        Math.getExponent(larger) + 1,
+        a,
+        b,
+        n,
+        1
+      );
+    }
+  }
+
+  /**
+   * An immutable copy of the counters at one point in time.
+   */
+  public static final class Snapshot {
+
+    private final long constructions;
+    private final long gcdCalls;
+    private final long gcdIterations;
+    private final long reductions;
+    private final long cacheHits;
+    private final long[] overflows;
+
+    private Snapshot(
+      long constructions,
+      long gcdCalls,
+      long gcdIterations,
+      long reductions,
+      long cacheHits,
+      long[] overflows
+    ) {
+      this.constructions = constructions;
+      this.gcdCalls = gcdCalls;
+      this.gcdIterations = gcdIterations;
+      this.reductions = reductions;
+      this.cacheHits = cacheHits;
+      this.overflows = overflows;
+    }
+
+    /**
+     * Returns the number of Rational objects constructed.
+     *
+     * @return The number of constructions.
+     */
+    public long getConstructions() {
+      return constructions;
+    }
+
+    /**
+     * Returns the number of calls to {@link Rational#gcd(int, int)}.
+     *
+     * @return The number of gcd calls.
+     */
+    public long getGcdCalls() {
+      return gcdCalls;
+    }
+
+    /**
+     * Returns the total number of remainder steps taken by {@link Rational#gcd(int, int)}.
+     *
+     * @return The number of gcd iterations.
+     */
+    public long getGcdIterations() {
+      return gcdIterations;
+    }
+
+    /**
+     * Returns the number of normalizations that changed the fraction they were given, by moving the
+     * sign or by dividing out a common factor.
+     *
+     * @return The number of effective reductions.
+     */
+    public long getReductions() {
+      return reductions;
+    }
+
+    /**
+     * Returns the number of times an already evaluated {@link LazyRational} result was reused.
+     *
+     * @return The number of cache hits.
+     */
+    public long getCacheHits() {
+      return cacheHits;
+    }
+
+    /**
+     * Returns the number of overflows of one operation.
+     *
+     * @param operation The operation.
+     * @return The number of times it overflowed.
+     */
+    public long getOverflows(Operation operation) {
+      return overflows[operation.ordinal()];
+    }
+
+    /**
+     * Returns the total number of overflows over all operations.
+     *
+     * @return The total number of overflows.
+     */
+    public long getTotalOverflows() {
+      long total = 0;
+      for (long count : overflows) {
+        total += count;
+      }
+      return total;
+    }
+
+    /**
+     * Returns the overflow counts of all operations.
+     *
+     * @return An unmodifiable map from each operation to its overflow count.
+     */
+    public Map<Operation, Long> getOverflows() {
+      Map<Operation, Long> result = new EnumMap<>(Operation.class);
+      for (Operation operation : Operation.values()) {
+        result.put(operation, overflows[operation.ordinal()]);
+      }
+      return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns a string representation of the counts.
+     *
+     * @return A string listing every counter.
+     */
+    @Override
+    public String toString() {
+      return (
+        "constructions=" +
+        constructions +
+        ", gcdCalls=" +
+        gcdCalls +
+        ", gcdIterations=" +
+        gcdIterations +
+        ", reductions=" +
+        reductions +
+        ", cacheHits=" +
+        cacheHits +
+        ", overflows=" +
+        getOverflows()
+      );
+    }
+  }
+
+  /**
+   * The JMX view, reading the live counters on every call.
+   */
+  private static final class Bean implements RationalMetricsMXBean {
+
+    @Override
+    public boolean isEnabled() {
+      return RationalMetrics.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+      RationalMetrics.setEnabled(enabled);
+    }
+
+    @Override
+    public long getConstructions() {
+      return CONSTRUCTIONS.sum();
+    }
+
+    @Override
+    public long getGcdCalls() {
+      return GCD_CALLS.sum();
+    }
+
+    @Override
+    public long getGcdIterations() {
+      return GCD_ITERATIONS.sum();
+    }
+
+    @Override
+    public long getReductions() {
+      return REDUCTIONS.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+      return CACHE_HITS.sum();
+    }
+
+    @Override
+    public Map<String, Long> getOverflows() {
+      Map<String, Long> result = new LinkedHashMap<>();
+      for (Operation operation : Operation.values()) {
+        result.put(operation.name(), OVERFLOWS[operation.ordinal()].sum());
+      }
+      return result;
+    }
+
+    @Override
+    public long getTotalOverflows() {
+      return snapshot().getTotalOverflows();
+    }
+
+    @Override
+    public void reset() {
+      RationalMetrics.reset();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package numbers;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link RationalMetrics}, registered as {@value RationalMetrics#OBJECT_NAME} by
+ * {@link RationalMetrics#registerMBean()}.
+ */
+public interface RationalMetricsMXBean {
+  /**
+   * Returns whether the counters are being updated.
+   *
+   * @return true if metrics are enabled.
+   */
+  boolean isEnabled();
+
+  /**
+   * Turns counting on or off.
+   *
+   * @param enabled true to start counting, false to stop.
+   */
+  void setEnabled(boolean enabled);
+
+  /**
+   * Returns the number of Rational objects constructed.
+   *
+   * @return The number of constructions.
+   */
+  long getConstructions();
+
+  /**
+   * Returns the number of calls to {@link Rational#gcd(int, int)}.
+   *
+   * @return The number of gcd calls.
+   */
+  long getGcdCalls();
+
+  /**
+   * Returns the total number of remainder steps taken by {@link Rational#gcd(int, int)}.
+   *
+   * @return The number of gcd iterations.
+   */
+  long getGcdIterations();
+
+  /**
+   * Returns the number of normalizations that changed the fraction they were given.
+   *
+   * @return The number of effective reductions.
+   */
+  long getReductions();
+
+  /**
+   * Returns the number of times an already evaluated {@link LazyRational} result was reused.
+   *
+   * @return The number of cache hits.
+   */
+  long getCacheHits();
+
+  /**
+   * Returns the number of overflows, keyed by the name of the operation that overflowed.
+   *
+   * @return The overflow counts by operation.
+   */
+  Map<String, Long> getOverflows();
+
+  /**
+   * Returns the total number of overflows over all operations.
+   *
+   * @return The total number of overflows.
+   */
+  long getTotalOverflows();
+
+  /**
+   * Sets every counter back to 0.
+   */
+  void reset();
+}
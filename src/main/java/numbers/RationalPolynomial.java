@@ -0,0 +1,364 @@
+package numbers;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * An immutable polynomial with exact rational coefficients.
+ *
+ * <p>Besides the ring operations, a polynomial can be evaluated at many points held in primitive
+ * numerator/denominator columns. Evaluation clears all denominators up front: with integer coefficients
+ * a_i over a common denominator D, the value at p/q is
+ * (a_n p^n + a_(n-1) p^(n-1) q + ... + a_0 q^n) / (D q^n), whose numerator is computed by Horner's rule
+ * in long arithmetic with no gcd until the single reduction at the end. Points whose terms outgrow a
+ * long are evaluated again with BigInteger, so results are exact either way.
+ */
+public final class RationalPolynomial {
+
+  /**
+   * The zero polynomial.
+   */
+  public static final RationalPolynomial ZERO = new RationalPolynomial(new BigRational[0]);
+
+  private final BigRational[] coefficients;
+  private final BigInteger[] integerCoefficients;
+  private final BigInteger commonDenominator;
+  private final long[] longCoefficients;
+  private final long longDenominator;
+
+  private RationalPolynomial(BigRational[] coefficients) {
+    int degree = coefficients.length - 1;
+    while (degree >= 0 && coefficients[degree].signum() == 0) {
+      degree--;
+    }
+    this.coefficients = Arrays.copyOf(coefficients, degree + 1);
+    BigInteger denominator = BigInteger.ONE;
+    for (BigRational c : this.coefficients) {
+      BigInteger d = c.getDenominator();
+      denominator = denominator.divide(denominator.gcd(d)).multiply(d);
+    }
+    this.commonDenominator = denominator;
+    this.integerCoefficients = new BigInteger[degree + 1];
+    boolean fits = denominator.bitLength() < 64;
+    for (int i = 0; i <= degree; i++) {
+      BigRational c = this.coefficients[i];
+      integerCoefficients[i] = c.getNumerator().multiply(denominator.divide(c.getDenominator()));
+      fits &= integerCoefficients[i].bitLength() < 64;
+    }
+    if (fits) {
+      longCoefficients = new long[degree + 1];
+      for (int i = 0; i <= degree; i++) {
+        longCoefficients[i] = integerCoefficients[i].longValue();
+      }
+      longDenominator = denominator.longValue();
+    } else {
+      longCoefficients = null;
+      longDenominator = 0;
+    }
+  }
+
+  /**
+   * Returns the polynomial with the given coefficients.
+   *
+   * @param coefficients The coefficients, starting with the constant term.
+   * @return The polynomial.
+   */
+  public static RationalPolynomial of(BigRational... coefficients) {
+    return new RationalPolynomial(coefficients.clone());
+  }
+
+  /**
+   * Returns the polynomial with the given coefficients.
+   *
+   * @param coefficients The coefficients, starting with the constant term.
+   * @return The polynomial.
+   */
+  public static RationalPolynomial of(Rational... coefficients) {
+    BigRational[] values = new BigRational[coefficients.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = BigRational.valueOf(coefficients[i]);
+    }
+    return new RationalPolynomial(values);
+  }
+
+  /**
+   * Returns the degree of this polynomial.
+   *
+   * @return The degree, or -1 for the zero polynomial.
+   */
+  public int getDegree() {
+    return coefficients.length - 1;
+  }
+
+  /**
+   * Returns the coefficient of x^i.
+   *
+   * @param i The power of x.
+   * @return The coefficient, which is 0 above the degree.
+   * @throws IllegalArgumentException If i is negative.
+   */
+  public BigRational getCoefficient(int i) {
+    if (i < 0) {
+      throw new IllegalArgumentException("Power cannot be negative.");
+    }
+    return i < coefficients.length ? coefficients[i] : BigRational.ZERO;
+  }
+
+  /**
+   * Returns the sum of this polynomial and p.
+   *
+   * @param p The polynomial to add.
+   * @return The exact sum.
+   */
+  public RationalPolynomial plus(RationalPolynomial p) {
+    BigRational[] sum = new BigRational[Math.max(coefficients.length, p.coefficients.length)];
+    for (int i = 0; i < sum.length; i++) {
+      sum[i] = getCoefficient(i).plus(p.getCoefficient(i));
+    }
+    return new RationalPolynomial(sum);
+  }
+
+  /**
+   * Returns the difference between this polynomial and p.
+   *
+   * @param p The polynomial to subtract.
+   * @return The exact difference.
+   */
+  public RationalPolynomial minus(RationalPolynomial p) {
+    BigRational[] difference = new BigRational[Math.max(coefficients.length, p.coefficients.length)];
+    for (int i = 0; i < difference.length; i++) {
+      difference[i] = getCoefficient(i).minus(p.getCoefficient(i));
+    }
+    return new RationalPolynomial(difference);
+  }
+
+  /**
+   * Returns the product of this polynomial and p.
+   *
+   * @param p The polynomial to multiply by.
+   * @return The exact product.
+   */
+  public RationalPolynomial times(RationalPolynomial p) {
+    if (coefficients.length == 0 || p.coefficients.length == 0) {
+      return ZERO;
+    }
+    BigRational[] product = new BigRational[coefficients.length + p.coefficients.length - 1];
+    Arrays.fill(product, BigRational.ZERO);
+    for (int i = 0; i < coefficients.length; i++) {
+      for (int j = 0; j < p.coefficients.length; j++) {
+        product[i + j] = product[i + j].plus(coefficients[i].times(p.coefficients[j]));
+      }
+    }
+    return new RationalPolynomial(product);
+  }
+
+  /**
+   * Returns the derivative of this polynomial.
+   *
+   * @return The derivative.
+   */
+  public RationalPolynomial derivative() {
+    if (coefficients.length <= 1) {
+      return ZERO;
+    }
+    BigRational[] derivative = new BigRational[coefficients.length - 1];
+    for (int i = 1; i < coefficients.length; i++) {
+      derivative[i - 1] = coefficients[i].times(BigRational.valueOf(i, 1));
+    }
+    return new RationalPolynomial(derivative);
+  }
+
+  /**
+   * Divides this polynomial by p, like {@link BigInteger#divideAndRemainder(BigInteger)}: returns the
+   * quotient q and remainder r with this = q * p + r and r of lower degree than p.
+   *
+   * @param p The divisor.
+   * @return An array holding the quotient and then the remainder.
+   * @throws IllegalArgumentException If p is the zero polynomial.
+   */
+  public RationalPolynomial[] divideAndRemainder(RationalPolynomial p) {
+    int divisorDegree = p.getDegree();
+    if (divisorDegree < 0) {
+      throw new IllegalArgumentException("Cannot divide by the zero polynomial.");
+    }
+    if (getDegree() < divisorDegree) {
+      return new RationalPolynomial[] { ZERO, this };
+    }
+    BigRational[] remainder = coefficients.clone();
+    BigRational[] quotient = new BigRational[getDegree() - divisorDegree + 1];
+    BigRational lead = p.coefficients[divisorDegree];
+    for (int k = quotient.length - 1; k >= 0; k--) {
+      BigRational factor = remainder[k + divisorDegree].dividedBy(lead);
+      quotient[k] = factor;
+      if (factor.signum() != 0) {
+        for (int j = 0; j <= divisorDegree; j++) {
+          remainder[k + j] = remainder[k + j].minus(factor.times(p.coefficients[j]));
+        }
+      }
+    }
+    return new RationalPolynomial[] {
+      new RationalPolynomial(quotient),
+      new RationalPolynomial(Arrays.copyOf(remainder, divisorDegree)),
+    };
+  }
+
+  /**
+   * Evaluates this polynomial at x.
+   *
+   * @param x The point.
+   * @return A new Rational holding the value.
+   * @throws IllegalArgumentException If the value does not fit in an int numerator and denominator.
+   */
+  public Rational evaluate(Rational x) {
+    int[] n = new int[1];
+    int[] d = new int[1];
+    evaluate(new int[] { x.numerator }, new int[] { x.denominator }, n, d);
+    return new Rational(n[0], d[0]);
+  }
+
+  /**
+   * Evaluates this polynomial at x.
+   *
+   * @param x The point.
+   * @return The exact value.
+   */
+  public BigRational evaluate(BigRational x) {
+    BigInteger p = x.getNumerator();
+    BigInteger q = x.getDenominator();
+    return BigRational.of(homogeneousHorner(p, q), commonDenominator.multiply(q.pow(Math.max(0, getDegree()))));
+  }
+
+  /**
+   * Evaluates this polynomial at every point numerators[i]/denominators[i], writing the values in
+   * lowest terms with positive denominators. Large point sets are split into ranges that are evaluated
+   * in parallel.
+   *
+   * @param numerators The numerators of the points.
+   * @param denominators The denominators of the points.
+   * @param outNumerators Receives the numerators of the values.
+   * @param outDenominators Receives the denominators of the values.
+   * @throws IllegalArgumentException If the columns differ in length, a denominator is 0, or a value does
+   *         not fit in an int numerator and denominator.
+   */
+  public void evaluate(
+    int[] numerators,
+    int[] denominators,
+    int[] outNumerators,
+    int[] outDenominators
+  ) {
+    Fractions.checkColumns(numerators, denominators);
+    int rows = numerators.length;
+    if (outNumerators.length != rows || outDenominators.length != rows) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+    Fractions.forEachChunk(rows, "RationalPolynomial.evaluate", row -> {
+      long p = numerators[row];
+      long q = denominators[row];
+      if (q < 0) {
+        p = -p;
+        q = -q;
+      }
+      evaluate(p, q, outNumerators, outDenominators, row);
+    });
+  }
+
+  /**
+   * Evaluates at p/q, for q positive, into slot row of the output columns.
+   */
+  private void evaluate(long p, long q, int[] outNumerators, int[] outDenominators, int row) {
+    if (longCoefficients != null) {
+      try {
+        int n = longCoefficients.length - 1;
+        long s = n < 0 ? 0 : longCoefficients[n];
+        long power = 1;
+        for (int i = n - 1; i >= 0; i--) {
+          power = Math.multiplyExact(power, q);
+          s = Math.addExact(Math.multiplyExact(s, p), Math.multiplyExact(longCoefficients[i], power));
+        }
+        long denominator = Math.multiplyExact(longDenominator, power);
+        long g = Fractions.gcd(s, denominator);
+        outNumerators[row] = Fractions.toIntExact(s / g);
+        outDenominators[row] = Fractions.toIntExact(denominator / g);
+        return;
+      } catch (ArithmeticException e) {
+        // Fall through to exact evaluation with BigInteger.
+      }
+    }
+    Rational value = evaluate(BigRational.valueOf(p, q)).toRational();
+    outNumerators[row] = value.numerator;
+    outDenominators[row] = value.denominator;
+  }
+
+  /**
+   * Returns a_n p^n + a_(n-1) p^(n-1) q + ... + a_0 q^n for the integer coefficients a_i.
+   */
+  private BigInteger homogeneousHorner(BigInteger p, BigInteger q) {
+    int n = integerCoefficients.length - 1;
+    if (n < 0) {
+      return BigInteger.ZERO;
+    }
+    BigInteger s = integerCoefficients[n];
+    BigInteger power = BigInteger.ONE;
+    for (int i = n - 1; i >= 0; i--) {
+      power = power.multiply(q);
+      s = s.multiply(p).add(integerCoefficients[i].multiply(power));
+    }
+    return s;
+  }
+
+  /**
+   * Indicates whether o is a polynomial with the same coefficients.
+   *
+   * @param o The reference object with which to compare.
+   * @return true if o is an equal RationalPolynomial; false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof RationalPolynomial)) return false;
+    return Arrays.equals(coefficients, ((RationalPolynomial) o).coefficients);
+  }
+
+  /**
+   * Returns a hash code consistent with {@link #equals(Object)}.
+   *
+   * @return The hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(coefficients);
+  }
+
+  /**
+   * Returns a string representation with the highest power first, such as "3/2x^2 - x + 1".
+   *
+   * @return A string representation of this polynomial.
+   */
+  @Override
+  public String toString() {
+    if (coefficients.length == 0) {
+      return "0";
+    }
+    StringBuilder s = new StringBuilder();
+    for (int i = coefficients.length - 1; i >= 0; i--) {
+      BigRational c = coefficients[i];
+      if (c.signum() == 0) {
+        continue;
+      }
+      if (s.length() > 0) {
+        s.append(c.signum() < 0 ? " - " : " + ");
+        c = c.signum() < 0 ? c.opposite() : c;
+      }
+      if (i == 0 || !c.equals(BigRational.ONE)) {
+        s.append(c.equals(BigRational.ONE.opposite()) && i > 0 ? "-" : c.toString());
+      }
+      if (i > 0) {
+        s.append('x');
+        if (i > 1) {
+          s.append('^').append(i);
+        }
+      }
+    }
+    return s.toString();
+  }
+}
@@ -0,0 +1,413 @@
+package numbers;
+
+/**
+ * Exact geometric predicates on points with rational coordinates, as used by mesh generators: the
+ * orientation of three points in the plane or four in space, whether a point lies inside the circle
+ * through three others, and whether two segments meet.
+ *
+ * <p>Each predicate first evaluates its determinant in doubles, from coordinates rounded once each, and
+ * accepts the sign whenever the result exceeds a bound on the rounding error, which is almost always.
+ * Only nearly degenerate inputs fall back to exact arithmetic with {@link BigRational}. Points are read
+ * from int columns by index, so the filtered path allocates nothing.
+ */
+public final class RationalPredicates {
+
+  /**
+   * Relative error bound of the filtered orient2d determinant, well above its roughly 6 rounding units.
+   */
+  private static final double ORIENT2D_BOUND = 0x1p-49;
+
+  /**
+   * Relative error bound of the filtered orient3d determinant, well above its roughly 12 rounding units.
+   */
+  private static final double ORIENT3D_BOUND = 0x1p-48;
+
+  /**
+   * Relative error bound of the filtered incircle determinant, well above its roughly 16 rounding units.
+   */
+  private static final double INCIRCLE_BOUND = 0x1p-47;
+
+  private RationalPredicates() {
+  }
+
+  /**
+   * Returns the orientation of points a, b and c in the plane.
+   *
+   * @param points The coordinates.
+   * @param a The index of the first point.
+   * @param b The index of the second point.
+   * @param c The index of the third point.
+   * @return 1 if a, b and c turn counterclockwise, -1 if clockwise, and 0 if they are collinear.
+   */
+  public static int orient2d(Points points, int a, int b, int c) {
+    double ax = points.x(a);
+    double ay = points.y(a);
+    double acx = points.x(c) - ax;
+    double acy = points.y(c) - ay;
+    double abx = points.x(b) - ax;
+    double aby = points.y(b) - ay;
+    double det = abx * acy - aby * acx;
+    double permanent = (Math.abs(points.x(b)) + Math.abs(ax)) * (Math.abs(points.y(c)) + Math.abs(ay))
+      + (Math.abs(points.y(b)) + Math.abs(ay)) * (Math.abs(points.x(c)) + Math.abs(ax));
+    if (Math.abs(det) > permanent * ORIENT2D_BOUND) {
+      return det > 0 ? 1 : -1;
+    }
+    BigRational[] ab = points.difference(b, a);
+    BigRational[] ac = points.difference(c, a);
+    return ab[0].times(ac[1]).minus(ab[1].times(ac[0])).signum();
+  }
+
+  /**
+   * Returns the orientation of point d relative to the plane through a, b and c.
+   *
+   * @param points The coordinates, which must be three-dimensional.
+   * @param a The index of the first point.
+   * @param b The index of the second point.
+   * @param c The index of the third point.
+   * @param d The index of the point to test.
+   * @return 1 if d lies below the plane, where a, b and c appear counterclockwise seen from above, -1 if
+   *         it lies above, and 0 if the four points are coplanar.
+   * @throws IllegalArgumentException If the points are two-dimensional.
+   */
+  public static int orient3d(Points points, int a, int b, int c, int d) {
+    points.checkThreeDimensional();
+    double adx = points.x(a) - points.x(d);
+    double ady = points.y(a) - points.y(d);
+    double adz = points.z(a) - points.z(d);
+    double bdx = points.x(b) - points.x(d);
+    double bdy = points.y(b) - points.y(d);
+    double bdz = points.z(b) - points.z(d);
+    double cdx = points.x(c) - points.x(d);
+    double cdy = points.y(c) - points.y(d);
+    double cdz = points.z(c) - points.z(d);
+    double det = adz * (bdx * cdy - bdy * cdx)
+      + bdz * (cdx * ady - cdy * adx)
+      + cdz * (adx * bdy - ady * bdx);
+    double ax = points.span(0, a, d);
+    double ay = points.span(1, a, d);
+    double az = points.span(2, a, d);
+    double bx = points.span(0, b, d);
+    double by = points.span(1, b, d);
+    double bz = points.span(2, b, d);
+    double cx = points.span(0, c, d);
+    double cy = points.span(1, c, d);
+    double cz = points.span(2, c, d);
+    double permanent = az * (bx * cy + by * cx) + bz * (cx * ay + cy * ax) + cz * (ax * by + ay * bx);
+    if (Math.abs(det) > permanent * ORIENT3D_BOUND) {
+      return det > 0 ? 1 : -1;
+    }
+    BigRational[] ad = points.difference(a, d);
+    BigRational[] bd = points.difference(b, d);
+    BigRational[] cd = points.difference(c, d);
+    return ad[2].times(bd[0].times(cd[1]).minus(bd[1].times(cd[0])))
+      .plus(bd[2].times(cd[0].times(ad[1]).minus(cd[1].times(ad[0]))))
+      .plus(cd[2].times(ad[0].times(bd[1]).minus(ad[1].times(bd[0]))))
+      .signum();
+  }
+
+  /**
+   * Returns where point d lies relative to the circle through a, b and c, which must turn
+   * counterclockwise; the result is negated if they turn clockwise.
+   *
+   * @param points The coordinates.
+   * @param a The index of the first point on the circle.
+   * @param b The index of the second point on the circle.
+   * @param c The index of the third point on the circle.
+   * @param d The index of the point to test.
+   * @return 1 if d lies inside the circle, -1 if outside, and 0 if on it.
+   */
+  public static int incircle(Points points, int a, int b, int c, int d) {
+    double adx = points.x(a) - points.x(d);
+    double ady = points.y(a) - points.y(d);
+    double bdx = points.x(b) - points.x(d);
+    double bdy = points.y(b) - points.y(d);
+    double cdx = points.x(c) - points.x(d);
+    double cdy = points.y(c) - points.y(d);
+    double alift = adx * adx + ady * ady;
+    double blift = bdx * bdx + bdy * bdy;
+    double clift = cdx * cdx + cdy * cdy;
+    double det = alift * (bdx * cdy - cdx * bdy)
+      + blift * (cdx * ady - adx * cdy)
+      + clift * (adx * bdy - bdx * ady);
+    double ax = points.span(0, a, d);
+    double ay = points.span(1, a, d);
+    double bx = points.span(0, b, d);
+    double by = points.span(1, b, d);
+    double cx = points.span(0, c, d);
+    double cy = points.span(1, c, d);
+    double permanent = (ax * ax + ay * ay) * (bx * cy + cx * by)
+      + (bx * bx + by * by) * (cx * ay + ax * cy)
+      + (cx * cx + cy * cy) * (ax * by + bx * ay);
+    if (Math.abs(det) > permanent * INCIRCLE_BOUND) {
+      return det > 0 ? 1 : -1;
+    }
+    BigRational[] ad = points.difference(a, d);
+    BigRational[] bd = points.difference(b, d);
+    BigRational[] cd = points.difference(c, d);
+    return lift(ad).times(bd[0].times(cd[1]).minus(cd[0].times(bd[1])))
+      .plus(lift(bd).times(cd[0].times(ad[1]).minus(ad[0].times(cd[1]))))
+      .plus(lift(cd).times(ad[0].times(bd[1]).minus(bd[0].times(ad[1]))))
+      .signum();
+  }
+
+  /**
+   * Returns whether the closed segments ab and cd have a point in common, including when they only
+   * touch or overlap along a line.
+   *
+   * @param points The coordinates.
+   * @param a The index of the first end of the first segment.
+   * @param b The index of the second end of the first segment.
+   * @param c The index of the first end of the second segment.
+   * @param d The index of the second end of the second segment.
+   * @return true if the segments intersect.
+   */
+  public static boolean segmentsIntersect(Points points, int a, int b, int c, int d) {
+    int abc = orient2d(points, a, b, c);
+    int abd = orient2d(points, a, b, d);
+    if (abc * abd > 0) {
+      return false;
+    }
+    int cda = orient2d(points, c, d, a);
+    int cdb = orient2d(points, c, d, b);
+    if (cda * cdb > 0) {
+      return false;
+    }
+    // If c and d both lie on the line through a and b, so do a and b on the line through c and d, and
+    // if a equals b, cda equals cdb and the check above leaves both zero: cda and cdb add nothing here.
+    if (abc != 0 || abd != 0) {
+      return true;
+    }
+    // All four points are collinear: the segments meet if their extents overlap in both coordinates.
+    return overlaps(points, 0, a, b, c, d) && overlaps(points, 1, a, b, c, d);
+  }
+
+  /**
+   * Writes orient2d(points, a[i], b[i], c[i]) into out[i] for every i. Large batches are split into
+   * chunks that are evaluated in parallel.
+   *
+   * @param points The coordinates.
+   * @param a The indices of the first points.
+   * @param b The indices of the second points.
+   * @param c The indices of the third points.
+   * @param out Receives the orientations.
+   * @throws IllegalArgumentException If the index columns differ in length.
+   */
+  public static void orient2d(Points points, int[] a, int[] b, int[] c, int[] out) {
+    checkBatch(out.length, a, b, c);
+    Fractions.forEachChunk(
+      out.length,
+      "RationalPredicates.orient2d",
+      i -> out[i] = orient2d(points, a[i], b[i], c[i])
+    );
+  }
+
+  /**
+   * Writes orient3d(points, a[i], b[i], c[i], d[i]) into out[i] for every i. Large batches are split into
+   * chunks that are evaluated in parallel.
+   *
+   * @param points The coordinates, which must be three-dimensional.
+   * @param a The indices of the first points.
+   * @param b The indices of the second points.
+   * @param c The indices of the third points.
+   * @param d The indices of the points to test.
+   * @param out Receives the orientations.
+   * @throws IllegalArgumentException If the index columns differ in length or the points are
+   *         two-dimensional.
+   */
+  public static void orient3d(Points points, int[] a, int[] b, int[] c, int[] d, int[] out) {
+    points.checkThreeDimensional();
+    checkBatch(out.length, a, b, c, d);
+    Fractions.forEachChunk(
+      out.length,
+      "RationalPredicates.orient3d",
+      i -> out[i] = orient3d(points, a[i], b[i], c[i], d[i])
+    );
+  }
+
+  /**
+   * Writes incircle(points, a[i], b[i], c[i], d[i]) into out[i] for every i. Large batches are split into
+   * chunks that are evaluated in parallel.
+   *
+   * @param points The coordinates.
+   * @param a The indices of the first points on the circles.
+   * @param b The indices of the second points on the circles.
+   * @param c The indices of the third points on the circles.
+   * @param d The indices of the points to test.
+   * @param out Receives the results.
+   * @throws IllegalArgumentException If the index columns differ in length.
+   */
+  public static void incircle(Points points, int[] a, int[] b, int[] c, int[] d, int[] out) {
+    checkBatch(out.length, a, b, c, d);
+    Fractions.forEachChunk(
+      out.length,
+      "RationalPredicates.incircle",
+      i -> out[i] = incircle(points, a[i], b[i], c[i], d[i])
+    );
+  }
+
+  /**
+   * Writes segmentsIntersect(points, a[i], b[i], c[i], d[i]) into out[i] for every i. Large batches are
+   * split into chunks that are evaluated in parallel.
+   *
+   * @param points The coordinates.
+   * @param a The indices of the first ends of the first segments.
+   * @param b The indices of the second ends of the first segments.
+   * @param c The indices of the first ends of the second segments.
+   * @param d The indices of the second ends of the second segments.
+   * @param out Receives the results.
+   * @throws IllegalArgumentException If the index columns differ in length.
+   */
+  public static void segmentsIntersect(Points points, int[] a, int[] b, int[] c, int[] d, boolean[] out) {
+    checkBatch(out.length, a, b, c, d);
+    Fractions.forEachChunk(
+      out.length,
+      "RationalPredicates.segmentsIntersect",
+      i -> out[i] = segmentsIntersect(points, a[i], b[i], c[i], d[i])
+    );
+  }
+
+  private static BigRational lift(BigRational[] v) {
+    return v[0].times(v[0]).plus(v[1].times(v[1]));
+  }
+
+  /**
+   * Returns whether the extents of ab and cd along one axis overlap, comparing the coordinates exactly.
+   */
+  private static boolean overlaps(Points points, int axis, int a, int b, int c, int d) {
+    int[] n = points.numerators[axis];
+    int[] q = points.denominators[axis];
+    int lowAB = Fractions.compare(n[a], q[a], n[b], q[b]) <= 0 ? a : b;
+    int highAB = lowAB == a ? b : a;
+    int lowCD = Fractions.compare(n[c], q[c], n[d], q[d]) <= 0 ? c : d;
+    int highCD = lowCD == c ? d : c;
+    return Fractions.compare(n[lowAB], q[lowAB], n[highCD], q[highCD]) <= 0
+      && Fractions.compare(n[lowCD], q[lowCD], n[highAB], q[highAB]) <= 0;
+  }
+
+  private static void checkBatch(int size, int[]... indices) {
+    for (int[] column : indices) {
+      if (column.length != size) {
+        throw new IllegalArgumentException("Column lengths must match.");
+      }
+    }
+  }
+
+  /**
+   * Points in the plane or in space, held as int columns of coordinate numerators and denominators. The
+   * columns are wrapped without copying.
+   */
+  public static final class Points {
+
+    final int[][] numerators;
+    final int[][] denominators;
+
+    /**
+     * Wraps the coordinates of points in the plane.
+     *
+     * @param xNumerators The numerators of the x coordinates.
+     * @param xDenominators The denominators of the x coordinates.
+     * @param yNumerators The numerators of the y coordinates.
+     * @param yDenominators The denominators of the y coordinates.
+     * @throws IllegalArgumentException If the columns differ in length or a denominator is 0.
+     */
+    public Points(int[] xNumerators, int[] xDenominators, int[] yNumerators, int[] yDenominators) {
+      this(
+        new int[][] { xNumerators, yNumerators },
+        new int[][] { xDenominators, yDenominators }
+      );
+    }
+
+    /**
+     * Wraps the coordinates of points in space.
+     *
+     * @param xNumerators The numerators of the x coordinates.
+     * @param xDenominators The denominators of the x coordinates.
+     * @param yNumerators The numerators of the y coordinates.
+     * @param yDenominators The denominators of the y coordinates.
+     * @param zNumerators The numerators of the z coordinates.
+     * @param zDenominators The denominators of the z coordinates.
+     * @throws IllegalArgumentException If the columns differ in length or a denominator is 0.
+     */
+    public Points(
+      int[] xNumerators,
+      int[] xDenominators,
+      int[] yNumerators,
+      int[] yDenominators,
+      int[] zNumerators,
+      int[] zDenominators
+    ) {
+      this(
+        new int[][] { xNumerators, yNumerators, zNumerators },
+        new int[][] { xDenominators, yDenominators, zDenominators }
+      );
+    }
+
+    private Points(int[][] numerators, int[][] denominators) {
+      for (int axis = 0; axis < numerators.length; axis++) {
+        Fractions.checkColumns(numerators[axis], denominators[axis]);
+        if (numerators[axis].length != numerators[0].length) {
+          throw new IllegalArgumentException("Column lengths must match.");
+        }
+      }
+      this.numerators = numerators;
+      this.denominators = denominators;
+    }
+
+    /**
+     * Returns the number of points.
+     *
+     * @return The size.
+     */
+    public int size() {
+      return numerators[0].length;
+    }
+
+    /**
+     * Returns the number of coordinates per point.
+     *
+     * @return 2 or 3.
+     */
+    public int getDimension() {
+      return numerators.length;
+    }
+
+    double x(int i) {
+      return (double) numerators[0][i] / denominators[0][i];
+    }
+
+    double y(int i) {
+      return (double) numerators[1][i] / denominators[1][i];
+    }
+
+    double z(int i) {
+      return (double) numerators[2][i] / denominators[2][i];
+    }
+
+    /**
+     * Returns |coordinate of i| + |coordinate of j| on one axis, which bounds the magnitude of their
+     * difference and of the error in it.
+     */
+    double span(int axis, int i, int j) {
+      return Math.abs((double) numerators[axis][i] / denominators[axis][i])
+        + Math.abs((double) numerators[axis][j] / denominators[axis][j]);
+    }
+
+    /**
+     * Returns the exact coordinates of point i minus point j.
+     */
+    BigRational[] difference(int i, int j) {
+      BigRational[] difference = new BigRational[numerators.length];
+      for (int axis = 0; axis < numerators.length; axis++) {
+        difference[axis] = BigRational.valueOf(numerators[axis][i], denominators[axis][i])
+          .minus(BigRational.valueOf(numerators[axis][j], denominators[axis][j]));
+      }
+      return difference;
+    }
+
+    void checkThreeDimensional() {
+      if (numerators.length != 3) {
+        throw new IllegalArgumentException("Points must be three-dimensional.");
+      }
+    }
+  }
+}
@@ -0,0 +1,281 @@
+package numbers;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An arithmetic progression of rationals, start, start + step, ..., start + (count - 1) step, held
+ * implicitly. Start and step are kept as longs over their least common denominator, so the k-th element
+ * is one multiply-add and one gcd away, with no chain of additions to normalize.
+ *
+ * <p>Writing the whole range into columns goes further: the gcd with the common denominator repeats
+ * with a period that divides the denominator, so short periods are computed once and reused.
+ */
+public final class RationalRange {
+
+  /**
+   * The longest gcd period that {@link #toColumns(int[], int[])} tabulates.
+   */
+  static final int MAX_PERIOD = 4096;
+
+  private final long first;
+  private final long step;
+  private final long denominator;
+  private final int count;
+
+  private RationalRange(long first, long step, long denominator, int count) {
+    this.first = first;
+    this.step = step;
+    this.denominator = denominator;
+    this.count = count;
+  }
+
+  /**
+   * Returns the progression of count values from start in increments of step.
+   *
+   * @param start The first value.
+   * @param step The difference between consecutive values, which may be zero or negative.
+   * @param count The number of values.
+   * @return The range.
+   * @throws IllegalArgumentException If count is negative.
+   */
+  public static RationalRange of(Rational start, Rational step, int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Count cannot be negative.");
+    }
+    long a = start.denominator < 0 ? -(long) start.numerator : start.numerator;
+    long b = Math.abs((long) start.denominator);
+    long c = step.denominator < 0 ? -(long) step.numerator : step.numerator;
+    long d = Math.abs((long) step.denominator);
+    long g = Fractions.gcd(b, d);
+    // The least common multiple of two ints fits in 62 bits, and so do both scaled numerators.
+    return new RationalRange(a * (d / g), c * (b / g), b / g * d, count);
+  }
+
+  /**
+   * Returns the number of values.
+   *
+   * @return The size.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Returns the first value.
+   *
+   * @return A new Rational equal to start.
+   */
+  public Rational getStart() {
+    return reduce(first);
+  }
+
+  /**
+   * Returns the difference between consecutive values.
+   *
+   * @return A new Rational equal to step.
+   */
+  public Rational getStep() {
+    return reduce(step);
+  }
+
+  /**
+   * Returns the value at index k, start + k step.
+   *
+   * @param k The index.
+   * @return A new Rational holding the value.
+   * @throws IndexOutOfBoundsException If k is negative or not less than the size.
+   * @throws IllegalArgumentException If the value does not fit in an int numerator and denominator.
+   */
+  public Rational get(int k) {
+    if (k < 0 || k >= count) {
+      throw new IndexOutOfBoundsException("Index " + k + " out of range.");
+    }
+    long packed = element(k);
+    return Rational.ofReduced(Fractions.numerator(packed), Fractions.denominator(packed));
+  }
+
+  /**
+   * Returns a sequential stream of the values; parallel streams split the range into exact halves.
+   *
+   * @return A stream of the values in order.
+   */
+  public Stream<Rational> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Returns a spliterator over the values, which knows its exact size and splits into exact halves.
+   *
+   * @return A spliterator over the values in order.
+   */
+  public Spliterator<Rational> spliterator() {
+    return new RangeSpliterator(0, count);
+  }
+
+  /**
+   * Writes every value in lowest terms with a positive denominator. Large ranges are split into chunks
+   * that are written in parallel.
+   *
+   * @param numerators Receives the numerators.
+   * @param denominators Receives the denominators.
+   * @throws IllegalArgumentException If a column length differs from the size, or a value does not fit
+   *         in an int numerator and denominator.
+   */
+  public void toColumns(int[] numerators, int[] denominators) {
+    if (numerators.length != count || denominators.length != count) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+    // gcd(first + k step, denominator) depends only on k modulo denominator / gcd(step, denominator).
+    long period = denominator / Fractions.gcd(step, denominator);
+    long[] gcds = period <= MAX_PERIOD && period < count ? periodGcds((int) period) : null;
+    Fractions.forEachChunk(count, "RationalRange.toColumns", k -> {
+      if (gcds == null) {
+        long packed = element(k);
+        numerators[k] = Fractions.numerator(packed);
+        denominators[k] = Fractions.denominator(packed);
+      } else {
+        long g = gcds[(int) (k % period)];
+        numerators[k] = Fractions.toIntExact(numerator(k) / g);
+        denominators[k] = Fractions.toIntExact(denominator / g);
+      }
+    });
+  }
+
+  /**
+   * Returns a string representation of this range, like "[1/2, 3/4, ..., 5/2]" with the first two
+   * values and the last.
+   *
+   * @return A string representation of this range.
+   */
+  @Override
+  public String toString() {
+    switch (count) {
+      case 0:
+        return "[]";
+      case 1:
+        return "[" + get(0) + "]";
+      case 2:
+        return "[" + get(0) + ", " + get(1) + "]";
+      default:
+        return "[" + get(0) + ", " + get(1) + ", ..., " + get(count - 1) + "]";
+    }
+  }
+
+  /**
+   * Returns gcd(first + k step, denominator) for every k in [0, period).
+   */
+  private long[] periodGcds(int period) {
+    long[] gcds = new long[period];
+    long n = first;
+    for (int k = 0; k < period; k++) {
+      gcds[k] = Fractions.gcd(n, denominator);
+      // Keep n small; only its residue modulo the denominator matters to the gcd.
+      n = (n + step) % denominator;
+    }
+    return gcds;
+  }
+
+  /**
+   * Returns the value at index k, packed.
+   */
+  private long element(int k) {
+    return pack(numerator(k), denominator);
+  }
+
+  /**
+   * Returns first + k step, the numerator of the value at index k over the common denominator.
+   *
+   * <p>If that overflows a long, the value cannot fit in ints either. With start a/b and step c/d,
+   * g = gcd(b, d), the value then exceeds 2^62 / (b / g * d) in magnitude, and its reduced denominator
+   * keeps the factor b / g, so its numerator exceeds 2^62 / d, which is at least 2^31.
+   */
+  private long numerator(int k) {
+    try {
+      return Math.addExact(first, Math.multiplyExact(step, (long) k));
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Integer overflow.");
+    }
+  }
+
+  private Rational reduce(long n) {
+    long packed = pack(n, denominator);
+    return Rational.ofReduced(Fractions.numerator(packed), Fractions.denominator(packed));
+  }
+
+  /**
+   * Reduces n/d, for d positive, and packs it.
+   */
+  private static long pack(long n, long d) {
+    long g = Fractions.gcd(n, d);
+    return Fractions.pack(Fractions.toIntExact(n / g), Fractions.toIntExact(d / g));
+  }
+
+  /**
+   * Walks the indices [index, end) of the range.
+   */
+  private final class RangeSpliterator implements Spliterator<Rational> {
+
+    private int index;
+    private final int end;
+
+    RangeSpliterator(int index, int end) {
+      this.index = index;
+      this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Rational> action) {
+      if (index >= end) {
+        return false;
+      }
+      action.accept(get(index++));
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Rational> action) {
+      while (index < end) {
+        action.accept(get(index++));
+      }
+    }
+
+    @Override
+    public Spliterator<Rational> trySplit() {
+      int middle = index + (end - index) / 2;
+      if (middle <= index) {
+        return null;
+      }
+      RangeSpliterator prefix = new RangeSpliterator(index, middle);
+      index = middle;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+      int characteristics = ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+      if (step > 0) {
+        characteristics |= SORTED | DISTINCT;
+      } else if (step < 0) {
+        characteristics |= DISTINCT;
+      }
+      return characteristics;
+    }
+
+    @Override
+    public Comparator<? super Rational> getComparator() {
+      if (step > 0) {
+        return null;
+      }
+      throw new IllegalStateException();
+    }
+  }
+}
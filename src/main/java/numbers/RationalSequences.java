@@ -0,0 +1,350 @@
+package numbers;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy enumerations of the "simple" fractions: Farey sequences and the Calkin-Wilf and Stern-Brocot
+ * orderings of the positive rationals. Each term follows from its neighbours or its position by a few
+ * multiplications, so terms come out in lowest terms without any gcd.
+ *
+ * <p>The streams are sequential; call {@link Stream#parallel()} to split them. Their spliterators split
+ * by value (Farey) or by position (the trees) into halves of about equal size, so parallel streams
+ * divide the work evenly.
+ */
+public final class RationalSequences {
+
+  /**
+   * The largest Farey order supported, which keeps every intermediate product within a long.
+   */
+  static final int MAX_FAREY_ORDER = 1 << 30;
+
+  private RationalSequences() {
+  }
+
+  /**
+   * Returns the Farey sequence of order n: every fraction in [0, 1] whose denominator is at most n, in
+   * increasing order, from 0 to 1.
+   *
+   * @param n The order, at least 1.
+   * @return A stream of the fractions.
+   * @throws IllegalArgumentException If n is less than 1 or greater than 2^30.
+   */
+  public static Stream<Rational> farey(int n) {
+    if (n < 1 || n > MAX_FAREY_ORDER) {
+      throw new IllegalArgumentException("Farey order must be between 1 and 2^30.");
+    }
+    // -1/n is the left neighbour of 0/1 once the sequence is extended below 0, which starts the recurrence.
+    return StreamSupport.stream(new FareySpliterator(n, -1, n, 0, 1, 1, 1), false);
+  }
+
+  /**
+   * Returns the first count positive rationals in Calkin-Wilf order, the breadth-first order of the
+   * Calkin-Wilf tree: 1, 1/2, 2, 1/3, 3/2, 2/3, 3, 1/4, ...
+   *
+   * @param count The number of terms.
+   * @return A stream of the terms.
+   * @throws IllegalArgumentException If count is negative, or, when the stream is consumed, a term does
+   *         not fit in an int numerator and denominator.
+   */
+  public static Stream<Rational> calkinWilf(long count) {
+    return tree(count, false);
+  }
+
+  /**
+   * Returns the first count positive rationals in Stern-Brocot order, the breadth-first order of the
+   * Stern-Brocot tree, in which every level is increasing: 1, 1/2, 2, 1/3, 2/3, 3/2, 3, 1/4, ...
+   *
+   * @param count The number of terms.
+   * @return A stream of the terms.
+   * @throws IllegalArgumentException If count is negative, or, when the stream is consumed, a term does
+   *         not fit in an int numerator and denominator.
+   */
+  public static Stream<Rational> sternBrocot(long count) {
+    return tree(count, true);
+  }
+
+  private static Stream<Rational> tree(long count, boolean sternBrocot) {
+    if (count < 0 || count == Long.MAX_VALUE) {
+      throw new IllegalArgumentException("Count must be between 0 and 2^63 - 2.");
+    }
+    return StreamSupport.stream(new TreeSpliterator(1, count + 1, sternBrocot), false);
+  }
+
+  /**
+   * Returns the simplest rational in the closed interval [low, high]: the one with the smallest
+   * denominator, and among those the one with the smallest absolute numerator. It is found by walking
+   * down the Stern-Brocot tree a whole run of equal steps at a time, which takes as many steps as the
+   * continued fractions of the bounds have terms in common.
+   *
+   * @param low The lower bound.
+   * @param high The upper bound.
+   * @return A new Rational holding the simplest value in the interval.
+   * @throws IllegalArgumentException If low is greater than high.
+   */
+  public static Rational simplestBetween(Rational low, Rational high) {
+    if (low.compareTo(high) > 0) {
+      throw new IllegalArgumentException("Lower bound cannot exceed upper bound.");
+    }
+    long a = low.denominator < 0 ? -(long) low.numerator : low.numerator;
+    long b = Math.abs((long) low.denominator);
+    long c = high.denominator < 0 ? -(long) high.numerator : high.numerator;
+    long d = Math.abs((long) high.denominator);
+    if (a <= 0 && c >= 0) {
+      return Rational.ofReduced(0, 1);
+    }
+    if (c < 0) {
+      long[] simplest = simplestPositive(-c, d, -a, b);
+      return Rational.ofReduced((int) -simplest[0], (int) simplest[1]);
+    }
+    long[] simplest = simplestPositive(a, b, c, d);
+    return Rational.ofReduced((int) simplest[0], (int) simplest[1]);
+  }
+
+  /**
+   * Returns the simplest fraction in [a/b, c/d] for 0 &lt; a/b &lt;= c/d, as {numerator, denominator}.
+   */
+  private static long[] simplestPositive(long a, long b, long c, long d) {
+    // Collect the continued fraction of the answer: take the integer part while the interval straddles
+    // no integer, then continue with the reciprocal of the fractional parts.
+    long[] terms = new long[Fractions.MAX_PARTIAL_QUOTIENTS];
+    int count = 0;
+    while (true) {
+      long q = a / b;
+      if (q * b == a) {
+        terms[count++] = q;
+        break;
+      }
+      if ((q + 1) * d <= c) {
+        terms[count++] = q + 1;
+        break;
+      }
+      terms[count++] = q;
+      long nextA = d;
+      long nextB = c - q * d;
+      long nextC = b;
+      long nextD = a - q * b;
+      a = nextA;
+      b = nextB;
+      c = nextC;
+      d = nextD;
+    }
+    long p = terms[count - 1];
+    long r = 1;
+    for (int i = count - 2; i >= 0; i--) {
+      long t = terms[i] * p + r;
+      r = p;
+      p = t;
+    }
+    return new long[] { p, r };
+  }
+
+  /**
+   * Returns the inverse of a modulo m, for coprime a and m with m at least 1, in [0, m).
+   */
+  private static long inverse(long a, long m) {
+    long r0 = m;
+    long r1 = Math.floorMod(a, m);
+    long t0 = 0;
+    long t1 = 1;
+    while (r1 != 0) {
+      long q = r0 / r1;
+      long r = r0 - q * r1;
+      r0 = r1;
+      r1 = r;
+      long t = t0 - q * t1;
+      t0 = t1;
+      t1 = t;
+    }
+    return Math.floorMod(t0, m);
+  }
+
+  /**
+   * Walks a Farey sequence from c/d, whose left neighbour is a/b, up to e/f inclusive. Each next term is
+   * (k c - a)/(k d - b) with k = floor((n + b) / d).
+   */
+  private static final class FareySpliterator implements Spliterator<Rational> {
+
+    private final long n;
+    private long a;
+    private long b;
+    private long c;
+    private long d;
+    private final long e;
+    private final long f;
+    private boolean done;
+
+    FareySpliterator(long n, long a, long b, long c, long d, long e, long f) {
+      this.n = n;
+      this.a = a;
+      this.b = b;
+      this.c = c;
+      this.d = d;
+      this.e = e;
+      this.f = f;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Rational> action) {
+      if (done) {
+        return false;
+      }
+      Rational r = Rational.ofReduced((int) c, (int) d);
+      if (c == e && d == f) {
+        done = true;
+      } else {
+        long k = (n + b) / d;
+        long nextC = k * c - a;
+        long nextD = k * d - b;
+        a = c;
+        b = d;
+        c = nextC;
+        d = nextD;
+      }
+      action.accept(r);
+      return true;
+    }
+
+    /**
+     * Splits at the fraction of the sequence closest to the middle of the remaining values, so that both
+     * halves cover intervals of about the same length, which hold about the same number of terms.
+     */
+    @Override
+    public Spliterator<Rational> trySplit() {
+      if (done) {
+        return null;
+      }
+      // The midpoint (c f + e d) / (2 d f) stays below 2^61 for orders up to 2^30.
+      long packed = Fractions.bestApproximation(c * f + e * d, 2 * d * f, Integer.MAX_VALUE, n);
+      long p = Fractions.numerator(packed);
+      long q = Fractions.denominator(packed);
+      if (p * d <= c * q || p * f >= e * q) {
+        return null;
+      }
+      // The left neighbour l/m of p/q has p m - l q = 1 with the largest m up to n.
+      long m0 = inverse(p, q);
+      long m = m0 + q * ((n - m0) / q);
+      long l = (p * m - 1) / q;
+      FareySpliterator prefix = new FareySpliterator(n, a, b, c, d, p, q);
+      long k = (n + m) / q;
+      a = p;
+      b = q;
+      c = k * p - l;
+      d = k * q - m;
+      return prefix;
+    }
+
+    /**
+     * Estimates the number of terms from the length of the remaining interval, since a Farey sequence
+     * of order n holds about 3 n^2 / pi^2 terms spread evenly over [0, 1].
+     */
+    @Override
+    public long estimateSize() {
+      if (done) {
+        return 0;
+      }
+      double length = (double) e / f - (double) c / d;
+      return 1 + (long) (3 / (Math.PI * Math.PI) * n * n * length);
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super Rational> getComparator() {
+      return null;
+    }
+  }
+
+  /**
+   * Walks the breadth-first positions [index, end) of the Calkin-Wilf or Stern-Brocot tree, with the root
+   * at position 1. The Calkin-Wilf term at a position follows from the previous one by Newman's formula
+   * x -&gt; 1 / (2 floor(x) + 1 - x); any term can also be found from the binary digits of its position,
+   * which is how splits start and how the Stern-Brocot tree, whose levels are the Calkin-Wilf levels with
+   * the positions bit-reversed, is walked.
+   */
+  private static final class TreeSpliterator implements Spliterator<Rational> {
+
+    private long index;
+    private final long end;
+    private final boolean sternBrocot;
+    private long p;
+    private long q;
+
+    TreeSpliterator(long index, long end, boolean sternBrocot) {
+      this.index = index;
+      this.end = end;
+      this.sternBrocot = sternBrocot;
+      if (index < end) {
+        load();
+      }
+    }
+
+    private void load() {
+      long position = index;
+      if (sternBrocot) {
+        int level = 63 - Long.numberOfLeadingZeros(index);
+        position = level == 0 ? 1 : Long.reverse(index) >>> (64 - level) | 1L << level;
+      }
+      // Follow the binary digits below the leading one: 0 is a left child p/(p+q), 1 a right child (p+q)/q.
+      long x = 1;
+      long y = 1;
+      for (int bit = 62 - Long.numberOfLeadingZeros(position); bit >= 0; bit--) {
+        if ((position >>> bit & 1) == 0) {
+          y += x;
+        } else {
+          x += y;
+        }
+      }
+      p = x;
+      q = y;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Rational> action) {
+      if (index >= end) {
+        return false;
+      }
+      Rational r = Rational.ofReduced(Fractions.toIntExact(p), Fractions.toIntExact(q));
+      index++;
+      if (index < end) {
+        if (sternBrocot) {
+          load();
+        } else {
+          long next = (2 * (p / q) + 1) * q - p;
+          p = q;
+          q = next;
+        }
+      }
+      action.accept(r);
+      return true;
+    }
+
+    @Override
+    public Spliterator<Rational> trySplit() {
+      long middle = index + (end - index) / 2;
+      if (middle <= index) {
+        return null;
+      }
+      TreeSpliterator prefix = new TreeSpliterator(index, middle, sternBrocot);
+      index = middle;
+      load();
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+  }
+}
@@ -0,0 +1,449 @@
+package numbers;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small embedded server that evaluates rational arithmetic for other processes on the same machine.
+ * It listens on the loopback interface only and speaks a line-based text protocol; each connection is
+ * served by its own thread, a virtual thread when the runtime has them.
+ *
+ * <p>Every request is one line, answered by one line that is either {@code OK <value>} or
+ * {@code ERR <message>}. Values are written "a/b" or "a" with long numerators and denominators, and
+ * results are in lowest terms with a positive denominator.
+ * <ul>
+ * <li>{@code ADD x y}, {@code SUB x y}, {@code MUL x y} and {@code DIV x y} combine two values.</li>
+ * <li>{@code SUM x...}, {@code MEAN x...}, {@code MIN x...} and {@code MAX x...} aggregate any number of
+ * values exactly; sums and means may have arbitrarily large terms.</li>
+ * <li>{@code BATCH n} is followed by n request lines and answered by n response lines, in order.</li>
+ * </ul>
+ *
+ * <p>Binary operations from all connections are queued to a single evaluator that takes whatever has
+ * accumulated since its last pass and evaluates it as one batch over primitive columns, so under
+ * concurrent load many small requests share one pass without any added waiting when the server is idle.
+ */
+public final class RationalServer implements Closeable {
+
+  private static final int ADD = 0;
+  private static final int SUBTRACT = 1;
+  private static final int MULTIPLY = 2;
+  private static final int DIVIDE = 3;
+
+  /**
+   * The most binary operations evaluated in one batch.
+   */
+  static final int MAX_BATCH = 1024;
+
+  private final ServerSocket serverSocket;
+  private final ExecutorService connections;
+  private final Thread acceptor;
+  private final Thread evaluator;
+  private final BlockingQueue<Operation> queue = new LinkedBlockingQueue<>();
+  private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong batchedOperations = new AtomicLong();
+  private volatile boolean closed;
+  private volatile boolean evaluatorStopped;
+
+  private RationalServer(ServerSocket serverSocket) {
+    this.serverSocket = serverSocket;
+    this.connections = newConnectionExecutor();
+    int port = serverSocket.getLocalPort();
+    this.acceptor = new Thread(this::accept, "RationalServer-acceptor-" + port);
+    this.acceptor.setDaemon(true);
+    this.evaluator = new Thread(this::evaluateBatches, "RationalServer-evaluator-" + port);
+    this.evaluator.setDaemon(true);
+  }
+
+  /**
+   * Starts a server on a loopback port.
+   *
+   * @param port The port to listen on, or 0 for any free port.
+   * @return The running server.
+   * @throws IOException If the port cannot be bound.
+   */
+  public static RationalServer start(int port) throws IOException {
+    ServerSocket socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    RationalServer server = new RationalServer(socket);
+    server.evaluator.start();
+    server.acceptor.start();
+    return server;
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return The local port.
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Stops accepting connections and closes the open ones.
+   *
+   * @throws IOException If the listening socket cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    serverSocket.close();
+    for (Socket socket : open) {
+      closeQuietly(socket);
+    }
+    connections.shutdownNow();
+    evaluator.interrupt();
+  }
+
+  /**
+   * Returns the number of connections that are open.
+   */
+  int getOpenConnections() {
+    return open.size();
+  }
+
+  /**
+   * Returns the number of batches the evaluator has run.
+   */
+  long getBatches() {
+    return batches.get();
+  }
+
+  /**
+   * Returns the number of binary operations evaluated in batches.
+   */
+  long getBatchedOperations() {
+    return batchedOperations.get();
+  }
+
+  /**
+   * Creates one thread per connection: a virtual thread on runtimes that have them, which are looked up
+   * reflectively so that the code still compiles and runs on older ones, or else a pooled daemon thread.
+   */
+  private static ExecutorService newConnectionExecutor() {
+    try {
+      return (ExecutorService) Executors.class
+        .getMethod("newVirtualThreadPerTaskExecutor")
+        .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "RationalServer-connection");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  private void accept() {
+    while (!closed) {
+      try {
+        Socket socket = serverSocket.accept();
+        open.add(socket);
+        if (closed) {
+          // close() may have run between accept and add, and would then have missed this socket.
+          closeQuietly(socket);
+          return;
+        }
+        connections.execute(() -> serve(socket));
+      } catch (IOException e) {
+        // The socket was closed, or the connection failed before it could be served.
+      } catch (RejectedExecutionException e) {
+        return;
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (
+      Socket connection = socket;
+      BufferedReader in = new BufferedReader(
+        new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII)
+      );
+      Writer out = new BufferedWriter(
+        new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII)
+      )
+    ) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        String[] words = split(line);
+        if (words.length == 2 && words[0].equals("BATCH")) {
+          serveBatch(in, out, words[1]);
+        } else {
+          out.write(respond(submit(words)));
+          out.write('\n');
+        }
+        out.flush();
+      }
+    } catch (IOException e) {
+      // The client went away; there is nobody left to answer.
+    } finally {
+      open.remove(socket);
+    }
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // The connection is being dropped either way.
+    }
+  }
+
+  private void serveBatch(BufferedReader in, Writer out, String count)
+    throws IOException {
+    int n;
+    try {
+      n = Integer.parseInt(count);
+    } catch (NumberFormatException e) {
+      n = -1;
+    }
+    if (n < 0) {
+      out.write("ERR Malformed batch size.\n");
+      return;
+    }
+    // Submit every binary operation before waiting for any, so that they can share evaluator passes.
+    List<Object> pending = new ArrayList<>(Math.min(n, MAX_BATCH));
+    for (int i = 0; i < n; i++) {
+      String line = in.readLine();
+      if (line == null) {
+        return;
+      }
+      pending.add(submit(split(line)));
+    }
+    for (Object result : pending) {
+      out.write(respond(result));
+      out.write('\n');
+    }
+  }
+
+  private static String[] split(String line) {
+    String trimmed = line.trim();
+    return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+  }
+
+  /**
+   * Starts one request. Binary operations are queued for the evaluator and return their future;
+   * everything else is answered at once, with its result or the exception it failed with.
+   */
+  private Object submit(String[] words) {
+    try {
+      if (words.length == 0) {
+        throw new IllegalArgumentException("Empty request.");
+      }
+      String command = words[0];
+      switch (command) {
+        case "ADD":
+        case "SUB":
+        case "MUL":
+        case "DIV":
+          if (words.length != 3) {
+            throw new IllegalArgumentException(command + " takes two values.");
+          }
+          Operation operation = new Operation(
+            command.equals("ADD")
+              ? ADD
+              : command.equals("SUB")
+                ? SUBTRACT
+                : command.equals("MUL") ? MULTIPLY : DIVIDE,
+            parse(words[1]),
+            parse(words[2])
+          );
+          queue.add(operation);
+          if (evaluatorStopped) {
+            // The evaluator may have drained the queue for the last time before this was added.
+            shutDown(operation);
+          }
+          return operation.result;
+        case "SUM":
+        case "MEAN":
+        case "MIN":
+        case "MAX":
+          return aggregate(command, words);
+        default:
+          throw new IllegalArgumentException("Unknown command " + command + ".");
+      }
+    } catch (RuntimeException e) {
+      return e;
+    }
+  }
+
+  private static String respond(Object result) {
+    if (result instanceof CompletableFuture) {
+      try {
+        result = ((CompletableFuture<?>) result).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return "ERR Server is shutting down.";
+      } catch (ExecutionException e) {
+        result = e.getCause();
+      }
+    }
+    if (result instanceof RuntimeException) {
+      return "ERR " + ((RuntimeException) result).getMessage();
+    }
+    return "OK " + result;
+  }
+
+  private static Object aggregate(String command, String[] words) {
+    if (words.length < 2) {
+      throw new IllegalArgumentException(command + " needs at least one value.");
+    }
+    FractionAccumulator sum = new FractionAccumulator();
+    long[] best = parse(words[1]);
+    for (int i = 1; i < words.length; i++) {
+      long[] value = i == 1 ? best : parse(words[i]);
+      sum.add(value[0], value[1]);
+      int order = Fractions.compareProducts(value[0], best[1], best[0], value[1]);
+      if (command.equals("MIN") ? order < 0 : order > 0) {
+        best = value;
+      }
+    }
+    switch (command) {
+      case "SUM":
+        return sum.toBigRational();
+      case "MEAN":
+        return sum.toBigRational().dividedBy(BigRational.valueOf(words.length - 1, 1));
+      default:
+        return BigRational.valueOf(best[0], best[1]);
+    }
+  }
+
+  /**
+   * Parses "a/b" or "a" into a numerator and a positive denominator.
+   */
+  private static long[] parse(String word) {
+    int slash = word.indexOf('/');
+    try {
+      long a = Long.parseLong(slash < 0 ? word : word.substring(0, slash));
+      long b = slash < 0 ? 1 : Long.parseLong(word.substring(slash + 1));
+      if (b == 0) {
+        throw new IllegalArgumentException("Denominator cannot be zero.");
+      }
+      if (b < 0) {
+        if (a == Long.MIN_VALUE || b == Long.MIN_VALUE) {
+          throw new IllegalArgumentException("Integer overflow.");
+        }
+        a = -a;
+        b = -b;
+      }
+      return new long[] { a, b };
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Malformed value " + word + ".");
+    }
+  }
+
+  /**
+   * Runs on the evaluator thread: waits for work, then evaluates everything queued so far as one batch.
+   * However it exits, every operation it has not completed fails, as do those queued later.
+   */
+  private void evaluateBatches() {
+    List<Operation> batch = new ArrayList<>(MAX_BATCH);
+    try {
+      evaluateBatches(batch);
+    } finally {
+      evaluatorStopped = true;
+      for (Operation operation : batch) {
+        shutDown(operation);
+      }
+      for (Operation operation : queue) {
+        shutDown(operation);
+      }
+    }
+  }
+
+  private void evaluateBatches(List<Operation> batch) {
+    long[] n = new long[MAX_BATCH];
+    long[] d = new long[MAX_BATCH];
+    while (!closed) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        break;
+      }
+      queue.drainTo(batch, MAX_BATCH - 1);
+      int size = batch.size();
+      batches.incrementAndGet();
+      batchedOperations.addAndGet(size);
+      for (int i = 0; i < size; i++) {
+        Operation operation = batch.get(i);
+        n[i] = operation.left[0];
+        d[i] = operation.left[1];
+      }
+      for (int i = 0; i < size; i++) {
+        Operation operation = batch.get(i);
+        try {
+          apply(operation.op, n, d, i, operation.right[0], operation.right[1]);
+          Fractions.reduce(n, d, i);
+          operation.result.complete(format(n[i], d[i]));
+        } catch (IllegalArgumentException e) {
+          operation.result.completeExceptionally(e);
+        }
+      }
+      batch.clear();
+    }
+  }
+
+  private static void shutDown(Operation operation) {
+    operation.result.completeExceptionally(new IllegalStateException("Server is shutting down."));
+  }
+
+  private static void apply(int op, long[] n, long[] d, int i, long b, long c) {
+    switch (op) {
+      case ADD:
+        Fractions.add(n, d, i, b, c);
+        break;
+      case SUBTRACT:
+        Fractions.subtract(n, d, i, b, c);
+        break;
+      case MULTIPLY:
+        Fractions.multiply(n, d, i, b, c);
+        break;
+      default:
+        Fractions.divide(n, d, i, b, c);
+    }
+  }
+
+  private static String format(long numerator, long denominator) {
+    return denominator == 1
+      ? String.valueOf(numerator)
+      : numerator + "/" + denominator;
+  }
+
+  /**
+   * A binary operation waiting for the evaluator.
+   */
+  private static final class Operation {
+
+    final int op;
+    final long[] left;
+    final long[] right;
+    final CompletableFuture<String> result = new CompletableFuture<>();
+
+    Operation(int op, long[] left, long[] right) {
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+  }
+}
@@ -0,0 +1,310 @@
+package numbers;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Exact, stable sorting of rational numbers held in primitive numerator/denominator columns.
+ * Values are ordered by a precomputed double key, and keys that compare equal are ordered
+ * exactly by cross-multiplication. Since division is correctly rounded, two different keys
+ * always agree with the exact order, so the result is exact.
+ * Large columns are sorted in parallel on the common fork/join pool, in the same way as
+ * {@link java.util.Arrays#parallelSort(int[])}.
+ */
+public final class RationalSort {
+
+  /**
+   * Length below which columns are sorted on the calling thread only.
+   */
+  static final int MIN_PARALLEL_LENGTH = 1 << 13;
+
+  private static final int INSERTION_SORT_THRESHOLD = 32;
+
+  private RationalSort() {
+  }
+
+  /**
+   * Sorts the values numerators[i]/denominators[i] into ascending order, in place.
+   * Both columns are reordered together, and equal values keep their relative order.
+   *
+   * @param numerators The numerators of the values.
+   * @param denominators The denominators of the values.
+   * @throws IllegalArgumentException If the arrays differ in length or a denominator is 0.
+   */
+  public static void sort(int[] numerators, int[] denominators) {
+    KernelEvent event = RationalEvents.startKernel();
+    int[] permutation = sortIndices(numerators, denominators);
+    int[] sortedNumerators = permute(numerators, permutation);
+    int[] sortedDenominators = permute(denominators, permutation);
+    System.arraycopy(sortedNumerators, 0, numerators, 0, numerators.length);
+    System.arraycopy(sortedDenominators, 0, denominators, 0, denominators.length);
+    RationalEvents.finishKernel(event, "RationalSort.sort", numerators.length);
+  }
+
+  /**
+   * Returns the permutation that sorts the values numerators[i]/denominators[i] into ascending order.
+   * Element k of the result is the position in the input of the k-th smallest value; equal values keep
+   * their relative order. The input columns are not modified.
+   *
+   * @param numerators The numerators of the values.
+   * @param denominators The denominators of the values.
+   * @return The sorting permutation.
+   * @throws IllegalArgumentException If the arrays differ in length or a denominator is 0.
+   */
+  public static int[] sortIndices(int[] numerators, int[] denominators) {
+    return sortIndices(numerators, denominators, ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  /**
+   * Returns the sorting permutation like {@link #sortIndices(int[], int[])}, splitting large columns as
+   * if the common pool had the given parallelism.
+   */
+  static int[] sortIndices(int[] numerators, int[] denominators, int parallelism) {
+    Fractions.checkColumns(numerators, denominators);
+    KernelEvent event = RationalEvents.startKernel();
+    int n = numerators.length;
+    double[] keys = new double[n];
+    int[] permutation = new int[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = (double) numerators[i] / denominators[i];
+      permutation[i] = i;
+    }
+    int[] buffer = new int[n];
+    if (n <= MIN_PARALLEL_LENGTH || parallelism == 1) {
+      mergeSort(permutation, buffer, 0, n, keys, numerators, denominators);
+    } else {
+      int granularity = Math.max(n / (parallelism << 2), MIN_PARALLEL_LENGTH);
+      ForkJoinPool
+        .commonPool()
+        .invoke(
+          new SortTask(
+            permutation,
+            buffer,
+            0,
+            n,
+            granularity,
+            keys,
+            numerators,
+            denominators
+          )
+        );
+    }
+    RationalEvents.finishKernel(event, "RationalSort.sortIndices", n);
+    return permutation;
+  }
+
+  /**
+   * Reorders a companion column by a permutation returned from {@link #sortIndices(int[], int[])}.
+   *
+   * @param column The column to reorder.
+   * @param permutation The permutation to apply.
+   * @return A new array whose element k is column[permutation[k]].
+   * @throws IllegalArgumentException If the arrays differ in length.
+   */
+  public static int[] permute(int[] column, int[] permutation) {
+    checkPermutationLength(column.length, permutation);
+    int[] result = new int[column.length];
+    for (int k = 0; k < result.length; k++) {
+      result[k] = column[permutation[k]];
+    }
+    return result;
+  }
+
+  /**
+   * Reorders a companion column by a permutation returned from {@link #sortIndices(int[], int[])}.
+   *
+   * @param column The column to reorder.
+   * @param permutation The permutation to apply.
+   * @return A new array whose element k is column[permutation[k]].
+   * @throws IllegalArgumentException If the arrays differ in length.
+   */
+  public static long[] permute(long[] column, int[] permutation) {
+    checkPermutationLength(column.length, permutation);
+    long[] result = new long[column.length];
+    for (int k = 0; k < result.length; k++) {
+      result[k] = column[permutation[k]];
+    }
+    return result;
+  }
+
+  /**
+   * Reorders a companion column by a permutation returned from {@link #sortIndices(int[], int[])}.
+   *
+   * @param column The column to reorder.
+   * @param permutation The permutation to apply.
+   * @return A new array whose element k is column[permutation[k]].
+   * @throws IllegalArgumentException If the arrays differ in length.
+   */
+  public static double[] permute(double[] column, int[] permutation) {
+    checkPermutationLength(column.length, permutation);
+    double[] result = new double[column.length];
+    for (int k = 0; k < result.length; k++) {
+      result[k] = column[permutation[k]];
+    }
+    return result;
+  }
+
+  private static void checkPermutationLength(int length, int[] permutation) {
+    if (permutation.length != length) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+  }
+
+  private static int compare(
+    int i,
+    int j,
+    double[] keys,
+    int[] numerators,
+    int[] denominators
+  ) {
+    // Plain comparisons so that 0.0 and -0.0 fall through to the exact check.
+    if (keys[i] < keys[j]) {
+      return -1;
+    }
+    if (keys[i] > keys[j]) {
+      return 1;
+    }
+    return Fractions.compare(
+      numerators[i],
+      denominators[i],
+      numerators[j],
+      denominators[j]
+    );
+  }
+
+  /**
+   * Sorts a[lo, hi) stably, using buffer[lo, hi) as scratch space.
+   */
+  private static void mergeSort(
+    int[] a,
+    int[] buffer,
+    int lo,
+    int hi,
+    double[] keys,
+    int[] numerators,
+    int[] denominators
+  ) {
+    if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+      for (int i = lo + 1; i < hi; i++) {
+        int value = a[i];
+        int j = i - 1;
+        while (
+          j >= lo && compare(a[j], value, keys, numerators, denominators) > 0
+        ) {
+          a[j + 1] = a[j];
+          j--;
+        }
+        a[j + 1] = value;
+      }
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    mergeSort(a, buffer, lo, mid, keys, numerators, denominators);
+    mergeSort(a, buffer, mid, hi, keys, numerators, denominators);
+    merge(a, buffer, lo, mid, hi, keys, numerators, denominators);
+  }
+
+  /**
+   * Merges the sorted runs a[lo, mid) and a[mid, hi).
+   */
+  private static void merge(
+    int[] a,
+    int[] buffer,
+    int lo,
+    int mid,
+    int hi,
+    double[] keys,
+    int[] numerators,
+    int[] denominators
+  ) {
+    if (compare(a[mid - 1], a[mid], keys, numerators, denominators) <= 0) {
+      return;
+    }
+    int i = lo;
+    int j = mid;
+    int k = lo;
+    while (i < mid && j < hi) {
+      if (compare(a[i], a[j], keys, numerators, denominators) <= 0) {
+        buffer[k++] = a[i++];
+      } else {
+        buffer[k++] = a[j++];
+      }
+    }
+    while (i < mid) {
+      buffer[k++] = a[i++];
+    }
+    while (j < hi) {
+      buffer[k++] = a[j++];
+    }
+    System.arraycopy(buffer, lo, a, lo, hi - lo);
+  }
+
+  /**
+   * Sorts one slice of the permutation, splitting it in half until it is no larger than the granularity.
+   */
+  private static final class SortTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] a;
+    private final int[] buffer;
+    private final int lo;
+    private final int hi;
+    private final int granularity;
+    private final double[] keys;
+    private final int[] numerators;
+    private final int[] denominators;
+
+    SortTask(
+      int[] a,
+      int[] buffer,
+      int lo,
+      int hi,
+      int granularity,
+      double[] keys,
+      int[] numerators,
+      int[] denominators
+    ) {
+      this.a = a;
+      this.buffer = buffer;
+      this.lo = lo;
+      this.hi = hi;
+      this.granularity = granularity;
+      this.keys = keys;
+      this.numerators = numerators;
+      this.denominators = denominators;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo <= granularity) {
+        mergeSort(a, buffer, lo, hi, keys, numerators, denominators);
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      invokeAll(
+        new SortTask(
+          a,
+          buffer,
+          lo,
+          mid,
+          granularity,
+          keys,
+          numerators,
+          denominators
+        ),
+        new SortTask(
+          a,
+          buffer,
+          mid,
+          hi,
+          granularity,
+          keys,
+          numerators,
+          denominators
+        )
+      );
+      merge(a, buffer, lo, mid, hi, keys, numerators, denominators);
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package numbers;
+
+import java.util.function.Consumer;
+
+/**
+ * Exact one-pass statistics over a stream of fractions: count, sum, mean, variance, weighted mean,
+ * minimum and maximum. Each value is folded in once, in long arithmetic over a common denominator as
+ * long as that fits and promoted to {@link BigRational} only when it does not, so no value is ever
+ * rounded through a double.
+ *
+ * <p>Like {@link java.util.DoubleSummaryStatistics}, instances are not thread-safe but are mergeable:
+ * give each thread or partition its own and {@link #combine(RationalStatistics) combine} them, for
+ * example with {@code stream.collect(RationalStatistics::new, RationalStatistics::accept,
+ * RationalStatistics::combine)}.
+ */
+public final class RationalStatistics implements Consumer<Rational> {
+
+  private long count;
+  private final FractionAccumulator sum = new FractionAccumulator();
+  private final FractionAccumulator sumOfSquares = new FractionAccumulator();
+  private final FractionAccumulator weights = new FractionAccumulator();
+  private final FractionAccumulator weightedSum = new FractionAccumulator();
+  private long minNumerator;
+  private long minDenominator;
+  private long maxNumerator;
+  private long maxDenominator;
+
+  /**
+   * Adds a value with weight 1.
+   *
+   * @param r The value to add.
+   */
+  @Override
+  public void accept(Rational r) {
+    accept(r.numerator, r.denominator, 1, 1);
+  }
+
+  /**
+   * Adds a value with the given weight. The weight counts towards the weighted mean only.
+   *
+   * @param r The value to add.
+   * @param weight The weight of the value. Must not be negative.
+   * @throws IllegalArgumentException If the weight is negative.
+   */
+  public void accept(Rational r, Rational weight) {
+    accept(r.numerator, r.denominator, weight.numerator, weight.denominator);
+  }
+
+  /**
+   * Adds a/b with weight 1.
+   *
+   * @param a The numerator.
+   * @param b The denominator. Must not be zero.
+   * @throws IllegalArgumentException If b is 0, or if a/b cannot be written with a positive long
+   *         denominator.
+   */
+  public void accept(long a, long b) {
+    accept(a, b, 1, 1);
+  }
+
+  /**
+   * Adds a/b with weight p/q.
+   *
+   * @param a The numerator of the value.
+   * @param b The denominator of the value. Must not be zero.
+   * @param p The numerator of the weight.
+   * @param q The denominator of the weight. Must not be zero.
+   * @throws IllegalArgumentException If a denominator is 0, the weight is negative, or a fraction
+   *         cannot be written with a positive long denominator.
+   */
+  public void accept(long a, long b, long p, long q) {
+    checkDenominator(a, b);
+    checkDenominator(p, q);
+    if (b < 0) {
+      a = -a;
+      b = -b;
+    }
+    if (q < 0) {
+      p = -p;
+      q = -q;
+    }
+    if (p < 0) {
+      throw new IllegalArgumentException("Weight cannot be negative.");
+    }
+    if (count == 0 || Fractions.compareProducts(a, minDenominator, minNumerator, b) < 0) {
+      minNumerator = a;
+      minDenominator = b;
+    }
+    if (count == 0 || Fractions.compareProducts(a, maxDenominator, maxNumerator, b) > 0) {
+      maxNumerator = a;
+      maxDenominator = b;
+    }
+    count++;
+    sum.add(a, b);
+    addProduct(sumOfSquares, a, b, a, b);
+    weights.add(p, q);
+    addProduct(weightedSum, a, b, p, q);
+  }
+
+  /**
+   * Merges the statistics of other into this one, which then describes both sets of values.
+   * other is left unchanged.
+   *
+   * @param other The partial statistics to merge.
+   */
+  public void combine(RationalStatistics other) {
+    if (other.count == 0) {
+      return;
+    }
+    if (
+      count == 0 ||
+      Fractions.compareProducts(other.minNumerator, minDenominator, minNumerator, other.minDenominator) < 0
+    ) {
+      minNumerator = other.minNumerator;
+      minDenominator = other.minDenominator;
+    }
+    if (
+      count == 0 ||
+      Fractions.compareProducts(other.maxNumerator, maxDenominator, maxNumerator, other.maxDenominator) > 0
+    ) {
+      maxNumerator = other.maxNumerator;
+      maxDenominator = other.maxDenominator;
+    }
+    count += other.count;
+    sum.add(other.sum);
+    sumOfSquares.add(other.sumOfSquares);
+    weights.add(other.weights);
+    weightedSum.add(other.weightedSum);
+  }
+
+  /**
+   * Returns the number of values.
+   *
+   * @return The number of values.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the exact sum of the values.
+   *
+   * @return The sum, which is 0 when there are no values.
+   */
+  public BigRational getSum() {
+    return sum.toBigRational();
+  }
+
+  /**
+   * Returns the exact mean of the values.
+   *
+   * @return The mean, or null when there are no values.
+   */
+  public BigRational getMean() {
+    return count == 0 ? null : getSum().dividedBy(BigRational.valueOf(count, 1));
+  }
+
+  /**
+   * Returns the exact population variance, the mean squared deviation from the mean.
+   *
+   * @return The population variance, or null when there are no values.
+   */
+  public BigRational getVariance() {
+    return count == 0 ? null : squaredDeviations().dividedBy(BigRational.valueOf(count, 1));
+  }
+
+  /**
+   * Returns the exact sample variance, which divides the squared deviations by count - 1.
+   *
+   * @return The sample variance, or null when there are fewer than two values.
+   */
+  public BigRational getSampleVariance() {
+    return count < 2
+      ? null
+      : squaredDeviations().dividedBy(BigRational.valueOf(count - 1, 1));
+  }
+
+  /**
+   * Returns the exact mean of the values weighted by their weights.
+   *
+   * @return The weighted mean, or null when the weights sum to 0.
+   */
+  public BigRational getWeightedMean() {
+    BigRational total = weights.toBigRational();
+    return total.signum() == 0 ? null : weightedSum.toBigRational().dividedBy(total);
+  }
+
+  /**
+   * Returns the smallest value.
+   *
+   * @return The minimum, or null when there are no values.
+   */
+  public BigRational getMin() {
+    return count == 0 ? null : BigRational.valueOf(minNumerator, minDenominator);
+  }
+
+  /**
+   * Returns the largest value.
+   *
+   * @return The maximum, or null when there are no values.
+   */
+  public BigRational getMax() {
+    return count == 0 ? null : BigRational.valueOf(maxNumerator, maxDenominator);
+  }
+
+  /**
+   * Returns a one-line summary of the statistics.
+   *
+   * @return The summary.
+   */
+  @Override
+  public String toString() {
+    return "RationalStatistics{count=" + count +
+      ", sum=" + getSum() +
+      ", mean=" + getMean() +
+      ", variance=" + getVariance() +
+      ", min=" + getMin() +
+      ", max=" + getMax() +
+      "}";
+  }
+
+  /**
+   * Returns the sum of squared deviations from the mean, which is the sum of squares less sum^2 / count.
+   */
+  private BigRational squaredDeviations() {
+    BigRational total = getSum();
+    return sumOfSquares
+      .toBigRational()
+      .minus(total.times(total).dividedBy(BigRational.valueOf(count, 1)));
+  }
+
+  /**
+   * Adds (a/b) * (c/d) to accumulator, in longs when the product fits.
+   */
+  private static void addProduct(
+    FractionAccumulator accumulator,
+    long a,
+    long b,
+    long c,
+    long d
+  ) {
+    long numerator;
+    long denominator;
+    try {
+      numerator = Math.multiplyExact(a, c);
+      denominator = Math.multiplyExact(b, d);
+    } catch (ArithmeticException e) {
+      accumulator.add(BigRational.valueOf(a, b).times(BigRational.valueOf(c, d)));
+      return;
+    }
+    accumulator.add(numerator, denominator);
+  }
+
+  /**
+   * Checks that a/b can be written with a positive long denominator.
+   */
+  private static void checkDenominator(long a, long b) {
+    if (b == 0) {
+      throw new IllegalArgumentException("Denominator cannot be zero.");
+    }
+    if (b < 0 && (a == Long.MIN_VALUE || b == Long.MIN_VALUE)) {
+      throw new IllegalArgumentException("Integer overflow.");
+    }
+  }
+}
@@ -0,0 +1,509 @@
+package numbers;
+
+import java.math.RoundingMode;
+
+/**
+ * A rational number with a fixed, known denominator (its scale), stored as a count of units of 1/scale.
+ * For example, prices in ticks of 1/256 have scale 256, and 3/4 is stored as 192 units.
+ * Values with the same scale are added and subtracted as plain longs, and multiplied with a single
+ * rescaling division; no gcd is ever computed.
+ * The static column methods apply the same operations to arrays of units.
+ */
+public final class ScaledRational
+  extends Number
+  implements Comparable<ScaledRational> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long units;
+  private final int scale;
+
+  /**
+   * Constructs the value units/scale.
+   *
+   * @param units The number of units of 1/scale.
+   * @param scale The common denominator. Must be positive.
+   * @throws IllegalArgumentException If scale is not positive.
+   */
+  public ScaledRational(long units, int scale) {
+    checkScale(scale);
+    this.units = units;
+    this.scale = scale;
+  }
+
+  /**
+   * Converts a Rational to the specified scale exactly.
+   *
+   * @param r The value to convert.
+   * @param scale The common denominator. Must be positive.
+   * @return A new ScaledRational equal to r.
+   * @throws IllegalArgumentException If scale is not positive or r is not a multiple of 1/scale.
+   */
+  public static ScaledRational of(Rational r, int scale) {
+    return of(r, scale, RoundingMode.UNNECESSARY);
+  }
+
+  /**
+   * Converts a Rational to the specified scale, rounding to a whole number of units.
+   *
+   * @param r The value to convert.
+   * @param scale The common denominator. Must be positive.
+   * @param mode How to round when r is not a multiple of 1/scale.
+   * @return A new ScaledRational equal to r after rounding.
+   * @throws IllegalArgumentException If scale is not positive, or mode is
+   *                                  {@link RoundingMode#UNNECESSARY} and rounding is needed.
+   */
+  public static ScaledRational of(Rational r, int scale, RoundingMode mode) {
+    checkScale(scale);
+    return new ScaledRational(
+      toUnits(r.numerator, r.denominator, scale, mode),
+      scale
+    );
+  }
+
+  /**
+   * Returns the number of units of 1/scale.
+   *
+   * @return The units.
+   */
+  public long getUnits() {
+    return units;
+  }
+
+  /**
+   * Returns the common denominator.
+   *
+   * @return The scale.
+   */
+  public int getScale() {
+    return scale;
+  }
+
+  /**
+   * Returns the sum of this value and s.
+   *
+   * @param s The value to add. Must have the same scale.
+   * @return A new ScaledRational representing the sum.
+   * @throws IllegalArgumentException If the scales differ or the sum overflows.
+   */
+  public ScaledRational plus(ScaledRational s) {
+    checkSameScale(s);
+    return new ScaledRational(add(units, s.units), scale);
+  }
+
+  /**
+   * Returns the difference between this value and s.
+   *
+   * @param s The value to subtract. Must have the same scale.
+   * @return A new ScaledRational representing the difference.
+   * @throws IllegalArgumentException If the scales differ or the difference overflows.
+   */
+  public ScaledRational minus(ScaledRational s) {
+    checkSameScale(s);
+    return new ScaledRational(subtract(units, s.units), scale);
+  }
+
+  /**
+   * Returns the product of this value and s, rounded half-even to a whole number of units.
+   *
+   * @param s The value to multiply by. Must have the same scale.
+   * @return A new ScaledRational representing the rounded product.
+   * @throws IllegalArgumentException If the scales differ or the product overflows.
+   */
+  public ScaledRational times(ScaledRational s) {
+    return times(s, RoundingMode.HALF_EVEN);
+  }
+
+  /**
+   * Returns the product of this value and s, rounded to a whole number of units.
+   *
+   * @param s The value to multiply by. Must have the same scale.
+   * @param mode How to round the product.
+   * @return A new ScaledRational representing the rounded product.
+   * @throws IllegalArgumentException If the scales differ, the product overflows, or mode is
+   *                                  {@link RoundingMode#UNNECESSARY} and rounding is needed.
+   */
+  public ScaledRational times(ScaledRational s, RoundingMode mode) {
+    checkSameScale(s);
+    return new ScaledRational(multiply(units, s.units, scale, mode), scale);
+  }
+
+  /**
+   * Returns the product of this value and the integer k, which is always exact.
+   *
+   * @param k The integer to multiply by.
+   * @return A new ScaledRational representing the product.
+   * @throws IllegalArgumentException If the product overflows.
+   */
+  public ScaledRational times(long k) {
+    try {
+      return new ScaledRational(Math.multiplyExact(units, k), scale);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Integer overflow.", e);
+    }
+  }
+
+  /**
+   * Returns the additive inverse of this value.
+   *
+   * @return A new ScaledRational representing -this.
+   * @throws IllegalArgumentException If the negation overflows.
+   */
+  public ScaledRational opposite() {
+    return new ScaledRational(subtract(0, units), scale);
+  }
+
+  /**
+   * Converts this value to a Rational in lowest terms.
+   *
+   * @return A new Rational equal to this value.
+   * @throws IllegalArgumentException If the reduced numerator does not fit in an int.
+   */
+  public Rational toRational() {
+    long g = Fractions.gcd(units, scale);
+    return new Rational(Fractions.toIntExact(units / g), (int) (scale / g));
+  }
+
+  /**
+   * Returns the value of this number as an int, truncated toward zero.
+   *
+   * @return The integer part of this value, cast to an int.
+   */
+  @Override
+  public int intValue() {
+    return (int) longValue();
+  }
+
+  /**
+   * Returns the value of this number as a long, truncated toward zero.
+   *
+   * @return The integer part of this value.
+   */
+  @Override
+  public long longValue() {
+    return units / scale;
+  }
+
+  /**
+   * Returns the value of this number as a float.
+   * This may involve rounding.
+   *
+   * @return The numeric value represented by this object after conversion to type float.
+   */
+  @Override
+  public float floatValue() {
+    return (float) doubleValue();
+  }
+
+  /**
+   * Returns the value of this number as a double.
+   * This may involve rounding.
+   *
+   * @return The numeric value represented by this object after conversion to type double.
+   */
+  @Override
+  public double doubleValue() {
+    return (double) units / scale;
+  }
+
+  /**
+   * Compares this value with s exactly, even when the scales differ.
+   *
+   * @param s The value to compare with.
+   * @return A negative integer, zero, or a positive integer as this value is less than, equal to, or greater than s.
+   */
+  @Override
+  public int compareTo(ScaledRational s) {
+    if (scale == s.scale) {
+      return Long.compare(units, s.units);
+    }
+    return Fractions.compareProducts(units, s.scale, s.units, scale);
+  }
+
+  /**
+   * Indicates whether o is a ScaledRational with the same value, regardless of scale.
+   *
+   * @param o The reference object with which to compare.
+   * @return true if o represents the same value; false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof ScaledRational)) return false;
+    return compareTo((ScaledRational) o) == 0;
+  }
+
+  /**
+   * Returns a hash code consistent with {@link #equals(Object)}, so equal values at different scales hash alike.
+   *
+   * @return A hash code for this value.
+   */
+  @Override
+  public int hashCode() {
+    long g = Fractions.gcd(units, scale);
+    return Long.hashCode(units / g) * 31 + (int) (scale / g);
+  }
+
+  /**
+   * Returns a string representation of this value as units/scale, for example "192/256".
+   *
+   * @return A string representation of this value.
+   */
+  @Override
+  public String toString() {
+    return units + "/" + scale;
+  }
+
+  /**
+   * Converts numerator/denominator columns to units of the specified scale exactly.
+   *
+   * @param numerators The numerators.
+   * @param denominators The denominators.
+   * @param scale The common denominator. Must be positive.
+   * @param units Receives the units.
+   * @throws IllegalArgumentException If the arrays differ in length, scale is not positive,
+   *                                  or a value is not a multiple of 1/scale.
+   */
+  public static void fromColumns(
+    int[] numerators,
+    int[] denominators,
+    int scale,
+    long[] units
+  ) {
+    checkScale(scale);
+    Fractions.checkColumns(numerators, denominators);
+    checkLength(numerators.length, units.length);
+    Fractions.forEachIndex(
+      units.length,
+      i ->
+        units[i] =
+          toUnits(
+            numerators[i],
+            denominators[i],
+            scale,
+            RoundingMode.UNNECESSARY
+          )
+    );
+  }
+
+  /**
+   * Converts units of the specified scale to numerator/denominator columns in lowest terms.
+   *
+   * @param units The units.
+   * @param scale The common denominator. Must be positive.
+   * @param numerators Receives the numerators.
+   * @param denominators Receives the positive denominators.
+   * @throws IllegalArgumentException If the arrays differ in length, scale is not positive,
+   *                                  or a reduced numerator does not fit in an int.
+   */
+  public static void toColumns(
+    long[] units,
+    int scale,
+    int[] numerators,
+    int[] denominators
+  ) {
+    checkScale(scale);
+    checkLength(units.length, numerators.length);
+    checkLength(units.length, denominators.length);
+    Fractions.forEachIndex(
+      units.length,
+      i -> {
+        long g = Fractions.gcd(units[i], scale);
+        numerators[i] = Fractions.toIntExact(units[i] / g);
+        denominators[i] = (int) (scale / g);
+      }
+    );
+  }
+
+  /**
+   * Adds two columns of units of the same scale element by element.
+   *
+   * @param a The first column.
+   * @param b The second column.
+   * @param out Receives a[i] + b[i]. May be a or b.
+   * @throws IllegalArgumentException If the arrays differ in length or a sum overflows.
+   */
+  public static void add(long[] a, long[] b, long[] out) {
+    checkLength(a.length, b.length);
+    checkLength(a.length, out.length);
+    Fractions.forEachIndex(out.length, i -> out[i] = add(a[i], b[i]));
+  }
+
+  /**
+   * Subtracts two columns of units of the same scale element by element.
+   *
+   * @param a The first column.
+   * @param b The second column.
+   * @param out Receives a[i] - b[i]. May be a or b.
+   * @throws IllegalArgumentException If the arrays differ in length or a difference overflows.
+   */
+  public static void subtract(long[] a, long[] b, long[] out) {
+    checkLength(a.length, b.length);
+    checkLength(a.length, out.length);
+    Fractions.forEachIndex(out.length, i -> out[i] = subtract(a[i], b[i]));
+  }
+
+  /**
+   * Multiplies two columns of units of the same scale element by element, rounding each product
+   * to a whole number of units.
+   *
+   * @param a The first column.
+   * @param b The second column.
+   * @param scale The common denominator of both columns. Must be positive.
+   * @param mode How to round the products.
+   * @param out Receives the rounded products. May be a or b.
+   * @throws IllegalArgumentException If the arrays differ in length, scale is not positive, a product
+   *                                  overflows, or mode is {@link RoundingMode#UNNECESSARY} and rounding is needed.
+   */
+  public static void multiply(
+    long[] a,
+    long[] b,
+    int scale,
+    RoundingMode mode,
+    long[] out
+  ) {
+    checkScale(scale);
+    checkLength(a.length, b.length);
+    checkLength(a.length, out.length);
+    Fractions.forEachIndex(
+      out.length,
+      i -> out[i] = multiply(a[i], b[i], scale, mode)
+    );
+  }
+
+  /**
+   * Returns the sum of a column of units.
+   *
+   * @param a The column.
+   * @return The total number of units.
+   * @throws IllegalArgumentException If the sum overflows.
+   */
+  public static long sum(long[] a) {
+    long total = 0;
+    for (long u : a) {
+      total = add(total, u);
+    }
+    return total;
+  }
+
+  private static long add(long a, long b) {
+    try {
+      return Math.addExact(a, b);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Integer overflow.", e);
+    }
+  }
+
+  private static long subtract(long a, long b) {
+    try {
+      return Math.subtractExact(a, b);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Integer overflow.", e);
+    }
+  }
+
+  /**
+   * Returns a * b / scale, rounded as specified. The product is formed in 128 bits, so only a result
+   * outside the long range overflows.
+   */
+  private static long multiply(long a, long b, int scale, RoundingMode mode) {
+    boolean negative = (a < 0) != (b < 0);
+    // Math.abs leaves Long.MIN_VALUE unchanged, which read as unsigned is its magnitude 2^63.
+    long x = Math.abs(a);
+    long y = Math.abs(b);
+    long high = Fractions.multiplyHigh(x, y) + (x >> 63 & y) + (y >> 63 & x);
+    long low = x * y;
+    // Long division by 32-bit digits; every partial remainder is below scale, so below 2^31.
+    long quotientHigh = Long.divideUnsigned(high, scale);
+    long t = Long.remainderUnsigned(high, scale) << 32 | low >>> 32;
+    long quotient = t / scale << 32;
+    t = t % scale << 32 | low & 0xFFFFFFFFL;
+    quotient |= t / scale;
+    long remainder = t % scale;
+    if (quotientHigh != 0 || (quotient < 0 && !(negative && quotient == Long.MIN_VALUE))) {
+      throw new IllegalArgumentException("Integer overflow.");
+    }
+    if (negative) {
+      quotient = -quotient;
+      remainder = -remainder;
+    }
+    return round(quotient, remainder, scale, mode);
+  }
+
+  /**
+   * Returns n/d * scale as a whole number of units.
+   */
+  private static long toUnits(int n, int d, int scale, RoundingMode mode) {
+    long dividend = (long) n * scale;
+    long divisor = d;
+    if (divisor < 0) {
+      dividend = -dividend;
+      divisor = -divisor;
+    }
+    return divide(dividend, divisor, mode);
+  }
+
+  /**
+   * Divides by a positive divisor, rounding the quotient as specified.
+   */
+  static long divide(long dividend, long divisor, RoundingMode mode) {
+    return round(dividend / divisor, dividend % divisor, divisor, mode);
+  }
+
+  /**
+   * Rounds the truncated quotient by a positive divisor, given the remainder it left.
+   */
+  private static long round(long quotient, long remainder, long divisor, RoundingMode mode) {
+    if (remainder == 0) {
+      return quotient;
+    }
+    int sign = remainder < 0 ? -1 : 1;
+    boolean increment;
+    switch (mode) {
+      case UP:
+        increment = true;
+        break;
+      case DOWN:
+        increment = false;
+        break;
+      case CEILING:
+        increment = sign > 0;
+        break;
+      case FLOOR:
+        increment = sign < 0;
+        break;
+      case UNNECESSARY:
+        throw new IllegalArgumentException("Rounding necessary.");
+      default:
+        int half = Long.compare(Math.abs(remainder), divisor - Math.abs(remainder));
+        if (half != 0) {
+          increment = half > 0;
+        } else if (mode == RoundingMode.HALF_UP) {
+          increment = true;
+        } else if (mode == RoundingMode.HALF_DOWN) {
+          increment = false;
+        } else {
+          increment = (quotient & 1) != 0;
+        }
+    }
+    return increment ? add(quotient, sign) : quotient;
+  }
+
+  private static void checkScale(int scale) {
+    if (scale < 1) {
+      throw new IllegalArgumentException("Scale must be positive.");
+    }
+  }
+
+  private void checkSameScale(ScaledRational s) {
+    if (s.scale != scale) {
+      throw new IllegalArgumentException("Scales must match.");
+    }
+  }
+
+  private static void checkLength(int expected, int actual) {
+    if (expected != actual) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+  }
+}
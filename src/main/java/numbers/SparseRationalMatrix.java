@@ -0,0 +1,481 @@
+package numbers;
+
+import java.util.Arrays;
+
+/**
+ * An immutable sparse matrix of rational numbers in compressed sparse row (CSR) form: the non-zero
+ * entries are stored row by row, ordered by column, in primitive column index, numerator and
+ * denominator arrays, with each row's entries starting at rowStarts[row]. Entries are in lowest terms
+ * with positive denominators.
+ *
+ * <p>The compressed sparse column (CSC) form of a matrix is the CSR form of its transpose, so
+ * {@link #transpose()} converts between the two in time linear in the number of entries. Products only
+ * touch stored entries and are exact in the same way as {@link SparseRationalVector}; large products are
+ * split into ranges of rows that are computed in parallel.
+ */
+public final class SparseRationalMatrix {
+
+  private final int rows;
+  private final int columns;
+  private final int[] rowStarts;
+  private final int[] columnIndices;
+  private final int[] numerators;
+  private final int[] denominators;
+
+  private SparseRationalMatrix(
+    int rows,
+    int columns,
+    int[] rowStarts,
+    int[] columnIndices,
+    int[] numerators,
+    int[] denominators
+  ) {
+    this.rows = rows;
+    this.columns = columns;
+    this.rowStarts = rowStarts;
+    this.columnIndices = columnIndices;
+    this.numerators = numerators;
+    this.denominators = denominators;
+  }
+
+  /**
+   * Returns the sparse form of a dense matrix.
+   *
+   * @param matrix The matrix, by rows, all of the same length.
+   * @return The matrix.
+   * @throws IllegalArgumentException If the rows differ in length or an entry has no int representation
+   *         with a positive denominator.
+   */
+  public static SparseRationalMatrix of(Rational[][] matrix) {
+    int columns = matrix.length == 0 ? 0 : matrix[0].length;
+    int[] rowStarts = new int[matrix.length + 1];
+    SparseRationalVector.Entries entries = new SparseRationalVector.Entries(0);
+    for (int i = 0; i < matrix.length; i++) {
+      if (matrix[i].length != columns) {
+        throw new IllegalArgumentException("Matrix rows must have equal lengths.");
+      }
+      for (int j = 0; j < columns; j++) {
+        entries.add(j, matrix[i][j].numerator, matrix[i][j].denominator);
+      }
+      rowStarts[i + 1] = entries.size;
+    }
+    return build(matrix.length, columns, rowStarts, entries);
+  }
+
+  /**
+   * Returns the matrix with the given (row, column, value) entries, which may come in any order.
+   * Entries at the same position are added together, and zero results are dropped.
+   *
+   * @param rows The number of rows.
+   * @param columns The number of columns.
+   * @param rowIndices The row of each entry.
+   * @param columnIndices The column of each entry.
+   * @param numerators The numerator of each entry.
+   * @param denominators The denominator of each entry.
+   * @return The matrix.
+   * @throws IllegalArgumentException If the arrays differ in length, a position is outside the matrix,
+   *         a denominator is 0, or an entry does not fit in an int numerator and denominator.
+   */
+  public static SparseRationalMatrix of(
+    int rows,
+    int columns,
+    int[] rowIndices,
+    int[] columnIndices,
+    int[] numerators,
+    int[] denominators
+  ) {
+    Fractions.checkColumns(numerators, denominators);
+    int size = numerators.length;
+    if (rowIndices.length != size || columnIndices.length != size) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+    if (rows < 0 || columns < 0) {
+      throw new IllegalArgumentException("Dimensions cannot be negative.");
+    }
+    // Bucket the entries by row, then order each row by column and merge duplicates.
+    int[] rowStarts = new int[rows + 1];
+    for (int k = 0; k < size; k++) {
+      int i = rowIndices[k];
+      int j = columnIndices[k];
+      if (i < 0 || i >= rows || j < 0 || j >= columns) {
+        throw new IllegalArgumentException("Position (" + i + ", " + j + ") is outside the matrix.");
+      }
+      rowStarts[i + 1]++;
+    }
+    for (int i = 0; i < rows; i++) {
+      rowStarts[i + 1] += rowStarts[i];
+    }
+    int[] next = Arrays.copyOf(rowStarts, rows);
+    long[] keys = new long[size];
+    for (int k = 0; k < size; k++) {
+      keys[next[rowIndices[k]]++] = (long) columnIndices[k] << 32 | k;
+    }
+    SparseRationalVector.Entries entries = new SparseRationalVector.Entries(size);
+    long[] n = new long[1];
+    long[] d = new long[1];
+    for (int i = 0; i < rows; i++) {
+      int to = rowStarts[i + 1];
+      Arrays.sort(keys, rowStarts[i], to);
+      for (int s = rowStarts[i]; s < to;) {
+        int j = (int) (keys[s] >>> 32);
+        int k = (int) keys[s];
+        Fractions.load(n, d, 0, numerators[k], denominators[k]);
+        for (s++; s < to && (int) (keys[s] >>> 32) == j; s++) {
+          k = (int) keys[s];
+          long b = numerators[k];
+          long c = denominators[k];
+          Fractions.add(n, d, 0, c < 0 ? -b : b, Math.abs(c));
+        }
+        entries.add(j, n, d);
+      }
+      rowStarts[i + 1] = entries.size;
+    }
+    return build(rows, columns, rowStarts, entries);
+  }
+
+  private static SparseRationalMatrix build(
+    int rows,
+    int columns,
+    int[] rowStarts,
+    SparseRationalVector.Entries entries
+  ) {
+    return new SparseRationalMatrix(
+      rows,
+      columns,
+      rowStarts,
+      Arrays.copyOf(entries.indices, entries.size),
+      Arrays.copyOf(entries.numerators, entries.size),
+      Arrays.copyOf(entries.denominators, entries.size)
+    );
+  }
+
+  /**
+   * Returns the number of rows.
+   *
+   * @return The number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Returns the number of columns.
+   *
+   * @return The number of columns.
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Returns the number of non-zero entries.
+   *
+   * @return The number of stored entries.
+   */
+  public int getNonZeros() {
+    return columnIndices.length;
+  }
+
+  /**
+   * Returns the entry at row i and column j.
+   *
+   * @param i The row.
+   * @param j The column.
+   * @return A new Rational holding the entry, which is 0 if it is not stored.
+   * @throws IndexOutOfBoundsException If the position is outside the matrix.
+   */
+  public Rational get(int i, int j) {
+    if (i < 0 || i >= rows || j < 0 || j >= columns) {
+      throw new IndexOutOfBoundsException("Position (" + i + ", " + j + ") out of range.");
+    }
+    int k = Arrays.binarySearch(columnIndices, rowStarts[i], rowStarts[i + 1], j);
+    return k < 0 ? new Rational(0) : new Rational(numerators[k], denominators[k]);
+  }
+
+  /**
+   * Returns row i as a sparse vector.
+   *
+   * @param i The row.
+   * @return The row.
+   * @throws IndexOutOfBoundsException If i is not a row of this matrix.
+   */
+  public SparseRationalVector getRow(int i) {
+    if (i < 0 || i >= rows) {
+      throw new IndexOutOfBoundsException("Row " + i + " out of range.");
+    }
+    int from = rowStarts[i];
+    int to = rowStarts[i + 1];
+    return new SparseRationalVector(
+      columns,
+      Arrays.copyOfRange(columnIndices, from, to),
+      Arrays.copyOfRange(numerators, from, to),
+      Arrays.copyOfRange(denominators, from, to)
+    );
+  }
+
+  /**
+   * Returns the transpose of this matrix, which holds the compressed sparse column form of this one.
+   *
+   * @return The transpose.
+   */
+  public SparseRationalMatrix transpose() {
+    int size = columnIndices.length;
+    int[] starts = new int[columns + 1];
+    for (int k = 0; k < size; k++) {
+      starts[columnIndices[k] + 1]++;
+    }
+    for (int j = 0; j < columns; j++) {
+      starts[j + 1] += starts[j];
+    }
+    int[] next = Arrays.copyOf(starts, columns);
+    int[] rowIndices = new int[size];
+    int[] tn = new int[size];
+    int[] td = new int[size];
+    // Rows are visited in order, so every column receives its entries in increasing row order.
+    for (int i = 0; i < rows; i++) {
+      for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+        int slot = next[columnIndices[k]]++;
+        rowIndices[slot] = i;
+        tn[slot] = numerators[k];
+        td[slot] = denominators[k];
+      }
+    }
+    return new SparseRationalMatrix(columns, rows, starts, rowIndices, tn, td);
+  }
+
+  /**
+   * Multiplies this matrix by a dense vector held in primitive columns, writing one result per row in
+   * lowest terms with a positive denominator.
+   *
+   * @param numerators The numerators of the vector, one per column.
+   * @param denominators The denominators of the vector.
+   * @param outNumerators Receives the result numerators, one per row.
+   * @param outDenominators Receives the result denominators.
+   * @throws IllegalArgumentException If a length does not match the matrix, a denominator is 0, or a
+   *         result does not fit in an int numerator and denominator.
+   */
+  public void times(
+    int[] numerators,
+    int[] denominators,
+    int[] outNumerators,
+    int[] outDenominators
+  ) {
+    Fractions.checkColumns(numerators, denominators);
+    if (
+      numerators.length != columns ||
+      outNumerators.length != rows ||
+      outDenominators.length != rows
+    ) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+    KernelEvent event = RationalEvents.startKernel();
+    Fractions.forEachRange(
+      rows,
+      rowChunk(),
+      (from, to) -> {
+        long[] n = new long[1];
+        long[] d = new long[1];
+        for (int i = from; i < to; i++) {
+          n[0] = 0;
+          d[0] = 1;
+          for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+            int j = columnIndices[k];
+            if (numerators[j] != 0) {
+              long b = (long) this.numerators[k] * numerators[j];
+              long c = (long) this.denominators[k] * denominators[j];
+              Fractions.add(n, d, 0, c < 0 ? -b : b, Math.abs(c));
+            }
+          }
+          Fractions.reduce(n, d, 0);
+          outNumerators[i] = Fractions.toIntExact(n[0]);
+          outDenominators[i] = Fractions.toIntExact(d[0]);
+        }
+      }
+    );
+    RationalEvents.finishKernel(event, "SparseRationalMatrix.times", columnIndices.length);
+  }
+
+  /**
+   * Multiplies this matrix by a dense vector.
+   *
+   * @param x The vector, one entry per column.
+   * @return The product, one new Rational per row.
+   * @throws IllegalArgumentException If the length of x does not match, or a result does not fit in an
+   *         int numerator and denominator.
+   */
+  public Rational[] times(Rational... x) {
+    int[] xn = new int[x.length];
+    int[] xd = new int[x.length];
+    for (int j = 0; j < x.length; j++) {
+      xn[j] = x[j].numerator;
+      xd[j] = x[j].denominator;
+    }
+    int[] outNumerators = new int[rows];
+    int[] outDenominators = new int[rows];
+    times(xn, xd, outNumerators, outDenominators);
+    Rational[] result = new Rational[rows];
+    for (int i = 0; i < rows; i++) {
+      result[i] = new Rational(outNumerators[i], outDenominators[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Multiplies this matrix by a sparse vector.
+   *
+   * @param v The vector.
+   * @return The exact product as a sparse vector.
+   * @throws IllegalArgumentException If the dimension of v does not match, or a result does not fit in
+   *         an int numerator and denominator.
+   */
+  public SparseRationalVector times(SparseRationalVector v) {
+    if (v.getDimension() != columns) {
+      throw new IllegalArgumentException("Dimensions must match.");
+    }
+    int[] xn = new int[columns];
+    int[] xd = new int[columns];
+    Arrays.fill(xd, 1);
+    for (int k = 0; k < v.indices.length; k++) {
+      xn[v.indices[k]] = v.numerators[k];
+      xd[v.indices[k]] = v.denominators[k];
+    }
+    int[] outNumerators = new int[rows];
+    int[] outDenominators = new int[rows];
+    times(xn, xd, outNumerators, outDenominators);
+    SparseRationalVector.Entries entries = new SparseRationalVector.Entries(0);
+    for (int i = 0; i < rows; i++) {
+      entries.add(i, outNumerators[i], outDenominators[i]);
+    }
+    return entries.toVector(rows);
+  }
+
+  /**
+   * Multiplies this matrix by another sparse matrix, row by row: each row of the product accumulates
+   * the rows of m selected by the entries of the same row of this matrix.
+   *
+   * @param m The right factor.
+   * @return The exact product.
+   * @throws IllegalArgumentException If the number of columns of this matrix differs from the number
+   *         of rows of m, or an entry of the product does not fit in an int numerator and denominator.
+   */
+  public SparseRationalMatrix times(SparseRationalMatrix m) {
+    if (columns != m.rows) {
+      throw new IllegalArgumentException("Inner dimensions must match.");
+    }
+    KernelEvent event = RationalEvents.startKernel();
+    int chunk = rowChunk();
+    int chunks = (rows + chunk - 1) / chunk;
+    SparseRationalVector.Entries[] parts = new SparseRationalVector.Entries[chunks];
+    int[] rowStarts = new int[rows + 1];
+    Fractions.forEachRange(
+      rows,
+      chunk,
+      (from, to) -> parts[from / chunk] = multiplyRows(m, from, to, rowStarts)
+    );
+    // Each part counted its rows from 0; shift them to follow the parts before it.
+    int size = 0;
+    for (int c = 0; c < chunks; c++) {
+      int to = Math.min(rows, (c + 1) * chunk);
+      for (int i = c * chunk; i < to; i++) {
+        rowStarts[i + 1] += size;
+      }
+      size += parts[c].size;
+    }
+    int[] productColumns = new int[size];
+    int[] productNumerators = new int[size];
+    int[] productDenominators = new int[size];
+    int offset = 0;
+    for (SparseRationalVector.Entries part : parts) {
+      System.arraycopy(part.indices, 0, productColumns, offset, part.size);
+      System.arraycopy(part.numerators, 0, productNumerators, offset, part.size);
+      System.arraycopy(part.denominators, 0, productDenominators, offset, part.size);
+      offset += part.size;
+    }
+    RationalEvents.finishKernel(event, "SparseRationalMatrix.times", columnIndices.length);
+    return new SparseRationalMatrix(
+      rows,
+      m.columns,
+      rowStarts,
+      productColumns,
+      productNumerators,
+      productDenominators
+    );
+  }
+
+  /**
+   * Returns the matrix as dense rows.
+   *
+   * @return A new array of rows, each a new array of Rationals.
+   */
+  public Rational[][] toArray() {
+    Rational[][] matrix = new Rational[rows][];
+    for (int i = 0; i < rows; i++) {
+      matrix[i] = getRow(i).toArray();
+    }
+    return matrix;
+  }
+
+  /**
+   * Returns a string representation listing the dimensions and the number of stored entries.
+   *
+   * @return A string representation of this matrix.
+   */
+  @Override
+  public String toString() {
+    return "SparseRationalMatrix[" + rows + "x" + columns + ", " + columnIndices.length + " non-zeros]";
+  }
+
+  /**
+   * Computes rows [from, to) of the product with m, recording in rowStarts[i + 1] where each row ends
+   * relative to the start of the range.
+   */
+  private SparseRationalVector.Entries multiplyRows(
+    SparseRationalMatrix m,
+    int from,
+    int to,
+    int[] ends
+  ) {
+    SparseRationalVector.Entries entries = new SparseRationalVector.Entries(0);
+    long[] n = new long[m.columns];
+    long[] d = new long[m.columns];
+    int[] stamp = new int[m.columns];
+    int[] touched = new int[m.columns];
+    for (int i = from; i < to; i++) {
+      int count = 0;
+      for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+        int row = columnIndices[k];
+        long a = numerators[k];
+        long b = denominators[k];
+        for (int l = m.rowStarts[row]; l < m.rowStarts[row + 1]; l++) {
+          int j = m.columnIndices[l];
+          long p = a * m.numerators[l];
+          long q = b * m.denominators[l];
+          if (stamp[j] != i + 1) {
+            stamp[j] = i + 1;
+            touched[count++] = j;
+            n[j] = p;
+            d[j] = q;
+          } else {
+            Fractions.add(n, d, j, p, q);
+          }
+        }
+      }
+      Arrays.sort(touched, 0, count);
+      for (int t = 0; t < count; t++) {
+        int j = touched[t];
+        entries.add(j, n[j], d[j]);
+      }
+      ends[i + 1] = entries.size;
+    }
+    return entries;
+  }
+
+  /**
+   * Returns the number of rows per parallel range, chosen so that each range holds about
+   * {@link Fractions#PARALLEL_THRESHOLD} stored entries.
+   */
+  private int rowChunk() {
+    long perRow = Math.max(1, columnIndices.length / Math.max(1, rows));
+    return (int) Math.max(1, Math.min(Math.max(rows, 1), Fractions.PARALLEL_THRESHOLD / perRow));
+  }
+}
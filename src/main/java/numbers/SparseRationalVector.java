@@ -0,0 +1,312 @@
+package numbers;
+
+import java.util.Arrays;
+
+/**
+ * An immutable sparse vector of rational numbers. Only the non-zero entries are stored, in primitive
+ * index, numerator and denominator arrays ordered by index, each in lowest terms with a positive
+ * denominator.
+ *
+ * <p>Arithmetic is exact: intermediate sums and products are kept in longs, reduced only when they
+ * would overflow, and every result entry must fit in an int numerator and denominator, or the operation
+ * throws instead of wrapping.
+ */
+public final class SparseRationalVector {
+
+  private final int dimension;
+  final int[] indices;
+  final int[] numerators;
+  final int[] denominators;
+
+  SparseRationalVector(int dimension, int[] indices, int[] numerators, int[] denominators) {
+    this.dimension = dimension;
+    this.indices = indices;
+    this.numerators = numerators;
+    this.denominators = denominators;
+  }
+
+  /**
+   * Returns a vector with the given entries. Zero entries are dropped.
+   *
+   * @param dimension The dimension of the vector.
+   * @param indices The indices of the entries, strictly increasing.
+   * @param numerators The numerators of the entries.
+   * @param denominators The denominators of the entries.
+   * @return The vector.
+   * @throws IllegalArgumentException If the arrays differ in length, the indices are not strictly
+   *         increasing within [0, dimension), a denominator is 0, or an entry has no int representation
+   *         with a positive denominator.
+   */
+  public static SparseRationalVector of(
+    int dimension,
+    int[] indices,
+    int[] numerators,
+    int[] denominators
+  ) {
+    Fractions.checkColumns(numerators, denominators);
+    if (indices.length != numerators.length) {
+      throw new IllegalArgumentException("Column lengths must match.");
+    }
+    if (dimension < 0) {
+      throw new IllegalArgumentException("Dimension cannot be negative.");
+    }
+    Entries entries = new Entries(indices.length);
+    for (int k = 0; k < indices.length; k++) {
+      if (indices[k] < 0 || indices[k] >= dimension || (k > 0 && indices[k] <= indices[k - 1])) {
+        throw new IllegalArgumentException("Indices must be increasing and within the dimension.");
+      }
+      entries.add(indices[k], numerators[k], denominators[k]);
+    }
+    return entries.toVector(dimension);
+  }
+
+  /**
+   * Returns the sparse form of a dense vector.
+   *
+   * @param values The entries of the vector.
+   * @return The vector.
+   * @throws IllegalArgumentException If an entry has no int representation with a positive denominator.
+   */
+  public static SparseRationalVector of(Rational... values) {
+    Entries entries = new Entries(0);
+    for (int i = 0; i < values.length; i++) {
+      entries.add(i, values[i].numerator, values[i].denominator);
+    }
+    return entries.toVector(values.length);
+  }
+
+  /**
+   * Returns the dimension of this vector.
+   *
+   * @return The dimension.
+   */
+  public int getDimension() {
+    return dimension;
+  }
+
+  /**
+   * Returns the number of non-zero entries.
+   *
+   * @return The number of stored entries.
+   */
+  public int getNonZeros() {
+    return indices.length;
+  }
+
+  /**
+   * Returns entry i.
+   *
+   * @param i The index of the entry.
+   * @return A new Rational holding the entry, which is 0 if it is not stored.
+   * @throws IndexOutOfBoundsException If i is not within [0, dimension).
+   */
+  public Rational get(int i) {
+    if (i < 0 || i >= dimension) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of range.");
+    }
+    int k = Arrays.binarySearch(indices, i);
+    return k < 0 ? new Rational(0) : new Rational(numerators[k], denominators[k]);
+  }
+
+  /**
+   * Returns the sum of this vector and v.
+   *
+   * @param v The vector to add.
+   * @return The exact sum.
+   * @throws IllegalArgumentException If the dimensions differ or an entry of the sum does not fit in an
+   *         int numerator and denominator.
+   */
+  public SparseRationalVector plus(SparseRationalVector v) {
+    checkDimension(v.dimension);
+    Entries entries = new Entries(indices.length + v.indices.length);
+    long[] n = new long[1];
+    long[] d = new long[1];
+    int k = 0;
+    int l = 0;
+    while (k < indices.length || l < v.indices.length) {
+      if (l == v.indices.length || (k < indices.length && indices[k] < v.indices[l])) {
+        entries.add(indices[k], numerators[k], denominators[k]);
+        k++;
+      } else if (k == indices.length || v.indices[l] < indices[k]) {
+        entries.add(v.indices[l], v.numerators[l], v.denominators[l]);
+        l++;
+      } else {
+        n[0] = numerators[k];
+        d[0] = denominators[k];
+        Fractions.add(n, d, 0, v.numerators[l], v.denominators[l]);
+        entries.add(indices[k], n, d);
+        k++;
+        l++;
+      }
+    }
+    return entries.toVector(dimension);
+  }
+
+  /**
+   * Returns this vector scaled by r.
+   *
+   * @param r The factor.
+   * @return The exact product.
+   * @throws IllegalArgumentException If an entry of the product does not fit in an int numerator and
+   *         denominator.
+   */
+  public SparseRationalVector times(Rational r) {
+    Entries entries = new Entries(r.numerator == 0 ? 0 : indices.length);
+    if (r.numerator != 0) {
+      long[] n = new long[1];
+      long[] d = new long[1];
+      long b = r.numerator;
+      long c = r.denominator;
+      if (c < 0) {
+        b = -b;
+        c = -c;
+      }
+      for (int k = 0; k < indices.length; k++) {
+        n[0] = numerators[k];
+        d[0] = denominators[k];
+        Fractions.multiply(n, d, 0, b, c);
+        entries.add(indices[k], n, d);
+      }
+    }
+    return entries.toVector(dimension);
+  }
+
+  /**
+   * Returns the dot product of this vector and v. Only indices stored in both vectors are multiplied.
+   *
+   * @param v The other vector.
+   * @return A new Rational holding the exact dot product.
+   * @throws IllegalArgumentException If the dimensions differ or the result does not fit in an int
+   *         numerator and denominator.
+   */
+  public Rational dot(SparseRationalVector v) {
+    checkDimension(v.dimension);
+    long[] n = { 0 };
+    long[] d = { 1 };
+    int k = 0;
+    int l = 0;
+    while (k < indices.length && l < v.indices.length) {
+      if (indices[k] < v.indices[l]) {
+        k++;
+      } else if (indices[k] > v.indices[l]) {
+        l++;
+      } else {
+        Fractions.add(
+          n,
+          d,
+          0,
+          (long) numerators[k] * v.numerators[l],
+          (long) denominators[k] * v.denominators[l]
+        );
+        k++;
+        l++;
+      }
+    }
+    Fractions.reduce(n, d, 0);
+    return new Rational(Fractions.toIntExact(n[0]), Fractions.toIntExact(d[0]));
+  }
+
+  /**
+   * Returns the entries of this vector as a dense array.
+   *
+   * @return A new array of length {@link #getDimension()}.
+   */
+  public Rational[] toArray() {
+    Rational[] values = new Rational[dimension];
+    for (int i = 0; i < dimension; i++) {
+      values[i] = new Rational(0);
+    }
+    for (int k = 0; k < indices.length; k++) {
+      values[indices[k]] = new Rational(numerators[k], denominators[k]);
+    }
+    return values;
+  }
+
+  /**
+   * Returns a string representation listing the stored entries as index=value.
+   *
+   * @return A string representation of this vector.
+   */
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder("SparseRationalVector[").append(dimension).append("]{");
+    for (int k = 0; k < indices.length; k++) {
+      if (k > 0) {
+        s.append(", ");
+      }
+      s.append(indices[k]).append('=').append(numerators[k]);
+      if (denominators[k] != 1) {
+        s.append('/').append(denominators[k]);
+      }
+    }
+    return s.append('}').toString();
+  }
+
+  private void checkDimension(int other) {
+    if (other != dimension) {
+      throw new IllegalArgumentException("Dimensions must match.");
+    }
+  }
+
+  /**
+   * A growable list of sparse entries, each stored in lowest terms with a positive denominator and
+   * zeros dropped.
+   */
+  static final class Entries {
+
+    int size;
+    int[] indices;
+    int[] numerators;
+    int[] denominators;
+
+    Entries(int capacity) {
+      indices = new int[Math.max(capacity, 4)];
+      numerators = new int[indices.length];
+      denominators = new int[indices.length];
+    }
+
+    /**
+     * Appends a/b at index i.
+     */
+    void add(int i, long a, long b) {
+      if (b == 0) {
+        throw new IllegalArgumentException("Denominator cannot be zero.");
+      }
+      if (a == 0) {
+        return;
+      }
+      long g = Fractions.gcd(a, b);
+      a /= g;
+      b /= g;
+      if (b < 0) {
+        a = -a;
+        b = -b;
+      }
+      if (size == indices.length) {
+        indices = Arrays.copyOf(indices, 2 * size);
+        numerators = Arrays.copyOf(numerators, 2 * size);
+        denominators = Arrays.copyOf(denominators, 2 * size);
+      }
+      indices[size] = i;
+      numerators[size] = Fractions.toIntExact(a);
+      denominators[size] = Fractions.toIntExact(b);
+      size++;
+    }
+
+    /**
+     * Appends slot 0 of an unnormalized fraction buffer at index i.
+     */
+    void add(int i, long[] n, long[] d) {
+      add(i, n[0], d[0]);
+    }
+
+    SparseRationalVector toVector(int dimension) {
+      return new SparseRationalVector(
+        dimension,
+        Arrays.copyOf(indices, size),
+        Arrays.copyOf(numerators, size),
+        Arrays.copyOf(denominators, size)
+      );
+    }
+  }
+}
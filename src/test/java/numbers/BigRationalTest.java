@@ -0,0 +1,146 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class BigRationalTest {
+
+  /**
+   * Tests that {@link BigRational#valueOf(long, long)} and {@link BigRational#of(BigInteger, BigInteger)}
+   * reduce to lowest terms with a positive denominator, including at the edges of the long range.
+   */
+  @Test
+  void testCanonicalForm() {
+    // Arrange, Act and Assert
+    BigRational half = BigRational.valueOf(-3, -6);
+    assertEquals(BigInteger.ONE, half.getNumerator());
+    assertEquals(BigInteger.valueOf(2), half.getDenominator());
+    assertEquals("-1/2", BigRational.valueOf(1, -2).toString());
+    assertEquals(
+      "4611686018427387904",
+      BigRational.valueOf(Long.MIN_VALUE, -2).toString()
+    );
+    assertEquals(
+      "-1/9223372036854775808",
+      BigRational.valueOf(1, Long.MIN_VALUE).toString()
+    );
+    assertEquals(BigRational.valueOf(2, 3), BigRational.valueOf(new Rational(4, 6)));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BigRational.valueOf(1, 0)
+    );
+  }
+
+  /**
+   * Tests the arithmetic and comparison methods against {@link Rational} on values where the eager
+   * methods do not overflow.
+   */
+  @Test
+  void testArithmeticMatchesRational() {
+    // Arrange
+    Random random = new Random(35);
+
+    for (int i = 0; i < 1000; i++) {
+      Rational a = new Rational(
+        random.nextInt(201) - 100,
+        random.nextInt(50) + 1
+      );
+      Rational b = new Rational(
+        random.nextInt(201) - 100,
+        random.nextInt(50) + 1
+      );
+      BigRational x = BigRational.valueOf(a);
+      BigRational y = BigRational.valueOf(b);
+
+      // Act and Assert
+      assertEquals(BigRational.valueOf(a.plus(b)), x.plus(y));
+      assertEquals(BigRational.valueOf(a.minus(b)), x.minus(y));
+      assertEquals(BigRational.valueOf(a.times(b)), x.times(y));
+      if (!b.isZero()) {
+        assertEquals(BigRational.valueOf(a.dividedBy(b)), x.dividedBy(y));
+      }
+      assertEquals(
+        Integer.signum(
+          Fractions.compare(a.numerator, a.denominator, b.numerator, b.denominator)
+        ),
+        Integer.signum(x.compareTo(y))
+      );
+      assertEquals(a.doubleValue(), x.doubleValue());
+    }
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BigRational.ONE.dividedBy(BigRational.ZERO)
+    );
+  }
+
+  /**
+   * Tests that {@link BigRational#doubleValue()} is correctly rounded for values far outside the long
+   * range, and that {@link BigRational#toRational()} rejects values that do not fit.
+   */
+  @Test
+  void testConversions() {
+    // Arrange
+    BigInteger huge = BigInteger.ONE.shiftLeft(200);
+    BigRational third = BigRational.of(
+      huge,
+      huge.multiply(BigInteger.valueOf(3))
+    );
+    BigRational tiny = BigRational.of(BigInteger.ONE, huge.add(BigInteger.ONE));
+    BigRational big = BigRational.of(
+      huge.add(BigInteger.ONE),
+      BigInteger.valueOf(-3)
+    );
+    BigRational infinite = BigRational.of(huge.shiftLeft(1000), BigInteger.ONE);
+
+    // Act and Assert
+    assertEquals(1.0 / 3, third.doubleValue());
+    assertEquals(0x1p-200, tiny.doubleValue());
+    assertEquals(-0x1p200 / 3, big.doubleValue());
+    assertEquals(new Rational(1, 3), third.toRational());
+    assertEquals(7, BigRational.valueOf(-15, -2).intValue());
+    assertTrue(Double.isInfinite(infinite.doubleValue()));
+    assertThrows(IllegalArgumentException.class, big::toRational);
+  }
+
+  /**
+   * Tests the narrowing conversions, equality and hash codes, and that
+   * {@link BigRational#of(BigInteger, BigInteger)} and {@link BigRational#toRational()} reject a zero or
+   * too large denominator.
+   */
+  @Test
+  void testNarrowingAndEquality() {
+    // Arrange
+    BigRational large = BigRational.of(
+      BigInteger.ONE.shiftLeft(70).add(BigInteger.ONE),
+      BigInteger.valueOf(-2)
+    );
+    BigRational small = BigRational.of(
+      BigInteger.ONE,
+      BigInteger.ONE.shiftLeft(40)
+    );
+    BigRational half = BigRational.valueOf(1, 2);
+
+    // Act and Assert
+    // -(2^70 + 1) / 2 truncates to -2^69, whose low 64 bits are all zero.
+    assertEquals(0, large.longValue());
+    assertEquals(-2, BigRational.valueOf(-7, 3).longValue());
+    assertEquals(0.5f, half.floatValue());
+    assertEquals(half, half);
+    assertEquals(BigRational.valueOf(2, 4), half);
+    assertEquals(BigRational.valueOf(2, 4).hashCode(), half.hashCode());
+    assertNotEquals(BigRational.valueOf(1, 3), half);
+    assertFalse(half.equals(new Rational(1, 2)));
+    assertThrows(IllegalArgumentException.class, small::toRational);
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> BigRational.of(BigInteger.ONE, BigInteger.ZERO)
+    );
+  }
+}
@@ -0,0 +1,73 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+
+public class BitsSettingTest {
+
+  /**
+   * Tests that the smallest value set by the recordings wins, and that no values or values that are
+   * not numbers fall back to the default.
+   */
+  @Test
+  void testCombine() {
+    // Arrange
+    BitsSetting setting = new BitsSetting();
+
+    // Act
+    String combined = setting.combine(new HashSet<>(Arrays.asList("48", " 40 ", "56")));
+
+    // Assert
+    assertEquals("40", combined);
+    assertEquals(String.valueOf(BitsSetting.DEFAULT_BITS), setting.combine(Collections.emptySet()));
+    assertEquals("20", setting.combine(new HashSet<>(Arrays.asList("20", "many"))));
+    assertEquals(
+      String.valueOf(BitsSetting.DEFAULT_BITS),
+      setting.combine(Collections.singleton("many"))
+    );
+  }
+
+  /**
+   * Tests that the applied value decides which terms are accepted.
+   */
+  @Test
+  void testSetValue() {
+    // Arrange
+    BitsSetting setting = new BitsSetting();
+
+    // Act
+    boolean acceptedByDefault = setting.accepts(BitsSetting.DEFAULT_BITS);
+    setting.setValue("40");
+
+    // Assert
+    assertTrue(acceptedByDefault);
+    assertEquals("40", setting.getValue());
+    assertTrue(setting.accepts(40));
+    assertFalse(setting.accepts(39));
+    setting.setValue("none");
+    assertEquals(String.valueOf(BitsSetting.DEFAULT_BITS), setting.getValue());
+  }
+
+  /**
+   * Tests that a null value, which some runtimes pass instead of the combined one, applies the value
+   * last combined.
+   */
+  @Test
+  void testNullAppliesCombinedValue() {
+    // Arrange
+    BitsSetting setting = new BitsSetting();
+    setting.combine(new HashSet<>(Arrays.asList("48", "40")));
+
+    // Act
+    setting.setValue(null);
+
+    // Assert
+    assertEquals("40", setting.getValue());
+  }
+}
@@ -0,0 +1,160 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import org.junit.jupiter.api.Test;
+
+public class BoundedArithmeticTest {
+
+  /**
+   * Tests that results whose denominators already fit the limit are returned exactly,
+   * with an error bound of 0 and no snap recorded.
+   */
+  @Test
+  void testExactResultsAreNotRounded() {
+    // Arrange
+    BoundedArithmetic context = new BoundedArithmetic(1000);
+
+    // Act
+    Rational sum = context.plus(new Rational(1, 2), new Rational(1, 3));
+    Rational difference = context.minus(new Rational(1, 2), new Rational(1, 3));
+    Rational product = context.times(new Rational(2, 3), new Rational(3, 4));
+    Rational quotient = context.dividedBy(new Rational(1, 2), new Rational(-1, 4));
+
+    // Assert
+    assertEquals(new Rational(5, 6), sum);
+    assertEquals(new Rational(1, 6), difference);
+    assertEquals(new Rational(1, 2), product);
+    assertEquals(new Rational(-2), quotient);
+    assertEquals(0.0, context.getLastErrorBound());
+    assertEquals(0.0, context.getTotalErrorBound());
+    assertEquals(0, context.getSnapCount());
+  }
+
+  /**
+   * Tests that a sum whose exact denominator exceeds the limit is snapped to the best
+   * approximation, and that the reported error bound covers the actual error.
+   */
+  @Test
+  void testSnapReportsErrorBound() {
+    // Arrange
+    BoundedArithmetic context = new BoundedArithmetic(1000);
+
+    // Act
+    Rational sum = context.plus(new Rational(1, 999), new Rational(1, 997));
+
+    // Assert
+    assertEquals(new Rational(1, 499), sum);
+    assertEquals(1, context.getSnapCount());
+    double actualError = 2.012050180603938e-9;
+    assertTrue(context.getLastErrorBound() >= actualError);
+    assertTrue(context.getLastErrorBound() < actualError * (1 + 1e-12));
+    assertEquals(context.getLastErrorBound(), context.getTotalErrorBound());
+  }
+
+  /**
+   * Tests {@link BoundedArithmetic#snap(Rational)} on a negative value, and that
+   * {@link BoundedArithmetic#reset()} clears the accumulated statistics.
+   */
+  @Test
+  void testSnapNegativeAndReset() {
+    // Arrange
+    BoundedArithmetic context = new BoundedArithmetic(100);
+
+    // Act
+    Rational snapped = context.snap(new Rational(-355, 113));
+
+    // Assert
+    assertEquals(new Rational(-311, 99), snapped);
+    assertEquals(1, context.getSnapCount());
+    context.reset();
+    assertEquals(0, context.getSnapCount());
+    assertEquals(0.0, context.getTotalErrorBound());
+    assertEquals(0.0, context.getLastErrorBound());
+    assertEquals(100, context.getMaxDenominator());
+  }
+
+  /**
+   * Tests a long iteration of the logistic map x -&gt; 7/2 x (1 - x), which overflows
+   * int arithmetic within a few steps, stays within the denominator limit and close to a
+   * high-precision reference computed with {@link BigDecimal}.
+   */
+  @Test
+  void testLongIterationStaysBounded() {
+    // Arrange
+    BoundedArithmetic context = new BoundedArithmetic(1000000);
+    Rational r = new Rational(7, 2);
+    Rational x = new Rational(1, 3);
+    MathContext mc = new MathContext(60);
+    BigDecimal reference = BigDecimal.ONE.divide(new BigDecimal(3), mc);
+    BigDecimal rr = new BigDecimal("3.5");
+
+    // Act
+    for (int i = 0; i < 20; i++) {
+      x = context.times(context.times(r, x), context.minus(new Rational(1), x));
+      reference =
+        rr
+          .multiply(reference)
+          .multiply(BigDecimal.ONE.subtract(reference))
+          .round(mc);
+    }
+
+    // Assert
+    assertTrue(Math.abs(x.denominator) <= 1000000);
+    assertTrue(context.getSnapCount() > 0);
+    assertTrue(Math.abs(x.doubleValue() - reference.doubleValue()) < 1e-3);
+  }
+
+  /**
+   * Tests that invalid limits, division by 0 and results outside the int range are rejected.
+   */
+  @Test
+  void testInvalidArguments() {
+    // Arrange
+    BoundedArithmetic context = new BoundedArithmetic(10);
+
+    // Act and Assert
+    assertThrows(IllegalArgumentException.class, () -> new BoundedArithmetic(0));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> context.dividedBy(new Rational(1), new Rational(0))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> context.times(new Rational(Integer.MAX_VALUE), new Rational(2))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> context.times(new Rational(Integer.MIN_VALUE), new Rational(2))
+    );
+  }
+
+  /**
+   * Tests that snapping a value that already fits returns an equal but separate Rational, and that
+   * a difference of operands with the largest denominators is computed without overflowing.
+   */
+  @Test
+  void testSnapFittingValueAndExtremeSums() {
+    // Arrange
+    BoundedArithmetic context = new BoundedArithmetic(Integer.MAX_VALUE);
+    Rational half = new Rational(-1, 2);
+    Rational a = new Rational(Integer.MAX_VALUE, Integer.MAX_VALUE - 1);
+    Rational b = new Rational(-Integer.MAX_VALUE, Integer.MAX_VALUE - 2);
+
+    // Act
+    Rational snapped = context.snap(half);
+    double snapError = context.getLastErrorBound();
+    Rational sum = context.minus(a, b);
+
+    // Assert
+    assertEquals(half, snapped);
+    assertNotSame(half, snapped);
+    assertEquals(0.0, snapError);
+    assertEquals(a.doubleValue() - b.doubleValue(), sum.doubleValue(), 1e-15);
+  }
+}
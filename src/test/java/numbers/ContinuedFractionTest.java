@@ -0,0 +1,94 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ContinuedFractionTest {
+
+  /**
+   * Tests expansions of rationals and square roots, and that arithmetic on rational operands gives
+   * exactly the expansion of the rational result.
+   */
+  @Test
+  void testRationalOperands() {
+    // Arrange
+    Random random = new Random(49);
+
+    for (int i = 0; i < 300; i++) {
+      Rational x = new Rational(random.nextInt(20001) - 10000, random.nextInt(1000) + 1);
+      Rational y = new Rational(random.nextInt(20001) - 10000, random.nextInt(1000) + 1);
+      BigRational a = BigRational.valueOf(x);
+      BigRational b = BigRational.valueOf(y);
+
+      // Act
+      ContinuedFraction sum = ContinuedFraction.of(x).plus(ContinuedFraction.of(y));
+      ContinuedFraction difference = ContinuedFraction.of(x).minus(ContinuedFraction.of(y));
+      ContinuedFraction product = ContinuedFraction.of(x).times(ContinuedFraction.of(y));
+
+      // Assert
+      assertSameTerms(ContinuedFraction.of(a.plus(b)), sum);
+      assertSameTerms(ContinuedFraction.of(a.minus(b)), difference);
+      assertSameTerms(ContinuedFraction.of(a.times(b)), product);
+      if (b.signum() != 0) {
+        assertSameTerms(ContinuedFraction.of(a.dividedBy(b)), ContinuedFraction.of(x).dividedBy(ContinuedFraction.of(y)));
+      }
+    }
+    assertEquals("[3; 7, 16]", ContinuedFraction.of(new Rational(355, 113)).toString());
+    assertEquals("[-3; 1, 2]", ContinuedFraction.of(new Rational(-7, 3)).toString());
+    assertEquals("[1; 2, 2, 2, 2, 2, 2, 2, 2, 2, ...]", ContinuedFraction.sqrt(new Rational(2)).toString());
+    assertEquals("[1; 2]", ContinuedFraction.sqrt(new Rational(9, 4)).toString());
+    assertEquals(BigRational.valueOf(3, 2), ContinuedFraction.sqrt(new Rational(9, 4)).convergent(5));
+    assertThrows(IllegalArgumentException.class, () -> ContinuedFraction.sqrt(new Rational(-1)));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> ContinuedFraction.of(new Rational(1)).dividedBy(ContinuedFraction.of(new Rational(0))).getTerm(0)
+    );
+  }
+
+  /**
+   * Tests arithmetic on square roots against the expansions of the exact results, lazy approximation to
+   * a tolerance, and the ingestion limit on results that sit exactly on an integer boundary.
+   */
+  @Test
+  void testIrrationalOperands() {
+    // Arrange
+    ContinuedFraction two = ContinuedFraction.sqrt(new Rational(2));
+    ContinuedFraction three = ContinuedFraction.sqrt(new Rational(3));
+
+    // Act
+    ContinuedFraction six = two.times(three);
+    ContinuedFraction eight = two.plus(two);
+    ContinuedFraction half = ContinuedFraction.of(new Rational(1)).dividedBy(two);
+    BigRational approximation = two.approximate(BigRational.valueOf(1, 1000000000000000000L));
+
+    // Assert
+    for (int i = 0; i < 30; i++) {
+      assertEquals(ContinuedFraction.sqrt(new Rational(6)).getTerm(i), six.getTerm(i));
+      assertEquals(ContinuedFraction.sqrt(new Rational(8)).getTerm(i), eight.getTerm(i));
+      assertEquals(ContinuedFraction.sqrt(new Rational(1, 2)).getTerm(i), half.getTerm(i));
+    }
+    BigRational error = approximation.times(approximation).minus(BigRational.valueOf(2, 1));
+    assertTrue(error.times(BigRational.valueOf(1000000000000000000L, 3)).compareTo(BigRational.ONE) < 0);
+    assertTrue(error.times(BigRational.valueOf(-1000000000000000000L, 3)).compareTo(BigRational.ONE) < 0);
+    assertTrue(approximation.getDenominator().bitLength() < 40);
+    assertThrows(IllegalStateException.class, () -> two.times(two).getTerm(0));
+    assertThrows(IllegalArgumentException.class, () -> two.approximate(BigRational.ZERO));
+  }
+
+  private static void assertSameTerms(ContinuedFraction expected, ContinuedFraction actual) {
+    for (int i = 0; ; i++) {
+      BigInteger term = expected.getTerm(i);
+      assertEquals(term, actual.getTerm(i));
+      if (term == null) {
+        assertNull(actual.getTerm(i + 1));
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+public class FractionAccumulatorTest {
+
+  /**
+   * Tests that a sum over a few recurring denominators stays in long arithmetic and is exact.
+   */
+  @Test
+  void testRecurringDenominatorsStayInLongs() {
+    // Arrange
+    Random random = new Random(35);
+    int[] denominators = { 2, 3, 4, 8, 100, 12 };
+    FractionAccumulator accumulator = new FractionAccumulator();
+    BigRational expected = BigRational.ZERO;
+
+    // Act
+    for (int i = 0; i < 100000; i++) {
+      long a = random.nextInt(2000001) - 1000000;
+      long b = denominators[random.nextInt(denominators.length)];
+      accumulator.add(a, b);
+      expected = expected.plus(BigRational.valueOf(a, b));
+    }
+
+    // Assert
+    assertFalse(accumulator.isPromoted());
+    assertEquals(expected, accumulator.toBigRational());
+  }
+
+  /**
+   * Tests that a sum whose common denominator outgrows a long is promoted and stays exact, and
+   * that partial sums can be merged.
+   */
+  @Test
+  void testPromotionAndMerge() {
+    // Arrange
+    FractionAccumulator low = new FractionAccumulator();
+    FractionAccumulator high = new FractionAccumulator();
+    BigRational expected = BigRational.ZERO;
+
+    // Act
+    for (long p = 2; p < 200; p++) {
+      FractionAccumulator target = p % 2 == 0 ? low : high;
+      target.add(1, p);
+      expected = expected.plus(BigRational.valueOf(1, p));
+    }
+    high.add(Long.MAX_VALUE, 1);
+    high.add(Long.MAX_VALUE, 1);
+    expected = expected.plus(BigRational.valueOf(Long.MAX_VALUE, 1));
+    expected = expected.plus(BigRational.valueOf(Long.MAX_VALUE, 1));
+    low.add(high);
+
+    // Assert
+    assertTrue(low.isPromoted());
+    assertEquals(expected, low.toBigRational());
+  }
+
+  /**
+   * Tests that adding an exact value promotes the sum, and that a promotion is recorded as a SUM
+   * overflow with the long sum it started from while a recording is running.
+   */
+  @Test
+  void testPromotionIsRecorded() throws Exception {
+    // Arrange
+    FractionAccumulator accumulator = new FractionAccumulator();
+    accumulator.add(1, 3);
+    Path file = Files.createTempFile("fraction-accumulator", ".jfr");
+
+    // Act
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable("numbers.Overflow");
+      recording.start();
+      accumulator.add(BigRational.valueOf(1, 6));
+      recording.stop();
+      recording.dump(file);
+      events = RecordingFile
+        .readAllEvents(file)
+        .stream()
+        .filter(e -> e.getEventType().getName().equals("numbers.Overflow"))
+        .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+
+    // Assert
+    assertTrue(accumulator.isPromoted());
+    assertEquals(BigRational.valueOf(1, 2), accumulator.toBigRational());
+    assertEquals(1, events.size());
+    assertEquals("SUM", events.get(0).getString("operation"));
+    assertEquals("PROMOTED", events.get(0).getString("outcome"));
+    assertEquals(1, events.get(0).getLong("leftNumerator"));
+    assertEquals(3, events.get(0).getLong("leftDenominator"));
+  }
+}
@@ -0,0 +1,323 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class FractionFileAggregatorTest {
+
+  /**
+   * Tests {@link FractionFileAggregator#aggregate(Path, double, double, int)} on a small file with
+   * signs, integers, blanks, CRLF line ends and a missing final line end.
+   */
+  @Test
+  void testSmallFile() throws IOException {
+    // Arrange
+    Path file = write("1/2\n -3/4 \r\n\n5\n2/-8\r\n  \n+1 / 3");
+
+    try {
+      // Act
+      FractionFileAggregator.Summary summary = FractionFileAggregator.aggregate(
+        file,
+        0,
+        1,
+        4
+      );
+
+      // Assert
+      assertEquals(5, summary.getCount());
+      assertEquals(BigRational.valueOf(29, 6), summary.getSum());
+      assertEquals(BigRational.valueOf(29, 30), summary.getMean());
+      assertEquals(BigRational.valueOf(-3, 4), summary.getMin());
+      assertEquals(BigRational.valueOf(5, 1), summary.getMax());
+      assertArrayEquals(new long[] { 0, 1, 1, 0 }, summary.getHistogram());
+      assertEquals(2, summary.getBelow());
+      assertEquals(1, summary.getAbove());
+      assertTrue(summary.toString().contains("sum: 29/6"));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Tests that a file split into many small chunks gives exactly the same result as a
+   * straightforward sequential computation.
+   */
+  @Test
+  void testManyChunksMatchSequentialResult() throws IOException {
+    // Arrange
+    Random random = new Random(35);
+    StringBuilder text = new StringBuilder();
+    BigRational sum = BigRational.ZERO;
+    BigRational min = null;
+    long[] histogram = new long[8];
+    int lines = 20000;
+    for (int i = 0; i < lines; i++) {
+      long a = random.nextInt(2001) - 1000;
+      long b = random.nextInt(30) + 1;
+      text.append(a).append('/').append(b).append('\n');
+      BigRational value = BigRational.valueOf(a, b);
+      sum = sum.plus(value);
+      min = min == null || value.compareTo(min) < 0 ? value : min;
+      double x = (double) a / b;
+      if (x >= -8 && x < 8) {
+        histogram[(int) ((x + 8) / 16 * 8)]++;
+      }
+    }
+    Path file = write(text.toString());
+
+    try {
+      // Act
+      FractionFileAggregator.Summary summary = FractionFileAggregator.aggregate(
+        file,
+        -8,
+        8,
+        8,
+        997
+      );
+
+      // Assert
+      assertEquals(lines, summary.getCount());
+      assertEquals(sum, summary.getSum());
+      assertEquals(min, summary.getMin());
+      assertArrayEquals(histogram, summary.getHistogram());
+      assertEquals(Files.size(file), summary.getBytes());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Tests that an empty file has no mean, minimum or maximum, and that malformed lines, zero
+   * denominators and numbers outside the long range are reported with their byte position.
+   */
+  @Test
+  void testEmptyAndMalformedFiles() throws IOException {
+    // Arrange
+    Path empty = write("");
+    Path malformed = write("1/2\n3/x\n");
+    Path zero = write("1/0\n");
+    Path overflow = write("1/2\n99999999999999999999\n");
+
+    try {
+      // Act
+      FractionFileAggregator.Summary summary = FractionFileAggregator.aggregate(
+        empty,
+        0,
+        1,
+        2
+      );
+
+      // Assert
+      assertEquals(0, summary.getCount());
+      assertEquals(BigRational.ZERO, summary.getSum());
+      assertNull(summary.getMean());
+      assertNull(summary.getMin());
+      IllegalArgumentException e = assertThrows(
+        IllegalArgumentException.class,
+        () -> FractionFileAggregator.aggregate(malformed, 0, 1, 2)
+      );
+      assertEquals("Malformed fraction at byte 4.", e.getMessage());
+      assertThrows(
+        IllegalArgumentException.class,
+        () -> FractionFileAggregator.aggregate(zero, 0, 1, 2)
+      );
+      assertThrows(
+        IllegalArgumentException.class,
+        () -> FractionFileAggregator.aggregate(overflow, 0, 1, 2)
+      );
+      assertThrows(
+        IllegalArgumentException.class,
+        () -> FractionFileAggregator.aggregate(empty, 1, 1, 2)
+      );
+    } finally {
+      Files.delete(empty);
+      Files.delete(malformed);
+      Files.delete(zero);
+      Files.delete(overflow);
+    }
+  }
+
+  /**
+   * Tests chunks whose boundary scan runs past the scan buffer or to the end of the file, chunks
+   * that hold only blank lines, including the first one, and a file that ends in blanks.
+   */
+  @Test
+  void testLongLinesAndBlankChunks() throws IOException {
+    // Arrange
+    StringBuilder zeros = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      zeros.append('0');
+    }
+    Path file = write(
+      zeros + "3/4\n\n \t\r\n\n\n\n1/+2\n" + zeros + "1"
+    );
+    Path blank = write("\n  \t");
+    Path leading = write("\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n\n-1/2\n");
+
+    try {
+      // Act
+      FractionFileAggregator.Summary summary = FractionFileAggregator.aggregate(
+        file,
+        0,
+        1,
+        2,
+        16
+      );
+      FractionFileAggregator.Summary empty = FractionFileAggregator.aggregate(
+        blank,
+        0,
+        1,
+        2,
+        1
+      );
+      FractionFileAggregator.Summary half = FractionFileAggregator.aggregate(
+        leading,
+        0,
+        1,
+        2,
+        16
+      );
+
+      // Assert
+      assertEquals(3, summary.getCount());
+      assertEquals(BigRational.valueOf(9, 4), summary.getSum());
+      assertEquals(BigRational.valueOf(1, 2), summary.getMin());
+      assertEquals(BigRational.valueOf(1, 1), summary.getMax());
+      assertArrayEquals(new long[] { 0, 2 }, summary.getHistogram());
+      assertEquals(1, summary.getAbove());
+      assertEquals(0, empty.getCount());
+      assertTrue(empty.toString().contains("mean: n/a\nmin: n/a\nmax: n/a\n"));
+      assertEquals(1, half.getCount());
+      assertEquals(BigRational.valueOf(-1, 2), half.getMin());
+      assertEquals(1, half.getBelow());
+    } finally {
+      Files.delete(file);
+      Files.delete(blank);
+      Files.delete(leading);
+    }
+  }
+
+  /**
+   * Tests that a sign without digits, a missing denominator, text after a value and invalid
+   * histogram parameters are rejected.
+   */
+  @Test
+  void testMalformedLinesAndHistograms() throws IOException {
+    // Arrange
+    Path sign = write("1\n-\n");
+    Path slash = write("1/");
+    Path trailing = write("1 2\n");
+
+    try {
+      // Act and Assert
+      IllegalArgumentException e = assertThrows(
+        IllegalArgumentException.class,
+        () -> FractionFileAggregator.aggregate(sign, 0, 1, 2)
+      );
+      assertEquals("Malformed fraction at byte 2.", e.getMessage());
+      assertThrows(
+        IllegalArgumentException.class,
+        () -> FractionFileAggregator.aggregate(slash, 0, 1, 2)
+      );
+      e =
+        assertThrows(
+          IllegalArgumentException.class,
+          () -> FractionFileAggregator.aggregate(trailing, 0, 1, 2)
+        );
+      assertEquals("Malformed fraction at byte 0.", e.getMessage());
+      assertThrows(
+        IllegalArgumentException.class,
+        () -> FractionFileAggregator.aggregate(sign, 0, 1, 0)
+      );
+      assertThrows(
+        IllegalArgumentException.class,
+        () ->
+          FractionFileAggregator.aggregate(sign, Double.NEGATIVE_INFINITY, 1, 2)
+      );
+      assertThrows(
+        IllegalArgumentException.class,
+        () ->
+          FractionFileAggregator.aggregate(sign, 0, Double.POSITIVE_INFINITY, 2)
+      );
+    } finally {
+      Files.delete(sign);
+      Files.delete(slash);
+      Files.delete(trailing);
+    }
+  }
+
+  /**
+   * Tests {@link FractionFileAggregator#main(String[])} with the default and an explicit histogram.
+   */
+  @Test
+  void testMain() throws IOException {
+    // Arrange
+    Path file = write("1/4\n3/4\n-1\n");
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PrintStream out = System.out;
+
+    try {
+      // Act
+      System.setOut(new PrintStream(output, true, "US-ASCII"));
+      FractionFileAggregator.main(new String[] { file.toString() });
+      FractionFileAggregator.main(
+        new String[] { file.toString(), "-1", "1", "2" }
+      );
+    } finally {
+      System.setOut(out);
+      Files.delete(file);
+    }
+
+    // Assert
+    String report = new String(output.toByteArray(), StandardCharsets.US_ASCII);
+    assertTrue(report.contains("count: 3\nsum: 0 (0.0)\n"));
+    assertTrue(report.contains("[0.9, 1.0): 0\n"));
+    assertTrue(report.contains("[-1.0, 0.0): 1\n[0.0, 1.0): 2\n"));
+    assertTrue(report.contains("MB/s)"));
+  }
+
+  /**
+   * Tests that a line too long to be mapped as one chunk is rejected before any chunk is parsed. The
+   * file is a sparse run of 2^31 zero bytes, so it takes no space on disk.
+   */
+  @Test
+  void testLineTooLongToMap() throws IOException {
+    // Arrange
+    Path file = Files.createTempFile("fractions", ".txt");
+    try (RandomAccessFile sparse = new RandomAccessFile(file.toFile(), "rw")) {
+      sparse.setLength(1L << 31);
+    }
+
+    try {
+      // Act
+      IllegalArgumentException e = assertThrows(
+        IllegalArgumentException.class,
+        () -> FractionFileAggregator.aggregate(file, 0, 1, 2, 1)
+      );
+
+      // Assert
+      assertEquals("Line starting before byte 0 is too long.", e.getMessage());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static Path write(String text) throws IOException {
+    Path file = Files.createTempFile("fractions", ".txt");
+    Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+    return file;
+  }
+}
@@ -0,0 +1,327 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class LazyRationalTest {
+
+  /**
+   * Tests that random chains of operations built with {@link LazyRational} evaluate to the same
+   * numerator and denominator as the same chains computed eagerly with {@link Rational}.
+   */
+  @Test
+  void testMatchesEagerArithmetic() {
+    // Arrange
+    Random random = new Random(32);
+
+    for (int trial = 0; trial < 2000; trial++) {
+      Rational eager = new Rational(
+        random.nextInt(21) - 10,
+        random.nextInt(9) + 1
+      );
+      LazyRational lazy = LazyRational.of(eager);
+      for (int step = 0; step < 4; step++) {
+        Rational r = new Rational(
+          random.nextInt(21) - 10,
+          random.nextInt(9) + 1
+        );
+        int operation = random.nextInt(r.isZero() ? 4 : 5);
+        // Act
+        switch (operation) {
+          case 0:
+            eager = eager.plus(r);
+            lazy = lazy.plus(r);
+            break;
+          case 1:
+            eager = eager.minus(r);
+            lazy = lazy.minus(LazyRational.of(r));
+            break;
+          case 2:
+            eager = eager.times(r);
+            lazy = lazy.times(r);
+            break;
+          case 3:
+            eager = eager.opposite();
+            lazy = lazy.opposite();
+            break;
+          default:
+            eager = eager.dividedBy(r);
+            lazy = lazy.dividedBy(r);
+        }
+      }
+      Rational result = lazy.toRational();
+
+      // Assert
+      assertEquals(eager.numerator, result.numerator);
+      assertEquals(eager.denominator, result.denominator);
+    }
+  }
+
+  /**
+   * Tests that a fused product is only reduced at the end, so an intermediate value that would
+   * overflow an int does not make the result wrong.
+   */
+  @Test
+  void testIntermediateValuesDoNotOverflow() {
+    // Arrange
+    Rational big = new Rational(65536);
+    LazyRational lazy = LazyRational.of(big).times(big).dividedBy(big);
+
+    // Act
+    Rational result = lazy.toRational();
+
+    // Assert
+    assertEquals(new Rational(65536), result);
+    assertEquals(
+      new Rational(1, 3),
+      LazyRational
+        .of(Integer.MAX_VALUE, 3)
+        .plus(new Rational(Integer.MAX_VALUE))
+        .minus(new Rational(Integer.MAX_VALUE))
+        .dividedBy(new Rational(Integer.MAX_VALUE))
+        .toRational()
+    );
+  }
+
+  /**
+   * Tests that a fused product or quotient whose operand is an unreduced child product gives the same
+   * result as the eager methods when only the unreduced intermediate overflows.
+   */
+  @Test
+  void testUnreducedChildProducts() {
+    // Arrange
+    Rational x = new Rational(5, 7);
+    Rational y = new Rational(Integer.MAX_VALUE, 2147483629);
+    Rational z = new Rational(2147483629, Integer.MAX_VALUE);
+    LazyRational child = LazyRational.of(y).times(z);
+
+    // Act
+    Rational quotient = LazyRational.of(x).dividedBy(child).toRational();
+    Rational product = LazyRational.of(x).times(child).toRational();
+
+    // Assert
+    assertEquals(x.dividedBy(y.times(z)), quotient);
+    assertEquals(x.times(y.times(z)), product);
+    assertEquals("5/7", quotient.toString());
+    assertEquals("5/7", product.toString());
+  }
+
+  /**
+   * Tests that structurally identical subexpressions are computed once: each level below builds two
+   * separate but identical operands, so evaluating them independently would take 2^40 steps.
+   */
+  @Test
+  void testCommonSubexpressionsAreShared() {
+    // Arrange
+    Rational one = new Rational(1);
+    LazyRational x = LazyRational.of(1, 1 << 20);
+    for (int level = 0; level < 40; level++) {
+      x = x.times(one).plus(x.times(one));
+    }
+    LazyRational result = x;
+
+    // Act and Assert
+    assertTimeoutPreemptively(
+      Duration.ofSeconds(10),
+      () -> assertEquals(new Rational(1 << 20), result.toRational())
+    );
+  }
+
+  /**
+   * Tests that a very long chain is evaluated without overflowing the call stack.
+   */
+  @Test
+  void testLongChain() {
+    // Arrange
+    LazyRational x = LazyRational.of(0, 1);
+    for (int i = 1; i <= 20000; i++) {
+      x =
+        x
+          .plus(new Rational(1, i))
+          .times(new Rational(i))
+          .dividedBy(new Rational(i))
+          .minus(new Rational(1, i));
+    }
+
+    // Act
+    Rational result = x.toRational();
+
+    // Assert
+    assertEquals(new Rational(0), result);
+  }
+
+  /**
+   * Tests the terminal methods {@link LazyRational#doubleValue()}, {@link LazyRational#compareTo(Number)}
+   * and {@link LazyRational#toString()}, and that the evaluated value cannot be changed through the
+   * returned Rational.
+   */
+  @Test
+  void testTerminalMethods() {
+    // Arrange
+    LazyRational third = LazyRational.of(1, 2).minus(new Rational(1, 6));
+
+    // Act
+    Rational value = third.toRational();
+    value.numerator = 7;
+
+    // Assert
+    assertEquals(1.0 / 3, third.doubleValue());
+    assertEquals("1/3", third.toString());
+    assertTrue(third.compareTo(new Rational(1, 2)) < 0);
+    assertEquals(0, third.compareTo(LazyRational.of(2, 6)));
+    assertTrue(third.compareTo(0.25) > 0);
+    assertEquals(new Rational(3), third.reciprocal().toRational());
+    assertEquals(0, third.intValue());
+    assertEquals(2L, third.reciprocal().minus(new Rational(1, 2)).longValue());
+    assertEquals(1.0f / 3, third.floatValue());
+  }
+
+  /**
+   * Tests that a second evaluation of a computation is counted as a cache hit, while reading a leaf
+   * value is not.
+   */
+  @Test
+  void testCacheHitsAreCounted() {
+    // Arrange
+    LazyRational leaf = LazyRational.of(1, 2);
+    LazyRational sum = leaf.plus(leaf);
+    RationalMetrics.reset();
+    RationalMetrics.setEnabled(true);
+
+    // Act
+    long hits;
+    try {
+      leaf.toRational();
+      sum.toRational();
+      sum.toRational();
+      hits = RationalMetrics.snapshot().getCacheHits();
+    } finally {
+      RationalMetrics.setEnabled(false);
+      RationalMetrics.reset();
+    }
+
+    // Assert
+    assertEquals(1, hits);
+  }
+
+  /**
+   * Tests that balanced trees of sums and products, deeper than the initial flattening stack, evaluate
+   * like the same trees computed eagerly.
+   */
+  @Test
+  void testBalancedTrees() {
+    // Arrange
+    LazyRational[] lazy = new LazyRational[512];
+    Rational[] eager = new Rational[lazy.length];
+    for (int i = 0; i < lazy.length; i++) {
+      lazy[i] = LazyRational.of(i + 1, i % 7 + 1);
+      eager[i] = new Rational(i + 1, i % 7 + 1);
+    }
+    LazyRational[] lazyProducts = lazy.clone();
+    Rational[] eagerProducts = eager.clone();
+
+    // Act
+    for (int width = lazy.length; width > 1; width /= 2) {
+      for (int i = 0; i < width / 2; i++) {
+        lazy[i] = i % 2 == 0 ? lazy[2 * i].plus(lazy[2 * i + 1]) : lazy[2 * i].minus(lazy[2 * i + 1]);
+        eager[i] = i % 2 == 0 ? eager[2 * i].plus(eager[2 * i + 1]) : eager[2 * i].minus(eager[2 * i + 1]);
+      }
+    }
+    for (int width = 8; width > 1; width /= 2) {
+      for (int i = 0; i < width / 2; i++) {
+        lazyProducts[i] = lazyProducts[2 * i].times(lazyProducts[2 * i + 1]);
+        eagerProducts[i] = eagerProducts[2 * i].times(eagerProducts[2 * i + 1]);
+      }
+    }
+
+    // Assert
+    assertEquals(eager[0], lazy[0].toRational());
+    assertEquals(eagerProducts[0], lazyProducts[0].toRational());
+    assertEquals(
+      eager[0].minus(eager[0].opposite()),
+      lazy[0].minus(lazy[0].opposite()).toRational()
+    );
+  }
+
+  /**
+   * Tests the structural identity of graph nodes.
+   */
+  @Test
+  void testKeyEquality() {
+    // Arrange
+    LazyRational.Key key = new LazyRational.Key(1, 2, 3);
+
+    // Act and Assert
+    assertEquals(new LazyRational.Key(1, 2, 3), key);
+    assertEquals(new LazyRational.Key(1, 2, 3).hashCode(), key.hashCode());
+    assertNotEquals(new LazyRational.Key(0, 2, 3), key);
+    assertNotEquals(new LazyRational.Key(1, 0, 3), key);
+    assertNotEquals(new LazyRational.Key(1, 2, 0), key);
+    assertFalse(key.equals("1"));
+  }
+
+  /**
+   * Tests that the leaf values are copied, and that errors are reported when the computation is
+   * evaluated rather than when it is built.
+   */
+  @Test
+  void testSnapshotsAndDeferredErrors() {
+    // Arrange
+    Rational half = new Rational(1, 2);
+    LazyRational lazy = LazyRational.of(half).plus(half);
+    half.numerator = 3;
+    LazyRational divisionByZero = LazyRational.of(1, 2).dividedBy(
+      LazyRational.of(1, 3).minus(new Rational(1, 3))
+    );
+    LazyRational overflow = LazyRational.of(Integer.MAX_VALUE, 1).plus(
+      new Rational(1)
+    );
+
+    // Act and Assert
+    assertEquals(
+      new Rational(1, 2).plus(new Rational(1, 2)),
+      lazy.toRational()
+    );
+    assertThrows(IllegalArgumentException.class, divisionByZero::toRational);
+    assertThrows(IllegalArgumentException.class, overflow::doubleValue);
+  }
+
+  /**
+   * Tests that a divisor which is itself a quotient by 0 is still reported, even though flattening
+   * the products would otherwise cancel the two divisions.
+   */
+  @Test
+  void testNestedDivisionByZero() {
+    // Arrange
+    LazyRational a = LazyRational.of(2, 3);
+    LazyRational b = LazyRational.of(5, 7);
+    LazyRational zero = LazyRational.of(0, 1);
+    LazyRational nested = a.dividedBy(b.dividedBy(zero));
+    LazyRational doublyNested = a.dividedBy(b.dividedBy(a.dividedBy(zero)));
+    LazyRational product = a.dividedBy(b.times(zero));
+
+    // Act
+    IllegalArgumentException error = assertThrows(IllegalArgumentException.class, nested::toRational);
+
+    // Assert
+    assertEquals("Cannot divide by Rational number 0.", error.getMessage());
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new Rational(2, 3).dividedBy(new Rational(5, 7).dividedBy(new Rational(0)))
+    );
+    assertThrows(IllegalArgumentException.class, doublyNested::toRational);
+    assertThrows(IllegalArgumentException.class, product::toRational);
+    assertEquals(
+      new Rational(2, 3).dividedBy(new Rational(5, 7).dividedBy(new Rational(2, 3))),
+      a.dividedBy(b.dividedBy(a)).toRational()
+    );
+  }
+}
@@ -0,0 +1,266 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class LinearProgramTest {
+
+  /**
+   * Tests optimal, infeasible and unbounded programs, a program that needs the first phase, and Beale's
+   * degenerate program, on which the textbook pivoting rule cycles forever.
+   */
+  @Test
+  void testSolve() {
+    // Arrange
+    LinearProgram classic = program(
+      new int[] { 3, 5 },
+      new int[][] { { 1, 0 }, { 0, 2 }, { 3, 2 } },
+      new int[] { 4, 12, 18 }
+    );
+    LinearProgram covering = program(
+      new int[] { 1, 1 },
+      new int[][] { { -1, -1 }, { 1, 0 }, { 0, 1 } },
+      new int[] { -2, 3, 1 }
+    );
+    LinearProgram beale = new LinearProgram(
+      new Rational[] { new Rational(3, 4), new Rational(-150), new Rational(1, 50), new Rational(-6) },
+      new Rational[][] {
+        { new Rational(1, 4), new Rational(-60), new Rational(-1, 25), new Rational(9) },
+        { new Rational(1, 2), new Rational(-90), new Rational(-1, 50), new Rational(3) },
+        { new Rational(0), new Rational(0), new Rational(1), new Rational(0) },
+      },
+      new Rational[] { new Rational(0), new Rational(0), new Rational(1) }
+    );
+
+    // Act
+    LinearProgram.Solution solution = classic.solve();
+    LinearProgram.Solution degenerate = beale.solve();
+
+    // Assert
+    assertEquals(LinearProgram.Status.OPTIMAL, solution.getStatus());
+    assertEquals("OPTIMAL 36 at [2, 6]", solution.toString());
+    assertEquals(BigRational.valueOf(4, 1), covering.solve().getValue());
+    assertEquals(BigRational.valueOf(1, 20), degenerate.getValue());
+    assertArrayEquals(
+      new BigRational[] { BigRational.valueOf(1, 25), BigRational.ZERO, BigRational.ONE, BigRational.ZERO },
+      degenerate.getPoint()
+    );
+    LinearProgram.Solution infeasible = program(new int[] { 1 }, new int[][] { { 1 } }, new int[] { -1 }).solve();
+    assertEquals(LinearProgram.Status.INFEASIBLE, infeasible.getStatus());
+    assertEquals("INFEASIBLE", infeasible.toString());
+    LinearProgram.Solution unbounded = program(new int[] { 1, 0 }, new int[][] { { -1, 1 } }, new int[] { 1 }).solve();
+    assertEquals(LinearProgram.Status.UNBOUNDED, unbounded.getStatus());
+    assertNull(unbounded.getPoint());
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> program(new int[] { 1 }, new int[][] { { 1, 2 } }, new int[] { 1 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> program(new int[] { 1 }, new int[][] { { 1 } }, new int[] { 1, 2 })
+    );
+    assertEquals(0, LinearProgram.solveAll().length);
+    assertEquals("OPTIMAL 36 at [2, 6]", LinearProgram.solveAll(classic)[0].toString());
+  }
+
+  /**
+   * Tests that a program whose entries have large terms that cancel in the products of the simplex
+   * steps is solved on the tableau of longs, rather than falling back to BigRationals.
+   */
+  @Test
+  void testReducibleEntriesStayOnLongs() {
+    // Arrange
+    Rational y = new Rational(Integer.MAX_VALUE, 2147483629);
+    LinearProgram program = new LinearProgram(
+      new Rational[] { y, y },
+      new Rational[][] { { y, new Rational(1) }, { y, new Rational(1, 2) } },
+      new Rational[] { new Rational(1, 2), new Rational(3) }
+    );
+
+    // Act
+    LinearProgram.Solution solution = program.solveWithLongs();
+
+    // Assert
+    assertEquals(BigRational.valueOf(Integer.MAX_VALUE, 2L * 2147483629), solution.getValue());
+    assertArrayEquals(new BigRational[] { BigRational.ZERO, BigRational.valueOf(1, 2) }, solution.getPoint());
+    assertEquals(solution.toString(), program.solve().toString());
+  }
+
+  /**
+   * Tests random programs, solved in parallel, against a naive Rational[][] tableau and by checking
+   * that every optimal point is feasible and attains the reported value, and prints the time taken by
+   * both solvers on the programs small enough for the naive one. Programs with large coefficients exercise the BigRational fallback.
+   */
+  @Test
+  void testRandomPrograms() {
+    // Arrange
+    Random random = new Random(50);
+    int count = 300;
+    LinearProgram[] programs = new LinearProgram[count];
+    Rational[][] objectives = new Rational[count][];
+    Rational[][][] constraints = new Rational[count][][];
+    Rational[][] bounds = new Rational[count][];
+    for (int k = 0; k < count; k++) {
+      int m = 3 + random.nextInt(3);
+      int n = 3 + random.nextInt(3);
+      int scale = k % 10 == 9 ? 1 << 28 : 6;
+      boolean negative = k % 3 == 0;
+      objectives[k] = new Rational[n];
+      constraints[k] = new Rational[m][n];
+      bounds[k] = new Rational[m];
+      for (int j = 0; j < n; j++) {
+        objectives[k][j] = new Rational(random.nextInt(scale) - scale / 3, 1 + random.nextInt(2));
+      }
+      for (int i = 0; i < m; i++) {
+        for (int j = 0; j < n; j++) {
+          constraints[k][i][j] = new Rational(random.nextInt(scale) - scale / 4, 1 + random.nextInt(2));
+        }
+        bounds[k][i] = new Rational(random.nextInt(scale) - (negative ? scale / 3 : 0), 1 + random.nextInt(2));
+      }
+      programs[k] = new LinearProgram(objectives[k], constraints[k], bounds[k]);
+    }
+
+    // Act
+    long start = System.nanoTime();
+    LinearProgram.Solution[] solutions = LinearProgram.solveAll(programs);
+    long exact = System.nanoTime() - start;
+    long naive = 0;
+    long sequential = 0;
+    int compared = 0;
+
+    // Assert
+    int optimal = 0;
+    for (int k = 0; k < count; k++) {
+      LinearProgram.Solution solution = solutions[k];
+      if (solution.getStatus() == LinearProgram.Status.OPTIMAL) {
+        optimal++;
+        checkFeasible(objectives[k], constraints[k], bounds[k], solution);
+      }
+      if (k % 3 != 0 && k % 10 != 9) {
+        start = System.nanoTime();
+        Rational expected = naive(objectives[k], constraints[k], bounds[k]);
+        naive += System.nanoTime() - start;
+        start = System.nanoTime();
+        programs[k].solve();
+        sequential += System.nanoTime() - start;
+        compared++;
+        if (expected == null) {
+          assertEquals(LinearProgram.Status.UNBOUNDED, solution.getStatus());
+        } else {
+          assertEquals(BigRational.valueOf(expected), solution.getValue());
+        }
+      }
+    }
+    assertTrue(optimal > count / 3);
+    System.out.printf(
+      "LinearProgram: %d programs in parallel in %d ms; %d small ones one by one in %d ms, naive Rational[][] tableau %d ms%n",
+      count,
+      exact / 1000000,
+      compared,
+      sequential / 1000000,
+      naive / 1000000
+    );
+  }
+
+  private static LinearProgram program(int[] c, int[][] a, int[] b) {
+    Rational[][] constraints = new Rational[a.length][];
+    for (int i = 0; i < a.length; i++) {
+      constraints[i] = rationals(a[i]);
+    }
+    return new LinearProgram(rationals(c), constraints, rationals(b));
+  }
+
+  private static Rational[] rationals(int[] values) {
+    Rational[] rationals = new Rational[values.length];
+    for (int i = 0; i < values.length; i++) {
+      rationals[i] = new Rational(values[i]);
+    }
+    return rationals;
+  }
+
+  private static void checkFeasible(Rational[] c, Rational[][] a, Rational[] b, LinearProgram.Solution solution) {
+    BigRational[] x = solution.getPoint();
+    BigRational value = BigRational.ZERO;
+    for (int j = 0; j < c.length; j++) {
+      assertTrue(x[j].signum() >= 0);
+      value = value.plus(BigRational.valueOf(c[j]).times(x[j]));
+    }
+    assertEquals(solution.getValue(), value);
+    for (int i = 0; i < a.length; i++) {
+      BigRational row = BigRational.ZERO;
+      for (int j = 0; j < c.length; j++) {
+        row = row.plus(BigRational.valueOf(a[i][j]).times(x[j]));
+      }
+      assertTrue(row.compareTo(BigRational.valueOf(b[i])) <= 0);
+    }
+  }
+
+  /**
+   * Solves a program with non-negative bounds on a Rational[][] tableau with Bland's rule, returning the
+   * optimal value or null if it is unbounded.
+   */
+  private static Rational naive(Rational[] c, Rational[][] a, Rational[] b) {
+    int m = a.length;
+    int n = c.length;
+    Rational[][] t = new Rational[m + 1][n + m + 1];
+    int[] basis = new int[m];
+    for (int i = 0; i <= m; i++) {
+      for (int j = 0; j <= n + m; j++) {
+        t[i][j] = new Rational(0);
+      }
+    }
+    for (int i = 0; i < m; i++) {
+      for (int j = 0; j < n; j++) {
+        t[i][j] = a[i][j];
+      }
+      t[i][n + i] = new Rational(1);
+      t[i][n + m] = b[i];
+      basis[i] = n + i;
+    }
+    for (int j = 0; j < n; j++) {
+      t[m][j] = c[j].opposite();
+    }
+    while (true) {
+      int e = -1;
+      for (int j = 0; j < n + m && e < 0; j++) {
+        if (t[m][j].lessThan(0)) {
+          e = j;
+        }
+      }
+      if (e < 0) {
+        return t[m][n + m];
+      }
+      int r = -1;
+      for (int i = 0; i < m; i++) {
+        if (t[i][e].greaterThan(0)) {
+          int order = r < 0 ? -1 : t[i][n + m].dividedBy(t[i][e]).compareTo(t[r][n + m].dividedBy(t[r][e]));
+          if (order < 0 || (order == 0 && basis[i] < basis[r])) {
+            r = i;
+          }
+        }
+      }
+      if (r < 0) {
+        return null;
+      }
+      Rational pivot = t[r][e];
+      for (int j = 0; j <= n + m; j++) {
+        t[r][j] = t[r][j].dividedBy(pivot);
+      }
+      for (int i = 0; i <= m; i++) {
+        if (i != r && !t[i][e].isZero()) {
+          Rational factor = t[i][e];
+          for (int j = 0; j <= n + m; j++) {
+            t[i][j] = t[i][j].minus(factor.times(t[r][j]));
+          }
+        }
+      }
+      basis[r] = e;
+    }
+  }
+}
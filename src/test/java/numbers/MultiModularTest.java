@@ -0,0 +1,182 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class MultiModularTest {
+
+  /**
+   * Tests the determinant of the 8x8 Hilbert matrix, whose terms grow far beyond a long.
+   */
+  @Test
+  void testHilbertDeterminant() {
+    // Arrange
+    Rational[][] hilbert = new Rational[8][8];
+    for (int i = 0; i < 8; i++) {
+      for (int j = 0; j < 8; j++) {
+        hilbert[i][j] = new Rational(1, i + j + 1);
+      }
+    }
+
+    // Act
+    BigRational determinant = MultiModular.determinant(hilbert);
+
+    // Assert
+    assertEquals(
+      BigRational.of(BigInteger.ONE, new BigInteger("365356847125734485878112256000000")),
+      determinant
+    );
+  }
+
+  /**
+   * Tests random determinants and products against naive fraction arithmetic, with entries whose
+   * denominators include the first prime used, 2^31 - 1, so that it must be skipped.
+   */
+  @Test
+  void testMatchesNaive() {
+    // Arrange
+    Random random = new Random(38);
+    Rational[][] a = randomMatrix(random, 10, 10);
+    Rational[][] b = randomMatrix(random, 10, 7);
+    a[3][4] = new Rational(-5, Integer.MAX_VALUE);
+
+    // Act
+    BigRational determinant = MultiModular.determinant(a);
+    BigRational[][] product = MultiModular.multiply(a, b);
+
+    // Assert
+    assertEquals(naiveDeterminant(a), determinant);
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 7; j++) {
+        BigRational expected = BigRational.ZERO;
+        for (int k = 0; k < 10; k++) {
+          expected = expected.plus(BigRational.valueOf(a[i][k]).times(BigRational.valueOf(b[k][j])));
+        }
+        assertEquals(expected, product[i][j]);
+      }
+    }
+  }
+
+  /**
+   * Tests singular and empty matrices, rational reconstruction failure and invalid shapes.
+   */
+  @Test
+  void testEdgeCases() {
+    // Arrange
+    Rational[][] singular = {
+      { new Rational(1, 2), new Rational(1, 3) },
+      { new Rational(-3, 2), new Rational(-1) },
+    };
+
+    // Act & Assert
+    assertEquals(BigRational.ZERO, MultiModular.determinant(singular));
+    assertEquals(BigRational.ONE, MultiModular.determinant(new Rational[0][0]));
+    assertArrayEquals(new BigRational[0][], MultiModular.multiply(new Rational[0][2], singular));
+    assertEquals(
+      BigRational.valueOf(-2, 3),
+      MultiModular.reconstruct(BigInteger.valueOf(33), BigInteger.valueOf(101))
+    );
+    assertNull(MultiModular.reconstruct(BigInteger.valueOf(10), BigInteger.valueOf(101)));
+    // 16 is congruent to 4/-6 modulo 100, which is not in lowest terms.
+    assertNull(MultiModular.reconstruct(BigInteger.valueOf(16), BigInteger.valueOf(100)));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> MultiModular.determinant(new Rational[][] { { new Rational(1) }, {} })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> MultiModular.multiply(singular, new Rational[3][0])
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> MultiModular.multiply(singular, new Rational[][] { singular[0], { new Rational(1) } })
+    );
+  }
+
+  /**
+   * Tests determinants that need a row swap or have zeros below the pivot, and products with zero
+   * entries, an empty inner dimension, and a right matrix whose denominators rule out the first prime.
+   */
+  @Test
+  void testSparseEntries() {
+    // Arrange
+    Rational[][] swapped = {
+      { new Rational(0), new Rational(1, 2) },
+      { new Rational(3), new Rational(1) },
+    };
+    Rational[][] triangular = {
+      { new Rational(2), new Rational(5) },
+      { new Rational(0), new Rational(1, 3) },
+    };
+    Rational[][] skipped = {
+      { new Rational(1, Integer.MAX_VALUE) },
+      { new Rational(2) },
+    };
+
+    // Act
+    BigRational[][] product = MultiModular.multiply(triangular, skipped);
+
+    // Assert
+    assertEquals(BigRational.valueOf(-3, 2), MultiModular.determinant(swapped));
+    assertEquals(BigRational.valueOf(2, 3), MultiModular.determinant(triangular));
+    assertEquals(BigRational.valueOf(2, Integer.MAX_VALUE).plus(BigRational.valueOf(10, 1)), product[0][0]);
+    assertEquals(BigRational.valueOf(2, 3), product[1][0]);
+    assertArrayEquals(
+      new BigRational[][] { {}, {} },
+      MultiModular.multiply(new Rational[2][0], new Rational[0][])
+    );
+  }
+
+  private static Rational[][] randomMatrix(Random random, int rows, int columns) {
+    Rational[][] matrix = new Rational[rows][columns];
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        matrix[i][j] = new Rational(random.nextInt(2001) - 1000, random.nextInt(999) + 1);
+      }
+    }
+    return matrix;
+  }
+
+  /**
+   * Computes a determinant by fraction-valued Gaussian elimination.
+   */
+  private static BigRational naiveDeterminant(Rational[][] matrix) {
+    int n = matrix.length;
+    BigRational[][] m = new BigRational[n][n];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        m[i][j] = BigRational.valueOf(matrix[i][j]);
+      }
+    }
+    BigRational determinant = BigRational.ONE;
+    for (int c = 0; c < n; c++) {
+      int pivot = c;
+      while (pivot < n && m[pivot][c].signum() == 0) {
+        pivot++;
+      }
+      if (pivot == n) {
+        return BigRational.ZERO;
+      }
+      if (pivot != c) {
+        BigRational[] row = m[pivot];
+        m[pivot] = m[c];
+        m[c] = row;
+        determinant = determinant.opposite();
+      }
+      determinant = determinant.times(m[c][c]);
+      for (int i = c + 1; i < n; i++) {
+        BigRational factor = m[i][c].dividedBy(m[c][c]);
+        for (int j = c; j < n; j++) {
+          m[i][j] = m[i][j].minus(factor.times(m[c][j]));
+        }
+      }
+    }
+    return determinant;
+  }
+}
@@ -0,0 +1,198 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Test;
+
+public class MutableRationalTest {
+
+  /**
+   * Tests in-place arithmetic with Rational, primitive and MutableRational operands against
+   * BigRational, and the normalized snapshot.
+   */
+  @Test
+  void testInPlaceArithmetic() {
+    // Arrange
+    MutableRational r = new MutableRational(new Rational(1, 2));
+    MutableRational three = new MutableRational(6, -2);
+    BigRational expected = BigRational.valueOf(1, 2);
+
+    // Act
+    for (int i = 1; i <= 30; i++) {
+      r.add(1, i).mul(new Rational(i, i + 1)).sub(three).div(2, -3).add(i).reduce();
+      expected = expected
+        .plus(BigRational.valueOf(1, i))
+        .times(BigRational.valueOf(i, i + 1))
+        .plus(BigRational.valueOf(3, 1))
+        .times(BigRational.valueOf(-3, 2))
+        .plus(BigRational.valueOf(i, 1));
+    }
+
+    // Assert
+    assertEquals(expected, BigRational.valueOf(r.getNumerator(), r.getDenominator()));
+    assertEquals("-3/4", r.negate().mul(0).add(new Rational(-3, 4)).toRational().toString());
+    assertEquals(4, r.getDenominator());
+    assertEquals(new Rational(-5, 2), new MutableRational(-10, 4).toRational());
+    assertThrows(IllegalArgumentException.class, () -> new MutableRational(1, 0));
+    assertThrows(IllegalArgumentException.class, () -> new MutableRational(1, 2).div(new MutableRational()));
+    assertThrows(IllegalArgumentException.class, () -> new MutableRational(Long.MAX_VALUE, 1).mul(2));
+    assertThrows(IllegalArgumentException.class, () -> new MutableRational(Long.MAX_VALUE, 1).toRational());
+  }
+
+  /**
+   * Tests that closed scopes hand their temporaries back for reuse, that nested scopes do not share
+   * temporaries, and that scopes must be closed innermost first.
+   */
+  @Test
+  void testScopes() {
+    // Arrange
+    MutableRational first;
+    MutableRational inner;
+
+    // Act
+    try (MutableRational.Scope outer = MutableRational.scope()) {
+      first = outer.get().add(5);
+      try (MutableRational.Scope nested = MutableRational.scope()) {
+        inner = nested.get();
+        assertNotSame(first, inner);
+        assertThrows(IllegalStateException.class, outer::get);
+      }
+      assertEquals(5, first.getNumerator());
+    }
+
+    // Assert
+    try (MutableRational.Scope again = MutableRational.scope()) {
+      MutableRational reused = again.get();
+      assertSame(first, reused);
+      assertEquals(0, reused.signum());
+      assertSame(inner, again.get());
+    }
+    MutableRational.Scope outer = MutableRational.scope();
+    MutableRational.Scope nested = MutableRational.scope();
+    assertThrows(IllegalStateException.class, outer::close);
+    nested.close();
+    outer.close();
+  }
+
+  /**
+   * Tests that operations whose unreduced result overflows a long are reduced instead, and that they
+   * throw when even the reduced result does not fit, leaving the value unchanged.
+   */
+  @Test
+  void testOverflowIsReduced() {
+    // Arrange
+    long big = 1L << 40;
+    MutableRational sum = new MutableRational(1, big);
+    MutableRational product = new MutableRational(big, 3);
+    MutableRational quotient = new MutableRational(big, 3);
+    MutableRational difference = new MutableRational(1, big);
+
+    // Act
+    sum.add(1, big).add(new MutableRational(1, big).add(1, big));
+    product.mul(3, big).mul(big, 3).mul(new MutableRational(3, big));
+    quotient.div(big, -3).div(-big, 3).div(new MutableRational(3, big));
+    difference.sub(1, -big).sub(new MutableRational(-1, big).sub(1, big));
+
+    // Assert
+    assertEquals("1/274877906944", sum.reduce().toString());
+    assertEquals("1", product.reduce().toString());
+    assertEquals("1", quotient.reduce().toString());
+    assertEquals("1/274877906944", difference.reduce().toString());
+    MutableRational max = new MutableRational(Long.MAX_VALUE, 1);
+    assertThrows(IllegalArgumentException.class, () -> max.add(1));
+    assertThrows(IllegalArgumentException.class, () -> max.mul(Long.MAX_VALUE, 3));
+    assertThrows(IllegalArgumentException.class, () -> max.div(1, Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, max.getNumerator());
+    assertEquals(1, max.getDenominator());
+  }
+
+  /**
+   * Tests multiplying and dividing by an accumulated MutableRational whose unreduced terms share a
+   * large factor, where only the unreduced product overflows a long.
+   */
+  @Test
+  void testUnreducedOperands() {
+    // Arrange
+    MutableRational factor = new MutableRational(Integer.MAX_VALUE, 2147483629)
+      .mul(2147483629, Integer.MAX_VALUE);
+    MutableRational product = new MutableRational(5, 7);
+    MutableRational quotient = new MutableRational(5, 7);
+
+    // Act
+    product.mul(factor);
+    quotient.div(factor);
+
+    // Assert
+    assertEquals((long) Integer.MAX_VALUE * 2147483629, factor.getNumerator());
+    assertEquals("5/7", product.reduce().toString());
+    assertEquals("5/7", quotient.reduce().toString());
+  }
+
+  /**
+   * Tests the sign handling of operands with negative denominators and the operands that cannot be
+   * negated.
+   */
+  @Test
+  void testSigns() {
+    // Arrange
+    MutableRational r = new MutableRational();
+
+    // Act
+    r.set(3, -4).sub(1, -4).mul(-2).div(-1).add(new Rational(1, -2));
+
+    // Assert
+    assertEquals("-3/2", r.reduce().toString());
+    assertEquals(-1, r.signum());
+    assertEquals("5/7", new MutableRational().set(new MutableRational(-5, -7)).toString());
+    assertEquals(
+      new Rational(-27, 8),
+      new MutableRational(1, 2).sub(2).mul(3, -2).div(new Rational(-2, 3)).sub(new Rational(0)).toRational()
+    );
+    assertEquals("2/4", new MutableRational(2, 1).div(4).toString());
+    assertThrows(IllegalArgumentException.class, () -> new MutableRational(Long.MIN_VALUE, -1));
+    assertThrows(IllegalArgumentException.class, () -> new MutableRational(1, Long.MIN_VALUE));
+    assertThrows(IllegalArgumentException.class, () -> r.add(1, 0));
+    assertThrows(IllegalArgumentException.class, () -> r.sub(Long.MIN_VALUE));
+    assertThrows(IllegalArgumentException.class, () -> r.div(Long.MIN_VALUE));
+    assertThrows(IllegalArgumentException.class, () -> r.div(0));
+    assertThrows(IllegalArgumentException.class, () -> new MutableRational(Long.MIN_VALUE, 1).negate());
+    assertThrows(IllegalArgumentException.class, () -> new MutableRational(1L << 40, 1).toRational());
+  }
+
+  /**
+   * Tests that the pool grows past its initial size, and that scopes are confined to the thread that
+   * opened them and cannot be closed twice.
+   */
+  @Test
+  void testPoolGrowthAndConfinement() throws InterruptedException, ExecutionException {
+    // Arrange
+    List<MutableRational> taken = new ArrayList<>();
+    MutableRational.Scope scope = MutableRational.scope();
+
+    // Act
+    for (int i = 0; i < 40; i++) {
+      taken.add(scope.get().add(i));
+    }
+    Throwable foreign = CompletableFuture
+      .runAsync(scope::get)
+      .handle((ignored, error) -> error.getCause())
+      .get();
+    scope.close();
+
+    // Assert
+    for (int i = 0; i < 40; i++) {
+      assertEquals(i, taken.get(i).getNumerator());
+    }
+    assertTrue(foreign instanceof IllegalStateException);
+    assertThrows(IllegalStateException.class, scope::close);
+    assertThrows(IllegalStateException.class, scope::get);
+  }
+}
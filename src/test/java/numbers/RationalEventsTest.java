@@ -0,0 +1,243 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+public class RationalEventsTest {
+
+  /**
+   * Tests that overflows of eager operations and of the long fraction slots are recorded as
+   * numbers.Overflow events with their outcome, while no recording means no events.
+   */
+  @Test
+  void testOverflowEvents() throws Exception {
+    // Arrange
+    Rational big = new Rational(65536);
+    big.times(big);
+
+    // Act
+    List<RecordedEvent> events = record(
+      "numbers.Overflow",
+      "enabled",
+      "true",
+      () -> {
+        big.times(big);
+        new Rational(1, 3).plus(new Rational(1, 3));
+        long[] n = { 1L << 40 };
+        long[] d = { 3 };
+        Fractions.multiply(n, d, 0, 3L << 30, 1L << 30);
+      }
+    );
+
+    // Assert
+    assertEquals(2, events.size());
+    assertEquals("TIMES", events.get(0).getString("operation"));
+    assertEquals("WRAPPED", events.get(0).getString("outcome"));
+    assertEquals(65536, events.get(0).getLong("rightNumerator"));
+    assertEquals("MULTIPLY", events.get(1).getString("operation"));
+    assertEquals("REDUCED", events.get(1).getString("outcome"));
+    assertFalse(RationalEvents.recording);
+  }
+
+  /**
+   * Tests that numbers.LargeTerm events honour the minimumBits setting of the recording.
+   */
+  @Test
+  void testLargeTermThreshold() throws Exception {
+    // Act
+    List<RecordedEvent> events = record(
+      "numbers.LargeTerm",
+      "minimumBits",
+      "40",
+      () -> {
+        new Rational(1 << 19, 3).times(new Rational(1 << 19, 5));
+        new Rational(1 << 20, 3).times(new Rational(1 << 20, 5));
+        new Rational(3, 2).raisedToThePowerOf(30);
+        new Rational(3, 2).raisedToThePowerOf(20);
+      }
+    );
+
+    // Assert
+    assertEquals(2, events.size());
+    assertEquals("TIMES", events.get(0).getString("operation"));
+    assertEquals(41, events.get(0).getInt("bits"));
+    assertEquals("RAISED_TO_THE_POWER_OF", events.get(1).getString("operation"));
+    assertEquals(48, events.get(1).getInt("bits"));
+    assertEquals(30, events.get(1).getLong("rightNumerator"));
+  }
+
+  /**
+   * Tests that bulk kernels are recorded as numbers.Kernel events with their size once the threshold
+   * is lowered.
+   */
+  @Test
+  void testKernelEvents() throws Exception {
+    // Arrange
+    int[] numerators = { 3, 1, 2 };
+    int[] denominators = { 4, 2, 3 };
+
+    // Act
+    List<RecordedEvent> events = record(
+      "numbers.Kernel",
+      "threshold",
+      "0 ms",
+      () -> RationalSort.sort(numerators, denominators)
+    );
+
+    // Assert
+    List<String> kernels = events
+      .stream()
+      .map(e -> e.getString("kernel"))
+      .collect(Collectors.toList());
+    assertTrue(kernels.contains("RationalSort.sortIndices"));
+    assertTrue(kernels.contains("RationalSort.sort"));
+    assertEquals(3, events.get(0).getLong("size"));
+    assertTrue(events.get(0).getDuration().compareTo(Duration.ZERO) >= 0);
+  }
+
+  /**
+   * Tests that kernels faster than the threshold are timed but not recorded.
+   */
+  @Test
+  void testFastKernelsAreNotRecorded() throws Exception {
+    // Arrange
+    int[] numerators = { 3, 1, 2 };
+    int[] denominators = { 4, 2, 3 };
+
+    // Act
+    List<RecordedEvent> events = record(
+      "numbers.Kernel",
+      "threshold",
+      "1 h",
+      () -> RationalSort.sort(numerators, denominators)
+    );
+
+    // Assert
+    assertTrue(events.isEmpty());
+    assertEquals(1, numerators[0]);
+  }
+
+  /**
+   * Tests that while a recording is running, overflows and large terms are not recorded if the
+   * recording disables their event types.
+   */
+  @Test
+  void testDisabledTypesAreNotRecorded() throws Exception {
+    // Arrange
+    Rational big = new Rational(-65536, 3);
+    Path file = Files.createTempFile("rational-events", ".jfr");
+
+    // Act
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable("numbers.Overflow").with("enabled", "false");
+      recording.enable("numbers.LargeTerm").with("enabled", "false");
+      recording.start();
+      big.times(big);
+      big.times(new Rational(1 << 20, 7));
+      recording.stop();
+      recording.dump(file);
+      events = RecordingFile
+        .readAllEvents(file)
+        .stream()
+        .filter(e -> e.getEventType().getName().startsWith("numbers."))
+        .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+
+    // Assert
+    assertTrue(events.isEmpty());
+    assertEquals(16, RationalEvents.bitLength(-65536));
+    assertEquals(0, RationalEvents.bitLength(-1));
+  }
+
+  /**
+   * Tests that no kernel event is created while no recording is running.
+   */
+  @Test
+  void testNoKernelEventWithoutRecording() {
+    // Act
+    KernelEvent event = RationalEvents.startKernel();
+    RationalEvents.finishKernel(event, "RationalEventsTest", 0);
+
+    // Assert
+    assertFalse(RationalEvents.recording);
+    assertNull(event);
+  }
+
+  /**
+   * Tests that when two recordings set different minimumBits, terms are recorded down to the smaller
+   * setting.
+   */
+  @Test
+  void testLargeTermSettingsAreCombined() throws Exception {
+    // Arrange
+    Path file = Files.createTempFile("rational-events", ".jfr");
+
+    // Act
+    List<RecordedEvent> events;
+    try (Recording wide = new Recording(); Recording narrow = new Recording()) {
+      wide.enable("numbers.LargeTerm").with("minimumBits", "48");
+      narrow.enable("numbers.LargeTerm").with("minimumBits", "40");
+      wide.start();
+      narrow.start();
+      new Rational(1 << 20, 3).times(new Rational(1 << 20, 5));
+      narrow.stop();
+      wide.stop();
+      wide.dump(file);
+      events = RecordingFile
+        .readAllEvents(file)
+        .stream()
+        .filter(e -> e.getEventType().getName().equals("numbers.LargeTerm"))
+        .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+
+    // Assert
+    assertEquals(1, events.size());
+    assertEquals(41, events.get(0).getInt("bits"));
+  }
+
+  /**
+   * Runs action inside a recording that enables the given event with one setting, and returns the
+   * events of that type in order.
+   */
+  private static List<RecordedEvent> record(
+    String event,
+    String setting,
+    String value,
+    Runnable action
+  ) throws Exception {
+    Path file = Files.createTempFile("rational-events", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(event).with(setting, value);
+      recording.start();
+      assertTrue(RationalEvents.recording);
+      action.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile
+        .readAllEvents(file)
+        .stream()
+        .filter(e -> e.getEventType().getName().equals(event))
+        .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+        .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,312 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RationalExpressionTest {
+
+  /**
+   * Tests {@link RationalExpression#compile(String)} and
+   * {@link RationalExpression#evaluate(Rational...)} on the formula from the rule configs,
+   * comparing with the same computation done with {@link Rational} methods.
+   */
+  @Test
+  void testEvaluate() {
+    // Arrange
+    RationalExpression expression = RationalExpression.compile(
+      "(a + b) / (c - 1/3)"
+    );
+    Rational a = new Rational(1, 2);
+    Rational b = new Rational(1, 4);
+    Rational c = new Rational(5, 6);
+
+    // Act
+    Rational result = expression.evaluate(a, b, c);
+
+    // Assert
+    assertEquals(Arrays.asList("a", "b", "c"), expression.getVariables());
+    assertEquals(a.plus(b).dividedBy(c.minus(new Rational(1, 3))), result);
+    assertEquals(new Rational(3, 2), result);
+    assertEquals("(a + b) / (c - 1/3)", expression.toString());
+  }
+
+  /**
+   * Tests operator precedence, unary operators and repeated variables.
+   */
+  @Test
+  void testPrecedenceAndUnaryOperators() {
+    // Arrange
+    RationalExpression expression = RationalExpression.compile(
+      "-x * 2 + +y / -4 - (x - y) * x"
+    );
+
+    // Act
+    Rational result = expression.evaluate(new Rational(3), new Rational(8));
+
+    // Assert
+    assertEquals(Arrays.asList("x", "y"), expression.getVariables());
+    assertEquals(new Rational(7), result);
+  }
+
+  /**
+   * Tests that constant subexpressions are folded at compile time, so that a formula without
+   * variables evaluates to its constant and a constant division by 0 is rejected when compiling.
+   */
+  @Test
+  void testConstantFolding() {
+    // Arrange and Act
+    RationalExpression expression = RationalExpression.compile(
+      "1/3 + 2/3 * (1 - 1/4)"
+    );
+
+    // Assert
+    assertEquals(new Rational(5, 6), expression.evaluate());
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalExpression.compile("x + 1/(2 - 2)")
+    );
+  }
+
+  /**
+   * Tests {@link RationalExpression#evaluate(Map)} with named values, including a missing value.
+   */
+  @Test
+  void testEvaluateMap() {
+    // Arrange
+    RationalExpression expression = RationalExpression.compile("price * rate");
+    Map<String, Rational> values = new HashMap<>();
+    values.put("rate", new Rational(3, 100));
+    values.put("price", new Rational(250));
+
+    // Act and Assert
+    assertEquals(new Rational(15, 2), expression.evaluate(values));
+    values.remove("rate");
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> expression.evaluate(values)
+    );
+  }
+
+  /**
+   * Tests that malformed formulas are rejected with an {@link IllegalArgumentException}.
+   */
+  @Test
+  void testSyntaxErrors() {
+    // Arrange, Act and Assert
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalExpression.compile("a +")
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalExpression.compile("(a")
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalExpression.compile("a b")
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalExpression.compile("a % b")
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalExpression.compile("99999999999")
+    );
+    IllegalArgumentException e = assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalExpression.compile("a + )")
+    );
+    assertEquals("Unexpected ')' at position 4 in \"a + )\".", e.getMessage());
+    e =
+      assertThrows(
+        IllegalArgumentException.class,
+        () -> RationalExpression.compile("2 *")
+      );
+    assertEquals("Unexpected end of formula at position 3 in \"2 *\".", e.getMessage());
+  }
+
+  /**
+   * Tests evaluation errors: wrong arity, division by 0 at run time and results that do not fit in an int.
+   */
+  @Test
+  void testEvaluationErrors() {
+    // Arrange
+    RationalExpression expression = RationalExpression.compile("a / b");
+
+    // Act and Assert
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> expression.evaluate(new Rational(1))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> expression.evaluate(new Rational(1), new Rational(0))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () ->
+        expression.evaluate(new Rational(Integer.MAX_VALUE), new Rational(1, 2))
+    );
+  }
+
+  /**
+   * Tests that intermediate values may exceed the int range as long as the reduced result fits,
+   * which eager {@link Rational} arithmetic cannot do.
+   */
+  @Test
+  void testIntermediateValuesUseLongs() {
+    // Arrange
+    RationalExpression expression = RationalExpression.compile(
+      "a * a * a / (a * a)"
+    );
+
+    // Act
+    Rational result = expression.evaluate(new Rational(100000, 3));
+
+    // Assert
+    assertEquals(new Rational(100000, 3), result);
+  }
+
+  /**
+   * Tests products and quotients whose right operand is an unreduced intermediate that overflows
+   * the product, while the reduced result fits, in single-row and bulk evaluation.
+   */
+  @Test
+  void testUnreducedOperands() {
+    // Arrange
+    RationalExpression product = RationalExpression.compile("x * (y * z)");
+    RationalExpression quotient = RationalExpression.compile("x / (y * z)");
+    Rational x = new Rational(5, 7);
+    Rational y = new Rational(Integer.MAX_VALUE, 2147483629);
+    Rational z = new Rational(2147483629, Integer.MAX_VALUE);
+    int[][] numerators = { { 5, -5 }, { Integer.MAX_VALUE, Integer.MAX_VALUE }, { 2147483629, 2147483629 } };
+    int[][] denominators = { { 7, 7 }, { 2147483629, 2147483629 }, { Integer.MAX_VALUE, -Integer.MAX_VALUE } };
+    int[][] outNumerators = new int[2][2];
+    int[][] outDenominators = new int[2][2];
+
+    // Act
+    product.evaluate(numerators, denominators, outNumerators[0], outDenominators[0]);
+    quotient.evaluate(numerators, denominators, outNumerators[1], outDenominators[1]);
+
+    // Assert
+    assertEquals(x, product.evaluate(x, y, z));
+    assertEquals(x, quotient.evaluate(x, y, z));
+    for (int e = 0; e < 2; e++) {
+      assertArrayEquals(new int[] { 5, 5 }, outNumerators[e]);
+      assertArrayEquals(new int[] { 7, 7 }, outDenominators[e]);
+    }
+  }
+
+  /**
+   * Tests the bulk {@link RationalExpression#evaluate(int[][], int[][], int[], int[])} on enough rows to be
+   * split across threads, comparing each row with single-row evaluation and checking that results are
+   * in lowest terms with positive denominators.
+   */
+  @Test
+  void testBulkEvaluation() {
+    // Arrange
+    RationalExpression expression = RationalExpression.compile(
+      "(a + b) / (c - 1/3)"
+    );
+    Random random = new Random(31);
+    int rows = Fractions.PARALLEL_THRESHOLD * 2 + 5;
+    int[][] numerators = new int[3][rows];
+    int[][] denominators = new int[3][rows];
+    for (int v = 0; v < 3; v++) {
+      for (int row = 0; row < rows; row++) {
+        numerators[v][row] = random.nextInt(200) - 100;
+        denominators[v][row] = random.nextInt(50) + 1;
+      }
+    }
+    for (int row = 0; row < rows; row++) {
+      if (numerators[2][row] * 3 == denominators[2][row]) {
+        numerators[2][row]++;
+      }
+    }
+    denominators[2][0] = -denominators[2][0];
+    int[] outNumerators = new int[rows];
+    int[] outDenominators = new int[rows];
+
+    // Act
+    expression.evaluate(
+      numerators,
+      denominators,
+      outNumerators,
+      outDenominators
+    );
+
+    // Assert
+    for (int row = 0; row < rows; row++) {
+      Rational expected = expression.evaluate(
+        new Rational(numerators[0][row], denominators[0][row]),
+        new Rational(numerators[1][row], denominators[1][row]),
+        new Rational(numerators[2][row], denominators[2][row])
+      );
+      assertEquals(
+        expected,
+        new Rational(outNumerators[row], outDenominators[row])
+      );
+      assertTrue(outDenominators[row] > 0);
+      assertEquals(
+        1,
+        Math.abs(Rational.gcd(outNumerators[row], outDenominators[row]))
+      );
+    }
+    assertThrows(
+      IllegalArgumentException.class,
+      () ->
+        expression.evaluate(
+          new int[1][rows],
+          new int[1][rows],
+          outNumerators,
+          outDenominators
+        )
+    );
+  }
+
+  /**
+   * Tests bulk evaluation of a single chunk with a constant left operand, and that every mismatch in
+   * the number or length of the columns is rejected.
+   */
+  @Test
+  void testBulkColumnChecks() {
+    // Arrange
+    RationalExpression expression = RationalExpression.compile("2 * a");
+    int[][] numerators = { { 1, -3 } };
+    int[][] denominators = { { 4, 5 } };
+    int[] outNumerators = new int[2];
+    int[] outDenominators = new int[2];
+
+    // Act
+    expression.evaluate(numerators, denominators, outNumerators, outDenominators);
+
+    // Assert
+    assertArrayEquals(new int[] { 1, -6 }, outNumerators);
+    assertArrayEquals(new int[] { 2, 5 }, outDenominators);
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> expression.evaluate(numerators, new int[2][2], outNumerators, outDenominators)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> expression.evaluate(numerators, denominators, outNumerators, new int[1])
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> expression.evaluate(new int[][] { new int[1] }, denominators, outNumerators, outDenominators)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> expression.evaluate(numerators, new int[][] { new int[1] }, outNumerators, outDenominators)
+    );
+  }
+}
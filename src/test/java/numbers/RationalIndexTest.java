@@ -0,0 +1,194 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RationalIndexTest {
+
+  /**
+   * Tests {@link RationalIndex#of(int[], int[])} to ensure the values are sorted
+   * exactly, including values that a double cannot tell apart and denominators carrying the sign.
+   */
+  @Test
+  void testOfSortsExactly() {
+    // Arrange
+    int[] numerators = { 1, 2147483646, -1, 1, 2147483645 };
+    int[] denominators = { 3, 2147483647, 3, -2, 2147483646 };
+
+    // Act
+    RationalIndex index = RationalIndex.of(numerators, denominators);
+
+    // Assert
+    assertEquals(5, index.size());
+    assertEquals(new Rational(1, -2), index.get(0));
+    assertEquals(new Rational(-1, 3), index.get(1));
+    assertEquals(new Rational(1, 3), index.get(2));
+    assertEquals(2147483645, index.numeratorAt(3));
+    assertEquals(2147483646, index.denominatorAt(3));
+    assertEquals(2147483646, index.numeratorAt(4));
+  }
+
+  /**
+   * Tests that {@link RationalIndex#of(int[], int[])} copies its input, so the index stays
+   * unchanged when the caller later modifies the arrays.
+   */
+  @Test
+  void testOfCopiesInput() {
+    // Arrange
+    int[] numerators = { 1, 2 };
+    int[] denominators = { 2, 3 };
+    RationalIndex index = RationalIndex.of(numerators, denominators);
+
+    // Act
+    numerators[0] = 5;
+
+    // Assert
+    assertEquals(new Rational(1, 2), index.get(0));
+  }
+
+  /**
+   * Tests that {@link RationalIndex#of(int[], int[])} rejects mismatched columns and zero denominators.
+   */
+  @Test
+  void testOfRejectsInvalidColumns() {
+    // Arrange, Act and Assert
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalIndex.of(new int[] { 1 }, new int[] { 1, 2 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalIndex.of(new int[] { 1 }, new int[] { 0 })
+    );
+  }
+
+  /**
+   * Tests {@link RationalIndex#rank(Rational)}, {@link RationalIndex#floor(Rational)}
+   * and {@link RationalIndex#ceiling(Rational)} against tariff-style breakpoints,
+   * including probes below, between, on and above the breakpoints.
+   */
+  @Test
+  void testFloorCeilingAndRank() {
+    // Arrange
+    RationalIndex index = RationalIndex.of(
+      new Rational(1, 4),
+      new Rational(1, 2),
+      new Rational(3, 4)
+    );
+
+    // Act and Assert
+    assertEquals(0, index.rank(new Rational(1, 8)));
+    assertNull(index.floor(new Rational(1, 8)));
+    assertEquals(new Rational(1, 4), index.ceiling(new Rational(1, 8)));
+
+    assertEquals(1, index.rank(new Rational(1, 2)));
+    assertEquals(new Rational(1, 2), index.floor(new Rational(2, 4)));
+    assertEquals(new Rational(1, 2), index.ceiling(new Rational(1, 2)));
+
+    assertEquals(new Rational(1, 2), index.floor(new Rational(2, 3)));
+    assertEquals(new Rational(3, 4), index.ceiling(new Rational(2, 3)));
+
+    assertEquals(3, index.rank(new Rational(1)));
+    assertEquals(2, index.floorIndex(1, 1));
+    assertNull(index.ceiling(new Rational(1)));
+    assertEquals(-1, index.ceilingIndex(1, 1));
+  }
+
+  /**
+   * Tests {@link RationalIndex#countInRange(Rational, Rational)} with inclusive bounds,
+   * duplicate values and an empty range.
+   */
+  @Test
+  void testCountInRange() {
+    // Arrange
+    RationalIndex index = RationalIndex.of(
+      new int[] { 1, 2, 1, 3, 5 },
+      new int[] { 2, 4, 3, 4, 4 }
+    );
+
+    // Act and Assert
+    assertEquals(3, index.countInRange(new Rational(1, 2), new Rational(3, 4)));
+    assertEquals(2, index.countInRange(new Rational(1, 2), new Rational(1, 2)));
+    assertEquals(0, index.countInRange(new Rational(1), new Rational(0)));
+  }
+
+  /**
+   * Tests {@link RationalIndex#floorIndices(int[], int[], int[])} and
+   * {@link RationalIndex#ranks(int[], int[], int[])} on enough probes to take the parallel path,
+   * comparing every answer with a linear scan.
+   */
+  @Test
+  void testBulkLookupsMatchLinearScan() {
+    // Arrange
+    Random random = new Random(26);
+    int[] numerators = new int[500];
+    int[] denominators = new int[500];
+    for (int i = 0; i < numerators.length; i++) {
+      numerators[i] = random.nextInt(2001) - 1000;
+      denominators[i] = random.nextInt(99) + 1;
+    }
+    RationalIndex index = RationalIndex.of(numerators, denominators);
+    int probes = Fractions.PARALLEL_THRESHOLD + 7;
+    int[] probeNumerators = new int[probes];
+    int[] probeDenominators = new int[probes];
+    for (int i = 0; i < probes; i++) {
+      probeNumerators[i] = random.nextInt(4001) - 2000;
+      probeDenominators[i] = random.nextInt(199) - 99;
+      if (probeDenominators[i] == 0) {
+        probeDenominators[i] = 1;
+      }
+    }
+    int[] expectedFloors = new int[probes];
+    int[] expectedRanks = new int[probes];
+    for (int p = 0; p < probes; p++) {
+      int less = 0;
+      int lessOrEqual = 0;
+      for (int i = 0; i < index.size(); i++) {
+        int cmp = Fractions.compare(
+          index.numeratorAt(i),
+          index.denominatorAt(i),
+          probeNumerators[p],
+          probeDenominators[p]
+        );
+        if (cmp < 0) {
+          less++;
+        }
+        if (cmp <= 0) {
+          lessOrEqual++;
+        }
+      }
+      expectedRanks[p] = less;
+      expectedFloors[p] = lessOrEqual - 1;
+    }
+    int[] floors = new int[probes];
+    int[] ranks = new int[probes];
+
+    // Act
+    index.floorIndices(probeNumerators, probeDenominators, floors);
+    index.ranks(probeNumerators, probeDenominators, ranks);
+
+    // Assert
+    assertArrayEquals(expectedFloors, floors);
+    assertArrayEquals(expectedRanks, ranks);
+  }
+
+  /**
+   * Tests that the bulk lookups reject an output array of the wrong length.
+   */
+  @Test
+  void testBulkLookupsRejectMismatchedOutput() {
+    // Arrange
+    RationalIndex index = RationalIndex.of(new Rational(1));
+
+    // Act and Assert
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> index.ranks(new int[] { 1 }, new int[] { 1 }, new int[2])
+    );
+  }
+}
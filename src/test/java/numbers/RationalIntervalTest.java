@@ -0,0 +1,208 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RationalIntervalTest {
+
+  /**
+   * Tests arithmetic in every combination of signs against the extremes of the four endpoint results,
+   * and containment and intersection.
+   */
+  @Test
+  void testArithmetic() {
+    // Arrange
+    Random random = new Random(46);
+
+    for (int i = 0; i < 2000; i++) {
+      RationalInterval x = random(random);
+      RationalInterval y = random(random);
+
+      // Act
+      RationalInterval product = x.times(y);
+
+      // Assert
+      assertEquals(naive(x, y, 0), x.plus(y));
+      assertEquals(naive(x, y, 1), x.minus(y));
+      assertEquals(naive(x, y, 2), product);
+      if (y.contains(new Rational(0))) {
+        assertThrows(IllegalArgumentException.class, () -> x.dividedBy(y));
+      } else {
+        assertEquals(naive(x, y, 3), x.dividedBy(y));
+      }
+      assertTrue(product.contains(x.getLower().times(y.getUpper())));
+    }
+    RationalInterval x = RationalInterval.of(new Rational(-1, 2), new Rational(3));
+    RationalInterval y = RationalInterval.of(new Rational(1), new Rational(4));
+    assertEquals("[-1/2, 3]", x.toString());
+    assertEquals(RationalInterval.of(new Rational(1), new Rational(3)), x.intersection(y));
+    assertNull(x.intersection(RationalInterval.of(new Rational(7, 2))));
+    assertEquals(y, y.intersection(RationalInterval.of(new Rational(0), new Rational(5))));
+    assertTrue(RationalInterval.of(new Rational(0), new Rational(5)).contains(y));
+    assertFalse(y.contains(x));
+    assertEquals("7/2", x.getWidth().toString());
+    assertThrows(IllegalArgumentException.class, () -> RationalInterval.of(new Rational(1), new Rational(0)));
+  }
+
+  /**
+   * Tests the column kernels against the scalar operations, on enough rows to run in parallel and with
+   * negative denominators in the input.
+   */
+  @Test
+  void testColumns() {
+    // Arrange
+    Random random = new Random(4646);
+    int rows = 30000;
+    RationalInterval.Columns x = new RationalInterval.Columns(rows);
+    int[] lowerNumerators = new int[rows];
+    int[] lowerDenominators = new int[rows];
+    int[] upperNumerators = new int[rows];
+    int[] upperDenominators = new int[rows];
+    RationalInterval.Columns out = new RationalInterval.Columns(rows);
+    for (int i = 0; i < rows; i++) {
+      x.set(i, random(random));
+      RationalInterval divisor = random(random);
+      while (divisor.contains(new Rational(0))) {
+        divisor = random(random);
+      }
+      lowerNumerators[i] = -divisor.getLower().numerator;
+      lowerDenominators[i] = -divisor.getLower().denominator;
+      upperNumerators[i] = divisor.getUpper().numerator;
+      upperDenominators[i] = divisor.getUpper().denominator;
+    }
+    RationalInterval.Columns y = new RationalInterval.Columns(
+      lowerNumerators,
+      lowerDenominators,
+      upperNumerators,
+      upperDenominators
+    );
+
+    for (int op = 0; op < 4; op++) {
+      // Act
+      switch (op) {
+        case 0:
+          RationalInterval.plus(x, y, out);
+          break;
+        case 1:
+          RationalInterval.minus(x, y, out);
+          break;
+        case 2:
+          RationalInterval.times(x, y, out);
+          break;
+        default:
+          RationalInterval.dividedBy(x, y, out);
+      }
+
+      // Assert
+      for (int i = 0; i < rows; i++) {
+        RationalInterval a = x.get(i);
+        RationalInterval b = y.get(i);
+        RationalInterval expected = op == 0
+          ? a.plus(b)
+          : op == 1 ? a.minus(b) : op == 2 ? a.times(b) : a.dividedBy(b);
+        assertEquals(expected, out.get(i));
+        assertTrue(out.lowerDenominators[i] > 0);
+      }
+    }
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalInterval.plus(x, new RationalInterval.Columns(1), out)
+    );
+  }
+
+  /**
+   * Tests containment and intersection with each endpoint taken from either side, and equality on
+   * intervals that differ in one endpoint term.
+   */
+  @Test
+  void testIntersectionAndEquality() {
+    // Arrange
+    RationalInterval inner = RationalInterval.of(new Rational(1), new Rational(3));
+    RationalInterval left = RationalInterval.of(new Rational(0), new Rational(2));
+    RationalInterval right = RationalInterval.of(new Rational(2), new Rational(5));
+    RationalInterval half = RationalInterval.of(new Rational(1, 2), new Rational(3));
+
+    // Act and Assert
+    assertFalse(left.contains(RationalInterval.of(new Rational(0), new Rational(3))));
+    assertEquals(RationalInterval.of(new Rational(1), new Rational(2)), inner.intersection(left));
+    assertEquals(RationalInterval.of(new Rational(1), new Rational(2)), left.intersection(inner));
+    assertEquals(RationalInterval.of(new Rational(2), new Rational(3)), inner.intersection(right));
+    assertEquals(inner, inner.intersection(RationalInterval.of(new Rational(0), new Rational(5))));
+    assertEquals(inner, inner);
+    assertEquals(inner.hashCode(), RationalInterval.of(new Rational(2, 2), new Rational(3)).hashCode());
+    assertFalse(inner.equals(new Rational(1)));
+    assertFalse(inner.equals(half));
+    assertFalse(half.equals(RationalInterval.of(new Rational(1, 3), new Rational(3))));
+    assertFalse(inner.equals(RationalInterval.of(new Rational(1), new Rational(4))));
+    assertFalse(half.equals(RationalInterval.of(new Rational(1, 2), new Rational(3, 2))));
+  }
+
+  /**
+   * Tests a column kernel on a single chunk with negative and positive denominators in every
+   * endpoint column, and that mismatched column lengths are rejected.
+   */
+  @Test
+  void testSmallColumns() {
+    // Arrange
+    RationalInterval.Columns x = new RationalInterval.Columns(
+      new int[] { 1, -1 },
+      new int[] { -2, 1 },
+      new int[] { -1, 3 },
+      new int[] { -3, -4 }
+    );
+    RationalInterval.Columns y = new RationalInterval.Columns(
+      new int[] { 1, -1 },
+      new int[] { -1, 1 },
+      new int[] { 2, 1 },
+      new int[] { 1, -2 }
+    );
+    RationalInterval.Columns out = new RationalInterval.Columns(2);
+
+    // Act
+    RationalInterval.plus(x, y, out);
+
+    // Assert
+    assertEquals(RationalInterval.of(new Rational(-3, 2), new Rational(7, 3)), out.get(0));
+    assertEquals(RationalInterval.of(new Rational(-2), new Rational(-5, 4)), out.get(1));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalInterval.plus(x, y, new RationalInterval.Columns(1))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new RationalInterval.Columns(new int[1], new int[] { 1 }, new int[2], new int[] { 1, 1 })
+    );
+  }
+
+  private static RationalInterval random(Random random) {
+    Rational a = new Rational(random.nextInt(41) - 20, 1 + random.nextInt(12));
+    Rational b = new Rational(random.nextInt(41) - 20, 1 + random.nextInt(12));
+    return a.compareTo(b) <= 0 ? RationalInterval.of(a, b) : RationalInterval.of(b, a);
+  }
+
+  /**
+   * Combines all four pairs of endpoints with BigRational and takes the extremes.
+   */
+  private static RationalInterval naive(RationalInterval x, RationalInterval y, int op) {
+    BigRational[] left = { BigRational.valueOf(x.getLower()), BigRational.valueOf(x.getUpper()) };
+    BigRational[] right = { BigRational.valueOf(y.getLower()), BigRational.valueOf(y.getUpper()) };
+    BigRational min = null;
+    BigRational max = null;
+    for (BigRational a : left) {
+      for (BigRational b : right) {
+        BigRational r = op == 0
+          ? a.plus(b)
+          : op == 1 ? a.minus(b) : op == 2 ? a.times(b) : a.dividedBy(b);
+        min = min == null || r.compareTo(min) < 0 ? r : min;
+        max = max == null || r.compareTo(max) > 0 ? r : max;
+      }
+    }
+    return RationalInterval.of(min.toRational(), max.toRational());
+  }
+}
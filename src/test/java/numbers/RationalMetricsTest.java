@@ -0,0 +1,233 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RationalMetricsTest {
+
+  @BeforeEach
+  void enableMetrics() {
+    RationalMetrics.reset();
+    RationalMetrics.setEnabled(true);
+  }
+
+  @AfterEach
+  void disableMetrics() {
+    RationalMetrics.setEnabled(false);
+    RationalMetrics.reset();
+  }
+
+  /**
+   * Tests that nothing is counted while metrics are disabled.
+   */
+  @Test
+  void testDisabledCountsNothing() {
+    // Arrange
+    RationalMetrics.setEnabled(false);
+
+    // Act
+    new Rational(2, 4).times(new Rational(65536)).times(new Rational(65536));
+
+    // Assert
+    RationalMetrics.Snapshot snapshot = RationalMetrics.snapshot();
+    assertFalse(RationalMetrics.isEnabled());
+    assertEquals(0, snapshot.getConstructions());
+    assertEquals(0, snapshot.getGcdCalls());
+    assertEquals(0, snapshot.getTotalOverflows());
+  }
+
+  /**
+   * Tests that constructions, gcd calls and iterations, and reductions that changed the fraction
+   * are counted.
+   */
+  @Test
+  void testConstructionAndGcdCounts() {
+    // Act
+    new Rational(2, 4);
+    new Rational(1, 3);
+    new Rational(1, -3);
+    new Rational(5);
+
+    // Assert
+    RationalMetrics.Snapshot snapshot = RationalMetrics.snapshot();
+    assertEquals(4, snapshot.getConstructions());
+    assertEquals(3, snapshot.getGcdCalls());
+    assertEquals(6, snapshot.getGcdIterations());
+    assertEquals(2, snapshot.getReductions());
+  }
+
+  /**
+   * Tests that overflows are counted per operation, while the eager results still wrap as before.
+   */
+  @Test
+  void testOverflowsByOperation() {
+    // Arrange
+    Rational big = new Rational(65536);
+
+    // Act
+    Rational wrapped = big.times(big);
+    new Rational(Integer.MAX_VALUE).plus(new Rational(1));
+    new Rational(Integer.MIN_VALUE).minus(new Rational(1, 2));
+    new Rational(1, 3).dividedBy(new Rational(1, 3));
+    new Rational(Integer.MIN_VALUE).opposite();
+    new Rational(2).raisedToThePowerOf(40);
+    new Rational(1, Integer.MIN_VALUE);
+
+    // Assert
+    RationalMetrics.Snapshot snapshot = RationalMetrics.snapshot();
+    assertEquals(new Rational(0), wrapped);
+    assertEquals(1, snapshot.getOverflows(RationalMetrics.Operation.TIMES));
+    assertEquals(1, snapshot.getOverflows(RationalMetrics.Operation.PLUS));
+    assertEquals(1, snapshot.getOverflows(RationalMetrics.Operation.MINUS));
+    assertEquals(0, snapshot.getOverflows(RationalMetrics.Operation.DIVIDED_BY));
+    assertEquals(1, snapshot.getOverflows(RationalMetrics.Operation.OPPOSITE));
+    assertEquals(
+      1,
+      snapshot.getOverflows(RationalMetrics.Operation.RAISED_TO_THE_POWER_OF)
+    );
+    assertEquals(
+      1,
+      snapshot.getOverflows(RationalMetrics.Operation.CONSTRUCTOR)
+    );
+    assertEquals(6, snapshot.getTotalOverflows());
+  }
+
+  /**
+   * Tests that reusing an evaluated {@link LazyRational} counts as a cache hit, and that a snapshot
+   * does not change after it is taken.
+   */
+  @Test
+  void testCacheHitsAndSnapshotImmutability() {
+    // Arrange
+    LazyRational lazy = LazyRational.of(1, 2).plus(new Rational(1, 3));
+    lazy.toRational();
+
+    // Act
+    RationalMetrics.Snapshot before = RationalMetrics.snapshot();
+    lazy.toRational();
+    lazy.doubleValue();
+
+    // Assert
+    assertEquals(0, before.getCacheHits());
+    assertEquals(2, RationalMetrics.snapshot().getCacheHits());
+  }
+
+  /**
+   * Tests that the JMX view can be registered more than once and reads the live counters.
+   */
+  @Test
+  void testMBean() throws Exception {
+    // Arrange
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(RationalMetrics.OBJECT_NAME);
+
+    // Act
+    RationalMetrics.registerMBean();
+    RationalMetrics.registerMBean();
+    new Rational(3, 6);
+
+    // Assert
+    assertTrue(server.isRegistered(name));
+    assertEquals(true, server.getAttribute(name, "Enabled"));
+    assertEquals(1L, server.getAttribute(name, "Constructions"));
+    assertEquals(1L, server.getAttribute(name, "Reductions"));
+    server.invoke(name, "reset", null, null);
+    assertEquals(0L, server.getAttribute(name, "Constructions"));
+  }
+
+  /**
+   * Tests every attribute of the JMX view through the platform MBean server, including switching the
+   * metrics off and resetting them.
+   */
+  @Test
+  void testMBeanAttributes() throws Exception {
+    // Arrange
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(RationalMetrics.OBJECT_NAME);
+    RationalMetrics.registerMBean();
+    LazyRational lazy = LazyRational.of(1, 2).plus(new Rational(1, 3));
+
+    // Act
+    new Rational(6, 4);
+    new Rational(65536).times(new Rational(65536));
+    new Rational(Integer.MAX_VALUE).plus(new Rational(1));
+    lazy.toRational();
+    lazy.toRational();
+
+    // Assert
+    assertEquals(1L, server.getAttribute(name, "CacheHits"));
+    assertEquals(RationalMetrics.snapshot().getGcdCalls(), server.getAttribute(name, "GcdCalls"));
+    assertEquals(
+      RationalMetrics.snapshot().getGcdIterations(),
+      server.getAttribute(name, "GcdIterations")
+    );
+    assertEquals(2L, server.getAttribute(name, "TotalOverflows"));
+    TabularData overflows = (TabularData) server.getAttribute(name, "Overflows");
+    assertEquals(RationalMetrics.Operation.values().length, overflows.size());
+    assertEquals(1L, overflows.get(new Object[] { "TIMES" }).get("value"));
+    assertEquals(0L, overflows.get(new Object[] { "DIVIDED_BY" }).get("value"));
+    server.setAttribute(name, new Attribute("Enabled", false));
+    assertFalse(RationalMetrics.isEnabled());
+    new Rational(6, 4);
+    server.invoke(name, "reset", null, null);
+    assertEquals(0L, server.getAttribute(name, "TotalOverflows"));
+    assertEquals(0L, server.getAttribute(name, "CacheHits"));
+  }
+
+  /**
+   * Tests the overflow map and string form of a snapshot.
+   */
+  @Test
+  void testSnapshotOverflowsAndToString() {
+    // Act
+    new Rational(65536).times(new Rational(65536));
+    RationalMetrics.Snapshot snapshot = RationalMetrics.snapshot();
+
+    // Assert
+    Map<RationalMetrics.Operation, Long> overflows = snapshot.getOverflows();
+    assertEquals(RationalMetrics.Operation.values().length, overflows.size());
+    assertEquals(1L, overflows.get(RationalMetrics.Operation.TIMES));
+    assertEquals(0L, overflows.get(RationalMetrics.Operation.PLUS));
+    assertThrows(
+      UnsupportedOperationException.class,
+      () -> overflows.put(RationalMetrics.Operation.PLUS, 1L)
+    );
+    assertTrue(snapshot.toString().startsWith("constructions=3, gcdCalls="), snapshot.toString());
+    assertTrue(snapshot.toString().endsWith(", overflows=" + overflows), snapshot.toString());
+  }
+
+  /**
+   * Tests that overflows of the common denominator of a sum, of the denominator of a product, and of
+   * either power in both directions are counted.
+   */
+  @Test
+  void testDenominatorAndPowerOverflows() {
+    // Act
+    new Rational(1, 65536).plus(new Rational(1, 65537));
+    new Rational(1, 65536).minus(new Rational(1, 3));
+    new Rational(1, 65537).times(new Rational(1, 65536));
+    new Rational(-3).raisedToThePowerOf(21);
+    new Rational(1, 3).raisedToThePowerOf(21);
+    new Rational(-1, 3).raisedToThePowerOf(21);
+    new Rational(3, 2).raisedToThePowerOf(5);
+
+    // Assert
+    RationalMetrics.Snapshot snapshot = RationalMetrics.snapshot();
+    assertEquals(1, snapshot.getOverflows(RationalMetrics.Operation.PLUS));
+    assertEquals(0, snapshot.getOverflows(RationalMetrics.Operation.MINUS));
+    assertEquals(1, snapshot.getOverflows(RationalMetrics.Operation.TIMES));
+    assertEquals(3, snapshot.getOverflows(RationalMetrics.Operation.RAISED_TO_THE_POWER_OF));
+  }
+}
@@ -0,0 +1,138 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RationalPolynomialTest {
+
+  /**
+   * Tests sums, products, derivatives and division with remainder on small polynomials.
+   */
+  @Test
+  void testAlgebra() {
+    // Arrange
+    RationalPolynomial p = RationalPolynomial.of(new Rational(1), new Rational(-1), new Rational(3, 2));
+    RationalPolynomial q = RationalPolynomial.of(new Rational(-1, 2), new Rational(1));
+
+    // Act
+    RationalPolynomial[] division = p.times(q).plus(RationalPolynomial.of(new Rational(1, 3))).divideAndRemainder(q);
+
+    // Assert
+    assertEquals("3/2x^2 - x + 1", p.toString());
+    assertEquals("3/2x^3 - 7/4x^2 + 3/2x - 1/2", p.times(q).toString());
+    assertEquals("3x - 1", p.derivative().toString());
+    assertEquals(p, division[0]);
+    assertEquals(RationalPolynomial.of(new Rational(1, 3)), division[1]);
+    assertEquals(RationalPolynomial.ZERO, p.minus(p));
+    assertEquals(-1, p.minus(p).getDegree());
+    assertEquals("-x", RationalPolynomial.of(new Rational(0), new Rational(-1)).toString());
+    assertEquals(BigRational.valueOf(3, 2), p.getCoefficient(2));
+    assertThrows(IllegalArgumentException.class, () -> p.divideAndRemainder(RationalPolynomial.ZERO));
+  }
+
+  /**
+   * Tests batch evaluation against naive evaluation with BigRational, on a point set large enough to
+   * be evaluated in parallel and including points that leave the long fast path.
+   */
+  @Test
+  void testBatchEvaluationMatchesNaive() {
+    // Arrange
+    RationalPolynomial p = RationalPolynomial.of(
+      new Rational(2, 3),
+      new Rational(-5, 7),
+      new Rational(0),
+      new Rational(1, 6)
+    );
+    Random random = new Random(40);
+    int rows = 20000;
+    int[] numerators = new int[rows];
+    int[] denominators = new int[rows];
+    for (int i = 0; i < rows; i++) {
+      numerators[i] = random.nextInt(41) - 20;
+      denominators[i] = (random.nextInt(12) + 1) * (i % 2 == 0 ? 1 : -1);
+    }
+    // 3 written as 3 * 2^20 / 2^20, so that q^3 overflows a long.
+    numerators[7] = 3 << 20;
+    denominators[7] = 1 << 20;
+    int[] outNumerators = new int[rows];
+    int[] outDenominators = new int[rows];
+
+    // Act
+    p.evaluate(numerators, denominators, outNumerators, outDenominators);
+
+    // Assert
+    for (int i = 0; i < rows; i++) {
+      BigRational x = BigRational.valueOf(numerators[i], denominators[i]);
+      BigRational expected = BigRational.ZERO;
+      for (int k = p.getDegree(); k >= 0; k--) {
+        expected = expected.times(x).plus(p.getCoefficient(k));
+      }
+      assertEquals(expected, BigRational.valueOf(outNumerators[i], outDenominators[i]));
+    }
+    assertEquals(new Rational(2, 3), p.evaluate(new Rational(0)));
+    assertThrows(IllegalArgumentException.class, () -> p.evaluate(new Rational(1 << 16)));
+  }
+
+  /**
+   * Tests the zero and constant polynomials, division by a polynomial of higher degree or with a zero
+   * quotient term, equality, and that column lengths are checked.
+   */
+  @Test
+  void testDegenerateCases() {
+    // Arrange
+    RationalPolynomial constant = RationalPolynomial.of(BigRational.valueOf(-1, 1));
+    RationalPolynomial p = RationalPolynomial.of(new Rational(1), new Rational(0), new Rational(1));
+    RationalPolynomial x = RationalPolynomial.of(new Rational(0), new Rational(1));
+
+    // Act
+    RationalPolynomial[] lower = x.divideAndRemainder(p);
+    RationalPolynomial[] division = p.divideAndRemainder(x);
+
+    // Assert
+    assertEquals("0", RationalPolynomial.ZERO.toString());
+    assertEquals("-1", constant.toString());
+    assertEquals(RationalPolynomial.ZERO, RationalPolynomial.ZERO.times(p));
+    assertEquals(RationalPolynomial.ZERO, p.times(RationalPolynomial.ZERO));
+    assertEquals(RationalPolynomial.ZERO, constant.derivative());
+    assertEquals(new Rational(0), RationalPolynomial.ZERO.evaluate(new Rational(3)));
+    assertEquals(BigRational.ZERO, RationalPolynomial.ZERO.evaluate(BigRational.valueOf(3, 2)));
+    assertArrayEquals(new RationalPolynomial[] { RationalPolynomial.ZERO, x }, lower);
+    assertArrayEquals(new RationalPolynomial[] { x, RationalPolynomial.of(new Rational(1)) }, division);
+    assertEquals(p, p);
+    assertEquals(p.hashCode(), x.times(x).plus(RationalPolynomial.of(new Rational(1))).hashCode());
+    assertFalse(p.equals(x));
+    assertFalse(p.equals("x^2 + 1"));
+    assertThrows(IllegalArgumentException.class, () -> p.getCoefficient(-1));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> p.evaluate(new int[1], new int[] { 1 }, new int[0], new int[1])
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> p.evaluate(new int[1], new int[] { 1 }, new int[1], new int[0])
+    );
+  }
+
+  /**
+   * Tests that polynomials whose integer coefficients or common denominator outgrow a long are
+   * evaluated exactly with BigInteger.
+   */
+  @Test
+  void testCoefficientsBeyondLongs() {
+    // Arrange
+    BigInteger huge = BigInteger.ONE.shiftLeft(70);
+    RationalPolynomial wide = RationalPolynomial.of(BigRational.ONE, BigRational.of(huge, BigInteger.ONE));
+    RationalPolynomial fine = RationalPolynomial.of(BigRational.valueOf(1, 3), BigRational.of(BigInteger.ONE, huge));
+
+    // Act and Assert
+    assertEquals(new Rational(1), wide.evaluate(new Rational(0)));
+    assertEquals(new Rational(1, 3), fine.evaluate(new Rational(0)));
+    assertEquals(BigRational.of(huge.add(BigInteger.ONE), BigInteger.ONE), wide.evaluate(BigRational.ONE));
+  }
+}
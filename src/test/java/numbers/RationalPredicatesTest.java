@@ -0,0 +1,199 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RationalPredicatesTest {
+
+  /**
+   * Tests the predicates against determinants evaluated with BigRational, on points from a small grid,
+   * where collinear and cocircular sets are common, and on nearly degenerate points with large
+   * denominators, where the double filter cannot decide.
+   */
+  @Test
+  void testPredicates() {
+    // Arrange
+    Random random = new Random(47);
+    int size = 400;
+    int[][] n = new int[3][size];
+    int[][] d = new int[3][size];
+    for (int i = 0; i < size; i++) {
+      for (int axis = 0; axis < 3; axis++) {
+        if (i < size / 2) {
+          n[axis][i] = random.nextInt(9) - 4;
+          d[axis][i] = random.nextBoolean() ? 2 : -1;
+        } else {
+          // Points on the line y = x / 3 and the plane z = 0, each nudged by at most one 2^-30.
+          int q = (1 << 30) - random.nextInt(1000);
+          n[axis][i] = axis == 0 ? random.nextInt(1 << 30) : 0;
+          d[axis][i] = q;
+        }
+      }
+      if (i >= size / 2) {
+        n[1][i] = n[0][i] / 3 + random.nextInt(3) - 1;
+        n[2][i] = random.nextInt(3) - 1;
+        n[1][i] = (int) ((long) n[1][i] * d[1][i] / d[0][i]);
+        d[1][i] = d[0][i];
+      }
+    }
+    RationalPredicates.Points plane = new RationalPredicates.Points(n[0], d[0], n[1], d[1]);
+    RationalPredicates.Points space = new RationalPredicates.Points(n[0], d[0], n[1], d[1], n[2], d[2]);
+    int zeros = 0;
+
+    for (int t = 0; t < 3000; t++) {
+      int offset = t % 2 == 0 ? 0 : size / 2;
+      int a = offset + random.nextInt(size / 2);
+      int b = offset + random.nextInt(size / 2);
+      int c = offset + random.nextInt(size / 2);
+      int e = offset + random.nextInt(size / 2);
+      BigRational[] ae = difference(n, d, a, e);
+      BigRational[] be = difference(n, d, b, e);
+      BigRational[] ce = difference(n, d, c, e);
+      BigRational[] ba = difference(n, d, b, a);
+      BigRational[] ca = difference(n, d, c, a);
+
+      // Act
+      int orient2d = RationalPredicates.orient2d(plane, a, b, c);
+
+      // Assert
+      assertEquals(ba[0].times(ca[1]).minus(ba[1].times(ca[0])).signum(), orient2d);
+      assertEquals(
+        ae[0].times(be[1].times(ce[2]).minus(be[2].times(ce[1])))
+          .minus(ae[1].times(be[0].times(ce[2]).minus(be[2].times(ce[0]))))
+          .plus(ae[2].times(be[0].times(ce[1]).minus(be[1].times(ce[0]))))
+          .signum(),
+        RationalPredicates.orient3d(space, a, b, c, e)
+      );
+      assertEquals(
+        lift(ae).times(be[0].times(ce[1]).minus(ce[0].times(be[1])))
+          .plus(lift(be).times(ce[0].times(ae[1]).minus(ae[0].times(ce[1]))))
+          .plus(lift(ce).times(ae[0].times(be[1]).minus(be[0].times(ae[1]))))
+          .signum(),
+        RationalPredicates.incircle(plane, a, b, c, e)
+      );
+      if (orient2d == 0 && a != b && b != c && a != c) {
+        zeros++;
+      }
+    }
+    assertTrue(zeros > 10);
+    assertThrows(IllegalArgumentException.class, () -> RationalPredicates.orient3d(plane, 0, 1, 2, 3));
+  }
+
+  /**
+   * Tests segment intersection in crossing, touching, overlapping and disjoint collinear cases, and the
+   * batched predicates against the single ones.
+   */
+  @Test
+  void testSegmentsAndBatches() {
+    // Arrange
+    RationalPredicates.Points points = new RationalPredicates.Points(
+      new int[] { 0, 2, 0, 2, 1, 3, 5, 1 },
+      new int[] { 1, 1, 1, 1, 1, 1, 1, 2 },
+      new int[] { 0, 2, 2, 0, 1, 3, 5, 1 },
+      new int[] { 1, 1, 1, 1, 1, 1, 1, 2 }
+    );
+    Random random = new Random(4747);
+    int rows = 20000;
+    int[][] indices = new int[4][rows];
+    for (int[] column : indices) {
+      for (int i = 0; i < rows; i++) {
+        column[i] = random.nextInt(points.size());
+      }
+    }
+    int[] orientations = new int[rows];
+    int[] incircles = new int[rows];
+    boolean[] intersections = new boolean[rows];
+
+    // Act
+    RationalPredicates.orient2d(points, indices[0], indices[1], indices[2], orientations);
+    RationalPredicates.incircle(points, indices[0], indices[1], indices[2], indices[3], incircles);
+    RationalPredicates.segmentsIntersect(
+      points, indices[0], indices[1], indices[2], indices[3], intersections
+    );
+
+    // Assert
+    assertTrue(RationalPredicates.segmentsIntersect(points, 0, 1, 2, 3));
+    assertTrue(RationalPredicates.segmentsIntersect(points, 0, 4, 4, 3));
+    assertTrue(RationalPredicates.segmentsIntersect(points, 0, 4, 7, 1));
+    assertFalse(RationalPredicates.segmentsIntersect(points, 0, 7, 4, 1));
+    assertFalse(RationalPredicates.segmentsIntersect(points, 5, 6, 2, 3));
+    assertEquals(1, RationalPredicates.incircle(points, 0, 3, 1, 4));
+    assertEquals(0, RationalPredicates.incircle(points, 0, 3, 1, 2));
+    for (int i = 0; i < rows; i++) {
+      int a = indices[0][i];
+      int b = indices[1][i];
+      int c = indices[2][i];
+      int e = indices[3][i];
+      assertEquals(RationalPredicates.orient2d(points, a, b, c), orientations[i]);
+      assertEquals(RationalPredicates.incircle(points, a, b, c, e), incircles[i]);
+      assertEquals(RationalPredicates.segmentsIntersect(points, a, b, c, e), intersections[i]);
+    }
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalPredicates.orient2d(points, new int[1], new int[1], new int[2], new int[1])
+    );
+  }
+
+  /**
+   * Tests the batched orient3d against the single one, segments that touch at an endpoint, and that
+   * points are checked for dimension and column lengths.
+   */
+  @Test
+  void testThreeDimensionalBatchesAndValidation() {
+    // Arrange
+    int[] ones = { 1, 1, 1, 1, 1 };
+    RationalPredicates.Points space = new RationalPredicates.Points(
+      new int[] { 0, 1, 0, 0, 1 }, ones,
+      new int[] { 0, 0, 1, 0, 1 }, ones,
+      new int[] { 0, 0, 0, 1, -1 }, ones
+    );
+    RationalPredicates.Points plane = new RationalPredicates.Points(
+      new int[] { 0, 2, 1, 2 }, new int[] { 1, 1, 1, 1 },
+      new int[] { 0, 2, 1, 0 }, new int[] { 1, 1, 1, 1 }
+    );
+    int[][] indices = { { 0, 0, 4 }, { 1, 2, 1 }, { 2, 1, 2 }, { 3, 3, 0 } };
+    int[] orientations = new int[3];
+
+    // Act
+    RationalPredicates.orient3d(space, indices[0], indices[1], indices[2], indices[3], orientations);
+
+    // Assert
+    for (int i = 0; i < orientations.length; i++) {
+      assertEquals(
+        RationalPredicates.orient3d(space, indices[0][i], indices[1][i], indices[2][i], indices[3][i]),
+        orientations[i]
+      );
+    }
+    assertEquals(-orientations[0], orientations[1]);
+    assertEquals(3, space.getDimension());
+    assertEquals(2, plane.getDimension());
+    assertTrue(RationalPredicates.segmentsIntersect(plane, 0, 1, 2, 3));
+    assertTrue(RationalPredicates.segmentsIntersect(plane, 0, 1, 3, 2));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalPredicates.orient3d(plane, new int[1], new int[1], new int[1], new int[1], new int[1])
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new RationalPredicates.Points(new int[2], new int[] { 1, 1 }, new int[1], new int[] { 1 })
+    );
+  }
+
+  private static BigRational[] difference(int[][] n, int[][] d, int i, int j) {
+    BigRational[] difference = new BigRational[3];
+    for (int axis = 0; axis < 3; axis++) {
+      difference[axis] = BigRational.valueOf(n[axis][i], d[axis][i])
+        .minus(BigRational.valueOf(n[axis][j], d[axis][j]));
+    }
+    return difference;
+  }
+
+  private static BigRational lift(BigRational[] v) {
+    return v[0].times(v[0]).plus(v[1].times(v[1]));
+  }
+}
@@ -0,0 +1,140 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class RationalRangeTest {
+
+  /**
+   * Tests indexed access and streams against repeated addition.
+   */
+  @Test
+  void testElements() {
+    // Arrange
+    RationalRange range = RationalRange.of(new Rational(-7, 3), new Rational(5, 12), 50);
+    Rational expected = new Rational(-7, 3);
+
+    // Act
+    List<Rational> parallel = range.stream().parallel().collect(Collectors.toList());
+
+    // Assert
+    for (int k = 0; k < 50; k++) {
+      Rational actual = range.get(k);
+      assertEquals(0, expected.compareTo(actual));
+      assertTrue(actual.denominator > 0);
+      assertEquals(0, expected.compareTo(parallel.get(k)));
+      expected = expected.plus(new Rational(5, 12));
+    }
+    assertEquals("[-7/3, -23/12, ..., 217/12]", range.toString());
+    assertEquals(0, new Rational(5, 12).compareTo(range.getStep()));
+    assertEquals(50, range.spliterator().getExactSizeIfKnown());
+    assertTrue(range.spliterator().hasCharacteristics(Spliterator.SORTED | Spliterator.SUBSIZED));
+    assertEquals(3, RationalRange.of(new Rational(1), new Rational(0), 3).stream().count());
+    assertThrows(IndexOutOfBoundsException.class, () -> range.get(50));
+    assertThrows(IllegalArgumentException.class, () -> RationalRange.of(new Rational(1), new Rational(1), -1));
+  }
+
+  /**
+   * Tests bulk writes, with tabulated and computed gcds and in parallel, against indexed access.
+   */
+  @Test
+  void testToColumns() {
+    // Arrange
+    RationalRange[] ranges = {
+      RationalRange.of(new Rational(1, 6), new Rational(-1, 4), 30000),
+      RationalRange.of(new Rational(1, 4099), new Rational(1, 4111), 30000),
+      RationalRange.of(new Rational(0), new Rational(0), 5),
+      RationalRange.of(new Rational(2, 3), new Rational(1, 3), 1),
+    };
+
+    for (RationalRange range : ranges) {
+      int[] numerators = new int[range.size()];
+      int[] denominators = new int[range.size()];
+
+      // Act
+      range.toColumns(numerators, denominators);
+
+      // Assert
+      for (int k = 0; k < range.size(); k++) {
+        Rational expected = range.get(k);
+        assertEquals(expected.numerator, numerators[k]);
+        assertEquals(expected.denominator, denominators[k]);
+      }
+    }
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> ranges[0].toColumns(new int[1], new int[1])
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> ranges[0].toColumns(new int[30000], new int[1])
+    );
+  }
+
+  /**
+   * Tests that values whose numerator over the common denominator overflows a long are rejected,
+   * both by indexed access and by bulk writes with computed and with tabulated gcds.
+   */
+  @Test
+  void testOverflow() {
+    // Arrange
+    int p = Integer.MAX_VALUE;
+    // Both steps are scaled to p^2, just under 2^62, so first + 3 step overflows.
+    RationalRange computed = RationalRange.of(new Rational(1, p), new Rational(p, p - 2), 4);
+    RationalRange tabulated = RationalRange.of(new Rational(1, p), new Rational(p, 4095), 5000);
+
+    // Act and Assert
+    assertEquals(new Rational(1, p), computed.get(0));
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> computed.get(3));
+    assertEquals("Integer overflow.", e.getMessage());
+    assertThrows(IllegalArgumentException.class, () -> computed.toColumns(new int[4], new int[4]));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> tabulated.toColumns(new int[5000], new int[5000])
+    );
+  }
+
+  /**
+   * Tests the string forms of short ranges and the spliterator's element-wise walk, splitting and
+   * characteristics for positive, zero and negative steps.
+   */
+  @Test
+  void testShortRangesAndSpliterators() {
+    // Arrange
+    RationalRange rising = RationalRange.of(new Rational(1, 2), new Rational(1, 2), 2);
+    RationalRange constant = RationalRange.of(new Rational(3), new Rational(0), 1);
+    RationalRange falling = RationalRange.of(new Rational(1), new Rational(-1, 3), 0);
+    Spliterator<Rational> walk = rising.spliterator();
+    List<Rational> seen = new ArrayList<>();
+
+    // Act
+    Spliterator<Rational> prefix = walk.trySplit();
+    prefix.tryAdvance(seen::add);
+    boolean advanced = prefix.tryAdvance(seen::add);
+
+    // Assert
+    assertEquals("[1/2, 1]", rising.toString());
+    assertEquals("[3]", constant.toString());
+    assertEquals("[]", falling.toString());
+    assertEquals(0, new Rational(3).compareTo(constant.getStart()));
+    assertEquals(1, seen.size());
+    assertFalse(advanced);
+    assertNull(walk.trySplit());
+    assertNull(walk.getComparator());
+    assertFalse(constant.spliterator().hasCharacteristics(Spliterator.DISTINCT));
+    assertTrue(falling.spliterator().hasCharacteristics(Spliterator.DISTINCT));
+    assertFalse(falling.spliterator().hasCharacteristics(Spliterator.SORTED));
+    assertThrows(IllegalStateException.class, () -> constant.spliterator().getComparator());
+    assertThrows(IllegalStateException.class, () -> falling.spliterator().getComparator());
+    assertThrows(IndexOutOfBoundsException.class, () -> rising.get(-1));
+  }
+}
@@ -0,0 +1,183 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class RationalSequencesTest {
+
+  /**
+   * Tests the Farey sequences against brute force, and that parallel streams split them evenly and
+   * still produce every term in order.
+   */
+  @Test
+  void testFarey() {
+    // Arrange
+    List<String> expected = new ArrayList<>();
+    List<long[]> fractions = new ArrayList<>();
+    for (long b = 1; b <= 7; b++) {
+      for (long a = 0; a <= b; a++) {
+        if (Fractions.gcd(a, b) == 1) {
+          fractions.add(new long[] { a, b });
+        }
+      }
+    }
+    fractions.sort((x, y) -> Long.compare(x[0] * y[1], y[0] * x[1]));
+    for (long[] f : fractions) {
+      expected.add(f[0] + "/" + f[1]);
+    }
+
+    // Act
+    List<String> farey = format(RationalSequences.farey(7));
+    List<Rational> sequential = RationalSequences.farey(300).collect(Collectors.toList());
+    List<Rational> parallel = RationalSequences.farey(300).parallel().collect(Collectors.toList());
+    Spliterator<Rational> suffix = RationalSequences.farey(300).spliterator();
+    Spliterator<Rational> prefix = suffix.trySplit();
+    long[] counts = new long[2];
+    prefix.forEachRemaining(r -> counts[0]++);
+    suffix.forEachRemaining(r -> counts[1]++);
+
+    // Assert
+    assertEquals(expected, farey);
+    assertEquals(19, farey.size());
+    assertEquals(27399, sequential.size());
+    assertEquals(format(sequential.stream()), format(parallel.stream()));
+    assertEquals(sequential.size(), counts[0] + counts[1]);
+    assertTrue(Math.abs(counts[0] - counts[1]) < sequential.size() / 100);
+    assertEquals(Arrays.asList("0/1", "1/1"), format(RationalSequences.farey(1)));
+    assertThrows(IllegalArgumentException.class, () -> RationalSequences.farey(0));
+  }
+
+  /**
+   * Tests the breadth-first orders of the Calkin-Wilf and Stern-Brocot trees, sequentially and in
+   * parallel.
+   */
+  @Test
+  void testTrees() {
+    // Act
+    List<String> calkinWilf = format(RationalSequences.calkinWilf(10));
+    List<String> sternBrocot = format(RationalSequences.sternBrocot(10));
+    List<Rational> sequential = RationalSequences.calkinWilf(5000).collect(Collectors.toList());
+    List<Rational> parallel = RationalSequences.calkinWilf(5000).parallel().collect(Collectors.toList());
+
+    // Assert
+    assertEquals(
+      Arrays.asList("1/1", "1/2", "2/1", "1/3", "3/2", "2/3", "3/1", "1/4", "4/3", "3/5"),
+      calkinWilf
+    );
+    assertEquals(
+      Arrays.asList("1/1", "1/2", "2/1", "1/3", "2/3", "3/2", "3/1", "1/4", "2/5", "3/5"),
+      sternBrocot
+    );
+    assertEquals(format(sequential.stream()), format(parallel.stream()));
+    assertEquals(
+      format(RationalSequences.sternBrocot(5000)),
+      format(RationalSequences.sternBrocot(5000).parallel())
+    );
+    assertEquals(5000, sequential.stream().map(Rational::toString).distinct().count());
+    assertEquals(0, RationalSequences.sternBrocot(0).count());
+  }
+
+  /**
+   * Tests the simplest rational between two bounds against a search over increasing denominators.
+   */
+  @Test
+  void testSimplestBetween() {
+    // Arrange
+    Random random = new Random(44);
+
+    for (int i = 0; i < 300; i++) {
+      int b = 1 + random.nextInt(200);
+      int d = 1 + random.nextInt(200);
+      Rational x = new Rational(random.nextInt(801) - 400, b);
+      Rational y = new Rational(random.nextInt(801) - 400, d);
+      Rational low = x.compareTo(y) <= 0 ? x : y;
+      Rational high = x.compareTo(y) <= 0 ? y : x;
+
+      // Act
+      Rational simplest = RationalSequences.simplestBetween(low, high);
+
+      // Assert
+      assertEquals(bruteForce(low, high), simplest.numerator + "/" + simplest.denominator);
+    }
+    assertEquals("0/1", format(Stream.of(RationalSequences.simplestBetween(new Rational(-1, 2), new Rational(1, 3)))).get(0));
+    assertEquals("-3/1", format(Stream.of(RationalSequences.simplestBetween(new Rational(-7, 2), new Rational(-5, 2)))).get(0));
+    assertEquals(
+      "355/113",
+      format(Stream.of(RationalSequences.simplestBetween(new Rational(3141592, 1000000), new Rational(3141593, 1000000)))).get(0)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalSequences.simplestBetween(new Rational(1), new Rational(0))
+    );
+  }
+
+  /**
+   * Tests that splitting every part of a Farey sequence until no part splits keeps every term in
+   * order, that exhausted and single-term spliterators no longer split, and that orders and counts out
+   * of range are rejected.
+   */
+  @Test
+  void testSplittingToTheEnd() {
+    // Arrange
+    List<Spliterator<Rational>> parts = new ArrayList<>();
+    parts.add(RationalSequences.farey(12).spliterator());
+    List<String> terms = new ArrayList<>();
+    Spliterator<Rational> exhausted = RationalSequences.farey(2).spliterator();
+
+    // Act
+    for (int i = 0; i < parts.size(); i++) {
+      Spliterator<Rational> prefix;
+      while ((prefix = parts.get(i).trySplit()) != null) {
+        parts.add(i, prefix);
+      }
+    }
+    for (Spliterator<Rational> part : parts) {
+      part.forEachRemaining(r -> terms.add(r.numerator + "/" + r.denominator));
+    }
+    exhausted.forEachRemaining(r -> { });
+
+    // Assert
+    assertEquals(format(RationalSequences.farey(12)), terms);
+    assertTrue(parts.size() > 10);
+    assertNull(exhausted.trySplit());
+    assertEquals(0, exhausted.estimateSize());
+    assertNull(RationalSequences.calkinWilf(1).spliterator().trySplit());
+    assertThrows(IllegalArgumentException.class, () -> RationalSequences.farey((1 << 30) + 1));
+    assertThrows(IllegalArgumentException.class, () -> RationalSequences.calkinWilf(-1));
+    assertThrows(IllegalArgumentException.class, () -> RationalSequences.sternBrocot(Long.MAX_VALUE));
+  }
+
+  private static List<String> format(Stream<Rational> stream) {
+    return stream.map(r -> r.numerator + "/" + r.denominator).collect(Collectors.toList());
+  }
+
+  /**
+   * Finds the fraction with the smallest denominator, then the smallest absolute numerator, in
+   * [low, high].
+   */
+  private static String bruteForce(Rational low, Rational high) {
+    long a = low.denominator < 0 ? -(long) low.numerator : low.numerator;
+    long b = Math.abs((long) low.denominator);
+    long c = high.denominator < 0 ? -(long) high.numerator : high.numerator;
+    long d = Math.abs((long) high.denominator);
+    for (long q = 1; ; q++) {
+      long first = -Math.floorDiv(-a * q, b);
+      long last = Math.floorDiv(c * q, d);
+      if (first <= last) {
+        long p = first > 0 ? first : last < 0 ? last : 0;
+        return p + "/" + q;
+      }
+    }
+  }
+}
@@ -0,0 +1,268 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+public class RationalServerTest {
+
+  /**
+   * Tests single arithmetic and aggregation requests, including their error responses.
+   */
+  @Test
+  void testSingleRequests() throws IOException {
+    // Arrange
+    try (RationalServer server = RationalServer.start(0); Client client = new Client(server)) {
+      // Act & Assert
+      assertEquals("OK 5/6", client.send("ADD 1/2 1/3"));
+      assertEquals("OK 1/6", client.send("SUB 1/2 1/3"));
+      assertEquals("OK -1/3", client.send("MUL 2/-3 1/2"));
+      assertEquals("OK 3", client.send("DIV 3/2 1/2"));
+      assertEquals("OK 4611686018427387904", client.send("MUL 2147483648 2147483648"));
+      assertEquals("OK 18446744073709551614", client.send("SUM 9223372036854775807 9223372036854775807"));
+      assertEquals("OK 1/2", client.send("MEAN 1/4 3/4 1/2"));
+      assertEquals("OK -3/2", client.send("MIN 1/4 -3/2 7"));
+      assertEquals("OK 7", client.send("MAX 1/4 -3/2 7"));
+      assertEquals("ERR Cannot divide by Rational number 0.", client.send("DIV 1/2 0"));
+      assertEquals("ERR Integer overflow.", client.send("MUL 9223372036854775807 2"));
+      assertEquals("ERR Denominator cannot be zero.", client.send("ADD 1/0 1"));
+      assertEquals("ERR Malformed value x.", client.send("ADD x 1"));
+      assertEquals("ERR Unknown command POW.", client.send("POW 1/2 2"));
+      assertEquals("OK 1", client.send("ADD 1/2 1/2"));
+    }
+  }
+
+  /**
+   * Tests products and quotients with an operand that is not in lowest terms, here 2147483629/2147483647
+   * with both terms multiplied by 2^31, where only the unreduced product overflows a long.
+   */
+  @Test
+  void testUnreducedOperands() throws IOException {
+    // Arrange
+    String operand = "4611685977625198592/4611686016279904256";
+    try (RationalServer server = RationalServer.start(0); Client client = new Client(server)) {
+      // Act & Assert
+      assertEquals("OK 10737418145/15032385529", client.send("MUL 5/7 " + operand));
+      assertEquals("OK 10737418235/15032385403", client.send("DIV 5/7 " + operand));
+    }
+  }
+
+  /**
+   * Tests that a batch is answered in order and that its binary operations share evaluator passes.
+   */
+  @Test
+  void testBatch() throws IOException {
+    // Arrange
+    int n = 200;
+    StringBuilder request = new StringBuilder("BATCH ").append(n + 1).append('\n');
+    for (int i = 1; i <= n; i++) {
+      request.append("ADD 1/").append(i).append(" 1/").append(i + 1).append('\n');
+    }
+    request.append("SUM 1 2 3");
+
+    try (RationalServer server = RationalServer.start(0); Client client = new Client(server)) {
+      // Act
+      client.out.println(request);
+      String[] responses = new String[n + 1];
+      for (int i = 0; i <= n; i++) {
+        responses[i] = client.in.readLine();
+      }
+
+      // Assert
+      for (int i = 1; i <= n; i++) {
+        assertEquals("OK " + (2 * i + 1) + "/" + ((long) i * (i + 1)), responses[i - 1]);
+      }
+      assertEquals("OK 6", responses[n]);
+      assertEquals(n, server.getBatchedOperations());
+      assertTrue(server.getBatches() <= n);
+    }
+  }
+
+  /**
+   * Tests malformed requests and batches, and that a batch cut short by the client is dropped.
+   */
+  @Test
+  void testMalformedRequests() throws IOException {
+    // Arrange
+    try (RationalServer server = RationalServer.start(0); Client client = new Client(server)) {
+      // Act & Assert
+      assertEquals("ERR Empty request.", client.send("   "));
+      assertEquals("ERR ADD takes two values.", client.send("ADD 1"));
+      assertEquals("ERR SUM needs at least one value.", client.send("SUM"));
+      assertEquals("ERR Malformed value 1/x.", client.send("MUL 1/x 2"));
+      assertEquals("ERR Integer overflow.", client.send("ADD 1/-9223372036854775808 1"));
+      assertEquals("ERR Integer overflow.", client.send("SUB -9223372036854775808/-1 1"));
+      assertEquals("OK 1/2", client.send("SUB 3/-2 -2"));
+      assertEquals("ERR Malformed batch size.", client.send("BATCH many"));
+      assertEquals("ERR Malformed batch size.", client.send("BATCH -1"));
+      assertEquals("OK 1", client.send("BATCH 1\nMAX 1 -1"));
+      client.out.print("BATCH 2\nADD 1 1\n");
+      client.out.flush();
+      client.socket.shutdownOutput();
+      assertNull(client.in.readLine());
+    }
+  }
+
+  /**
+   * Tests that closing the server closes the connections that are still open.
+   */
+  @Test
+  void testCloseClosesConnections() throws IOException, InterruptedException {
+    // Arrange
+    RationalServer server = RationalServer.start(0);
+    try (Client first = new Client(server); Client second = new Client(server)) {
+      assertEquals("OK 2", first.send("ADD 1 1"));
+      assertEquals("OK 3", second.send("ADD 1 2"));
+      assertEquals(2, server.getOpenConnections());
+
+      // Act
+      server.close();
+
+      // Assert
+      assertNull(readOrNull(first));
+      assertNull(readOrNull(second));
+      for (int i = 0; i < 100 && server.getOpenConnections() > 0; i++) {
+        Thread.sleep(10);
+      }
+      assertEquals(0, server.getOpenConnections());
+    }
+  }
+
+  /**
+   * Tests that once the evaluator has stopped, binary operations fail instead of waiting forever while
+   * other requests are still answered.
+   */
+  @Test
+  void testOperationsFailOnceEvaluatorStops() throws IOException, InterruptedException {
+    // Arrange
+    try (RationalServer server = RationalServer.start(0); Client client = new Client(server)) {
+      assertEquals("OK 2", client.send("ADD 1 1"));
+      Thread evaluator = Thread
+        .getAllStackTraces()
+        .keySet()
+        .stream()
+        .filter(t -> t.getName().equals("RationalServer-evaluator-" + server.getPort()))
+        .findFirst()
+        .get();
+
+      // Act
+      evaluator.interrupt();
+      evaluator.join();
+
+      // Assert
+      assertEquals("ERR Server is shutting down.", client.send("MUL 1/2 2"));
+      assertEquals("OK 3", client.send("SUM 1 2"));
+    }
+  }
+
+  /**
+   * Reads a line, treating a connection reset by the server like the end of the stream.
+   */
+  private static String readOrNull(Client client) {
+    try {
+      return client.in.readLine();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Load generator: at increasing concurrency, each client sends small requests over its own
+   * connection and checks every answer; prints the p50 and p99 latencies and the mean batch size.
+   */
+  @Test
+  void testLatencyUnderLoad() throws Exception {
+    // Arrange
+    int requests = 200;
+    try (RationalServer server = RationalServer.start(0)) {
+      for (int clients : new int[] { 1, 4, 16 }) {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long batches = server.getBatches();
+        long operations = server.getBatchedOperations();
+
+        // Act
+        Future<?>[] futures = new Future<?>[clients];
+        long[][] latencies = new long[clients][];
+        for (int c = 0; c < clients; c++) {
+          int id = c;
+          futures[c] = pool.submit(() -> latencies[id] = load(server, id, requests));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+        pool.shutdown();
+
+        // Assert
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        assertEquals(clients * requests, all.length);
+        assertEquals(clients * requests, server.getBatchedOperations() - operations);
+        System.out.printf(
+          "RationalServer: %2d clients, p50 %6d us, p99 %6d us, %.2f operations per batch%n",
+          clients,
+          all[all.length / 2] / 1000,
+          all[all.length * 99 / 100] / 1000,
+          (double) (server.getBatchedOperations() - operations) / (server.getBatches() - batches)
+        );
+      }
+    }
+  }
+
+  /**
+   * Sends requests one at a time and returns their round-trip times in nanoseconds.
+   */
+  private static long[] load(RationalServer server, int id, int requests) {
+    long[] latencies = new long[requests];
+    try (Client client = new Client(server)) {
+      for (int i = 0; i < requests; i++) {
+        long start = System.nanoTime();
+        String response = client.send("MUL " + (id + 1) + "/" + (i + 2) + " " + (i + 2));
+        latencies[i] = System.nanoTime() - start;
+        assertEquals("OK " + (id + 1), response);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return latencies;
+  }
+
+  /**
+   * A blocking client speaking the server's line protocol.
+   */
+  private static final class Client implements AutoCloseable {
+
+    final Socket socket;
+    final PrintWriter out;
+    final BufferedReader in;
+
+    Client(RationalServer server) throws IOException {
+      socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+      socket.setTcpNoDelay(true);
+      out = new PrintWriter(socket.getOutputStream(), true);
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    String send(String request) throws IOException {
+      out.println(request);
+      return in.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RationalSortTest {
+
+  /**
+   * Tests {@link RationalSort#sort(int[], int[])} on values whose double keys collide,
+   * verifying that ties are broken exactly by cross-multiplication.
+   */
+  @Test
+  void testSortBreaksKeyTiesExactly() {
+    // Arrange
+    int[] numerators = { 2147483646, 2147483645, 0, 0, -1 };
+    int[] denominators = { 2147483647, 2147483646, 5, -5, 2 };
+
+    // Act
+    RationalSort.sort(numerators, denominators);
+
+    // Assert
+    assertArrayEquals(new int[] { -1, 0, 0, 2147483645, 2147483646 }, numerators);
+    assertArrayEquals(new int[] { 2, 5, -5, 2147483646, 2147483647 }, denominators);
+  }
+
+  /**
+   * Tests {@link RationalSort#sortIndices(int[], int[])} to ensure it returns a stable
+   * permutation and leaves the input columns unchanged.
+   */
+  @Test
+  void testSortIndicesIsStable() {
+    // Arrange
+    int[] numerators = { 1, 1, 2, 0 };
+    int[] denominators = { 2, 3, 4, 1 };
+
+    // Act
+    int[] permutation = RationalSort.sortIndices(numerators, denominators);
+
+    // Assert
+    assertArrayEquals(new int[] { 3, 1, 0, 2 }, permutation);
+    assertArrayEquals(new int[] { 1, 1, 2, 0 }, numerators);
+  }
+
+  /**
+   * Tests the {@link RationalSort#permute(int[], int[])} family to verify that companion
+   * columns are reordered by the permutation, and that mismatched lengths are rejected.
+   */
+  @Test
+  void testPermuteCompanionColumns() {
+    // Arrange
+    int[] permutation = { 2, 0, 1 };
+
+    // Act and Assert
+    assertArrayEquals(
+      new int[] { 30, 10, 20 },
+      RationalSort.permute(new int[] { 10, 20, 30 }, permutation)
+    );
+    assertArrayEquals(
+      new long[] { 3L, 1L, 2L },
+      RationalSort.permute(new long[] { 1L, 2L, 3L }, permutation)
+    );
+    assertArrayEquals(
+      new double[] { 0.3, 0.1, 0.2 },
+      RationalSort.permute(new double[] { 0.1, 0.2, 0.3 }, permutation)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalSort.permute(new int[] { 1 }, permutation)
+    );
+  }
+
+  /**
+   * Tests that {@link RationalSort#sortIndices(int[], int[])} rejects a zero denominator.
+   */
+  @Test
+  void testSortRejectsZeroDenominator() {
+    // Arrange, Act and Assert
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> RationalSort.sortIndices(new int[] { 1, 2 }, new int[] { 1, 0 })
+    );
+  }
+
+  /**
+   * Tests {@link RationalSort#sort(int[], int[])} on a column large enough to be sorted in parallel,
+   * checking that the result is in exact ascending order and is a permutation of the input.
+   */
+  @Test
+  void testParallelSortIsOrderedAndComplete() {
+    // Arrange
+    Random random = new Random(27);
+    int n = RationalSort.MIN_PARALLEL_LENGTH * 8 + 3;
+    int[] numerators = new int[n];
+    int[] denominators = new int[n];
+    long expectedNumeratorSum = 0;
+    for (int i = 0; i < n; i++) {
+      numerators[i] = random.nextInt(201) - 100;
+      denominators[i] = random.nextBoolean()
+        ? random.nextInt(50) + 1
+        : Integer.MAX_VALUE - random.nextInt(3);
+      expectedNumeratorSum += numerators[i];
+    }
+
+    // Act
+    RationalSort.sort(numerators, denominators);
+
+    // Assert
+    long numeratorSum = numerators[0];
+    for (int i = 1; i < n; i++) {
+      assertTrue(
+        Fractions.compare(
+          numerators[i - 1],
+          denominators[i - 1],
+          numerators[i],
+          denominators[i]
+        ) <=
+        0
+      );
+      numeratorSum += numerators[i];
+    }
+    assertEquals(expectedNumeratorSum, numeratorSum);
+  }
+
+  /**
+   * Tests that splitting a large column into parallel tasks gives the same permutation as sorting it
+   * on one thread, for random values and for a column whose values are all equal.
+   */
+  @Test
+  void testParallelTasksMatchSequentialSort() {
+    // Arrange
+    Random random = new Random(127);
+    int n = RationalSort.MIN_PARALLEL_LENGTH * 4 + 5;
+    int[] numerators = new int[n];
+    int[] denominators = new int[n];
+    int[] equalNumerators = new int[n];
+    int[] equalDenominators = new int[n];
+    for (int i = 0; i < n; i++) {
+      numerators[i] = random.nextInt(41) - 20;
+      denominators[i] = random.nextInt(12) + 1;
+      int scale = random.nextInt(5) + 1;
+      equalNumerators[i] = -scale;
+      equalDenominators[i] = 3 * scale;
+    }
+
+    // Act
+    int[] parallel = RationalSort.sortIndices(numerators, denominators, 4);
+    int[] sequential = RationalSort.sortIndices(numerators, denominators, 1);
+    int[] equalParallel = RationalSort.sortIndices(equalNumerators, equalDenominators, 4);
+
+    // Assert
+    assertArrayEquals(sequential, parallel);
+    for (int k = 0; k < n; k++) {
+      assertEquals(k, equalParallel[k]);
+    }
+  }
+}
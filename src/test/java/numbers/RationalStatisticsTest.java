@@ -0,0 +1,152 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RationalStatisticsTest {
+
+  /**
+   * Tests the statistics of a small data set against values worked out by hand.
+   */
+  @Test
+  void testSmallDataSet() {
+    // Arrange
+    RationalStatistics statistics = new RationalStatistics();
+
+    // Act
+    statistics.accept(new Rational(1, 2), new Rational(3));
+    statistics.accept(new Rational(-1, 3), new Rational(1));
+    statistics.accept(new Rational(5, -6), new Rational(2));
+
+    // Assert
+    assertEquals(3, statistics.getCount());
+    assertEquals(BigRational.valueOf(-2, 3), statistics.getSum());
+    assertEquals(BigRational.valueOf(-2, 9), statistics.getMean());
+    // Squares sum to 1/4 + 1/9 + 25/36 = 19/18; less (4/9) / 3 leaves 49/54.
+    assertEquals(BigRational.valueOf(49, 162), statistics.getVariance());
+    assertEquals(BigRational.valueOf(49, 108), statistics.getSampleVariance());
+    assertEquals(BigRational.valueOf(-1, 12), statistics.getWeightedMean());
+    assertEquals(BigRational.valueOf(-5, 6), statistics.getMin());
+    assertEquals(BigRational.valueOf(1, 2), statistics.getMax());
+  }
+
+  /**
+   * Tests that empty statistics report no mean, variance or extremes, and that invalid input is
+   * rejected.
+   */
+  @Test
+  void testEmptyAndInvalid() {
+    // Arrange
+    RationalStatistics statistics = new RationalStatistics();
+
+    // Act & Assert
+    assertEquals(BigRational.ZERO, statistics.getSum());
+    assertNull(statistics.getMean());
+    assertNull(statistics.getVariance());
+    assertNull(statistics.getWeightedMean());
+    assertNull(statistics.getMin());
+    assertNull(statistics.getMax());
+    assertEquals(
+      "RationalStatistics{count=0, sum=0, mean=null, variance=null, min=null, max=null}",
+      statistics.toString()
+    );
+    statistics.accept(7, 1);
+    assertNull(statistics.getSampleVariance());
+    assertEquals(BigRational.ZERO, statistics.getVariance());
+    assertThrows(IllegalArgumentException.class, () -> statistics.accept(1, 0));
+    assertThrows(IllegalArgumentException.class, () -> statistics.accept(1, 2, -1, 1));
+    assertThrows(IllegalArgumentException.class, () -> statistics.accept(Long.MIN_VALUE, -1));
+    assertThrows(IllegalArgumentException.class, () -> statistics.accept(1, Long.MIN_VALUE));
+    assertEquals(1, statistics.getCount());
+  }
+
+  /**
+   * Tests that partitions merged in parallel agree with a naive BigRational computation, including
+   * values whose squares overflow a long.
+   */
+  @Test
+  void testParallelMergeMatchesNaive() {
+    // Arrange
+    Random random = new Random(37);
+    List<Rational> values = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      int b = random.nextInt(12) + 1;
+      int a = i % 1000 == 0 ? Integer.MAX_VALUE : random.nextInt(2001) - 1000;
+      values.add(new Rational(a, b));
+    }
+    BigRational sum = BigRational.ZERO;
+    BigRational squares = BigRational.ZERO;
+    BigRational min = null;
+    BigRational max = null;
+    for (Rational r : values) {
+      BigRational x = BigRational.valueOf(r);
+      min = min == null || x.compareTo(min) < 0 ? x : min;
+      max = max == null || x.compareTo(max) > 0 ? x : max;
+      sum = sum.plus(x);
+      squares = squares.plus(x.times(x));
+    }
+    BigRational n = BigRational.valueOf(values.size(), 1);
+    BigRational mean = sum.dividedBy(n);
+
+    // Act
+    RationalStatistics statistics = values
+      .parallelStream()
+      .collect(RationalStatistics::new, RationalStatistics::accept, RationalStatistics::combine);
+
+    // Assert
+    assertEquals(values.size(), statistics.getCount());
+    assertEquals(sum, statistics.getSum());
+    assertEquals(mean, statistics.getMean());
+    assertEquals(mean, statistics.getWeightedMean());
+    assertEquals(squares.dividedBy(n).minus(mean.times(mean)), statistics.getVariance());
+    assertEquals(min, statistics.getMin());
+    assertEquals(max, statistics.getMax());
+  }
+
+  /**
+   * Tests combining with empty statistics on either side and with statistics whose extremes lie
+   * outside this one's, on values with negative weight denominators and squares that overflow a long.
+   */
+  @Test
+  void testCombine() {
+    // Arrange
+    RationalStatistics empty = new RationalStatistics();
+    RationalStatistics inner = new RationalStatistics();
+    RationalStatistics outer = new RationalStatistics();
+    inner.accept(1, 2, -1, -2);
+    outer.accept(-(1L << 40), 1, 3, 2);
+    outer.accept(1L << 40, 1, 1, 2);
+
+    // Act
+    inner.combine(empty);
+    empty.combine(outer);
+    inner.combine(outer);
+
+    // Assert
+    assertEquals(2, empty.getCount());
+    assertEquals(
+      BigRational.of(BigInteger.ONE.shiftLeft(80), BigInteger.ONE),
+      empty.getVariance()
+    );
+    assertEquals(3, inner.getCount());
+    assertEquals(BigRational.valueOf(-(1L << 40), 1), inner.getMin());
+    assertEquals(BigRational.valueOf(1L << 40, 1), inner.getMax());
+    assertEquals(BigRational.valueOf(1, 6), inner.getMean());
+    assertEquals(
+      BigRational.valueOf(1 - (1L << 42), 10),
+      inner.getWeightedMean()
+    );
+    assertEquals(
+      "RationalStatistics{count=2, sum=0, mean=0, variance=1208925819614629174706176, " +
+      "min=-1099511627776, max=1099511627776}",
+      empty.toString()
+    );
+  }
+}
@@ -5,6 +5,12 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 public class RationalTest {
@@ -26,6 +32,34 @@ public class RationalTest {
     assertEquals(-1, Rational.gcd(-1, 3));
   }
 
+  /**
+   * Tests that {@link Rational#gcd(int, int)} returns exactly what the recursive Euclidean definition
+   * returns, including its signs, for random and extreme arguments.
+   */
+  @Test
+  void testGcdMatchesRecursiveDefinition() {
+    // Arrange
+    Random random = new Random(33);
+    int[] extremes = { 0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 46368 };
+
+    // Act and Assert
+    for (int a : extremes) {
+      for (int b : extremes) {
+        assertEquals(recursiveGcd(a, b), Rational.gcd(a, b));
+      }
+    }
+    for (int i = 0; i < 10000; i++) {
+      int a = random.nextInt();
+      int b = random.nextInt(2001) - 1000;
+      assertEquals(recursiveGcd(a, b), Rational.gcd(a, b));
+      assertEquals(recursiveGcd(b, a), Rational.gcd(b, a));
+    }
+  }
+
+  private static int recursiveGcd(int a, int b) {
+    return b == 0 ? a : recursiveGcd(b, a % b);
+  }
+
   /**
    * Tests the {@link Rational#intValue()} method to ensure it
    * correctly returns the integer value of a Rational number.
@@ -1012,4 +1046,368 @@ public class RationalTest {
     assertEquals(1, actualRational.getDenominator());
     assertEquals(1, actualRational.getNumerator());
   }
+
+  /**
+   * Tests {@link Rational#fromDouble(double)} on values that are exactly representable
+   * as int fractions, expecting the exact value back.
+   */
+  @Test
+  void testFromDoubleExact() {
+    // Arrange, Act and Assert
+    assertEquals(new Rational(1, 2), Rational.fromDouble(0.5));
+    assertEquals(new Rational(-13, 4), Rational.fromDouble(-3.25));
+    assertEquals(new Rational(0), Rational.fromDouble(-0.0));
+    assertEquals(
+      new Rational(Integer.MIN_VALUE),
+      Rational.fromDouble(Integer.MIN_VALUE)
+    );
+    assertEquals(
+      new Rational(1, 1 << 30),
+      Rational.fromDouble(Math.pow(2, -30))
+    );
+  }
+
+  /**
+   * Tests {@link Rational#fromDouble(double)} on doubles that are not exact fractions,
+   * expecting the simple fraction they were computed from.
+   */
+  @Test
+  void testFromDoubleRecoversSimpleFractions() {
+    // Arrange, Act and Assert
+    assertEquals(new Rational(1, 10), Rational.fromDouble(0.1));
+    assertEquals(new Rational(2, 3), Rational.fromDouble(2.0 / 3));
+    assertEquals(new Rational(1, 10000), Rational.fromDouble(1e-4));
+    assertEquals(new Rational(6172839, 5000), Rational.fromDouble(1234.5678));
+  }
+
+  /**
+   * Tests {@link Rational#fromDouble(double)} on values too small for any int denominator,
+   * where the best approximation is either 0 or 1/Integer.MAX_VALUE.
+   */
+  @Test
+  void testFromDoubleTinyValues() {
+    // Arrange, Act and Assert
+    assertEquals(new Rational(0), Rational.fromDouble(1e-20));
+    assertEquals(new Rational(0), Rational.fromDouble(Double.MIN_VALUE));
+    assertEquals(
+      new Rational(1, Integer.MAX_VALUE),
+      Rational.fromDouble(3e-10)
+    );
+  }
+
+  /**
+   * Tests that {@link Rational#fromDouble(double)} rejects NaN, infinities and values
+   * outside the int range.
+   */
+  @Test
+  void testFromDoubleRejectsUnrepresentableValues() {
+    // Arrange, Act and Assert
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> Rational.fromDouble(Double.NaN)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> Rational.fromDouble(Double.NEGATIVE_INFINITY)
+    );
+    assertThrows(IllegalArgumentException.class, () -> Rational.fromDouble(3e9));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> Rational.fromDouble(-2147483649.0)
+    );
+    assertThrows(IllegalArgumentException.class, () -> Rational.fromDouble(0x1p40));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> Rational.fromDouble(2147483648.5)
+    );
+  }
+
+  /**
+   * Tests {@link Rational#approximate(double, int)} next to the ends of the int range, where no
+   * second partial quotient fits, and on tiny values whose exact denominator exceeds a long.
+   */
+  @Test
+  void testApproximateNearBounds() {
+    // Arrange, Act and Assert
+    assertEquals(new Rational(Integer.MIN_VALUE), Rational.fromDouble(-2147483648.5));
+    assertEquals(new Rational(Integer.MAX_VALUE), Rational.fromDouble(2147483647.5));
+    assertEquals(new Rational(0), Rational.approximate(0x3p-63, 1));
+    assertEquals(
+      new Rational(1, 1023),
+      Rational.approximate(0x1.fffffffffffffp-11, 1023)
+    );
+    assertEquals(
+      new Rational(25732, 1396333219),
+      Rational.approximate(1.8428266011195636E-5, 1396333219)
+    );
+  }
+
+  /**
+   * Tests {@link Rational#approximate(double, int)} against known best approximations
+   * with bounded denominators.
+   */
+  @Test
+  void testApproximate() {
+    // Arrange, Act and Assert
+    assertEquals(new Rational(355, 113), Rational.approximate(Math.PI, 1000));
+    assertEquals(new Rational(311, 99), Rational.approximate(Math.PI, 100));
+    assertEquals(new Rational(3), Rational.approximate(Math.PI, 1));
+    assertEquals(new Rational(-2, 3), Rational.approximate(-2.0 / 3, 1000));
+    assertEquals(new Rational(1, 3), Rational.approximate(0.3333, 7));
+    assertEquals(new Rational(0), Rational.approximate(1e-9, 1000000));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> Rational.approximate(0.5, 0)
+    );
+  }
+
+  /**
+   * Tests {@link Rational#fromDoubles(double[], int, int[], int[])} on a column large enough
+   * to be converted in parallel, comparing each element with {@link Rational#approximate(double, int)}.
+   */
+  @Test
+  void testFromDoubles() {
+    // Arrange
+    Random random = new Random(28);
+    int n = Fractions.PARALLEL_THRESHOLD + 1;
+    double[] values = new double[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = (random.nextDouble() - 0.5) * 1000;
+    }
+    int[] numerators = new int[n];
+    int[] denominators = new int[n];
+
+    // Act
+    Rational.fromDoubles(values, 10000, numerators, denominators);
+
+    // Assert
+    for (int i = 0; i < n; i++) {
+      Rational expected = Rational.approximate(values[i], 10000);
+      assertTrue(denominators[i] > 0 && denominators[i] <= 10000);
+      assertEquals(expected, new Rational(numerators[i], denominators[i]));
+    }
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> Rational.fromDoubles(values, 10000, new int[1], denominators)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> Rational.fromDoubles(values, 10000, numerators, new int[1])
+    );
+  }
+
+  /**
+   * Tests the integer-operand overloads against the Rational-operand operations, including negative
+   * denominators and results that do not fit in an int.
+   */
+  @Test
+  void testIntegerOperands() {
+    // Arrange
+    Rational[] values = {
+      new Rational(3, 4),
+      new Rational(-5, 6),
+      new Rational(7, -9),
+      new Rational(0),
+      new Rational(12),
+    };
+    int[] ks = { -6, -1, 0, 1, 3, 4, 10 };
+
+    // Act & Assert
+    for (Rational r : values) {
+      for (int k : ks) {
+        Rational big = new Rational(k);
+        assertEquals(r.plus(big), r.plus(k));
+        assertEquals(r.plus(big), r.plus((long) k));
+        assertEquals(r.minus(big), r.minus(k));
+        assertEquals(r.minus(big), r.minus((long) k));
+        assertEquals(r.times(big), r.times(k));
+        assertEquals(Integer.signum(r.compareTo(big)), Integer.signum(r.compareTo((long) k)));
+        assertEquals(r.equals(big), r.equalsExactly(k));
+        if (k != 0) {
+          assertEquals(r.dividedBy(big), r.dividedBy(k));
+        }
+      }
+    }
+    assertEquals("5/3", new Rational(5, 6).times(2).toString());
+    assertEquals("1/6", new Rational(2, 3).dividedBy(4).toString());
+    assertEquals(0, new Rational(2).compareTo(2L));
+    assertEquals(-1, new Rational(-1, 2).compareTo(0L));
+    assertEquals(1, new Rational(1, 2).compareTo(0L));
+    assertTrue(new Rational(Integer.MAX_VALUE).compareTo(Long.MAX_VALUE) < 0);
+    assertThrows(IllegalArgumentException.class, () -> new Rational(Integer.MAX_VALUE).plus(1));
+    assertThrows(IllegalArgumentException.class, () -> new Rational(1, 2).plus(Long.MAX_VALUE));
+    assertThrows(IllegalArgumentException.class, () -> new Rational(1, 2).minus(Long.MIN_VALUE));
+    assertThrows(IllegalArgumentException.class, () -> new Rational(1 << 20).times(1 << 20));
+    assertThrows(IllegalArgumentException.class, () -> new Rational(1, 1 << 20).dividedBy(1 << 20));
+    assertThrows(IllegalArgumentException.class, () -> new Rational(1, 2).dividedBy(0));
+  }
+
+  /**
+   * Tests that dividing by a negative integer carries the sign on the numerator, and that a divisor
+   * of Integer.MIN_VALUE is rejected when the sign cannot be moved.
+   */
+  @Test
+  void testDividedByNegativeInteger() {
+    // Arrange
+    Rational half = new Rational(1, 2);
+    Rational minusOne = new Rational(-1);
+
+    // Act
+    Rational sixth = half.dividedBy(-3);
+    Rational one = minusOne.dividedBy(-1);
+    Rational quarter = new Rational(-1, 2).dividedBy(-2);
+    Rational smallest = new Rational(1).dividedBy(Integer.MIN_VALUE + 1);
+
+    // Assert
+    assertEquals("-1/6", sixth.toString());
+    assertTrue(sixth.getDenominator() > 0);
+    assertEquals("1", one.toString());
+    assertTrue(one.getDenominator() > 0);
+    assertEquals(new Rational(1, 4), quarter);
+    assertTrue(quarter.getDenominator() > 0);
+    assertEquals("-1/" + Integer.MAX_VALUE, smallest.toString());
+    assertTrue(smallest.getDenominator() > 0);
+    assertThrows(IllegalArgumentException.class, () -> new Rational(1).dividedBy(Integer.MIN_VALUE));
+    assertThrows(IllegalArgumentException.class, () -> new Rational(Integer.MIN_VALUE).dividedBy(-1));
+  }
+
+  /**
+   * Tests that comparisons with doubles are exact, in particular when the quotient rounds to the
+   * double itself, by checking them against BigDecimal arithmetic.
+   */
+  @Test
+  void testExactDoubleComparison() {
+    // Arrange
+    Random random = new Random(43);
+
+    // Act & Assert
+    for (int i = 0; i < 20000; i++) {
+      // Small numerators over large denominators need a shift of 64 bits or more in the exact comparison.
+      int a = i % 7 == 0
+        ? Integer.MIN_VALUE + random.nextInt(3)
+        : i % 5 == 0 ? random.nextInt(15) - 7 : random.nextInt();
+      int b = i % 11 == 0 ? Integer.MAX_VALUE : random.nextInt(1 << random.nextInt(31)) + 1;
+      b = i % 2 == 0 ? b : -b;
+      double q = (double) a / b;
+      double[] xs = { q, Math.nextUp(q), Math.nextDown(q), Math.rint(q), (double) (float) q };
+      Rational r = new Rational(a, b);
+      for (double x : xs) {
+        BigDecimal exact = new BigDecimal(r.numerator);
+        BigDecimal scaled = new BigDecimal(x).multiply(new BigDecimal(r.denominator));
+        int expected = exact.compareTo(scaled) * Integer.signum(r.denominator);
+        assertEquals(expected, Integer.signum(r.compareTo(x)), r + " vs " + x);
+        assertEquals(expected == 0, r.equalsExactly(x));
+      }
+    }
+    assertEquals(0, new Rational(1, 2).compareTo(0.5));
+    assertTrue(new Rational(1, 3).compareTo(1.0 / 3) > 0);
+    assertTrue(new Rational(1, 3).compareTo((Number) Double.valueOf(1.0 / 3)) > 0);
+    assertEquals(0, new Rational(4, 2).compareTo((Number) Long.valueOf(2)));
+    assertTrue(new Rational(5, 2).compareTo((Number) Short.valueOf((short) 3)) < 0);
+    assertTrue(new Rational(5, 2).compareTo((Number) Byte.valueOf((byte) 2)) > 0);
+    assertTrue(new Rational(-1, 3).compareTo(Double.NaN) < 0);
+    assertTrue(new Rational(Integer.MAX_VALUE).compareTo(Double.POSITIVE_INFINITY) < 0);
+    assertTrue(new Rational(0).equalsExactly(-0.0));
+    assertFalse(new Rational(1, 3).equalsExactly(1.0 / 3));
+    assertTrue(new Rational(1, 3).equals(1.0 / 3));
+    assertTrue(new Rational(2).equals(2L));
+    assertFalse(new Rational(1, 3).equalsExactly(Double.NaN));
+    assertFalse(new Rational(1, 2).equalsExactly(0L));
+    assertTrue(new Rational(1, 3).approximatelyEquals(0.3333, 1e-4));
+    assertFalse(new Rational(1, 3).approximatelyEquals(0.3333, 1e-5));
+    assertTrue(new Rational(1, 2).compareTo(BigRational.valueOf(2, 3)) < 0);
+    assertTrue(new Rational(2, 3).greaterThan(LazyRational.of(1, 2)));
+  }
+
+  /**
+   * Tests decimal expansions against long division that stops at the first repeated remainder, and the
+   * BigDecimal conversions and the column formatter against the single-value methods.
+   */
+  @Test
+  void testDecimalExpansion() {
+    // Arrange
+    Random random = new Random(48);
+    int rows = 3000;
+    int[] numerators = new int[rows];
+    int[] denominators = new int[rows];
+    String[] out = new String[rows];
+    for (int i = 0; i < rows; i++) {
+      numerators[i] = random.nextInt(2000001) - 1000000;
+      denominators[i] = i % 3 == 0 ? 1 << random.nextInt(12) : random.nextInt(20000) + 1;
+      denominators[i] = i % 2 == 0 ? denominators[i] : -denominators[i];
+    }
+
+    // Act
+    Rational.toDecimalStrings(numerators, denominators, 100, out);
+
+    // Assert
+    for (int i = 0; i < rows; i++) {
+      Rational r = new Rational(numerators[i], denominators[i]);
+      String expected = longDivision(numerators[i], denominators[i]);
+      assertEquals(expected, r.toDecimalString(Integer.MAX_VALUE));
+      String limited = r.toDecimalString(100);
+      String digits = expected.replace("(", "").replace(")", "");
+      int point = digits.indexOf('.');
+      if (point < 0 || digits.length() - point - 1 <= 100) {
+        assertEquals(expected, limited);
+      } else {
+        assertEquals(digits.substring(0, point + 101) + "...", limited);
+      }
+      assertEquals(limited, out[i]);
+    }
+    assertEquals("0.1(6)", new Rational(1, 6).toDecimalString());
+    assertEquals("3.(142857)", new Rational(22, 7).toDecimalString());
+    assertEquals("-0.25", new Rational(-1, 4).toDecimalString());
+    assertEquals("-7", new Rational(7, -1).toDecimalString());
+    assertEquals("0.00000000046566128752...", new Rational(1, Integer.MAX_VALUE).toDecimalString(20));
+    assertEquals(longDivision(1, 99991), new Rational(1, 99991).toDecimalString(Integer.MAX_VALUE));
+    String cut = new Rational(1, 99991).toDecimalString();
+    assertEquals(longDivision(1, 99991).replace("(", "").substring(0, Rational.DECIMAL_DIGITS + 2) + "...", cut);
+    assertEquals(
+      "-0.".length() + Rational.DECIMAL_DIGITS + "...".length(),
+      new Rational(-1, Integer.MAX_VALUE).toDecimalString().length()
+    );
+    assertEquals("0...", new Rational(1, 3).toDecimalString(0));
+    assertEquals(new BigDecimal("-0.3333"), new Rational(-1, 3).toBigDecimal(new MathContext(4)));
+    assertEquals(new BigDecimal("0.67"), new Rational(2, 3).toBigDecimal(2, RoundingMode.HALF_UP));
+    assertEquals(new BigDecimal("0.125"), new Rational(1, 8).toBigDecimal(3, RoundingMode.UNNECESSARY));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new Rational(1, 3).toBigDecimal(MathContext.UNLIMITED)
+    );
+    assertThrows(IllegalArgumentException.class, () -> new Rational(1, 3).toDecimalString(-1));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new Rational(1, 3).toBigDecimal(2, RoundingMode.UNNECESSARY)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> Rational.toDecimalStrings(numerators, denominators, 100, new String[1])
+    );
+  }
+
+  /**
+   * Expands a/b by long division, remembering where each remainder first appeared.
+   */
+  private static String longDivision(int a, int b) {
+    long n = b < 0 ? -(long) a : a;
+    long d = Math.abs((long) b);
+    StringBuilder result = new StringBuilder(n < 0 ? "-" : "").append(Math.abs(n) / d);
+    long r = Math.abs(n) % d;
+    if (r == 0) {
+      return result.toString();
+    }
+    result.append('.');
+    Map<Long, Integer> seen = new HashMap<>();
+    while (r != 0 && !seen.containsKey(r)) {
+      seen.put(r, result.length());
+      r *= 10;
+      result.append(r / d);
+      r %= d;
+    }
+    if (r != 0) {
+      result.insert((int) seen.get(r), '(').append(')');
+    }
+    return result.toString();
+  }
 }
@@ -0,0 +1,330 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ScaledRationalTest {
+
+  /**
+   * Tests {@link ScaledRational#of(Rational, int)} and {@link ScaledRational#toRational()}
+   * to ensure values convert to and from a scale exactly, including negative denominators.
+   */
+  @Test
+  void testConversionRoundTrip() {
+    // Arrange
+    Rational threeQuarters = new Rational(3, 4);
+
+    // Act
+    ScaledRational scaled = ScaledRational.of(threeQuarters, 256);
+    ScaledRational negative = ScaledRational.of(new Rational(1, -2), 256);
+
+    // Assert
+    assertEquals(192, scaled.getUnits());
+    assertEquals(256, scaled.getScale());
+    assertEquals(threeQuarters, scaled.toRational());
+    assertEquals(-128, negative.getUnits());
+    assertEquals(new Rational(-1, 2), negative.toRational());
+    assertEquals("192/256", scaled.toString());
+  }
+
+  /**
+   * Tests that exact conversion rejects values that are not a multiple of 1/scale,
+   * while conversion with a rounding mode rounds them.
+   */
+  @Test
+  void testConversionRounding() {
+    // Arrange
+    Rational third = new Rational(1, 3);
+
+    // Act and Assert
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> ScaledRational.of(third, 256)
+    );
+    assertEquals(
+      85,
+      ScaledRational.of(third, 256, RoundingMode.HALF_EVEN).getUnits()
+    );
+    assertEquals(
+      86,
+      ScaledRational.of(third, 256, RoundingMode.CEILING).getUnits()
+    );
+    assertEquals(
+      -86,
+      ScaledRational.of(third.opposite(), 256, RoundingMode.FLOOR).getUnits()
+    );
+    assertEquals(
+      -85,
+      ScaledRational.of(third.opposite(), 256, RoundingMode.DOWN).getUnits()
+    );
+    assertEquals(
+      -86,
+      ScaledRational.of(third.opposite(), 256, RoundingMode.UP).getUnits()
+    );
+  }
+
+  /**
+   * Tests the half-way rounding modes of {@link ScaledRational#times(ScaledRational, RoundingMode)}
+   * on a product that lies exactly between two units.
+   */
+  @Test
+  void testTimesRoundsHalfway() {
+    // Arrange
+    ScaledRational a = new ScaledRational(3, 2);
+    ScaledRational b = new ScaledRational(1, 2);
+
+    // Act and Assert
+    assertEquals(2, a.times(b, RoundingMode.HALF_UP).getUnits());
+    assertEquals(1, a.times(b, RoundingMode.HALF_DOWN).getUnits());
+    assertEquals(2, a.times(b).getUnits());
+    assertEquals(
+      1,
+      new ScaledRational(1, 2).times(new ScaledRational(2, 2)).getUnits()
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> a.times(b, RoundingMode.UNNECESSARY)
+    );
+  }
+
+  /**
+   * Tests plus, minus, integer multiplication and opposite on values sharing a scale,
+   * and that mixing scales is rejected.
+   */
+  @Test
+  void testArithmetic() {
+    // Arrange
+    ScaledRational a = new ScaledRational(15000, 10000);
+    ScaledRational b = new ScaledRational(2500, 10000);
+
+    // Act and Assert
+    assertEquals(17500, a.plus(b).getUnits());
+    assertEquals(12500, a.minus(b).getUnits());
+    assertEquals(3750, a.times(b).getUnits());
+    assertEquals(45000, a.times(3).getUnits());
+    assertEquals(-15000, a.opposite().getUnits());
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> a.plus(new ScaledRational(1, 256))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new ScaledRational(Long.MAX_VALUE, 1).plus(new ScaledRational(1, 1))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new ScaledRational(Long.MAX_VALUE, 1).times(2)
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new ScaledRational(Long.MIN_VALUE, 1).minus(new ScaledRational(1, 1))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new ScaledRational(Long.MIN_VALUE, 1).opposite()
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new ScaledRational(Long.MAX_VALUE, 1).times(new ScaledRational(2, 1))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new ScaledRational(1L << 40, 1).toRational()
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new ScaledRational(-(1L << 40), 1).toRational()
+    );
+    assertThrows(IllegalArgumentException.class, () -> new ScaledRational(1, 0));
+  }
+
+  /**
+   * Tests {@link ScaledRational#divide(long, long, RoundingMode)} on negative remainders and on
+   * quotients below, above and exactly at the halfway point.
+   */
+  @Test
+  void testDivideRounding() {
+    // Act and Assert
+    assertEquals(-3, ScaledRational.divide(-7, 2, RoundingMode.CEILING));
+    assertEquals(-4, ScaledRational.divide(-7, 2, RoundingMode.FLOOR));
+    assertEquals(2, ScaledRational.divide(5, 3, RoundingMode.HALF_DOWN));
+    assertEquals(1, ScaledRational.divide(4, 3, RoundingMode.HALF_UP));
+    assertEquals(2, ScaledRational.divide(3, 2, RoundingMode.HALF_EVEN));
+    assertEquals(2, ScaledRational.divide(5, 2, RoundingMode.HALF_EVEN));
+    assertEquals(-2, ScaledRational.divide(-5, 2, RoundingMode.HALF_EVEN));
+  }
+
+  /**
+   * Tests products of unit counts beyond 2^63 whose rescaled result fits in a long against BigDecimal
+   * arithmetic in every rounding mode, and that results beyond the long range still overflow.
+   */
+  @Test
+  void testProductsBeyondLongs() {
+    // Arrange
+    Random random = new Random(30);
+    RoundingMode[] modes = {
+      RoundingMode.UP,
+      RoundingMode.DOWN,
+      RoundingMode.CEILING,
+      RoundingMode.FLOOR,
+      RoundingMode.HALF_UP,
+      RoundingMode.HALF_DOWN,
+      RoundingMode.HALF_EVEN,
+    };
+    int n = 2000;
+    long[] a = new long[n];
+    long[] b = new long[n];
+    int[] scales = new int[n];
+    for (int i = 0; i < n; i++) {
+      scales[i] = i % 5 == 0 ? Integer.MAX_VALUE : random.nextInt(Integer.MAX_VALUE) + 1;
+      a[i] = random.nextLong() >> random.nextInt(20);
+      b[i] = random.nextLong() >> 33 + random.nextInt(20);
+    }
+    a[0] = Long.MIN_VALUE;
+    b[0] = 1;
+
+    // Act and Assert
+    for (int i = 0; i < n; i++) {
+      for (RoundingMode mode : modes) {
+        BigDecimal exact = new BigDecimal(BigInteger.valueOf(a[i]).multiply(BigInteger.valueOf(b[i])))
+          .divide(BigDecimal.valueOf(scales[i]), 0, mode);
+        ScaledRational x = new ScaledRational(a[i], scales[i]);
+        ScaledRational y = new ScaledRational(b[i], scales[i]);
+        if (exact.toBigIntegerExact().bitLength() < 64) {
+          assertEquals(exact.longValueExact(), x.times(y, mode).getUnits());
+        } else {
+          assertThrows(IllegalArgumentException.class, () -> x.times(y, mode));
+        }
+      }
+    }
+    assertEquals(
+      -(1L << 62),
+      new ScaledRational(Long.MIN_VALUE, 4).times(new ScaledRational(2, 4)).getUnits()
+    );
+    assertEquals(
+      Long.MIN_VALUE,
+      new ScaledRational(Long.MIN_VALUE, 2).times(new ScaledRational(2, 2)).getUnits()
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new ScaledRational(Long.MIN_VALUE, 2).times(new ScaledRational(-2, 2))
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new ScaledRational(Long.MIN_VALUE, 2).times(new ScaledRational(3, 2), RoundingMode.FLOOR)
+    );
+  }
+
+  /**
+   * Tests comparison, equality and hashing across different scales.
+   */
+  @Test
+  void testCompareAndEquals() {
+    // Arrange
+    ScaledRational half = new ScaledRational(128, 256);
+    ScaledRational alsoHalf = new ScaledRational(5000, 10000);
+    ScaledRational third = new ScaledRational(3333, 10000);
+
+    // Act and Assert
+    assertEquals(0, half.compareTo(alsoHalf));
+    assertEquals(half, half);
+    assertEquals(half, alsoHalf);
+    assertEquals(half.hashCode(), alsoHalf.hashCode());
+    assertTrue(third.compareTo(half) < 0);
+    assertTrue(alsoHalf.compareTo(third) > 0);
+    assertNotEquals(half, third);
+    assertNotEquals(half, new Rational(1, 2));
+    assertEquals(0.5, half.doubleValue());
+    assertEquals(0.5f, half.floatValue());
+    assertEquals(0, half.intValue());
+    assertEquals(1, new ScaledRational(300, 256).longValue());
+  }
+
+  /**
+   * Tests the column operations on enough elements to run in parallel, and the
+   * conversions between numerator/denominator columns and units.
+   */
+  @Test
+  void testColumnOperations() {
+    // Arrange
+    int n = Fractions.PARALLEL_THRESHOLD + 3;
+    long[] a = new long[n];
+    long[] b = new long[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = i * 3L;
+      b[i] = 256 - i;
+    }
+    long[] sum = new long[n];
+    long[] difference = new long[n];
+    long[] product = new long[n];
+
+    // Act
+    ScaledRational.add(a, b, sum);
+    ScaledRational.subtract(a, b, difference);
+    ScaledRational.multiply(a, b, 256, RoundingMode.FLOOR, product);
+
+    // Assert
+    for (int i = 0; i < n; i++) {
+      assertEquals(a[i] + b[i], sum[i]);
+      assertEquals(a[i] - b[i], difference[i]);
+      assertEquals(Math.floorDiv(a[i] * b[i], 256), product[i]);
+    }
+    assertEquals(3L * n * (n - 1) / 2, ScaledRational.sum(a));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> ScaledRational.add(a, new long[1], sum)
+    );
+  }
+
+  /**
+   * Tests {@link ScaledRational#fromColumns(int[], int[], int, long[])} and
+   * {@link ScaledRational#toColumns(long[], int, int[], int[])}.
+   */
+  @Test
+  void testColumnConversions() {
+    // Arrange
+    int[] numerators = { 1, -3, 5, 0 };
+    int[] denominators = { 2, 4, -8, 7 };
+    long[] units = new long[4];
+    int[] backNumerators = new int[4];
+    int[] backDenominators = new int[4];
+
+    // Act
+    ScaledRational.fromColumns(numerators, denominators, 56, units);
+    ScaledRational.toColumns(units, 56, backNumerators, backDenominators);
+
+    // Assert
+    assertArrayEquals(new long[] { 28, -42, -35, 0 }, units);
+    assertArrayEquals(new int[] { 1, -3, -5, 0 }, backNumerators);
+    assertArrayEquals(new int[] { 2, 4, 8, 1 }, backDenominators);
+    assertThrows(
+      IllegalArgumentException.class,
+      () ->
+        ScaledRational.fromColumns(
+          new int[] { 1 },
+          new int[] { 3 },
+          56,
+          new long[1]
+        )
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () ->
+        ScaledRational.toColumns(
+          new long[] { Long.MAX_VALUE },
+          2,
+          new int[1],
+          new int[1]
+        )
+    );
+  }
+}
@@ -0,0 +1,172 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class SparseRationalMatrixTest {
+
+  /**
+   * Tests building from unordered triplets with duplicates, lookups and the transpose.
+   */
+  @Test
+  void testTripletsAndTranspose() {
+    // Act
+    SparseRationalMatrix m = SparseRationalMatrix.of(
+      3,
+      4,
+      new int[] { 2, 0, 2, 0, 1 },
+      new int[] { 1, 3, 1, 0, 2 },
+      new int[] { 1, 5, 1, 1, -1 },
+      new int[] { 2, 1, 3, -2, 1 }
+    );
+    SparseRationalMatrix t = m.transpose();
+
+    // Assert
+    assertEquals(4, m.getNonZeros());
+    assertEquals(new Rational(-1, 2), m.get(0, 0));
+    assertEquals(new Rational(5, 6), m.get(2, 1));
+    assertEquals(new Rational(0), m.get(1, 1));
+    assertEquals("SparseRationalVector[4]{0=-1/2, 3=5}", m.getRow(0).toString());
+    assertEquals(4, t.getRows());
+    assertEquals(new Rational(5, 6), t.get(1, 2));
+    assertEquals("SparseRationalVector[3]{0=5}", t.getRow(3).toString());
+    assertEquals(m.toString(), t.transpose().toString());
+    assertArrayEquals(m.toArray(), t.transpose().toArray());
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalMatrix.of(1, 1, new int[] { 1 }, new int[] { 0 }, new int[] { 1 }, new int[] { 1 })
+    );
+    assertThrows(IndexOutOfBoundsException.class, () -> m.get(3, 0));
+  }
+
+  /**
+   * Tests sparse times dense, sparse times sparse vector and sparse times sparse matrix against
+   * dense BigRational arithmetic, on matrices large enough to be split into parallel row ranges.
+   */
+  @Test
+  void testProductsMatchDense() {
+    // Arrange
+    Random random = new Random(39);
+    Rational[][] a = randomSparse(random, 3000, 40, 0.1);
+    Rational[][] b = randomSparse(random, 40, 30, 0.2);
+    Rational[] x = randomSparse(random, 1, 40, 0.5)[0];
+    SparseRationalMatrix sa = SparseRationalMatrix.of(a);
+    SparseRationalMatrix sb = SparseRationalMatrix.of(b);
+
+    // Act
+    Rational[] ax = sa.times(x);
+    SparseRationalVector sax = sa.times(SparseRationalVector.of(x));
+    Rational[][] ab = sa.times(sb).toArray();
+
+    // Assert
+    for (int i = 0; i < a.length; i++) {
+      assertEquals(BigRational.valueOf(ax[i]), dot(a[i], x));
+      assertEquals(ax[i], sax.get(i));
+      for (int j = 0; j < b[0].length; j++) {
+        Rational[] column = new Rational[b.length];
+        for (int k = 0; k < b.length; k++) {
+          column[k] = b[k][j];
+        }
+        assertEquals(dot(a[i], column), BigRational.valueOf(ab[i][j]));
+      }
+    }
+    assertThrows(IllegalArgumentException.class, () -> sb.times(sb));
+  }
+
+  /**
+   * Tests products of a matrix small enough to run in a single row range, and that malformed
+   * input, mismatched dimensions and out-of-range lookups are rejected.
+   */
+  @Test
+  void testSmallProductsAndValidation() {
+    // Arrange
+    SparseRationalMatrix m = SparseRationalMatrix.of(
+      2,
+      3,
+      new int[] { 0, 1, 1 },
+      new int[] { 2, 0, 0 },
+      new int[] { 1, 1, 1 },
+      new int[] { 2, 3, -6 }
+    );
+    SparseRationalMatrix empty = SparseRationalMatrix.of(new Rational[0][]);
+    int[] ones = { 1, 1, 1 };
+
+    // Act
+    Rational[] product = m.times(new Rational[] { new Rational(1), new Rational(5), new Rational(4) });
+    SparseRationalMatrix square = m.times(m.transpose());
+
+    // Assert
+    assertEquals(3, m.getColumns());
+    assertEquals(new Rational(1, 6), m.get(1, 0));
+    assertArrayEquals(new Rational[] { new Rational(2), new Rational(1, 6) }, product);
+    assertEquals("SparseRationalMatrix[2x2, 2 non-zeros]", square.toString());
+    assertEquals(new Rational(1, 36), square.get(1, 1));
+    assertEquals(0, empty.getRows());
+    assertEquals(0, empty.getColumns());
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalMatrix.of(new Rational[][] { { new Rational(1) }, {} })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalMatrix.of(1, 1, new int[0], new int[] { 0 }, new int[] { 1 }, new int[] { 1 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalMatrix.of(1, 1, new int[] { 0 }, new int[0], new int[] { 1 }, new int[] { 1 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalMatrix.of(-1, 1, new int[0], new int[0], new int[0], new int[0])
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalMatrix.of(1, -1, new int[0], new int[0], new int[0], new int[0])
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalMatrix.of(1, 1, new int[] { -1 }, new int[] { 0 }, new int[] { 1 }, new int[] { 1 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalMatrix.of(1, 1, new int[] { 0 }, new int[] { -1 }, new int[] { 1 }, new int[] { 1 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalMatrix.of(1, 1, new int[] { 0 }, new int[] { 1 }, new int[] { 1 }, new int[] { 1 })
+    );
+    assertThrows(IllegalArgumentException.class, () -> m.times(new int[2], new int[2], new int[2], new int[2]));
+    assertThrows(IllegalArgumentException.class, () -> m.times(ones, ones, new int[1], new int[2]));
+    assertThrows(IllegalArgumentException.class, () -> m.times(ones, ones, new int[2], new int[1]));
+    assertThrows(IllegalArgumentException.class, () -> m.times(SparseRationalVector.of(new Rational(1))));
+    assertThrows(IndexOutOfBoundsException.class, () -> m.get(-1, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> m.get(0, -1));
+    assertThrows(IndexOutOfBoundsException.class, () -> m.get(0, 3));
+    assertThrows(IndexOutOfBoundsException.class, () -> m.getRow(-1));
+    assertThrows(IndexOutOfBoundsException.class, () -> m.getRow(2));
+  }
+
+  private static BigRational dot(Rational[] u, Rational[] v) {
+    BigRational sum = BigRational.ZERO;
+    for (int k = 0; k < u.length; k++) {
+      sum = sum.plus(BigRational.valueOf(u[k]).times(BigRational.valueOf(v[k])));
+    }
+    return sum;
+  }
+
+  private static Rational[][] randomSparse(Random random, int rows, int columns, double density) {
+    Rational[][] matrix = new Rational[rows][columns];
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        matrix[i][j] = random.nextDouble() < density
+          ? new Rational(random.nextInt(19) - 9, random.nextInt(6) + 1)
+          : new Rational(0);
+      }
+    }
+    return matrix;
+  }
+}
@@ -0,0 +1,128 @@
+package numbers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class SparseRationalVectorTest {
+
+  /**
+   * Tests that zeros are dropped, entries are normalized, and sums, scaling and dot products only
+   * combine stored entries.
+   */
+  @Test
+  void testArithmetic() {
+    // Arrange
+    SparseRationalVector u = SparseRationalVector.of(
+      new Rational(1, 2),
+      new Rational(0),
+      new Rational(2, -4),
+      new Rational(0),
+      new Rational(3)
+    );
+    SparseRationalVector v = SparseRationalVector.of(
+      5,
+      new int[] { 0, 2, 3 },
+      new int[] { 1, 1, 7 },
+      new int[] { 3, 2, 8 }
+    );
+
+    // Act
+    SparseRationalVector sum = u.plus(v);
+    SparseRationalVector scaled = u.times(new Rational(-2, 3));
+
+    // Assert
+    assertEquals(3, u.getNonZeros());
+    assertEquals(new Rational(-1, 2), u.get(2));
+    assertEquals(new Rational(0), u.get(1));
+    assertEquals(3, sum.getNonZeros());
+    assertEquals("SparseRationalVector[5]{0=5/6, 3=7/8, 4=3}", sum.toString());
+    assertEquals("SparseRationalVector[5]{0=-1/3, 2=1/3, 4=-2}", scaled.toString());
+    assertEquals(0, u.times(new Rational(0)).getNonZeros());
+    assertEquals(new Rational(-1, 12), u.dot(v));
+    assertArrayEquals(
+      new Rational[] { new Rational(1, 3), new Rational(0), new Rational(1, 2), new Rational(7, 8), new Rational(0) },
+      v.toArray()
+    );
+  }
+
+  /**
+   * Tests that invalid input and results that do not fit in an int are rejected.
+   */
+  @Test
+  void testInvalidAndOverflow() {
+    // Arrange
+    SparseRationalVector big = SparseRationalVector.of(new Rational(Integer.MAX_VALUE), new Rational(1));
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> big.plus(big));
+    assertThrows(IllegalArgumentException.class, () -> big.dot(big));
+    assertThrows(IllegalArgumentException.class, () -> big.plus(SparseRationalVector.of(new Rational(1))));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalVector.of(3, new int[] { 1, 1 }, new int[] { 1, 1 }, new int[] { 1, 1 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalVector.of(3, new int[] { 0 }, new int[] { 1 }, new int[] { 0 })
+    );
+    assertThrows(IndexOutOfBoundsException.class, () -> big.get(2));
+  }
+
+  /**
+   * Tests merging entries that interleave in either order, scaling by values held with either sign of denominator, and that
+   * every malformed index list and out-of-range lookup is rejected.
+   */
+  @Test
+  void testMergingAndValidation() {
+    // Arrange
+    SparseRationalVector outer = SparseRationalVector.of(
+      5,
+      new int[] { 0, 4 },
+      new int[] { 1, 1 },
+      new int[] { 2, 1 }
+    );
+    SparseRationalVector inner = SparseRationalVector.of(
+      5,
+      new int[] { 2, 3 },
+      new int[] { 1, 1 },
+      new int[] { 1, 3 }
+    );
+
+    // Act
+    SparseRationalVector left = outer.plus(inner);
+    SparseRationalVector right = inner.plus(outer);
+
+    // Assert
+    assertEquals("SparseRationalVector[5]{0=1/2, 2=1, 3=1/3, 4=1}", left.toString());
+    assertEquals(left.toString(), right.toString());
+    assertEquals(new Rational(0), outer.dot(inner));
+    assertEquals(new Rational(0), inner.dot(outer));
+    assertEquals("SparseRationalVector[5]{0=3/4, 4=3/2}", outer.times(new Rational(3, 2)).toString());
+    // -3/2 is held with a negative denominator.
+    assertEquals("SparseRationalVector[5]{0=-3/4, 4=-3/2}", outer.times(new Rational(-3, 2)).toString());
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalVector.of(3, new int[] { 0 }, new int[] { 1, 1 }, new int[] { 1, 1 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalVector.of(-1, new int[0], new int[0], new int[0])
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalVector.of(3, new int[] { -1 }, new int[] { 1 }, new int[] { 1 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> SparseRationalVector.of(3, new int[] { 3 }, new int[] { 1 }, new int[] { 1 })
+    );
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> new SparseRationalVector.Entries(0).add(0, 1, 0)
+    );
+    assertThrows(IndexOutOfBoundsException.class, () -> outer.get(-1));
+  }
+}